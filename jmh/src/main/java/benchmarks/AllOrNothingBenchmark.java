@@ -0,0 +1,69 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import requests.ATradeRequest;
+import requests.AllOrNothingTradeRequest;
+import requests.ValidUntilNthRoundTradeRequest;
+import stocks.Stock;
+import stocks.StockManagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AllOrNothingTradeRequest#considerTrade} of a buy request against the given number of sell requests,
+ * half of them within its price limit, a tenth of them all-or-nothing.
+ * The quantity of the buy request is just out of reach, so the whole list is always summed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AllOrNothingBenchmark {
+    @Param({"10", "100", "1000"})
+    public int otherRequests;
+
+    private AllOrNothingTradeRequest request;
+    private List<ATradeRequest> sellRequests;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkScenarios.SEED);
+        Stock stock = new StockManagement(Map.of("A", 100)).getStock("A");
+        sellRequests = new ArrayList<>();
+        int reachable = 0;
+        for (int i = 0; i < otherRequests; i++) {
+            int quantity = 1 + random.nextInt(10);
+            boolean withinLimit = i % 2 == 0;
+            int limit = withinLimit ? 100 : 110;
+            ATradeRequest sell = random.nextInt(10) == 0 && i > 0
+                    ? new AllOrNothingTradeRequest(null, stock, quantity, limit, ATradeRequest.TradeType.SELL, i)
+                    : new ValidUntilNthRoundTradeRequest(null, stock, quantity, limit, ATradeRequest.TradeType.SELL, 10, i);
+            if (withinLimit && !(sell instanceof AllOrNothingTradeRequest)) {
+                reachable += quantity;
+            }
+            sellRequests.add(sell);
+        }
+        request = new AllOrNothingTradeRequest(null, stock, reachable + 1, 105, ATradeRequest.TradeType.BUY, otherRequests);
+    }
+
+    @Benchmark
+    public boolean considerTrade() {
+        return request.considerTrade(sellRequests);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import utilities.EventLogging;
+import utilities.Parser;
+import utilities.ScenarioGenerator;
+
+/**
+ * Scenarios shared by the benchmarks, generated in memory so that any size can be set up quickly.
+ */
+final class BenchmarkScenarios {
+    static final long SEED = 42;
+
+    private BenchmarkScenarios() {
+    }
+
+    /**
+     * Creates a scenario with the given numbers of stocks and investors, split evenly between random and SMA investors,
+     * each holding plenty of cash and of every stock, so that requests are rarely cancelled for lack of funds.
+     *
+     * @param stocks    the number of stocks, named like {@link ScenarioGenerator#identifier(int)}
+     * @param investors the number of investors
+     * @return the parser of the scenario
+     */
+    static Parser scenario(int stocks, int investors) {
+        return new ScenarioGenerator()
+                .investors('R', investors - investors / 2)
+                .investors('S', investors / 2)
+                .stocks(stocks)
+                .prices(100, 110, ScenarioGenerator.Distribution.UNIFORM)
+                .cash(1_000_000_000, 1_000_000_000, ScenarioGenerator.Distribution.UNIFORM)
+                .sparsity(0)
+                .maxQuantity(1_000_000)
+                .seed(SEED)
+                .generate();
+    }
+
+    /**
+     * Creates a simulation of the given scenario with the benchmark seed and logging disabled.
+     *
+     * @param parser      the parser of the scenario
+     * @param totalRounds the total number of rounds
+     * @return the simulation
+     */
+    static StockExchangeSimulation simulation(Parser parser, int totalRounds) {
+        EventLogging.setLoggingEnabled(false);
+        SimulationContext context = new SimulationContext(SEED);
+        context.setLoggingEnabled(false);
+        return new StockExchangeSimulation(totalRounds, parser, context);
+    }
+}
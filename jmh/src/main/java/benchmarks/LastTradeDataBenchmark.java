@@ -0,0 +1,77 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.LastTradeData;
+import stocks.Stock;
+import stocks.StockManagement;
+import utilities.ScenarioGenerator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SMAs of {@link LastTradeData} with full price histories of the given number of stocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LastTradeDataBenchmark {
+    @Param({"1", "10", "100"})
+    public int stocks;
+
+    private LastTradeData lastTradeData;
+    private List<Stock> stockList;
+    private Random random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        random = new Random(BenchmarkScenarios.SEED);
+        Map<String, Integer> prices = new HashMap<>();
+        for (int stock = 0; stock < stocks; stock++) {
+            prices.put(ScenarioGenerator.identifier(stock), 100);
+        }
+        stockList = new StockManagement(prices).getStocks();
+        lastTradeData = new LastTradeData();
+        for (Stock stock : stockList) {
+            lastTradeData.addRepeatedTradeData(stock, 100, 5);
+            for (int i = 0; i < 5; i++) {
+                lastTradeData.addTradeData(stock, 90 + random.nextInt(20));
+            }
+        }
+    }
+
+    /**
+     * The SMA10 of one stock, going round the stocks.
+     */
+    @Benchmark
+    public double getSMA() {
+        next = next + 1 == stockList.size() ? 0 : next + 1;
+        return lastTradeData.getSMA(stockList.get(next), 10);
+    }
+
+    /**
+     * The end-of-round update of the SMA5 and SMA10 of all stocks.
+     */
+    @Benchmark
+    public LastTradeData updateSMA() {
+        lastTradeData.updateSMA();
+        return lastTradeData;
+    }
+}
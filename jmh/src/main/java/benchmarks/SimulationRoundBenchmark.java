@@ -0,0 +1,55 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import simulation.StockExchangeSimulation;
+import utilities.Parser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full round of a {@link StockExchangeSimulation}: decisions, adding requests, matching, expiry and the SMA update.
+ * Every iteration restarts the simulation, so the book doesn't grow without bound.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationRoundBenchmark {
+    @Param({"10"})
+    public int stocks;
+    @Param({"1000", "100000"})
+    public int investors;
+
+    private Parser parser;
+    private StockExchangeSimulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUpScenario() {
+        parser = BenchmarkScenarios.scenario(stocks, investors);
+        simulation = BenchmarkScenarios.simulation(parser, Integer.MAX_VALUE);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetSimulation() {
+        simulation.reset(parser, BenchmarkScenarios.SEED);
+    }
+
+    @Benchmark
+    public StockExchangeSimulation round() {
+        simulation.run(simulation.getRound() + 1);
+        return simulation;
+    }
+}
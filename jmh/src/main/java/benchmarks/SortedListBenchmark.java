@@ -0,0 +1,79 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.SortedList;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding to and removing from a {@link SortedList} of the given size, which stays the same during the benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortedListBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    private SortedList<Integer> list;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        random = new Random(BenchmarkScenarios.SEED);
+        list = new SortedList<>(Comparator.<Integer>naturalOrder());
+        for (int i = 0; i < size; i++) {
+            list.add(random.nextInt(1000));
+        }
+    }
+
+    /**
+     * Adds a random element, then drops the last one in constant time to keep the size.
+     */
+    @Benchmark
+    public SortedList<Integer> add() {
+        list.add(random.nextInt(1000));
+        List<Integer> elements = list.getList();
+        elements.remove(elements.size() - 1);
+        return list;
+    }
+
+    /**
+     * Removes a random element by value, then puts it back where it was to keep the size.
+     */
+    @Benchmark
+    public SortedList<Integer> removeElement() {
+        int index = random.nextInt(size);
+        Integer element = list.get(index);
+        list.remove(element);
+        list.getList().add(index, element);
+        return list;
+    }
+
+    /**
+     * Removes the first element, as matching does, then puts it back to keep the size.
+     */
+    @Benchmark
+    public SortedList<Integer> removeFirst() {
+        Integer element = list.get(0);
+        list.remove(0);
+        list.getList().add(0, element);
+        return list;
+    }
+}
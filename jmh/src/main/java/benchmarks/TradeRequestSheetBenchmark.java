@@ -0,0 +1,111 @@
+package benchmarks;
+
+import investors.InvestorManagement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import requests.ATradeRequest;
+import requests.RequestType;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import stocks.TradeRequestSheet;
+import utilities.Parser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching and expiry of one round, {@link TradeRequestSheet#realiseSubmittedTrades}, on a freshly filled book.
+ * Every stock gets the given number of buy and sell requests. Buy limits are below all sell limits,
+ * except for the given share of buys, which cross into the sell side.
+ * The requests are of one type, or of all four in equal shares for MIXED.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TradeRequestSheetBenchmark {
+    private static final int STOCKS = 4;
+    private static final int INVESTORS = 1000;
+    private static final int PRICE_SPREAD = 10;
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+    @Param({"0.0", "0.1", "0.5"})
+    public double crossRatio;
+    @Param({"VALID_UNTIL", "MIXED"})
+    public String typeMix;
+
+    private Parser parser;
+    private StockExchangeSimulation simulation;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUpScenario() {
+        parser = BenchmarkScenarios.scenario(STOCKS, INVESTORS);
+        simulation = BenchmarkScenarios.simulation(parser, Integer.MAX_VALUE);
+        random = new Random(BenchmarkScenarios.SEED);
+    }
+
+    /**
+     * Starts each iteration from the initial balances and portfolios.
+     */
+    @Setup(Level.Iteration)
+    public void resetSimulation() {
+        simulation.reset(parser, BenchmarkScenarios.SEED);
+    }
+
+    /**
+     * Empties the book and fills it again with new requests, as they're changed by matching.
+     */
+    @Setup(Level.Invocation)
+    public void fillBook() {
+        TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+        List<Stock> stocks = simulation.getStockManagement().getStocks();
+        sheet.reset(stocks);
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        SimulationContext context = simulation.getContext();
+        // stop orders would wait in the trigger book instead of the book being matched
+        RequestType[] types = Arrays.stream(RequestType.values()).filter(type -> !type.hasStopPrice()).toArray(RequestType[]::new);
+        int round = simulation.getRound();
+        for (Stock stock : stocks) {
+            int price = stock.getLastPrice();
+            for (int i = 0; i < 2 * depth; i++) {
+                boolean buy = i % 2 == 0;
+                int limit;
+                if (!buy) {
+                    limit = price + 1 + random.nextInt(PRICE_SPREAD);
+                } else if (random.nextDouble() < crossRatio) {
+                    limit = price + 1 + random.nextInt(PRICE_SPREAD);
+                } else {
+                    limit = price - random.nextInt(PRICE_SPREAD);
+                }
+                RequestType type = typeMix.equals("MIXED") ? types[random.nextInt(types.length)] : RequestType.valueOf(typeMix);
+                sheet.addRequest(type.create(context, investorManagement.getInvestor(random.nextInt(INVESTORS)), stock,
+                        1 + random.nextInt(10), limit, buy ? ATradeRequest.TradeType.BUY : ATradeRequest.TradeType.SELL,
+                        round + random.nextInt(5)));
+            }
+        }
+    }
+
+    @Benchmark
+    public TradeRequestSheet realiseSubmittedTrades() {
+        TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+        sheet.realiseSubmittedTrades(simulation);
+        return sheet;
+    }
+}
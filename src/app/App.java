@@ -1,16 +1,60 @@
 package app;
 
+import simulation.OrderFlowReader;
+import simulation.OrderFlowReplay;
+import simulation.OrderFlowWriter;
+import simulation.SimulationContext;
 import simulation.StockExchangeSimulation;
 import utilities.EventLogging;
 import utilities.Parser;
 
+import javax.management.JMException;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 public class App {
+    /**
+     * System property which, set to true, registers the metrics of the simulation over JMX.
+     */
+    private static final String JMX_PROPERTY = "gpwsim.jmx";
+    /**
+     * System property choosing the format of the final report.
+     */
+    private static final String REPORT_FORMAT_PROPERTY = "gpwsim.reportFormat";
+    /**
+     * System property which, set to true, profiles the allocations and garbage collections of the simulation
+     * and prints the metrics after the final report.
+     */
+    private static final String ALLOCATION_PROFILE_PROPERTY = "gpwsim.allocationProfile";
+    /**
+     * Option compiling a scenario file instead of running it: java app.App --compile &lt;scenario&gt; &lt;compiled file&gt;.
+     */
+    private static final String COMPILE_OPTION = "--compile";
+    /**
+     * Option recording the order flow of a run: java app.App --record &lt;scenario&gt; &lt;simulation length&gt; &lt;order flow file&gt;.
+     * Files ending with .jsonl are written as JSON lines, others in the binary format.
+     */
+    private static final String RECORD_OPTION = "--record";
+    /**
+     * Option replaying recorded order flow into a fresh simulation of the scenario and reporting the throughput:
+     * java app.App --replay &lt;scenario&gt; &lt;simulation length&gt; &lt;order flow file&gt;.
+     */
+    private static final String REPLAY_OPTION = "--replay";
+
     public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals(COMPILE_OPTION)) {
+            compileScenario(args[1], args[2]);
+            return;
+        }
+        if (args.length == 4 && (args[0].equals(RECORD_OPTION) || args[0].equals(REPLAY_OPTION))) {
+            recordOrReplayOrderFlow(args[0].equals(RECORD_OPTION), args[1], Integer.parseInt(args[2]), Path.of(args[3]));
+            return;
+        }
         runSimulationFromAFile(args);
         // runExampleSimulations();
     }
@@ -24,10 +68,12 @@ public class App {
         assert args.length == 2 : "java <name> <file path> <simulation length>";
         String filePath = args[0];
         int simulationLength = Integer.parseInt(args[1]);
-        // Create a new Parser instance
-        Parser parser;
+        // Create a new simulation, from a compiled scenario or a new Parser instance
+        StockExchangeSimulation simulation;
         try {
-            parser = new Parser(filePath);
+            simulation = StockExchangeSimulation.isCompiledScenario(Path.of(filePath))
+                    ? StockExchangeSimulation.loadCompiledScenario(Path.of(filePath), simulationLength, new SimulationContext(new Random()))
+                    : new StockExchangeSimulation(simulationLength, new Parser(filePath));
         } catch (IOException e) {
             System.out.println("File opening error: " + e.getMessage());
             System.exit(1);
@@ -38,45 +84,105 @@ public class App {
             return; // to avoid the uninitialized variable warning
         }
 
-        // Create a StockExchangeSimulation instance
-        StockExchangeSimulation simulation = new StockExchangeSimulation(simulationLength, parser);
+        if (Boolean.getBoolean(JMX_PROPERTY)) {
+            // so that the run can be watched with jconsole or any other JMX client
+            try {
+                simulation.getMetrics().registerMBean(filePath);
+            } catch (JMException e) {
+                System.out.println("Metrics not registered over JMX: " + e.getMessage());
+            }
+        }
+
+        boolean profileAllocations = Boolean.getBoolean(ALLOCATION_PROFILE_PROPERTY);
+        if (profileAllocations) {
+            try {
+                simulation.getMetrics().enableAllocationProfiling();
+            } catch (UnsupportedOperationException e) {
+                System.out.println("Allocations not profiled: " + e.getMessage());
+                profileAllocations = false;
+            }
+        }
 
         // Run the simulation
         simulation.run();
 
         // Print the final state after the simulation
         printFinalState(simulation);
+        if (profileAllocations) {
+            System.out.println(simulation.getMetrics());
+        }
     }
 
     /**
-     * Prints the final state of the simulation in a human-readable format.
+     * Compiles a scenario file into the start state of its simulations, see {@link StockExchangeSimulation#compileScenario}.
      *
-     * @param simulation the simulation
+     * @param scenarioPath the path of the scenario file
+     * @param compiledPath the path of the compiled file
      */
-    private static void printFinalState(StockExchangeSimulation simulation) {
-        // Stock prices
-        System.out.println("Stock prices: ");
-        System.out.print("    ");
-        for (var stock : simulation.getStockManagement().getStocks()) {
-            System.out.print(EventLogging.Color.blue(stock.getIdentifier()) + ":"
-                    + EventLogging.Color.green(String.valueOf(stock.getLastPrice())) + " ");
+    private static void compileScenario(String scenarioPath, String compiledPath) {
+        try {
+            StockExchangeSimulation.compileScenario(new Parser(scenarioPath), Path.of(compiledPath));
+        } catch (IOException e) {
+            System.out.println("File opening error: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid file format: " + e.getMessage());
+            System.exit(1);
         }
-        System.out.println();
-        // Investor balances and stocks
-        for (var investor : simulation.getInvestorManagement().getInvestors()) {
-            int netWorth = investor.getStocksPortfolio().keySet().stream()
-                    .mapToInt(stock -> stock.getLastPrice() * investor.getStocksPortfolio().get(stock)).sum()
-                    + investor.getBalance();
-            System.out.println(investor + " has a net worth of " + EventLogging.Color.purple(String.valueOf(netWorth)));
-            System.out.println("with " + EventLogging.Color.green(String.valueOf(investor.getBalance())) + " in cash and the following stocks:");
-            for (var stock : investor.getStocksPortfolio().keySet()) {
-                System.out.println("    " + EventLogging.Color.blue(stock.getIdentifier()) + ":"
-                        + EventLogging.Color.yellow(String.valueOf(investor.getStocksPortfolio().get(stock))));
+    }
+
+    /**
+     * Records the order flow of a quiet run of the scenario, or replays it into a fresh simulation of the scenario
+     * and prints the throughput and round latencies of the matching engine, see {@link OrderFlowReplay}.
+     *
+     * @param record           true to record the order flow, false to replay it
+     * @param scenarioPath     the path of the scenario file
+     * @param simulationLength the number of rounds
+     * @param orderFlowPath    the path of the order flow file
+     */
+    private static void recordOrReplayOrderFlow(boolean record, String scenarioPath, int simulationLength, Path orderFlowPath) {
+        SimulationContext context = new SimulationContext(new Random());
+        context.setLoggingEnabled(false);
+        try {
+            StockExchangeSimulation simulation = new StockExchangeSimulation(simulationLength, new Parser(scenarioPath), context);
+            if (record) {
+                OrderFlowWriter.Format format = orderFlowPath.toString().endsWith(".jsonl")
+                        ? OrderFlowWriter.Format.JSONL : OrderFlowWriter.Format.BINARY;
+                try (OrderFlowWriter writer = new OrderFlowWriter(orderFlowPath, simulation.getStockManagement(), format)) {
+                    simulation.setOrderFlowWriter(writer);
+                    simulation.run();
+                    System.out.println("Recorded " + writer.getNumberOfOrders() + " orders");
+                }
+            } else {
+                try (OrderFlowReader reader = new OrderFlowReader(orderFlowPath)) {
+                    System.out.println(OrderFlowReplay.replay(simulation, reader));
+                }
             }
+        } catch (IOException e) {
+            System.out.println("File opening error: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid file format: " + e.getMessage());
+            System.exit(1);
         }
-        // Calculated net worth of each investor
-
+    }
 
+    /**
+     * Prints the final state of the simulation, in the format given by the {@value #REPORT_FORMAT_PROPERTY} system property
+     * (plain, colored, csv or jsonl), colored by default.
+     *
+     * @param simulation the simulation
+     */
+    private static void printFinalState(StockExchangeSimulation simulation) {
+        ReportWriter.Format format = ReportWriter.Format.valueOf(
+                System.getProperty(REPORT_FORMAT_PROPERTY, "colored").toUpperCase(Locale.ROOT));
+        // the report is written past the print stream, so whatever is buffered in it goes first
+        System.out.flush();
+        try {
+            new ReportWriter(format).write(simulation, Channels.newChannel(System.out));
+        } catch (IOException e) {
+            System.err.println("Report error: " + e.getMessage());
+        }
     }
 
     /**
@@ -0,0 +1,277 @@
+package app;
+
+import investors.AInvestor;
+import investors.InvestorManagement;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import utilities.Parser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Runs many simulations (scenario files x seeds x round counts) concurrently on a bounded thread pool,
+ * and collects a summary of each run into one CSV table.
+ * Every run reads its own scenario (parsing it, or mapping it if it was compiled with
+ * {@link StockExchangeSimulation#compileScenario}) and builds its own simulation and context, so runs don't share any state.
+ */
+public class BatchRunner {
+    static final String CSV_HEADER = "scenario,seed,rounds,investors,trades,traded_volume,"
+            + "net_worth_min,net_worth_p25,net_worth_median,net_worth_p75,net_worth_max,net_worth_mean,"
+            + "wall_time_ms,final_prices,error";
+    private final int threads;
+
+    /**
+     * A single run of the batch.
+     *
+     * @param scenario the scenario file
+     * @param seed     the seed of the random number generator
+     * @param rounds   the number of rounds
+     */
+    public record Job(Path scenario, long seed, int rounds) {
+    }
+
+    /**
+     * Summary of a finished run.
+     *
+     * @param job               the run
+     * @param numberOfInvestors the number of investors
+     * @param numberOfTrades    the number of realised trades
+     * @param tradedVolume      the number of shares traded
+     * @param netWorthQuantiles the minimum, 25th percentile, median, 75th percentile and maximum net worth
+     * @param meanNetWorth      the mean net worth
+     * @param wallTimeNanos     the wall time of the run in nanoseconds, including parsing
+     * @param finalPrices       the final prices as identifier=price pairs separated by semicolons
+     * @param error             the message of the exception that stopped the run, or null if it finished
+     */
+    public record Summary(Job job, int numberOfInvestors, long numberOfTrades, long tradedVolume, long[] netWorthQuantiles,
+                          double meanNetWorth, long wallTimeNanos, String finalPrices, String error) {
+    }
+
+    /**
+     * Creates a new batch runner using the given number of threads.
+     *
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if the number of threads isn't positive
+     */
+    public BatchRunner(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Creates a job for every combination of the given scenarios, seeds and round counts.
+     *
+     * @param scenarios   the scenario files
+     * @param seeds       the seeds
+     * @param roundCounts the round counts
+     * @return the jobs
+     */
+    public static List<Job> combine(List<Path> scenarios, List<Long> seeds, List<Integer> roundCounts) {
+        List<Job> jobs = new ArrayList<>();
+        for (Path scenario : scenarios) {
+            for (long seed : seeds) {
+                for (int rounds : roundCounts) {
+                    jobs.add(new Job(scenario, seed, rounds));
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Runs the given jobs concurrently and waits for all of them.
+     *
+     * @param jobs the jobs
+     * @return the summaries of the runs, in the order of the jobs
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public List<Summary> run(List<Job> jobs) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Summary>> futures = new ArrayList<>();
+            for (Job job : jobs) {
+                futures.add(executor.submit(() -> runJob(job)));
+            }
+            List<Summary> summaries = new ArrayList<>();
+            for (Future<Summary> future : futures) {
+                try {
+                    summaries.add(future.get());
+                } catch (ExecutionException e) {
+                    // runJob catches the exceptions of the simulation, so only errors get here
+                    throw new IllegalStateException("Batch run failed", e.getCause());
+                }
+            }
+            return summaries;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a single job and summarizes it.
+     * A scenario that can't be read or run doesn't stop the batch, the error is recorded in its summary.
+     *
+     * @param job the job
+     * @return the summary of the run
+     */
+    private static Summary runJob(Job job) {
+        long start = System.nanoTime();
+        try {
+            SimulationContext context = new SimulationContext(job.seed());
+            // printing every trade would serialize the threads
+            context.setLoggingEnabled(false);
+            // compiled scenarios are mapped instead of parsed, which matters when the same big scenario is run many times
+            StockExchangeSimulation simulation = StockExchangeSimulation.isCompiledScenario(job.scenario())
+                    ? StockExchangeSimulation.loadCompiledScenario(job.scenario(), job.rounds(), context)
+                    : new StockExchangeSimulation(job.rounds(), new Parser(job.scenario()), context);
+            simulation.run();
+            return summarize(job, simulation, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            return new Summary(job, 0, 0, 0, new long[5], 0, System.nanoTime() - start, "", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Summarizes a finished simulation.
+     *
+     * @param job           the job of the simulation
+     * @param simulation    the finished simulation
+     * @param wallTimeNanos the wall time of the run in nanoseconds
+     * @return the summary
+     */
+    static Summary summarize(Job job, StockExchangeSimulation simulation, long wallTimeNanos) {
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        List<AInvestor> investors = investorManagement.getInvestors();
+        long[] netWorths = new long[investors.size()];
+        double sum = 0;
+        for (int i = 0; i < netWorths.length; i++) {
+            netWorths[i] = investorManagement.getNetWorth(investors.get(i));
+            sum += netWorths[i];
+        }
+        Arrays.sort(netWorths);
+        long[] quantiles = new long[5];
+        if (netWorths.length > 0) {
+            for (int i = 0; i < quantiles.length; i++) {
+                // nearest rank quantiles: 0, 0.25, 0.5, 0.75, 1
+                quantiles[i] = netWorths[(int) Math.round(i * (netWorths.length - 1) / 4.0)];
+            }
+        }
+        StringBuilder finalPrices = new StringBuilder();
+        for (Stock stock : simulation.getStockManagement().getStocks()) {
+            if (!finalPrices.isEmpty()) {
+                finalPrices.append(';');
+            }
+            finalPrices.append(stock.getIdentifier()).append('=').append(stock.getLastPrice());
+        }
+        return new Summary(job, investors.size(), simulation.getTradeRequestSheet().getNumberOfTrades(),
+                simulation.getTradeRequestSheet().getTradedVolume(), quantiles,
+                netWorths.length == 0 ? 0 : sum / netWorths.length, wallTimeNanos, finalPrices.toString(), null);
+    }
+
+    /**
+     * Writes the summaries as a CSV table with a header row.
+     *
+     * @param summaries the summaries
+     * @param path      the path of the CSV file
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeCsv(List<Summary> summaries, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for (Summary summary : summaries) {
+                writer.write(toCsvRow(summary));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Formats the summary as a CSV row.
+     *
+     * @param summary the summary
+     * @return the CSV row
+     */
+    static String toCsvRow(Summary summary) {
+        StringBuilder row = new StringBuilder();
+        row.append(quote(summary.job().scenario().toString())).append(',')
+                .append(summary.job().seed()).append(',')
+                .append(summary.job().rounds()).append(',')
+                .append(summary.numberOfInvestors()).append(',')
+                .append(summary.numberOfTrades()).append(',')
+                .append(summary.tradedVolume()).append(',');
+        for (long quantile : summary.netWorthQuantiles()) {
+            row.append(quantile).append(',');
+        }
+        row.append(String.format(Locale.ROOT, "%.2f", summary.meanNetWorth())).append(',')
+                .append(summary.wallTimeNanos() / 1_000_000).append(',')
+                .append(quote(summary.finalPrices())).append(',')
+                .append(summary.error() == null ? "" : quote(summary.error()));
+        return row.toString();
+    }
+
+    /**
+     * Quotes the given CSV field, doubling the quotes inside it.
+     *
+     * @param field the field
+     * @return the quoted field
+     */
+    static String quote(String field) {
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Runs a batch from the command line.
+     * Directories among the scenarios are expanded to the regular files inside them.
+     *
+     * @param args the output CSV file, the number of threads, comma separated seeds,
+     *             comma separated round counts and the scenario files or directories
+     */
+    public static void main(String[] args) {
+        if (args.length < 5) {
+            System.out.println("java app.BatchRunner <output csv> <threads> <seeds> <rounds> <scenario>...");
+            System.exit(1);
+        }
+        try {
+            List<Path> scenarios = new ArrayList<>();
+            for (int i = 4; i < args.length; i++) {
+                Path path = Path.of(args[i]);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> files = Files.walk(path)) {
+                        files.filter(Files::isRegularFile).sorted().forEach(scenarios::add);
+                    }
+                } else {
+                    scenarios.add(path);
+                }
+            }
+            List<Long> seeds = Arrays.stream(args[2].split(",")).map(Long::parseLong).toList();
+            List<Integer> roundCounts = Arrays.stream(args[3].split(",")).map(Integer::parseInt).toList();
+            List<Summary> summaries = new BatchRunner(Integer.parseInt(args[1])).run(combine(scenarios, seeds, roundCounts));
+            writeCsv(summaries, Path.of(args[0]));
+            System.out.println("Wrote " + summaries.size() + " runs to " + args[0]);
+        } catch (IOException e) {
+            System.out.println("File error: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package app;
+
+import simulation.SimulationContext;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import utilities.Parser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Monte Carlo sweep over the {@link SimulationParameters} of a scenario.
+ * Configurations are generated as a grid or as random samples, each is run with every seed on a bounded thread pool,
+ * and a CSV row is written for every run as soon as it finishes, so results of a long sweep are on disk as it goes.
+ * The scenario is parsed once and shared by all runs, which only read it,
+ * and every thread keeps one simulation that it resets for each of its runs, so runs allocate very little.
+ */
+public class ParameterSweep {
+    private static final List<String> PARAMETER_NAMES = List.of(SimulationParameters.SMA_DIFFERENCE, SimulationParameters.SIGNAL_LENGTH,
+            SimulationParameters.SMA_WARM_UP_ROUNDS, SimulationParameters.MAX_TRADE_VALIDITY, SimulationParameters.MAX_PRICE_CHANGE,
+            SimulationParameters.INITIAL_CASH, SimulationParameters.DECISION_INTERVAL);
+    private final Path scenario;
+    private final Parser parser;
+    private final int rounds;
+    private final int threads;
+    /**
+     * Simulation of each thread of the pool, reset for every run.
+     */
+    private final ThreadLocal<StockExchangeSimulation> simulations = new ThreadLocal<>();
+
+    /**
+     * Creates a new sweep of the given scenario.
+     *
+     * @param scenario the scenario file
+     * @param rounds   the number of rounds of every run
+     * @param threads  the number of threads
+     * @throws IOException              if the scenario can't be read
+     * @throws IllegalArgumentException if the scenario is invalid or the number of threads isn't positive
+     */
+    public ParameterSweep(Path scenario, int rounds, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.scenario = scenario;
+        this.parser = new Parser(scenario);
+        this.rounds = rounds;
+        this.threads = threads;
+    }
+
+    /**
+     * Generates every combination of the given parameter values.
+     *
+     * @param base   the parameters the combinations start from
+     * @param values the values of each swept parameter, by the name of the parameter
+     * @return the configurations
+     * @throws IllegalArgumentException if a parameter or value is invalid
+     */
+    public static List<SimulationParameters> grid(SimulationParameters base, Map<String, int[]> values) {
+        List<SimulationParameters> configurations = new ArrayList<>();
+        configurations.add(new SimulationParameters(base));
+        for (Map.Entry<String, int[]> axis : values.entrySet()) {
+            List<SimulationParameters> extended = new ArrayList<>();
+            for (SimulationParameters configuration : configurations) {
+                for (int value : axis.getValue()) {
+                    extended.add(new SimulationParameters(configuration).set(axis.getKey(), value));
+                }
+            }
+            configurations = extended;
+        }
+        return configurations;
+    }
+
+    /**
+     * Draws random configurations, every parameter uniformly from its range.
+     *
+     * @param base    the parameters the samples start from
+     * @param ranges  the minimal and maximal (inclusive) value of each sampled parameter, by the name of the parameter
+     * @param samples the number of samples
+     * @param seed    the seed of the random number generator drawing the samples
+     * @return the configurations
+     * @throws IllegalArgumentException if a parameter or range is invalid
+     */
+    public static List<SimulationParameters> sample(SimulationParameters base, Map<String, int[]> ranges, int samples, long seed) {
+        Random random = new Random(seed);
+        List<SimulationParameters> configurations = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            SimulationParameters configuration = new SimulationParameters(base);
+            for (Map.Entry<String, int[]> range : ranges.entrySet()) {
+                int[] bounds = range.getValue();
+                if (bounds.length != 2 || bounds[0] > bounds[1]) {
+                    throw new IllegalArgumentException("Invalid range of " + range.getKey());
+                }
+                configuration.set(range.getKey(), bounds[0] + (int) (random.nextDouble() * ((long) bounds[1] - bounds[0] + 1)));
+            }
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+    /**
+     * Runs every configuration with every seed and streams a CSV row per run to the output file.
+     * Rows are written in the order the runs finish, the run column gives their position in the sweep.
+     *
+     * @param configurations the configurations
+     * @param seeds          the seeds
+     * @param output         the path of the CSV file
+     * @return the number of runs
+     * @throws IOException          if the output can't be written
+     * @throws InterruptedException if the thread is interrupted while waiting for the runs
+     */
+    public int run(List<SimulationParameters> configurations, List<Long> seeds, Path output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            writer.write("run," + String.join(",", PARAMETER_NAMES) + ",investors," + BatchRunner.CSV_HEADER);
+            writer.newLine();
+            CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+            int runs = 0;
+            for (SimulationParameters configuration : configurations) {
+                for (long seed : seeds) {
+                    int run = runs++;
+                    completionService.submit(() -> runOnce(run, configuration, seed));
+                }
+            }
+            for (int i = 0; i < runs; i++) {
+                try {
+                    writer.write(completionService.take().get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sweep run failed", e.getCause());
+                }
+                writer.newLine();
+                // so that an interrupted sweep keeps its results
+                writer.flush();
+            }
+            return runs;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a single configuration and formats its CSV row.
+     * A configuration the scenario can't be run with doesn't stop the sweep, the error is recorded in its row.
+     *
+     * @param run           the position of the run in the sweep
+     * @param configuration the parameters
+     * @param seed          the seed
+     * @return the CSV row
+     */
+    private String runOnce(int run, SimulationParameters configuration, long seed) {
+        long start = System.nanoTime();
+        BatchRunner.Job job = new BatchRunner.Job(scenario, seed, rounds);
+        BatchRunner.Summary summary;
+        try {
+            StockExchangeSimulation simulation = simulations.get();
+            if (simulation == null) {
+                SimulationContext context = new SimulationContext(new Random(seed), configuration);
+                context.setLoggingEnabled(false);
+                simulation = new StockExchangeSimulation(rounds, parser, context);
+                simulations.set(simulation);
+            } else {
+                simulation.reset(parser, seed, configuration);
+            }
+            simulation.run();
+            summary = BatchRunner.summarize(job, simulation, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            summary = new BatchRunner.Summary(job, 0, 0, 0, new long[5], 0, System.nanoTime() - start, "", String.valueOf(e.getMessage()));
+        }
+        StringBuilder row = new StringBuilder().append(run);
+        for (String name : PARAMETER_NAMES) {
+            row.append(',').append(configuration.get(name));
+        }
+        StringJoiner investors = new StringJoiner(";");
+        for (char symbol : parser.getInvestorCounts().keySet()) {
+            int count = configuration.get(SimulationParameters.INVESTORS_PREFIX + symbol);
+            investors.add(symbol + "=" + (count == -1 ? parser.getInvestorCounts().get(symbol) : count));
+        }
+        row.append(',').append(BatchRunner.quote(investors.toString())).append(',').append(BatchRunner.toCsvRow(summary));
+        return row.toString();
+    }
+
+    /**
+     * Parses the values of a swept parameter: comma separated values for a grid, or min..max for sampling.
+     *
+     * @param values the values
+     * @return the values, or the minimum and the maximum
+     * @throws NumberFormatException if a value isn't a number
+     */
+    private static int[] parseValues(String values) {
+        if (values.contains("..")) {
+            String[] bounds = values.split("\\.\\.");
+            return new int[]{Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1])};
+        }
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Runs a sweep from the command line.
+     * With 0 samples the parameters are swept as a grid of the given values,
+     * otherwise every parameter is sampled from its min..max range.
+     *
+     * @param args the output CSV file, the scenario, the number of rounds, the number of threads,
+     *             comma separated seeds, the number of samples and name=values pairs of the swept parameters
+     */
+    public static void main(String[] args) {
+        if (args.length < 7) {
+            System.out.println("java app.ParameterSweep <output csv> <scenario> <rounds> <threads> <seeds> <samples> <name=values>...");
+            System.exit(1);
+        }
+        try {
+            ParameterSweep sweep = new ParameterSweep(Path.of(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            List<Long> seeds = Arrays.stream(args[4].split(",")).map(Long::parseLong).toList();
+            int samples = Integer.parseInt(args[5]);
+            Map<String, int[]> values = new LinkedHashMap<>();
+            for (int i = 6; i < args.length; i++) {
+                String[] parameter = args[i].split("=", 2);
+                if (parameter.length != 2) {
+                    throw new IllegalArgumentException("Expected name=values, got " + args[i]);
+                }
+                values.put(parameter[0], parseValues(parameter[1]));
+            }
+            List<SimulationParameters> configurations = samples == 0
+                    ? grid(new SimulationParameters(), values)
+                    : sample(new SimulationParameters(), values, samples, seeds.get(0));
+            int runs = sweep.run(configurations, seeds, Path.of(args[0]));
+            System.out.println("Wrote " + runs + " runs to " + args[0]);
+        } catch (IOException e) {
+            System.out.println("File error: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
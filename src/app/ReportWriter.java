@@ -0,0 +1,387 @@
+package app;
+
+import investors.AInvestor;
+import investors.ColumnarInvestorStore;
+import investors.InvestorManagement;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the final state of a simulation, the stock prices and every investor with their net worth, cash and stocks,
+ * in one of several formats. Lines are formatted into a reused {@link StringBuilder} and encoded into a large buffer
+ * that's written to a channel when it fills up, so the report of a million investors takes a fraction of a second.
+ * A report can also be written in parallel, as shards by investor range, which concatenated make the whole report.
+ */
+public class ReportWriter {
+    /**
+     * Size of the buffer the report is encoded into.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * Number of characters formatted before they're encoded into the buffer.
+     */
+    private static final int FLUSH_THRESHOLD = 1 << 14;
+    private static final String BLUE = "\u001B[34m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String PURPLE = "\u001B[35m";
+    private static final String RESET = "\u001B[0m";
+
+    /**
+     * The formats of the report.
+     */
+    public enum Format {
+        /**
+         * The human-readable report printed by {@link App}.
+         */
+        PLAIN,
+        /**
+         * The human-readable report with ANSI colors.
+         */
+        COLORED,
+        /**
+         * A CSV table with a row of prices and a row per investor, with a column per stock.
+         */
+        CSV,
+        /**
+         * A JSON object per line: the prices first, then one per investor.
+         */
+        JSONL
+    }
+
+    private final Format format;
+
+    /**
+     * Creates a new report writer of the given format.
+     *
+     * @param format the format
+     */
+    public ReportWriter(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Writes the whole report to the given channel, which is left open.
+     *
+     * @param simulation the simulation
+     * @param channel    the channel
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(StockExchangeSimulation simulation, WritableByteChannel channel) throws IOException {
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        investorManagement.revalueNetWorths();
+        new Shard(simulation, channel).write(true, 0, investorManagement.getNumberOfInvestors());
+    }
+
+    /**
+     * Writes the whole report to the given file, overwriting it.
+     *
+     * @param simulation the simulation
+     * @param path       the path of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(StockExchangeSimulation simulation, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(simulation, channel);
+        }
+    }
+
+    /**
+     * Writes the report in parallel, as shards by investor range, to files named like the given one with ".0", ".1"... appended.
+     * The first shard starts with the stock prices (and the header), so the shards concatenated in order make the whole report.
+     *
+     * @param simulation the simulation
+     * @param path       the path the shard files are named after
+     * @param shards     the number of shards, each written by its own thread
+     * @return the paths of the shard files, in order
+     * @throws IOException              if an I/O error occurs
+     * @throws InterruptedException     if the thread is interrupted while waiting for the shards
+     * @throws IllegalArgumentException if the number of shards isn't positive
+     */
+    public List<Path> writeShards(StockExchangeSimulation simulation, Path path, int shards) throws IOException, InterruptedException {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Number of shards must be positive");
+        }
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        int numberOfInvestors = investorManagement.getNumberOfInvestors();
+        // once, so that the shards only read the net worths
+        investorManagement.revalueNetWorths();
+        ExecutorService executor = Executors.newFixedThreadPool(shards);
+        try {
+            List<Path> paths = new ArrayList<>();
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                Path shardPath = path.resolveSibling(path.getFileName() + "." + shard);
+                int from = (int) ((long) numberOfInvestors * shard / shards);
+                int to = (int) ((long) numberOfInvestors * (shard + 1) / shards);
+                boolean first = shard == 0;
+                paths.add(shardPath);
+                futures.add(executor.submit(() -> {
+                    try (FileChannel channel = FileChannel.open(shardPath,
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        new Shard(simulation, channel).write(first, from, to);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException ioException) {
+                        throw ioException;
+                    }
+                    throw new IllegalStateException("Report shard failed", e.getCause());
+                }
+            }
+            return paths;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writer of one range of investors, with its own builder and buffer.
+     */
+    private class Shard {
+        private final StockExchangeSimulation simulation;
+        private final WritableByteChannel channel;
+        private final StringBuilder line;
+        private final ByteBuffer buffer;
+        private final CharsetEncoder encoder;
+
+        /**
+         * Creates a new shard writing to the given channel.
+         *
+         * @param simulation the simulation
+         * @param channel    the channel
+         */
+        Shard(StockExchangeSimulation simulation, WritableByteChannel channel) {
+            this.simulation = simulation;
+            this.channel = channel;
+            this.line = new StringBuilder(2 * FLUSH_THRESHOLD);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.encoder = StandardCharsets.UTF_8.newEncoder();
+        }
+
+        /**
+         * Writes the investors in the given range of slots, preceded by the stock prices if asked to.
+         * The net worths are read as they were last revalued.
+         *
+         * @param withPrices whether to start with the stock prices (and the header)
+         * @param from       the first slot
+         * @param to         the slot after the last one
+         * @throws IOException if an I/O error occurs
+         */
+        void write(boolean withPrices, int from, int to) throws IOException {
+            List<Stock> stocks = simulation.getStockManagement().getStocks();
+            if (withPrices) {
+                appendPrices(stocks);
+            }
+            InvestorManagement investorManagement = simulation.getInvestorManagement();
+            ColumnarInvestorStore store = investorManagement.getStore();
+            for (int slot = from; slot < to; slot++) {
+                AInvestor investor = investorManagement.getInvestorBySlot(slot);
+                appendInvestor(investor, (char) store.getType(slot), store, slot, investorManagement.getNetWorth(slot), stocks);
+                if (line.length() >= FLUSH_THRESHOLD) {
+                    encode();
+                }
+            }
+            encode();
+            flush();
+        }
+
+        /**
+         * Formats the stock prices.
+         *
+         * @param stocks the stocks
+         */
+        private void appendPrices(List<Stock> stocks) {
+            switch (format) {
+                case PLAIN, COLORED -> {
+                    line.append("Stock prices: \n    ");
+                    for (Stock stock : stocks) {
+                        appendColored(BLUE, stock.getIdentifier()).append(':');
+                        appendColored(GREEN, stock.getLastPrice()).append(' ');
+                    }
+                    line.append('\n');
+                }
+                case CSV -> {
+                    line.append("row,id,type,balance,net_worth");
+                    for (Stock stock : stocks) {
+                        line.append(',').append(BatchRunner.quote(stock.getIdentifier()));
+                    }
+                    line.append("\nprices,,,,");
+                    for (Stock stock : stocks) {
+                        line.append(',').append(stock.getLastPrice());
+                    }
+                    line.append('\n');
+                }
+                case JSONL -> {
+                    line.append("{\"prices\":{");
+                    for (int ordinal = 0; ordinal < stocks.size(); ordinal++) {
+                        if (ordinal > 0) {
+                            line.append(',');
+                        }
+                        appendJsonString(stocks.get(ordinal).getIdentifier()).append(':').append(stocks.get(ordinal).getLastPrice());
+                    }
+                    line.append("}}\n");
+                }
+            }
+        }
+
+        /**
+         * Formats an investor.
+         *
+         * @param investor the investor
+         * @param type     the symbol of the strategy of the investor
+         * @param store    the store holding the state of the investor
+         * @param slot     the slot of the investor
+         * @param netWorth the net worth of the investor
+         * @param stocks   the stocks
+         */
+        private void appendInvestor(AInvestor investor, char type, ColumnarInvestorStore store, int slot, long netWorth,
+                                    List<Stock> stocks) {
+            long balance = store.getBalance(slot);
+            switch (format) {
+                case PLAIN, COLORED -> {
+                    line.append(investor).append(" has a net worth of ");
+                    appendColored(PURPLE, netWorth).append("\nwith ");
+                    appendColored(GREEN, balance).append(" in cash and the following stocks:\n");
+                    for (Stock stock : stocks) {
+                        int quantity = store.getStockQuantity(slot, stock.getOrdinal());
+                        if (quantity != 0) {
+                            line.append("    ");
+                            appendColored(BLUE, stock.getIdentifier()).append(':');
+                            appendColored(YELLOW, quantity).append('\n');
+                        }
+                    }
+                }
+                case CSV -> {
+                    line.append("investor,").append(investor.getId()).append(',').append(type).append(',')
+                            .append(balance).append(',').append(netWorth);
+                    for (Stock stock : stocks) {
+                        line.append(',').append(store.getStockQuantity(slot, stock.getOrdinal()));
+                    }
+                    line.append('\n');
+                }
+                case JSONL -> {
+                    line.append("{\"id\":").append(investor.getId()).append(",\"type\":");
+                    appendJsonString(String.valueOf(type)).append(",\"balance\":").append(balance)
+                            .append(",\"netWorth\":").append(netWorth).append(",\"stocks\":{");
+                    boolean first = true;
+                    for (Stock stock : stocks) {
+                        int quantity = store.getStockQuantity(slot, stock.getOrdinal());
+                        if (quantity != 0) {
+                            if (!first) {
+                                line.append(',');
+                            }
+                            first = false;
+                            appendJsonString(stock.getIdentifier()).append(':').append(quantity);
+                        }
+                    }
+                    line.append("}}\n");
+                }
+            }
+        }
+
+        /**
+         * Appends the text, in the given color if the format is colored.
+         *
+         * @param color the ANSI color code
+         * @param text  the text
+         * @return the line builder
+         */
+        private StringBuilder appendColored(String color, String text) {
+            return format == Format.COLORED ? line.append(color).append(text).append(RESET) : line.append(text);
+        }
+
+        /**
+         * Appends the number, in the given color if the format is colored.
+         *
+         * @param color  the ANSI color code
+         * @param number the number
+         * @return the line builder
+         */
+        private StringBuilder appendColored(String color, long number) {
+            return format == Format.COLORED ? line.append(color).append(number).append(RESET) : line.append(number);
+        }
+
+        /**
+         * Appends the text as a JSON string.
+         *
+         * @param text the text
+         * @return the line builder
+         */
+        private StringBuilder appendJsonString(String text) {
+            line.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> line.append("\\\"");
+                    case '\\' -> line.append("\\\\");
+                    case '\n' -> line.append("\\n");
+                    default -> {
+                        if (c < 0x20) {
+                            line.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            line.append(c);
+                        }
+                    }
+                }
+            }
+            return line.append('"');
+        }
+
+        /**
+         * Encodes the formatted characters into the buffer, writing the buffer out whenever it fills up.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void encode() throws IOException {
+            CharBuffer characters = CharBuffer.wrap(line);
+            while (true) {
+                CoderResult result = encoder.encode(characters, buffer, false);
+                if (result.isOverflow()) {
+                    flush();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            line.setLength(0);
+        }
+
+        /**
+         * Writes the contents of the buffer to the channel.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
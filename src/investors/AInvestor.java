@@ -1,16 +1,20 @@
 package investors;
 
 import requests.ATradeRequest;
+import requests.OrderBuffer;
 import simulation.StockExchangeSimulation;
 import stocks.Stock;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * An investor is a view over a slot of an investor store, which holds its balance and portfolio.
+ */
 abstract public class AInvestor {
     private final int id;
-    private final Map<Stock, Integer> stocksPortfolio;
-    private int balance;
+    private final InvestorStore store;
+    private final int slot;
 
     /**
      * Create a new investor with the given id and balance.
@@ -19,9 +23,7 @@ abstract public class AInvestor {
      * @param balance the initial balance of the investor
      */
     public AInvestor(int id, int balance) {
-        this.id = id;
-        this.balance = balance;
-        this.stocksPortfolio = new HashMap<>();
+        this(id, balance, new HashMap<>());
     }
 
     /**
@@ -32,18 +34,47 @@ abstract public class AInvestor {
      * @param stocksPortfolio the initial stocks portfolio of the investor
      */
     public AInvestor(int id, int balance, Map<Stock, Integer> stocksPortfolio) {
+        this(id, new MapInvestorStore(balance, stocksPortfolio), 0);
+    }
+
+    /**
+     * Create a new investor with the given id, whose state is held in the given slot of the given store.
+     *
+     * @param id    the id of the investor
+     * @param store the store holding the state of the investor
+     * @param slot  the slot of the investor in the store
+     */
+    public AInvestor(int id, InvestorStore store, int slot) {
         this.id = id;
-        this.balance = balance;
-        this.stocksPortfolio = new HashMap<>(stocksPortfolio); // copy the map!!
+        this.store = store;
+        this.slot = slot;
     }
 
     /**
      * Get the stocks portfolio of the investor.
      *
-     * @return the stocks portfolio of the investor
+     * @return the stocks portfolio of the investor, not to be modified
      */
     public Map<Stock, Integer> getStocksPortfolio() {
-        return stocksPortfolio;
+        return store.getStocksPortfolio(slot);
+    }
+
+    /**
+     * Get the store holding the state of the investor.
+     *
+     * @return the store of the investor
+     */
+    public InvestorStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the slot of the investor in its store.
+     *
+     * @return the slot of the investor
+     */
+    public int getSlot() {
+        return slot;
     }
 
     /**
@@ -60,8 +91,8 @@ abstract public class AInvestor {
      *
      * @return the balance of the investor
      */
-    public int getBalance() {
-        return balance;
+    public long getBalance() {
+        return store.getBalance(slot);
     }
 
     /**
@@ -69,11 +100,11 @@ abstract public class AInvestor {
      *
      * @param amount the amount to deposit
      */
-    private void deposit(int amount) {
+    private void deposit(long amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot deposit a negative amount");
         }
-        balance += amount;
+        store.addToBalance(slot, amount);
     }
 
     /**
@@ -81,14 +112,14 @@ abstract public class AInvestor {
      *
      * @param amount the amount to withdraw
      */
-    private void withdraw(int amount) {
+    private void withdraw(long amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot withdraw a negative amount");
         }
-        if (amount > balance) {
+        if (amount > store.getBalance(slot)) {
             throw new InsufficientBalanceException("Cannot withdraw more than the current balance");
         }
-        balance -= amount;
+        store.addToBalance(slot, -amount);
     }
 
     /**
@@ -101,8 +132,8 @@ abstract public class AInvestor {
      */
     public boolean canBuyStock(Stock stock, int quantity, int price) {
         // check if the investor has enough balance to buy the stock
-        int totalCost = quantity * price;
-        return totalCost <= balance;
+        long totalCost = (long) quantity * price;
+        return totalCost <= store.getBalance(slot);
     }
 
     /**
@@ -113,9 +144,9 @@ abstract public class AInvestor {
      * @param price    the price of the stock
      */
     public void buyStock(Stock stock, int quantity, int price) {
-        int totalCost = quantity * price;
+        long totalCost = (long) quantity * price;
         withdraw(totalCost);
-        stocksPortfolio.put(stock, stocksPortfolio.getOrDefault(stock, 0) + quantity);
+        store.addStockQuantity(slot, stock, quantity);
     }
 
     /**
@@ -127,10 +158,7 @@ abstract public class AInvestor {
      * @return true if the investor can sell the stock, false otherwise
      */
     public boolean canSellStock(Stock stock, int quantity, int price) {
-        if (!stocksPortfolio.containsKey(stock)) {
-            return false;
-        }
-        return stocksPortfolio.get(stock) >= quantity;
+        return store.getStockQuantity(slot, stock) >= quantity;
     }
 
     /**
@@ -141,15 +169,16 @@ abstract public class AInvestor {
      * @param price    the price of the stock
      */
     public void sellStock(Stock stock, int quantity, int price) throws InsufficientBalanceException {
-        if (!stocksPortfolio.containsKey(stock)) {
+        int heldQuantity = store.getStockQuantity(slot, stock);
+        if (heldQuantity == 0) {
             throw new IllegalArgumentException("Cannot sell stock that is not in the portfolio");
         }
-        if (stocksPortfolio.get(stock) < quantity) {
+        if (heldQuantity < quantity) {
             throw new InsufficientBalanceException("Cannot sell more stock than is in the portfolio");
         }
-        int totalCost = quantity * price;
+        long totalCost = (long) quantity * price;
         deposit(totalCost);
-        stocksPortfolio.put(stock, stocksPortfolio.get(stock) - quantity);
+        store.addStockQuantity(slot, stock, -quantity);
     }
 
     /**
@@ -159,15 +188,33 @@ abstract public class AInvestor {
      * @return the quantity of the stock in the investor's portfolio
      */
     public int getStockQuantity(Stock stock) {
-        return stocksPortfolio.getOrDefault(stock, 0);
+        return store.getStockQuantity(slot, stock);
     }
 
     /**
      * Make a trade decision based on the given simulation.
+     * The simulation itself asks the strategies for decisions in batches, this is for deciding one investor at a time.
      *
      * @param simulation the simulation to make the trade decision based on
      * @return the trade request to make, or null if no trade should be made
      */
     abstract public ATradeRequest makeTradeDecision(StockExchangeSimulation simulation);
 
+    /**
+     * Make a trade decision of this investor alone, using a batch of one.
+     *
+     * @param simulation the simulation to make the trade decision based on
+     * @param strategy   the strategy of the investor
+     * @return the trade request to make, or null if no trade should be made
+     */
+    protected ATradeRequest makeTradeDecision(StockExchangeSimulation simulation, InvestorStrategy strategy) {
+        OrderBuffer orders = OrderBuffer.forSingleInvestor();
+        strategy.decideBatch(simulation, store, new int[]{slot}, 1, orders);
+        int row = orders.rowOf(slot);
+        if (row == -1) {
+            return null;
+        }
+        return orders.toRequest(row, this, simulation.getStockManagement(), simulation.getContext());
+    }
+
 }
@@ -0,0 +1,431 @@
+package investors;
+
+import stocks.Stock;
+import stocks.StockManagement;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Store holding the state of many investors in parallel primitive arrays.
+ * Balances are kept in a long array, positions in a dense investor x stock matrix
+ * (row-major, indexed by the slot and the stock ordinal) and the investor types in a byte array.
+ * This keeps the memory footprint of an investor at a few bytes per stock,
+ * and makes a pass over all investors a sequential scan of memory.
+ */
+public class ColumnarInvestorStore implements InvestorStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private final StockManagement stockManagement;
+    private long[] balances;
+    private int[] positions;
+    private byte[] types;
+    /**
+     * Number of stocks with a non-zero position, for each slot.
+     */
+    private int[] heldStocks;
+    /**
+     * Slots whose balance or positions changed since the last {@link #clearChangedSlots()}, without duplicates.
+     */
+    private int[] changedSlots;
+    private boolean[] changed;
+    private int numberOfChangedSlots;
+    /**
+     * Number of columns of the positions matrix, at least the number of stocks.
+     * The matrix has a row for every slot of the capacity, and its cells are limited to {@link Integer#MAX_VALUE},
+     * so the index of a position of an allocated slot never overflows.
+     */
+    private int stride;
+    private int size;
+    private InvestorStoreListener listener;
+
+    /**
+     * Create a new empty store for investors trading the stocks of the given stock management.
+     *
+     * @param stockManagement the stock management
+     */
+    public ColumnarInvestorStore(StockManagement stockManagement) {
+        this.stockManagement = stockManagement;
+        this.stride = Math.max(1, stockManagement.getNumberOfStocks());
+        this.balances = new long[INITIAL_CAPACITY];
+        this.positions = new int[positionsLength(INITIAL_CAPACITY, stride)];
+        this.types = new byte[INITIAL_CAPACITY];
+        this.heldStocks = new int[INITIAL_CAPACITY];
+        this.changedSlots = new int[INITIAL_CAPACITY];
+        this.changed = new boolean[INITIAL_CAPACITY];
+        this.numberOfChangedSlots = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Allocate a new slot with the given type and balance and an empty portfolio.
+     *
+     * @param type    the type of the investor
+     * @param balance the initial balance
+     * @return the allocated slot
+     */
+    public int allocate(byte type, long balance) {
+        ensureCapacity(size + 1);
+        balances[size] = balance;
+        types[size] = type;
+        if (listener != null) {
+            listener.onAllocated(size, balance);
+        }
+        return size++;
+    }
+
+    /**
+     * Allocate the given number of consecutive slots with the same type, balance and portfolio,
+     * as if each was allocated and then given the stock quantities one by one, but filling the columns directly.
+     *
+     * @param type       the type of the investors
+     * @param balance    the initial balance of every investor
+     * @param stocks     the stocks of the initial portfolio
+     * @param quantities the quantity of each of the stocks held by every investor
+     * @param count      the number of slots
+     * @return the first allocated slot
+     */
+    public int allocate(byte type, long balance, Stock[] stocks, int[] quantities, int count) {
+        ensureCapacity(size + count);
+        int held = 0;
+        for (int i = 0; i < stocks.length; i++) {
+            ensureStride(ordinalOf(stocks[i]) + 1);
+            if (quantities[i] != 0) {
+                held++;
+            }
+        }
+        int first = size;
+        Arrays.fill(balances, first, first + count, balance);
+        Arrays.fill(types, first, first + count, type);
+        Arrays.fill(heldStocks, first, first + count, held);
+        for (int slot = first; slot < first + count; slot++) {
+            for (int i = 0; i < stocks.length; i++) {
+                positions[positionIndex(slot, ordinalOf(stocks[i]))] += quantities[i];
+            }
+        }
+        for (int slot = first; slot < first + count; slot++) {
+            if (stocks.length > 0) {
+                markChanged(slot);
+            }
+            if (listener != null) {
+                listener.onAllocated(slot, balance);
+                for (int i = 0; i < stocks.length; i++) {
+                    listener.onStockQuantityChanged(slot, stocks[i], quantities[i], quantities[i]);
+                }
+            }
+        }
+        size += count;
+        return first;
+    }
+
+    /**
+     * Allocate the given number of consecutive slots with the types, balances and positions read in bulk
+     * from the given buffers, e.g. views of a memory-mapped file.
+     * The positions buffer holds a row of quantities for every slot, one for each stock by ordinal.
+     *
+     * @param types     the types of the investors
+     * @param balances  the initial balances
+     * @param positions the initial positions, row by row
+     * @param count     the number of slots
+     * @return the first allocated slot
+     */
+    public int allocate(ByteBuffer types, LongBuffer balances, IntBuffer positions, int count) {
+        int columns = stockManagement.getNumberOfStocks();
+        ensureCapacity(size + count);
+        ensureStride(columns);
+        int first = size;
+        types.get(this.types, first, count);
+        balances.get(this.balances, first, count);
+        if (stride == columns) {
+            positions.get(this.positions, positionIndex(first, 0), count * columns);
+        } else {
+            for (int slot = first; slot < first + count; slot++) {
+                positions.get(this.positions, positionIndex(slot, 0), columns);
+            }
+        }
+        for (int slot = first; slot < first + count; slot++) {
+            int held = 0;
+            if (listener != null) {
+                listener.onAllocated(slot, this.balances[slot]);
+            }
+            for (int ordinal = 0; ordinal < columns; ordinal++) {
+                int quantity = this.positions[positionIndex(slot, ordinal)];
+                if (quantity != 0) {
+                    held++;
+                    if (listener != null) {
+                        listener.onStockQuantityChanged(slot, stockManagement.getStock(ordinal), quantity, quantity);
+                    }
+                }
+            }
+            heldStocks[slot] = held;
+        }
+        size += count;
+        return first;
+    }
+
+    /**
+     * Forget all slots, keeping the arrays for the next allocations.
+     * The positions matrix is relaid out if the number of stocks changed.
+     * The types of the forgotten slots stay readable until the slots are allocated again,
+     * so that callers can tell whether a slot gets the same type as before.
+     */
+    public void clear() {
+        int columns = Math.max(1, stockManagement.getNumberOfStocks());
+        if (columns != stride) {
+            stride = columns;
+            positions = new int[positionsLength(balances.length, stride)];
+        } else {
+            Arrays.fill(positions, 0, positionIndex(size, 0), 0);
+        }
+        Arrays.fill(heldStocks, 0, size, 0);
+        clearChangedSlots();
+        size = 0;
+    }
+
+    /**
+     * Make sure that the given number of slots can be allocated without resizing.
+     * The capacity is doubled as long as the positions matrix stays within its limit.
+     *
+     * @param capacity the required number of slots
+     * @throws IllegalStateException if the positions of that many slots don't fit in the positions matrix
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > balances.length) {
+            int newCapacity = (int) Math.max(capacity, Math.min(balances.length * 2L, Integer.MAX_VALUE / stride));
+            int newPositionsLength = positionsLength(newCapacity, stride);
+            balances = Arrays.copyOf(balances, newCapacity);
+            positions = Arrays.copyOf(positions, newPositionsLength);
+            types = Arrays.copyOf(types, newCapacity);
+            heldStocks = Arrays.copyOf(heldStocks, newCapacity);
+            changedSlots = Arrays.copyOf(changedSlots, newCapacity);
+            changed = Arrays.copyOf(changed, newCapacity);
+        }
+    }
+
+    /**
+     * Get the number of allocated slots.
+     *
+     * @return the number of allocated slots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the type of the investor in the given slot.
+     *
+     * @param slot the slot of the investor
+     * @return the type of the investor
+     */
+    public byte getType(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Get the number of stocks the investor in the given slot has a non-zero position in.
+     *
+     * @param slot the slot of the investor
+     * @return the number of stocks held
+     */
+    public int getNumberOfHeldStocks(int slot) {
+        return heldStocks[slot];
+    }
+
+    /**
+     * Get the slots whose balance or positions changed since the last {@link #clearChangedSlots()}.
+     * Only the first {@link #getNumberOfChangedSlots()} entries are valid.
+     *
+     * @return the changed slots
+     */
+    public int[] getChangedSlots() {
+        return changedSlots;
+    }
+
+    /**
+     * Get the number of slots whose balance or positions changed since the last {@link #clearChangedSlots()}.
+     *
+     * @return the number of changed slots
+     */
+    public int getNumberOfChangedSlots() {
+        return numberOfChangedSlots;
+    }
+
+    /**
+     * Forget the changed slots.
+     */
+    public void clearChangedSlots() {
+        for (int i = 0; i < numberOfChangedSlots; i++) {
+            changed[changedSlots[i]] = false;
+        }
+        numberOfChangedSlots = 0;
+    }
+
+    /**
+     * Get the quantity of the stock with the given ordinal held by the investor in the given slot.
+     *
+     * @param slot    the slot of the investor
+     * @param ordinal the ordinal of the stock
+     * @return the quantity held
+     */
+    public int getStockQuantity(int slot, int ordinal) {
+        if (ordinal >= stride) {
+            return 0;
+        }
+        return positions[positionIndex(slot, ordinal)];
+    }
+
+    @Override
+    public long getBalance(int slot) {
+        return balances[slot];
+    }
+
+    @Override
+    public void addToBalance(int slot, long amount) {
+        balances[slot] += amount;
+        markChanged(slot);
+        if (listener != null) {
+            listener.onBalanceChanged(slot, amount);
+        }
+    }
+
+    @Override
+    public int getStockQuantity(int slot, Stock stock) {
+        return getStockQuantity(slot, ordinalOf(stock));
+    }
+
+    @Override
+    public void addStockQuantity(int slot, Stock stock, int quantity) {
+        int ordinal = ordinalOf(stock);
+        ensureStride(ordinal + 1);
+        int index = positionIndex(slot, ordinal);
+        int before = positions[index];
+        positions[index] += quantity;
+        if (before == 0 && positions[index] != 0) {
+            heldStocks[slot]++;
+        } else if (before != 0 && positions[index] == 0) {
+            heldStocks[slot]--;
+        }
+        markChanged(slot);
+        if (listener != null) {
+            listener.onStockQuantityChanged(slot, stock, quantity, positions[index]);
+        }
+    }
+
+    /**
+     * Remember that the balance or positions of the given slot changed.
+     * Also used to restore the changes pending when a checkpoint was written.
+     *
+     * @param slot the slot
+     */
+    void markChanged(int slot) {
+        if (!changed[slot]) {
+            changed[slot] = true;
+            changedSlots[numberOfChangedSlots++] = slot;
+        }
+    }
+
+    /**
+     * Builds a map of the non-zero positions of the investor in the given slot.
+     * Allocates, so it's meant for reporting, not for the simulation loop.
+     *
+     * @param slot the slot of the investor
+     * @return the stock-quantity map of the investor
+     */
+    @Override
+    public Map<Stock, Integer> getStocksPortfolio(int slot) {
+        Map<Stock, Integer> portfolio = new HashMap<>();
+        int columns = Math.min(stride, stockManagement.getNumberOfStocks());
+        for (int ordinal = 0; ordinal < columns; ordinal++) {
+            int quantity = positions[positionIndex(slot, ordinal)];
+            if (quantity != 0) {
+                portfolio.put(stockManagement.getStock(ordinal), quantity);
+            }
+        }
+        return portfolio;
+    }
+
+    /**
+     * Set the listener notified about every change of the state of the investors.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setListener(InvestorStoreListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Get the stock management whose stock ordinals index the positions.
+     *
+     * @return the stock management
+     */
+    public StockManagement getStockManagement() {
+        return stockManagement;
+    }
+
+    /**
+     * Get the ordinal of the given stock, making sure it belongs to a stock management.
+     *
+     * @param stock the stock
+     * @return the ordinal of the stock
+     * @throws IllegalArgumentException if the stock doesn't belong to a stock management
+     */
+    private int ordinalOf(Stock stock) {
+        int ordinal = stock.getOrdinal();
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Stock " + stock.getIdentifier() + " doesn't belong to a stock management");
+        }
+        return ordinal;
+    }
+
+    /**
+     * Make sure the positions matrix has at least the given number of columns,
+     * relaying it out if stocks were created after the investors.
+     *
+     * @param columns the required number of columns
+     */
+    private void ensureStride(int columns) {
+        if (columns <= stride) {
+            return;
+        }
+        int newStride = Math.max(columns, stockManagement.getNumberOfStocks());
+        int[] newPositions = new int[positionsLength(balances.length, newStride)];
+        for (int slot = 0; slot < size; slot++) {
+            System.arraycopy(positions, positionIndex(slot, 0), newPositions, slot * newStride, stride);
+        }
+        positions = newPositions;
+        stride = newStride;
+    }
+
+    /**
+     * Get the index of a position in the positions matrix.
+     * It doesn't overflow for a slot below the capacity and an ordinal below the stride,
+     * since the length of the matrix was checked by {@link #positionsLength(int, int)}.
+     *
+     * @param slot    the slot of the investor
+     * @param ordinal the ordinal of the stock
+     * @return the index of the position
+     */
+    private int positionIndex(int slot, int ordinal) {
+        return slot * stride + ordinal;
+    }
+
+    /**
+     * Get the length of a positions matrix with the given numbers of rows and columns.
+     *
+     * @param capacity the number of slots
+     * @param columns  the number of columns
+     * @return the number of cells
+     * @throws IllegalStateException if the matrix would have more than {@link Integer#MAX_VALUE} cells
+     */
+    private static int positionsLength(int capacity, int columns) {
+        try {
+            return Math.multiplyExact(capacity, columns);
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("The positions of " + capacity + " investors in " + columns
+                    + " stocks exceed the limit of " + Integer.MAX_VALUE + " positions of a columnar store", e);
+        }
+    }
+}
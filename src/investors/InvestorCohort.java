@@ -0,0 +1,34 @@
+package investors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A group of investors of the same strategy starting with the same cash and portfolio,
+ * created together in consecutive slots and with consecutive ids.
+ *
+ * @param type      the symbol of the strategy of the investors
+ * @param count     the number of investors
+ * @param cash      the initial cash of every investor
+ * @param portfolio the initial stock-quantity map of every investor
+ */
+public record InvestorCohort(char type, int count, int cash, Map<String, Integer> portfolio) {
+
+    /**
+     * Creates the cohorts of a population in which every investor starts with the same cash and portfolio,
+     * one cohort for each strategy.
+     *
+     * @param investorCounts the number of investors of each strategy, by the symbol of the strategy
+     * @param cash           the initial cash of every investor
+     * @param portfolio      the initial stock-quantity map of every investor
+     * @return the cohorts, in the order of the counts
+     */
+    public static List<InvestorCohort> of(Map<Character, Integer> investorCounts, int cash, Map<String, Integer> portfolio) {
+        List<InvestorCohort> cohorts = new ArrayList<>();
+        for (Map.Entry<Character, Integer> entry : investorCounts.entrySet()) {
+            cohorts.add(new InvestorCohort(entry.getKey(), entry.getValue(), cash, portfolio));
+        }
+        return cohorts;
+    }
+}
@@ -1,15 +1,70 @@
 package investors;
 
 
+import simulation.SimulationParameters;
 import stocks.Stock;
 import stocks.StockManagement;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
 import utilities.Parser;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.*;
 
 public class InvestorManagement {
-    private final Set<AInvestor> investors;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final SimulationParameters DEFAULT_PARAMETERS = new SimulationParameters();
     private final StockManagement stockManagement;
+    private final ColumnarInvestorStore store;
+    private final NetWorthIndex netWorthIndex;
+    private final Random random;
+    /**
+     * Investors indexed by their id, entries of unused ids are null.
+     */
+    private AInvestor[] investors;
+    /**
+     * Investors indexed by their slot in the store, the first numberOfInvestors entries are valid.
+     */
+    private AInvestor[] investorsBySlot;
+    /**
+     * Store slots of all registered investors, the first numberOfInvestors entries are valid.
+     * The first numberOfEligibleInvestors entries are the investors that can still trade,
+     * they are reshuffled in place every round, so that no list has to be allocated.
+     */
+    private int[] order;
+    /**
+     * Index of each slot in the order array.
+     */
+    private int[] orderIndexBySlot;
+    private int numberOfInvestors;
+    private int numberOfEligibleInvestors;
+    /**
+     * Lowest price any strategy could bid for any stock at the last eligibility update.
+     */
+    private int lastCheapestPrice;
+    /**
+     * Upper bound on the balance of the ineligible investors.
+     */
+    private long maxIneligibleBalance;
+    /**
+     * Lower bound on the balance of the eligible investors without stocks.
+     */
+    private long minCashOnlyEligibleBalance;
+    /**
+     * Lowest price any strategy could bid for each stock, by ordinal, at the price in lowestBuyPricesAt.
+     */
+    private int[] lowestBuyPrices;
+    /**
+     * Last price of each stock, by ordinal, at which its lowest bid was computed, -1 if it wasn't.
+     */
+    private int[] lowestBuyPricesAt;
+    /**
+     * Parameters the lowest bids were computed with.
+     */
+    private SimulationParameters lowestBuyPricesParameters;
     private int nextID;
 
     /**
@@ -18,9 +73,32 @@ public class InvestorManagement {
      * @param stockManagement the stock management to use
      */
     public InvestorManagement(StockManagement stockManagement) {
-        this.investors = new HashSet<>();
+        this(stockManagement, new Random());
+    }
+
+    /**
+     * Create a new investor management with the given stock management and random number generator.
+     *
+     * @param stockManagement the stock management to use
+     * @param random          the random number generator used for shuffling the investors
+     */
+    public InvestorManagement(StockManagement stockManagement, Random random) {
+        this.investors = new AInvestor[INITIAL_CAPACITY];
+        this.investorsBySlot = new AInvestor[INITIAL_CAPACITY];
+        this.order = new int[INITIAL_CAPACITY];
+        this.orderIndexBySlot = new int[INITIAL_CAPACITY];
+        this.numberOfInvestors = 0;
+        this.numberOfEligibleInvestors = 0;
+        this.lastCheapestPrice = 0;
+        this.maxIneligibleBalance = 0;
+        this.minCashOnlyEligibleBalance = Long.MAX_VALUE;
+        this.lowestBuyPrices = new int[0];
+        this.lowestBuyPricesAt = new int[0];
         this.stockManagement = stockManagement;
-        nextID = 0;
+        this.store = new ColumnarInvestorStore(stockManagement);
+        this.netWorthIndex = new NetWorthIndex(store);
+        this.random = random;
+        this.nextID = 0;
     }
 
     /**
@@ -30,26 +108,220 @@ public class InvestorManagement {
      * @param parser          the parser to use
      */
     public InvestorManagement(StockManagement stockManagement, Parser parser) {
-        this.investors = new HashSet<>();
-        this.stockManagement = stockManagement;
-        this.nextID = 0;
+        this(stockManagement, parser, new Random());
+    }
+
+    /**
+     * Create a new investor management with the given stock management, parser and random number generator.
+     *
+     * @param stockManagement the stock management to use
+     * @param parser          the parser to use
+     * @param random          the random number generator used for shuffling the investors
+     */
+    public InvestorManagement(StockManagement stockManagement, Parser parser, Random random) {
+        this(stockManagement, parser.getInvestorCounts(), parser.getInitialCash(), parser.getInitialPortfolio(), random);
+    }
 
-        Map<Stock, Integer> converted = convertStocksPortfolio(parser.getInitialPortfolio());
-        for (int i = 0; i < parser.getNumberOfRandomInvestors(); i++) {
-            createRandomChoiceInvestor(parser.getInitialCash(), converted);
+    /**
+     * Create a new investor management with the given stock management and investors.
+     * Every investor starts with the same cash and portfolio.
+     *
+     * @param stockManagement  the stock management to use
+     * @param investorCounts   the number of investors of each strategy, by the symbol of the strategy
+     * @param initialCash      the initial cash of every investor
+     * @param initialPortfolio the initial stock-quantity map of every investor
+     * @param random           the random number generator used for shuffling the investors
+     * @throws IllegalArgumentException if there's no strategy with one of the symbols
+     */
+    public InvestorManagement(StockManagement stockManagement, Map<Character, Integer> investorCounts, int initialCash,
+                              Map<String, Integer> initialPortfolio, Random random) {
+        this(stockManagement, InvestorCohort.of(investorCounts, initialCash, initialPortfolio), random);
+    }
+
+    /**
+     * Create a new investor management with the given stock management and cohorts of investors.
+     *
+     * @param stockManagement the stock management to use
+     * @param cohorts         the cohorts of investors, created in this order
+     * @param random          the random number generator used for shuffling the investors
+     * @throws IllegalArgumentException if there's no strategy with the symbol of one of the cohorts
+     */
+    public InvestorManagement(StockManagement stockManagement, List<InvestorCohort> cohorts, Random random) {
+        this(stockManagement, random);
+        createInvestors(cohorts, 0);
+    }
+
+    /**
+     * Creates the investors of the given cohorts, allocating the store slots of each cohort in bulk.
+     * Investor objects of the previous run are reused for the slots that get the same id and type.
+     *
+     * @param cohorts       the cohorts of investors
+     * @param reusableSlots the number of slots holding investors of the previous run
+     * @throws IllegalArgumentException if there's no strategy with the symbol of one of the cohorts
+     */
+    private void createInvestors(List<InvestorCohort> cohorts, int reusableSlots) {
+        int numberOfInvestors = cohorts.stream().mapToInt(InvestorCohort::count).sum();
+        ensureCapacity(numberOfInvestors);
+        store.ensureCapacity(numberOfInvestors);
+
+        for (InvestorCohort cohort : cohorts) {
+            InvestorStrategy strategy = InvestorStrategies.forSymbol(cohort.type());
+            if (strategy == null) {
+                throw new IllegalArgumentException("Unknown investor type: " + cohort.type());
+            }
+            byte type = (byte) strategy.getSymbol();
+            Map<Stock, Integer> converted = convertStocksPortfolio(cohort.portfolio());
+            Stock[] stocks = converted.keySet().toArray(new Stock[0]);
+            int[] quantities = new int[stocks.length];
+            for (int i = 0; i < stocks.length; i++) {
+                quantities[i] = converted.get(stocks[i]);
+            }
+            // the store keeps the type of a cleared slot until it's allocated again
+            int first = store.size();
+            int reused = 0;
+            while (reused < cohort.count() && first + reused < reusableSlots
+                    && investorsBySlot[first + reused].getId() == nextID + reused && store.getType(first + reused) == type) {
+                reused++;
+            }
+            store.allocate(type, cohort.cash(), stocks, quantities, cohort.count());
+            for (int slot = first; slot < first + cohort.count(); slot++) {
+                if (slot < first + reused) {
+                    nextID++;
+                    register(investorsBySlot[slot]);
+                } else {
+                    register(strategy.createInvestor(nextID++, store, slot));
+                }
+            }
         }
-        for (int i = 0; i < parser.getNumberOfSMAInvestors(); i++) {
-            createSMAInvestor(parser.getInitialCash(), converted);
+    }
+
+    /**
+     * Replaces all investors with new ones, for a new run, reusing the arrays and the store.
+     * The investors get the same ids and slots as they would in a new investor management.
+     *
+     * @param investorCounts   the number of investors of each strategy, by the symbol of the strategy
+     * @param initialCash      the initial cash of every investor
+     * @param initialPortfolio the initial stock-quantity map of every investor
+     * @throws IllegalArgumentException if there's no strategy with one of the symbols
+     */
+    public void reset(Map<Character, Integer> investorCounts, int initialCash, Map<String, Integer> initialPortfolio) {
+        reset(InvestorCohort.of(investorCounts, initialCash, initialPortfolio));
+    }
+
+    /**
+     * Replaces all investors with the investors of the given cohorts, for a new run, reusing the arrays and the store.
+     * The investors get the same ids and slots as they would in a new investor management.
+     *
+     * @param cohorts the cohorts of investors
+     * @throws IllegalArgumentException if there's no strategy with the symbol of one of the cohorts
+     */
+    public void reset(List<InvestorCohort> cohorts) {
+        int previousNumberOfInvestors = numberOfInvestors;
+        for (int slot = 0; slot < previousNumberOfInvestors; slot++) {
+            investors[investorsBySlot[slot].getId()] = null;
         }
+        store.clear();
+        netWorthIndex.reset();
+        numberOfInvestors = 0;
+        numberOfEligibleInvestors = 0;
+        lastCheapestPrice = 0;
+        maxIneligibleBalance = 0;
+        minCashOnlyEligibleBalance = Long.MAX_VALUE;
+        nextID = 0;
+        createInvestors(cohorts, previousNumberOfInvestors);
     }
 
     /**
-     * Get the investors.
+     * Get the investors, ordered by their id.
+     * Allocates a new list, so it shouldn't be used inside the simulation loop.
      *
      * @return the investors
      */
-    public Set<AInvestor> getInvestors() {
-        return investors;
+    public List<AInvestor> getInvestors() {
+        return Arrays.stream(investors).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Get the number of registered investors.
+     *
+     * @return the number of registered investors
+     */
+    public int getNumberOfInvestors() {
+        return numberOfInvestors;
+    }
+
+    /**
+     * Register the given investor under its id and slot.
+     * Slots are allocated right before investors are registered, so they are dense as well.
+     *
+     * @param investor the investor to register
+     * @throws IllegalArgumentException if an investor with the same id is already registered
+     */
+    private void register(AInvestor investor) {
+        int id = investor.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("Investor ID cannot be negative");
+        }
+        if (id >= investors.length) {
+            investors = Arrays.copyOf(investors, Math.max(id + 1, investors.length * 2));
+        }
+        if (investors[id] != null) {
+            throw new IllegalArgumentException("Investor with ID " + id + " already exists");
+        }
+        ensureCapacity(numberOfInvestors + 1);
+        investors[id] = investor;
+        investorsBySlot[investor.getSlot()] = investor;
+        // new investors are eligible until the next eligibility update says otherwise
+        minCashOnlyEligibleBalance = Math.min(minCashOnlyEligibleBalance, store.getBalance(investor.getSlot()));
+        place(investor.getSlot(), numberOfInvestors++);
+        if (numberOfEligibleInvestors < numberOfInvestors - 1) {
+            swap(numberOfEligibleInvestors, numberOfInvestors - 1);
+        }
+        numberOfEligibleInvestors++;
+    }
+
+    /**
+     * Allocate a slot in the store for a new investor with the given type, balance and stocks portfolio.
+     *
+     * @param type            the type of the investor
+     * @param balance         the initial balance of the investor
+     * @param stocksPortfolio the initial stocks portfolio of the investor
+     * @return the allocated slot
+     */
+    private int allocateSlot(byte type, int balance, Map<Stock, Integer> stocksPortfolio) {
+        int slot = store.allocate(type, balance);
+        for (Map.Entry<Stock, Integer> entry : stocksPortfolio.entrySet()) {
+            store.addStockQuantity(slot, entry.getKey(), entry.getValue());
+        }
+        return slot;
+    }
+
+    /**
+     * Make sure that the given number of investors can be registered without resizing the order array.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > order.length) {
+            int newCapacity = Math.max(capacity, order.length * 2);
+            order = Arrays.copyOf(order, newCapacity);
+            orderIndexBySlot = Arrays.copyOf(orderIndexBySlot, newCapacity);
+            investorsBySlot = Arrays.copyOf(investorsBySlot, newCapacity);
+        }
+    }
+
+    /**
+     * Create a new investor with the given strategy, balance and stocks portfolio.
+     *
+     * @param strategy        the strategy of the investor
+     * @param balance         the initial balance of the investor
+     * @param stocksPortfolio the initial stocks portfolio of the investor
+     * @return the created investor
+     */
+    public AInvestor createInvestor(InvestorStrategy strategy, int balance, Map<Stock, Integer> stocksPortfolio) {
+        AInvestor investor = strategy.createInvestor(nextID++, store, allocateSlot((byte) strategy.getSymbol(), balance, stocksPortfolio));
+        register(investor);
+        return investor;
     }
 
     /**
@@ -60,8 +332,8 @@ public class InvestorManagement {
      * @return the created investor
      */
     public SMAInvestor createSMAInvestor(int balance, Map<Stock, Integer> stocksPortfolio) {
-        SMAInvestor investor = new SMAInvestor(nextID++, balance, stocksPortfolio);
-        investors.add(investor);
+        SMAInvestor investor = new SMAInvestor(nextID++, store, allocateSlot(SMAInvestor.TYPE, balance, stocksPortfolio));
+        register(investor);
         return investor;
     }
 
@@ -73,8 +345,8 @@ public class InvestorManagement {
      * @return the created investor
      */
     public RandomChoiceInvestor createRandomChoiceInvestor(int balance, Map<Stock, Integer> stocksPortfolio) {
-        RandomChoiceInvestor investor = new RandomChoiceInvestor(nextID++, balance, stocksPortfolio);
-        investors.add(investor);
+        RandomChoiceInvestor investor = new RandomChoiceInvestor(nextID++, store, allocateSlot(RandomChoiceInvestor.TYPE, balance, stocksPortfolio));
+        register(investor);
         return investor;
     }
 
@@ -107,6 +379,61 @@ public class InvestorManagement {
         return stockManagement;
     }
 
+    /**
+     * Get the store holding the balances and portfolios of the investors.
+     *
+     * @return the investor store
+     */
+    public ColumnarInvestorStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the mark-to-market net worth of the given investor, at the last prices of the stocks.
+     * Only the holders of stocks whose price changed since the last query are revalued.
+     *
+     * @param investor the investor, created by this investor management
+     * @return the net worth of the investor
+     */
+    public long getNetWorth(AInvestor investor) {
+        netWorthIndex.revalue();
+        return netWorthIndex.getNetWorth(investor.getSlot());
+    }
+
+    /**
+     * Revalues the net worths of the holders of stocks whose price changed since the last revaluation,
+     * so that they can be read with {@link #getNetWorth(int)}.
+     */
+    public void revalueNetWorths() {
+        netWorthIndex.revalue();
+    }
+
+    /**
+     * Get the net worth of the investor in the given slot, as of the last revaluation, without revaluing.
+     * Safe to call from several threads as long as nothing trades or revalues meanwhile.
+     *
+     * @param slot the slot of the investor
+     * @return the net worth of the investor
+     */
+    public long getNetWorth(int slot) {
+        return netWorthIndex.getNetWorth(slot);
+    }
+
+    /**
+     * Get the investors with the highest net worth, at the last prices of the stocks.
+     *
+     * @param k the number of investors
+     * @return the k richest investors, richest first
+     */
+    public List<AInvestor> getNetWorthLeaderboard(int k) {
+        netWorthIndex.revalue();
+        List<AInvestor> leaderboard = new ArrayList<>();
+        for (int slot : netWorthIndex.getTopSlots(k)) {
+            leaderboard.add(investorsBySlot[slot]);
+        }
+        return leaderboard;
+    }
+
     /**
      * Get the next investor ID.
      *
@@ -132,12 +459,20 @@ public class InvestorManagement {
      * @return the investor with the given ID, or null if no such investor exists
      */
     public AInvestor getInvestor(int id) {
-        for (AInvestor investor : investors) {
-            if (investor.getId() == id) {
-                return investor;
-            }
+        if (id < 0 || id >= investors.length) {
+            return null;
         }
-        return null;
+        return investors[id];
+    }
+
+    /**
+     * Get the investor held in the given slot of the store.
+     *
+     * @param slot the slot of the investor
+     * @return the investor in the given slot
+     */
+    public AInvestor getInvestorBySlot(int slot) {
+        return investorsBySlot[slot];
     }
 
     /**
@@ -156,14 +491,430 @@ public class InvestorManagement {
     }
 
     /**
-     * Get the investors in random order.
+     * Reshuffle the store slots of the eligible investors in place, using the Fisher-Yates algorithm.
+     * Only the first {@link #getNumberOfEligibleInvestors()} entries of the returned array are the eligible investors
+     * (the rest of the first {@link #getNumberOfInvestors()} entries are the ineligible ones),
+     * and the array is reused (and reshuffled) by the next call.
+     *
+     * @return the slots of the investors, eligible ones first in random order
+     */
+    public int[] shuffleInvestorOrder() {
+        for (int i = numberOfEligibleInvestors - 1; i > 0; i--) {
+            swap(i, random.nextInt(i + 1));
+        }
+        return order;
+    }
+
+    /**
+     * Get the store slots of the investors in their current order, without reshuffling them.
+     * Only the first {@link #getNumberOfEligibleInvestors()} entries of the returned array are the eligible investors.
+     *
+     * @return the slots of the investors, eligible ones first
+     */
+    public int[] getInvestorOrder() {
+        return order;
+    }
+
+    /**
+     * Get all investors in random order.
+     * Allocates a new list, the simulation loop uses {@link #shuffleInvestorOrder()} instead.
      *
      * @return list of the investors in random order
      */
     public List<AInvestor> getInvestorsInRandomOrder() {
-        List<AInvestor> investorsList = new ArrayList<>(investors);
-        Collections.shuffle(investorsList);
+        List<AInvestor> investorsList = new ArrayList<>(numberOfInvestors);
+        for (int i = 0; i < numberOfInvestors; i++) {
+            investorsList.add(investorsBySlot[order[i]]);
+        }
+        Collections.shuffle(investorsList, random);
         return investorsList;
     }
 
-}
\ No newline at end of file
+    /**
+     * Get the number of investors that can still trade, as of the last {@link #updateEligibility()}.
+     *
+     * @return the number of eligible investors
+     */
+    public int getNumberOfEligibleInvestors() {
+        return numberOfEligibleInvestors;
+    }
+
+    /**
+     * Check if the investor in the given slot is eligible,
+     * that is if they can still trade: they have any stock, or enough cash for the lowest bid any strategy could make,
+     * see {@link InvestorStrategy#lowestBuyPrice(Stock, SimulationParameters)}.
+     *
+     * @param slot the slot of the investor
+     * @return true if the investor is eligible, false otherwise
+     */
+    public boolean isEligible(int slot) {
+        return orderIndexBySlot[slot] < numberOfEligibleInvestors;
+    }
+
+    /**
+     * Updates the set of eligible investors, with the default parameters.
+     */
+    public void updateEligibility() {
+        updateEligibility(DEFAULT_PARAMETERS);
+    }
+
+    /**
+     * Updates the set of eligible investors.
+     * Only the investors changed by settlement since the last update are checked,
+     * unless the lowest possible bid changed, which can change the eligibility of the investors without stocks:
+     * the eligible ones are checked again only if the bid rose above the lowest balance any of them may have,
+     * and the ineligible ones only if it fell to the highest balance any of them may have.
+     *
+     * @param parameters the parameters of the simulation, which bound the bids of the strategies
+     */
+    public void updateEligibility(SimulationParameters parameters) {
+        int cheapestPrice = cheapestBuyPrice(parameters);
+
+        int[] changedSlots = store.getChangedSlots();
+        for (int i = 0; i < store.getNumberOfChangedSlots(); i++) {
+            updateEligibility(changedSlots[i], cheapestPrice);
+        }
+        store.clearChangedSlots();
+
+        if (cheapestPrice > lastCheapestPrice && cheapestPrice > minCashOnlyEligibleBalance) {
+            // investors with cash only may no longer afford the lowest bid
+            // iterating backwards, since a removed investor is swapped with the last eligible one
+            minCashOnlyEligibleBalance = Long.MAX_VALUE;
+            for (int i = numberOfEligibleInvestors - 1; i >= 0; i--) {
+                updateEligibility(order[i], cheapestPrice);
+            }
+        } else if (cheapestPrice < lastCheapestPrice && cheapestPrice <= maxIneligibleBalance) {
+            // some of the ineligible investors may afford the lowest bid now
+            // iterating forwards, since an added investor is swapped with the first ineligible one
+            maxIneligibleBalance = 0;
+            for (int i = numberOfEligibleInvestors; i < numberOfInvestors; i++) {
+                updateEligibility(order[i], cheapestPrice);
+            }
+        }
+        lastCheapestPrice = cheapestPrice;
+    }
+
+    /**
+     * Get the lowest price any strategy could bid for any stock.
+     * The lowest bid of a stock is only asked from the strategies again when its price changed since it was last asked.
+     *
+     * @param parameters the parameters of the simulation, which bound the bids of the strategies
+     * @return the lowest bid price
+     */
+    private int cheapestBuyPrice(SimulationParameters parameters) {
+        List<Stock> stocks = stockManagement.getStocks();
+        if (parameters != lowestBuyPricesParameters || lowestBuyPrices.length != stocks.size()) {
+            lowestBuyPrices = new int[stocks.size()];
+            lowestBuyPricesAt = new int[stocks.size()];
+            Arrays.fill(lowestBuyPricesAt, -1);
+            lowestBuyPricesParameters = parameters;
+        }
+        int cheapestPrice = Integer.MAX_VALUE;
+        for (Stock stock : stocks) {
+            int ordinal = stock.getOrdinal();
+            if (lowestBuyPricesAt[ordinal] != stock.getLastPrice()) {
+                int lowestBuyPrice = Integer.MAX_VALUE;
+                for (InvestorStrategy strategy : InvestorStrategies.getStrategies()) {
+                    lowestBuyPrice = Math.min(lowestBuyPrice, strategy.lowestBuyPrice(stock, parameters));
+                }
+                lowestBuyPrices[ordinal] = lowestBuyPrice;
+                lowestBuyPricesAt[ordinal] = stock.getLastPrice();
+            }
+            cheapestPrice = Math.min(cheapestPrice, lowestBuyPrices[ordinal]);
+        }
+        return cheapestPrice;
+    }
+
+    /**
+     * Moves the investor in the given slot to the eligible or ineligible part of the order.
+     *
+     * @param slot          the slot of the investor
+     * @param cheapestPrice the lowest price any strategy could bid
+     */
+    private void updateEligibility(int slot, int cheapestPrice) {
+        long balance = store.getBalance(slot);
+        boolean eligible = store.getNumberOfHeldStocks(slot) > 0 || balance >= cheapestPrice;
+        if (eligible && !isEligible(slot)) {
+            swap(orderIndexBySlot[slot], numberOfEligibleInvestors++);
+        } else if (!eligible && isEligible(slot)) {
+            swap(orderIndexBySlot[slot], --numberOfEligibleInvestors);
+        }
+        if (!eligible) {
+            maxIneligibleBalance = Math.max(maxIneligibleBalance, balance);
+        } else if (store.getNumberOfHeldStocks(slot) == 0) {
+            minCashOnlyEligibleBalance = Math.min(minCashOnlyEligibleBalance, balance);
+        }
+    }
+
+    /**
+     * Puts the given slot at the given index of the order.
+     *
+     * @param slot  the slot
+     * @param index the index in the order
+     */
+    private void place(int slot, int index) {
+        order[index] = slot;
+        orderIndexBySlot[slot] = index;
+    }
+
+    /**
+     * Puts the given slot read from a checkpoint or a snapshot at the given index of the order,
+     * if it's the slot of an investor that isn't placed yet.
+     *
+     * @param slot   the slot
+     * @param index  the index in the order
+     * @param placed whether each slot has been placed already, updated
+     * @return true if the slot was placed, false if it's invalid or repeated
+     */
+    private boolean placeRestored(int slot, int index, boolean[] placed) {
+        if (slot < 0 || slot >= numberOfInvestors || placed[slot]) {
+            return false;
+        }
+        placed[slot] = true;
+        place(slot, index);
+        return true;
+    }
+
+    /**
+     * Swaps the slots at the given indices of the order.
+     *
+     * @param i the first index
+     * @param j the second index
+     */
+    private void swap(int i, int j) {
+        int slot = order[i];
+        place(order[j], i);
+        place(slot, j);
+    }
+
+    /**
+     * Get the random number generator used for shuffling the investors.
+     *
+     * @return the random number generator
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Writes the investors, their order and the state of the random number generator in the binary checkpoint format.
+     * The eligibility is written as it is, with the slots changed since its last update,
+     * which the first eligibility update of the restored simulation applies.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(BinaryChannelWriter writer) throws IOException {
+        ByteArrayOutputStream randomState = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(randomState)) {
+            out.writeObject(random);
+        }
+        writer.putBytes(randomState.toByteArray());
+        writer.putInt(nextID);
+        writer.putInt(numberOfInvestors);
+        int numberOfStocks = stockManagement.getNumberOfStocks();
+        for (int slot = 0; slot < numberOfInvestors; slot++) {
+            writer.putInt(investorsBySlot[slot].getId());
+            writer.putByte(store.getType(slot));
+            writer.putLong(store.getBalance(slot));
+            writer.putInt(store.getNumberOfHeldStocks(slot));
+            for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+                int quantity = store.getStockQuantity(slot, ordinal);
+                if (quantity != 0) {
+                    writer.putInt(ordinal);
+                    writer.putInt(quantity);
+                }
+            }
+        }
+        for (int i = 0; i < numberOfInvestors; i++) {
+            writer.putInt(order[i]);
+        }
+        int[] changedSlots = store.getChangedSlots();
+        writer.putInt(store.getNumberOfChangedSlots());
+        for (int i = 0; i < store.getNumberOfChangedSlots(); i++) {
+            writer.putInt(changedSlots[i]);
+        }
+        writer.putInt(numberOfEligibleInvestors);
+        writer.putInt(lastCheapestPrice);
+        writer.putLong(maxIneligibleBalance);
+    }
+
+    /**
+     * Reads an investor management written by {@link #writeCheckpoint(BinaryChannelWriter)}.
+     * The investors get the same ids and slots they had.
+     *
+     * @param reader          the reader
+     * @param stockManagement the stock management holding the stocks of the investors
+     * @return the investor management
+     * @throws IOException if an I/O error occurs or the data is invalid
+     */
+    public static InvestorManagement readCheckpoint(BinaryChannelReader reader, StockManagement stockManagement) throws IOException {
+        Random random;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(reader.getBytes()))) {
+            random = (Random) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid random number generator state", e);
+        }
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement, random);
+        int nextID = reader.getInt();
+        int numberOfInvestors = reader.getInt();
+        investorManagement.ensureCapacity(numberOfInvestors);
+        investorManagement.store.ensureCapacity(numberOfInvestors);
+        for (int i = 0; i < numberOfInvestors; i++) {
+            int id = reader.getInt();
+            byte type = reader.getByte();
+            InvestorStrategy strategy = InvestorStrategies.forSymbol((char) type);
+            if (strategy == null) {
+                throw new IOException("Unknown investor type: " + (char) type);
+            }
+            int slot = investorManagement.store.allocate(type, reader.getLong());
+            int heldStocks = reader.getInt();
+            for (int j = 0; j < heldStocks; j++) {
+                Stock stock = stockManagement.getStock(reader.getInt());
+                investorManagement.store.addStockQuantity(slot, stock, reader.getInt());
+            }
+            investorManagement.register(strategy.createInvestor(id, investorManagement.store, slot));
+        }
+        investorManagement.store.clearChangedSlots();
+        boolean[] placed = new boolean[numberOfInvestors];
+        for (int i = 0; i < numberOfInvestors; i++) {
+            int slot = reader.getInt();
+            if (!investorManagement.placeRestored(slot, i, placed)) {
+                throw new IOException("Invalid or repeated investor slot in the order: " + slot);
+            }
+        }
+        int numberOfChangedSlots = reader.getInt();
+        for (int i = 0; i < numberOfChangedSlots; i++) {
+            int slot = reader.getInt();
+            if (slot < 0 || slot >= numberOfInvestors) {
+                throw new IOException("Invalid changed investor slot: " + slot);
+            }
+            investorManagement.store.markChanged(slot);
+        }
+        investorManagement.numberOfEligibleInvestors = reader.getInt();
+        investorManagement.lastCheapestPrice = reader.getInt();
+        investorManagement.maxIneligibleBalance = reader.getLong();
+        investorManagement.nextID = nextID;
+        return investorManagement;
+    }
+
+    /**
+     * Get the size of the investors in the snapshot format.
+     *
+     * @return the size in bytes
+     */
+    public long getSnapshotSize() {
+        long rowBytes = Byte.BYTES + 2L * Integer.BYTES + Long.BYTES + (long) Integer.BYTES * stockManagement.getNumberOfStocks();
+        // the header, the row data, the changed slots and the padding before the balances
+        return 5L * Integer.BYTES + Long.BYTES + rowBytes * numberOfInvestors + (long) Integer.BYTES * store.getNumberOfChangedSlots()
+                + Long.BYTES;
+    }
+
+    /**
+     * Writes the investors in the snapshot format, a fixed-width columnar layout meant to be memory-mapped:
+     * the next id, the number of investors, the number of eligible investors, the number of changed slots,
+     * the cheapest price and the maximal ineligible balance,
+     * then the columns of the types, the ids, the order, the changed slots, the positions (a row for every slot, by stock ordinal)
+     * and, aligned to 8 bytes from the start of the buffer, the balances.
+     * The eligibility is written as it is, like for checkpoints, and the random number generator isn't written.
+     *
+     * @param buffer the buffer to write to, at its position
+     */
+    public void writeSnapshot(ByteBuffer buffer) {
+        int numberOfChangedSlots = store.getNumberOfChangedSlots();
+        buffer.putInt(nextID);
+        buffer.putInt(numberOfInvestors);
+        buffer.putInt(numberOfEligibleInvestors);
+        buffer.putInt(numberOfChangedSlots);
+        buffer.putInt(lastCheapestPrice);
+        buffer.putLong(maxIneligibleBalance);
+        int numberOfStocks = stockManagement.getNumberOfStocks();
+        for (int slot = 0; slot < numberOfInvestors; slot++) {
+            buffer.put(store.getType(slot));
+        }
+        for (int slot = 0; slot < numberOfInvestors; slot++) {
+            buffer.putInt(investorsBySlot[slot].getId());
+        }
+        for (int i = 0; i < numberOfInvestors; i++) {
+            buffer.putInt(order[i]);
+        }
+        int[] changedSlots = store.getChangedSlots();
+        for (int i = 0; i < numberOfChangedSlots; i++) {
+            buffer.putInt(changedSlots[i]);
+        }
+        for (int slot = 0; slot < numberOfInvestors; slot++) {
+            for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+                buffer.putInt(store.getStockQuantity(slot, ordinal));
+            }
+        }
+        buffer.position((buffer.position() + Long.BYTES - 1) & -Long.BYTES);
+        for (int slot = 0; slot < numberOfInvestors; slot++) {
+            buffer.putLong(store.getBalance(slot));
+        }
+    }
+
+    /**
+     * Reads an investor management written by {@link #writeSnapshot(ByteBuffer)}, copying the columns in bulk.
+     * The investors get the same ids and slots they had.
+     *
+     * @param buffer          the buffer to read from, at its position
+     * @param stockManagement the stock management holding the stocks of the investors
+     * @param random          the random number generator used for shuffling the investors
+     * @return the investor management
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public static InvestorManagement readSnapshot(ByteBuffer buffer, StockManagement stockManagement, Random random) {
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement, random);
+        int nextID = buffer.getInt();
+        int numberOfInvestors = buffer.getInt();
+        int numberOfEligibleInvestors = buffer.getInt();
+        int numberOfChangedSlots = buffer.getInt();
+        int lastCheapestPrice = buffer.getInt();
+        long maxIneligibleBalance = buffer.getLong();
+        int numberOfStocks = stockManagement.getNumberOfStocks();
+        investorManagement.ensureCapacity(numberOfInvestors);
+
+        ByteBuffer types = buffer.slice(buffer.position(), numberOfInvestors);
+        int idsOffset = buffer.position() + numberOfInvestors;
+        IntBuffer ids = buffer.slice(idsOffset, numberOfInvestors * Integer.BYTES).asIntBuffer();
+        IntBuffer order = buffer.slice(idsOffset + numberOfInvestors * Integer.BYTES, numberOfInvestors * Integer.BYTES).asIntBuffer();
+        int changedSlotsOffset = idsOffset + 2 * numberOfInvestors * Integer.BYTES;
+        IntBuffer changedSlots = buffer.slice(changedSlotsOffset, numberOfChangedSlots * Integer.BYTES).asIntBuffer();
+        int positionsOffset = changedSlotsOffset + numberOfChangedSlots * Integer.BYTES;
+        IntBuffer positions = buffer.slice(positionsOffset, numberOfInvestors * numberOfStocks * Integer.BYTES).asIntBuffer();
+        int balancesOffset = (positionsOffset + numberOfInvestors * numberOfStocks * Integer.BYTES + Long.BYTES - 1) & -Long.BYTES;
+        LongBuffer balances = buffer.slice(balancesOffset, numberOfInvestors * Long.BYTES).asLongBuffer();
+        buffer.position(balancesOffset + numberOfInvestors * Long.BYTES);
+
+        ColumnarInvestorStore store = investorManagement.store;
+        store.allocate(types, balances, positions, numberOfInvestors);
+        InvestorStrategy[] strategies = new InvestorStrategy[128];
+        for (int slot = 0; slot < numberOfInvestors; slot++) {
+            byte type = store.getType(slot);
+            if (type < 0 || (strategies[type] == null && (strategies[type] = InvestorStrategies.forSymbol((char) type)) == null)) {
+                throw new IllegalArgumentException("Unknown investor type: " + (char) type);
+            }
+            investorManagement.register(strategies[type].createInvestor(ids.get(slot), store, slot));
+        }
+        store.clearChangedSlots();
+        boolean[] placed = new boolean[numberOfInvestors];
+        for (int i = 0; i < numberOfInvestors; i++) {
+            int slot = order.get(i);
+            if (!investorManagement.placeRestored(slot, i, placed)) {
+                throw new IllegalArgumentException("Invalid or repeated investor slot in the order: " + slot);
+            }
+        }
+        for (int i = 0; i < numberOfChangedSlots; i++) {
+            int slot = changedSlots.get(i);
+            if (slot < 0 || slot >= numberOfInvestors) {
+                throw new IllegalArgumentException("Invalid changed investor slot: " + slot);
+            }
+            store.markChanged(slot);
+        }
+        investorManagement.numberOfEligibleInvestors = numberOfEligibleInvestors;
+        investorManagement.lastCheapestPrice = lastCheapestPrice;
+        investorManagement.maxIneligibleBalance = maxIneligibleBalance;
+        investorManagement.nextID = nextID;
+        return investorManagement;
+    }
+}
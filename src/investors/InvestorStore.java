@@ -0,0 +1,54 @@
+package investors;
+
+import stocks.Stock;
+
+import java.util.Map;
+
+/**
+ * Storage of the cash and stock positions of investors.
+ * Investors are views over a slot of the store, so the store decides how the state is laid out in memory.
+ */
+public interface InvestorStore {
+    /**
+     * Get the balance of the investor in the given slot.
+     *
+     * @param slot the slot of the investor
+     * @return the balance of the investor
+     */
+    long getBalance(int slot);
+
+    /**
+     * Add the given amount (possibly negative) to the balance of the investor in the given slot.
+     * Doesn't check if the balance stays non-negative, that's the responsibility of the investor.
+     *
+     * @param slot   the slot of the investor
+     * @param amount the amount to add
+     */
+    void addToBalance(int slot, long amount);
+
+    /**
+     * Get the quantity of the stock held by the investor in the given slot.
+     *
+     * @param slot  the slot of the investor
+     * @param stock the stock
+     * @return the quantity of the stock held, 0 if the investor has none
+     */
+    int getStockQuantity(int slot, Stock stock);
+
+    /**
+     * Add the given quantity (possibly negative) of the stock to the portfolio of the investor in the given slot.
+     *
+     * @param slot     the slot of the investor
+     * @param stock    the stock
+     * @param quantity the quantity to add
+     */
+    void addStockQuantity(int slot, Stock stock, int quantity);
+
+    /**
+     * Get the stocks portfolio of the investor in the given slot.
+     *
+     * @param slot the slot of the investor
+     * @return the stock-quantity map of the investor, not to be modified
+     */
+    Map<Stock, Integer> getStocksPortfolio(int slot);
+}
@@ -0,0 +1,34 @@
+package investors;
+
+import stocks.Stock;
+
+/**
+ * Listener notified by a columnar investor store about every change of the state of its investors.
+ */
+public interface InvestorStoreListener {
+    /**
+     * Called when a new slot is allocated.
+     *
+     * @param slot    the allocated slot
+     * @param balance the initial balance
+     */
+    void onAllocated(int slot, long balance);
+
+    /**
+     * Called when the balance of a slot changes.
+     *
+     * @param slot   the slot
+     * @param amount the amount added to the balance (possibly negative)
+     */
+    void onBalanceChanged(int slot, long amount);
+
+    /**
+     * Called when the position of a slot in a stock changes.
+     *
+     * @param slot        the slot
+     * @param stock       the stock
+     * @param quantity    the quantity added to the position (possibly negative)
+     * @param newQuantity the position after the change
+     */
+    void onStockQuantityChanged(int slot, Stock stock, int quantity, int newQuantity);
+}
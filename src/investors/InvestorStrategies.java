@@ -0,0 +1,88 @@
+package investors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the investor strategies available through {@link java.util.ServiceLoader}.
+ * The built-in random choice and SMA strategies are always registered,
+ * even if the service configuration file isn't on the class path.
+ */
+public class InvestorStrategies {
+    private static final List<InvestorStrategy> strategies;
+    /**
+     * Index of each strategy in the list of strategies by its symbol, -1 for unknown symbols.
+     */
+    private static final int[] indexBySymbol = new int[128];
+
+    static {
+        List<InvestorStrategy> loaded = new ArrayList<>();
+        Arrays.fill(indexBySymbol, -1);
+        for (InvestorStrategy strategy : ServiceLoader.load(InvestorStrategy.class)) {
+            register(loaded, strategy);
+        }
+        if (indexBySymbol[RandomChoiceInvestor.TYPE] == -1) {
+            register(loaded, new RandomChoiceStrategy());
+        }
+        if (indexBySymbol[SMAInvestor.TYPE] == -1) {
+            register(loaded, new SMAStrategy());
+        }
+        strategies = Collections.unmodifiableList(loaded);
+    }
+
+    /**
+     * Adds the strategy to the list, checking that its symbol is valid and unique.
+     *
+     * @param loaded   the list of strategies
+     * @param strategy the strategy to add
+     * @throws IllegalStateException if the symbol is invalid or already taken
+     */
+    private static void register(List<InvestorStrategy> loaded, InvestorStrategy strategy) {
+        char symbol = strategy.getSymbol();
+        if (symbol >= indexBySymbol.length || Character.isWhitespace(symbol) || symbol == '#') {
+            throw new IllegalStateException("Invalid investor strategy symbol: " + symbol);
+        }
+        if (indexBySymbol[symbol] != -1) {
+            throw new IllegalStateException("Investor strategy symbol " + symbol + " is used by "
+                    + loaded.get(indexBySymbol[symbol]).getClass().getName() + " and " + strategy.getClass().getName());
+        }
+        indexBySymbol[symbol] = loaded.size();
+        loaded.add(strategy);
+    }
+
+    /**
+     * Returns all registered strategies.
+     *
+     * @return the registered strategies
+     */
+    public static List<InvestorStrategy> getStrategies() {
+        return strategies;
+    }
+
+    /**
+     * Returns the index of the strategy with the given symbol in {@link #getStrategies()}.
+     *
+     * @param symbol the symbol of the strategy
+     * @return the index of the strategy, or -1 if there's no such strategy
+     */
+    public static int indexOf(char symbol) {
+        if (symbol >= indexBySymbol.length) {
+            return -1;
+        }
+        return indexBySymbol[symbol];
+    }
+
+    /**
+     * Returns the strategy with the given symbol.
+     *
+     * @param symbol the symbol of the strategy
+     * @return the strategy, or null if there's no such strategy
+     */
+    public static InvestorStrategy forSymbol(char symbol) {
+        int index = indexOf(symbol);
+        return index == -1 ? null : strategies.get(index);
+    }
+}
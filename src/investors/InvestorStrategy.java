@@ -0,0 +1,76 @@
+package investors;
+
+import requests.OrderBuffer;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+
+/**
+ * Service provider interface for investor strategies.
+ * Implementations are discovered with {@link java.util.ServiceLoader}, so a new investor type only needs
+ * a class implementing this interface (with a public no-argument constructor)
+ * and an entry in {@code META-INF/services/investors.InvestorStrategy}.
+ * A single strategy instance serves all simulations, so implementations must be stateless.
+ */
+public interface InvestorStrategy {
+    /**
+     * Get the symbol of the strategy, used for investors of this type in scenario files.
+     *
+     * @return the symbol, an ASCII character
+     */
+    char getSymbol();
+
+    /**
+     * Create an investor of this type, whose state is held in the given slot of the given store.
+     *
+     * @param id    the id of the investor
+     * @param store the store holding the state of the investor
+     * @param slot  the slot of the investor in the store
+     * @return the new investor
+     */
+    AInvestor createInvestor(int id, InvestorStore store, int slot);
+
+    /**
+     * Make the trade decisions of a batch of investors of this type for the current round.
+     * Per-round market data only has to be read once for the whole batch.
+     * At most one order per investor can be added to the buffer.
+     *
+     * @param simulation the simulation
+     * @param store      the store holding the state of the investors
+     * @param slots      the slots of the investors, in the order they should decide
+     * @param count      the number of valid entries in slots
+     * @param orders     the buffer to add the orders to
+     */
+    void decideBatch(StockExchangeSimulation simulation, InvestorStore store, int[] slots, int count, OrderBuffer orders);
+
+    /**
+     * Get the lowest price an investor of this type may bid for the given stock, with the given parameters.
+     * Investors without stocks whose cash is below this price for every stock and strategy can't trade anymore and are skipped.
+     * The default is 1, so strategies that don't override it never have their investors skipped for lack of cash.
+     * It may only depend on the last price of the stock and the parameters, since it's only asked again when the price changes.
+     *
+     * @param stock      the stock
+     * @param parameters the parameters of the simulation
+     * @return the lowest bid price
+     */
+    default int lowestBuyPrice(Stock stock, SimulationParameters parameters) {
+        return 1;
+    }
+
+    /**
+     * Get the first round, from the current one on, in which any investor of the batch may make a decision,
+     * provided that no trades happen until then, so that the prices of all stocks stay the same.
+     * It's asked at the start of the round, before the prices of the round are recorded,
+     * and the simulation skips the rounds before the earliest of these rounds if no requests can be matched in them.
+     * The default is the current round, so strategies that don't override it are never skipped.
+     *
+     * @param simulation the simulation
+     * @param store      the store holding the state of the investors
+     * @param slots      the slots of the eligible investors of this type
+     * @param count      the number of valid entries in slots
+     * @return the round, or {@link Integer#MAX_VALUE} if the investors would never act
+     */
+    default int nextActiveRound(StockExchangeSimulation simulation, InvestorStore store, int[] slots, int count) {
+        return simulation.getRound();
+    }
+}
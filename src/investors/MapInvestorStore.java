@@ -0,0 +1,53 @@
+package investors;
+
+import stocks.Stock;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Store holding the state of a single investor in a hash map.
+ * Used by investors created directly, outside any investor management,
+ * since their stocks don't have to belong to a stock management.
+ */
+public class MapInvestorStore implements InvestorStore {
+    private final Map<Stock, Integer> stocksPortfolio;
+    private long balance;
+
+    /**
+     * Create a new store with the given balance and stocks portfolio.
+     *
+     * @param balance         the initial balance
+     * @param stocksPortfolio the initial stocks portfolio
+     */
+    public MapInvestorStore(long balance, Map<Stock, Integer> stocksPortfolio) {
+        this.balance = balance;
+        this.stocksPortfolio = new HashMap<>(stocksPortfolio); // copy the map!!
+    }
+
+    @Override
+    public long getBalance(int slot) {
+        return balance;
+    }
+
+    @Override
+    public void addToBalance(int slot, long amount) {
+        balance += amount;
+    }
+
+    @Override
+    public int getStockQuantity(int slot, Stock stock) {
+        return stocksPortfolio.getOrDefault(stock, 0);
+    }
+
+    @Override
+    public void addStockQuantity(int slot, Stock stock, int quantity) {
+        stocksPortfolio.put(stock, stocksPortfolio.getOrDefault(stock, 0) + quantity);
+    }
+
+    @Override
+    public Map<Stock, Integer> getStocksPortfolio(int slot) {
+        return Collections.unmodifiableMap(stocksPortfolio);
+    }
+}
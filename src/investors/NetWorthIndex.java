@@ -0,0 +1,246 @@
+package investors;
+
+import stocks.Stock;
+import stocks.StockManagement;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Mark-to-market net worth of every investor of a columnar store, maintained incrementally.
+ * Settlement updates the cash and position legs as they change, valuing positions at the marked price of the stock.
+ * When the price of a stock moves away from its marked price, only the holders of that stock are revalued,
+ * and that only happens lazily, on the next {@link #revalue()}.
+ */
+public class NetWorthIndex implements InvestorStoreListener {
+    private static final int INITIAL_CAPACITY = 16;
+    private final ColumnarInvestorStore store;
+    private final StockManagement stockManagement;
+    private long[] netWorths;
+    /**
+     * Price each stock's positions are currently valued at, by the stock ordinal, -1 if not marked yet.
+     */
+    private int[] markedPrices;
+    /**
+     * Slots that may hold each stock, by the stock ordinal.
+     * Slots whose position dropped to zero are only removed on the next revaluation of the stock.
+     */
+    private int[][] holders;
+    private int[] numberOfHolders;
+    private BitSet[] listedHolders;
+
+    /**
+     * Creates a new net worth index of the investors of the given store, and registers it as the store's listener.
+     * The store must be empty.
+     *
+     * @param store the store
+     */
+    public NetWorthIndex(ColumnarInvestorStore store) {
+        if (store.size() != 0) {
+            throw new IllegalArgumentException("The store must be empty");
+        }
+        this.store = store;
+        this.stockManagement = store.getStockManagement();
+        this.netWorths = new long[INITIAL_CAPACITY];
+        this.markedPrices = new int[0];
+        this.holders = new int[0][];
+        this.numberOfHolders = new int[0];
+        this.listedHolders = new BitSet[0];
+        store.setListener(this);
+    }
+
+    @Override
+    public void onAllocated(int slot, long balance) {
+        if (slot >= netWorths.length) {
+            netWorths = Arrays.copyOf(netWorths, Math.max(slot + 1, netWorths.length * 2));
+        }
+        netWorths[slot] = balance;
+    }
+
+    @Override
+    public void onBalanceChanged(int slot, long amount) {
+        netWorths[slot] += amount;
+    }
+
+    @Override
+    public void onStockQuantityChanged(int slot, Stock stock, int quantity, int newQuantity) {
+        int ordinal = stock.getOrdinal();
+        ensureStock(ordinal);
+        if (markedPrices[ordinal] == -1) {
+            markedPrices[ordinal] = stock.getLastPrice();
+        }
+        netWorths[slot] += (long) quantity * markedPrices[ordinal];
+        if (newQuantity != 0 && !listedHolders[ordinal].get(slot)) {
+            listedHolders[ordinal].set(slot);
+            if (numberOfHolders[ordinal] == holders[ordinal].length) {
+                holders[ordinal] = Arrays.copyOf(holders[ordinal], Math.max(16, 2 * numberOfHolders[ordinal]));
+            }
+            holders[ordinal][numberOfHolders[ordinal]++] = slot;
+        }
+    }
+
+    /**
+     * Forgets all holders and marked prices, for a store that has just been cleared.
+     */
+    public void reset() {
+        int numberOfStocks = stockManagement.getNumberOfStocks();
+        if (markedPrices.length > numberOfStocks) {
+            markedPrices = Arrays.copyOf(markedPrices, numberOfStocks);
+            holders = Arrays.copyOf(holders, numberOfStocks);
+            numberOfHolders = Arrays.copyOf(numberOfHolders, numberOfStocks);
+            listedHolders = Arrays.copyOf(listedHolders, numberOfStocks);
+        }
+        Arrays.fill(markedPrices, -1);
+        Arrays.fill(numberOfHolders, 0);
+        for (BitSet listed : listedHolders) {
+            listed.clear();
+        }
+    }
+
+    /**
+     * Revalues the holders of every stock whose price moved since it was last marked.
+     */
+    public void revalue() {
+        for (int ordinal = 0; ordinal < markedPrices.length; ordinal++) {
+            int price = stockManagement.getStock(ordinal).getLastPrice();
+            if (markedPrices[ordinal] != -1 && markedPrices[ordinal] != price) {
+                revalue(ordinal, price);
+            }
+        }
+    }
+
+    /**
+     * Revalues the holders of the stock with the given ordinal at the given price,
+     * dropping the ones that no longer hold it.
+     *
+     * @param ordinal the ordinal of the stock
+     * @param price   the new price of the stock
+     */
+    private void revalue(int ordinal, int price) {
+        long priceChange = price - markedPrices[ordinal];
+        int[] stockHolders = holders[ordinal];
+        int i = 0;
+        while (i < numberOfHolders[ordinal]) {
+            int slot = stockHolders[i];
+            int quantity = store.getStockQuantity(slot, ordinal);
+            if (quantity == 0) {
+                listedHolders[ordinal].clear(slot);
+                stockHolders[i] = stockHolders[--numberOfHolders[ordinal]];
+            } else {
+                netWorths[slot] += quantity * priceChange;
+                i++;
+            }
+        }
+        markedPrices[ordinal] = price;
+    }
+
+    /**
+     * Returns the net worth of the investor in the given slot, as of the last {@link #revalue()}.
+     *
+     * @param slot the slot of the investor
+     * @return the net worth of the investor
+     */
+    public long getNetWorth(int slot) {
+        return netWorths[slot];
+    }
+
+    /**
+     * Returns the slots of the k investors with the highest net worth, as of the last {@link #revalue()}.
+     * Uses a bounded min-heap, so it takes O(n log k) time.
+     *
+     * @param k the number of investors
+     * @return the slots of the richest investors, richest first
+     */
+    public int[] getTopSlots(int k) {
+        int n = store.size();
+        k = Math.min(k, n);
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int slot = 0; slot < n; slot++) {
+            if (heapSize < k) {
+                heap[heapSize++] = slot;
+                siftUp(heap, heapSize - 1);
+            } else if (k > 0 && netWorths[slot] > netWorths[heap[0]]) {
+                heap[0] = slot;
+                siftDown(heap, heapSize);
+            }
+        }
+        // popping the minimum to the back sorts the heap in descending order
+        for (int size = heapSize - 1; size > 0; size--) {
+            int tmp = heap[0];
+            heap[0] = heap[size];
+            heap[size] = tmp;
+            siftDown(heap, size);
+        }
+        return heap;
+    }
+
+    /**
+     * Moves the element at the given index of the min-heap up to its place.
+     *
+     * @param heap  the heap of slots
+     * @param index the index of the element
+     */
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (netWorths[heap[parent]] <= netWorths[heap[index]]) {
+                return;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = tmp;
+            index = parent;
+        }
+    }
+
+    /**
+     * Moves the root of the min-heap down to its place.
+     *
+     * @param heap the heap of slots
+     * @param size the size of the heap
+     */
+    private void siftDown(int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && netWorths[heap[left]] < netWorths[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && netWorths[heap[right]] < netWorths[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            int tmp = heap[smallest];
+            heap[smallest] = heap[index];
+            heap[index] = tmp;
+            index = smallest;
+        }
+    }
+
+    /**
+     * Makes sure the per-stock arrays cover the stock with the given ordinal.
+     *
+     * @param ordinal the ordinal of the stock
+     */
+    private void ensureStock(int ordinal) {
+        if (ordinal < markedPrices.length) {
+            return;
+        }
+        int oldLength = markedPrices.length;
+        int newLength = Math.max(ordinal + 1, stockManagement.getNumberOfStocks());
+        markedPrices = Arrays.copyOf(markedPrices, newLength);
+        Arrays.fill(markedPrices, oldLength, newLength, -1);
+        holders = Arrays.copyOf(holders, newLength);
+        numberOfHolders = Arrays.copyOf(numberOfHolders, newLength);
+        listedHolders = Arrays.copyOf(listedHolders, newLength);
+        for (int i = oldLength; i < newLength; i++) {
+            holders[i] = new int[0];
+            listedHolders[i] = new BitSet();
+        }
+    }
+}
@@ -1,20 +1,21 @@
 package investors;
 
 import requests.ATradeRequest;
-import requests.RequestManagement;
 import simulation.StockExchangeSimulation;
 import stocks.Stock;
-import utilities.RandomChoiceMachine;
 
-import java.util.Collection;
 import java.util.Map;
 
 /**
  * For performance reasons, we don't want to use indefinite trade requests too much.
+ * The decisions are made by the {@link RandomChoiceStrategy}.
  */
 public class RandomChoiceInvestor extends AInvestor {
-    private final static int MAX_TRADE_VALIDITY = 10;
-    private final RandomChoiceMachine randomChoiceMachine;
+    /**
+     * Type of the random choice investors in a columnar investor store.
+     */
+    public final static byte TYPE = 'R';
+    private final static InvestorStrategy strategy = new RandomChoiceStrategy();
 
     /**
      * Creates a new random choice investor with the given name and balance and an empty portfolio.
@@ -24,7 +25,6 @@ public class RandomChoiceInvestor extends AInvestor {
      */
     public RandomChoiceInvestor(int name, int balance) {
         super(name, balance);
-        this.randomChoiceMachine = new RandomChoiceMachine();
     }
 
     /**
@@ -36,47 +36,28 @@ public class RandomChoiceInvestor extends AInvestor {
      */
     public RandomChoiceInvestor(int name, int balance, Map<Stock, Integer> stocksPortfolio) {
         super(name, balance, stocksPortfolio);
-        this.randomChoiceMachine = new RandomChoiceMachine();
+    }
+
+    /**
+     * Creates a new random choice investor with the given name, whose state is held in the given slot of the given store.
+     *
+     * @param name  the name of the investor
+     * @param store the store holding the state of the investor
+     * @param slot  the slot of the investor in the store
+     */
+    public RandomChoiceInvestor(int name, InvestorStore store, int slot) {
+        super(name, store, slot);
     }
 
     /**
      * Randomly makes a trade decision for the current round.
-     * For performance reasons all are valid for a random number of rounds between 1 and MAX_TRADE_VALIDITY.
      *
      * @param stockExchangeSimulation the stock exchange simulation
      * @return a trade request if the investor decides to make a trade, null otherwise
      */
     @Override
     public ATradeRequest makeTradeDecision(StockExchangeSimulation stockExchangeSimulation) {
-        int round = stockExchangeSimulation.getRound();
-        int howLongValid = (int) (Math.random() * MAX_TRADE_VALIDITY) + 1; // [1, MAX_TRADE_VALIDITY]
-        int expiryRound = round + howLongValid;
-        // buy or sell
-        if (randomChoiceMachine.getRandomBoolean()) {
-            Stock stock = randomChoiceMachine.getRandomElement(stockExchangeSimulation.getStockManagement().getStocks());
-            int priceChange = (int) (Math.random() * 10) - 5; // [-5, 5]
-            int price = stock.priceChangedByUpTo(priceChange);
-            int maxQuantity = getBalance() / price;
-            if (maxQuantity == 0)
-                return null; // if the investor hasn't enough money, return null
-            int quantity = (int) (Math.random() * maxQuantity) + 1; // [1, maxQuantity]
-            assert canBuyStock(stock, quantity, price);
-            return RequestManagement.createValidUntilNthRoundTradeRequest(this, stock, quantity, price, ATradeRequest.TradeType.BUY, expiryRound);
-        } else {
-            Collection<Stock> stocksInPortfolio = getStocksPortfolio().entrySet().stream()
-                    .filter(entry -> entry.getValue() > 0).map(Map.Entry::getKey).toList();
-            if (stocksInPortfolio.isEmpty()) {
-                return null;
-            }
-            Stock stock = randomChoiceMachine.getRandomElement(stocksInPortfolio);
-            int maxQuantity = getStocksPortfolio().get(stock);
-            int quantity = (int) (Math.random() * maxQuantity) + 1; // [1, maxQuantity]
-            int priceChange = (int) (Math.random() * 10) - 5; // [-5, 5]
-            int price = stock.priceChangedByUpTo(priceChange);
-            assert canSellStock(stock, quantity, price);
-            return RequestManagement.createValidUntilNthRoundTradeRequest(this, stock, quantity, price, ATradeRequest.TradeType.SELL, expiryRound);
-        }
-
+        return makeTradeDecision(stockExchangeSimulation, strategy);
     }
 
     @Override
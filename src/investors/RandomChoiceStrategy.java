@@ -0,0 +1,101 @@
+package investors;
+
+import requests.OrderBuffer;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import utilities.RandomChoiceMachine;
+
+import java.util.List;
+
+import static requests.ATradeRequest.TradeType.BUY;
+import static requests.ATradeRequest.TradeType.SELL;
+
+/**
+ * Strategy of the random choice investors: every round they buy or sell a random quantity of a random stock.
+ * For performance reasons all requests are valid for a random number of rounds between 1 and the maximal trade validity
+ * of the {@link simulation.SimulationParameters} of the simulation.
+ */
+public class RandomChoiceStrategy implements InvestorStrategy {
+
+    @Override
+    public char getSymbol() {
+        return (char) RandomChoiceInvestor.TYPE;
+    }
+
+    @Override
+    public AInvestor createInvestor(int id, InvestorStore store, int slot) {
+        return new RandomChoiceInvestor(id, store, slot);
+    }
+
+    @Override
+    public void decideBatch(StockExchangeSimulation simulation, InvestorStore store, int[] slots, int count, OrderBuffer orders) {
+        RandomChoiceMachine randomChoiceMachine = new RandomChoiceMachine(simulation.getContext().getRandom());
+        List<Stock> stocks = simulation.getStockManagement().getStocks();
+        if (stocks.isEmpty()) {
+            return;
+        }
+        int round = simulation.getRound();
+        SimulationParameters parameters = simulation.getContext().getParameters();
+        int maxTradeValidity = parameters.getMaxTradeValidity();
+        int maxPriceChange = parameters.getMaxPriceChange();
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            int expiryRound = round + randomChoiceMachine.getRandomInt(1, maxTradeValidity);
+            int priceChange = randomChoiceMachine.getRandomInt(-maxPriceChange, maxPriceChange);
+            // buy or sell
+            if (randomChoiceMachine.getRandomBoolean()) {
+                Stock stock = stocks.get(randomChoiceMachine.getRandomIndex(stocks.size()));
+                int price = stock.priceChangedByUpTo(priceChange);
+                long maxQuantity = Math.min(store.getBalance(slot) / price, Integer.MAX_VALUE);
+                if (maxQuantity == 0)
+                    continue; // if the investor hasn't enough money, no order
+                int quantity = randomChoiceMachine.getRandomInt(1, (int) maxQuantity);
+                orders.add(slot, stock.getOrdinal(), quantity, price, BUY, expiryRound);
+            } else {
+                // we scan the portfolio twice instead of collecting the stocks in possession into a list
+                int stocksInPortfolio = 0;
+                for (Stock stock : stocks) {
+                    if (store.getStockQuantity(slot, stock) > 0) {
+                        stocksInPortfolio++;
+                    }
+                }
+                if (stocksInPortfolio == 0) {
+                    continue;
+                }
+                Stock stock = nthStockInPortfolio(store, slot, stocks, randomChoiceMachine.getRandomIndex(stocksInPortfolio));
+                int quantity = randomChoiceMachine.getRandomInt(1, store.getStockQuantity(slot, stock));
+                int price = stock.priceChangedByUpTo(priceChange);
+                orders.add(slot, stock.getOrdinal(), quantity, price, SELL, expiryRound);
+            }
+        }
+    }
+
+    /**
+     * Random investors bid up to the maximum price change below the last price, see {@link Stock#priceChangedByUpTo(int)}.
+     */
+    @Override
+    public int lowestBuyPrice(Stock stock, SimulationParameters parameters) {
+        int lastPrice = stock.getLastPrice();
+        // changes that would make the price non-positive leave it as it is, the smaller ones go down to 1
+        return Math.min(lastPrice, Math.max(1, lastPrice - parameters.getMaxPriceChange()));
+    }
+
+    /**
+     * Returns the n-th (counting from 0) of the given stocks that the investor has in possession.
+     *
+     * @param store  the store holding the state of the investor
+     * @param slot   the slot of the investor
+     * @param stocks the stocks to choose from
+     * @param n      the index of the stock among the stocks in possession
+     * @return the n-th stock in possession
+     */
+    private static Stock nthStockInPortfolio(InvestorStore store, int slot, List<Stock> stocks, int n) {
+        for (Stock stock : stocks) {
+            if (store.getStockQuantity(slot, stock) > 0 && n-- == 0) {
+                return stock;
+            }
+        }
+        throw new IllegalArgumentException("The investor has fewer stocks in possession than " + (n + 1));
+    }
+}
@@ -1,20 +1,20 @@
 package investors;
 
 import requests.ATradeRequest;
-import requests.RequestManagement;
 import simulation.StockExchangeSimulation;
 import stocks.Stock;
 
-import java.util.Collection;
 import java.util.Map;
 
-import static requests.ATradeRequest.TradeType.BUY;
-import static requests.ATradeRequest.TradeType.SELL;
-
-
+/**
+ * Investor trading on SMA signals, the decisions are made by the {@link SMAStrategy}.
+ */
 public class SMAInvestor extends AInvestor {
-    private static final int SMA_DIFFERENCE = 5;
-    private static final int SINGAL_LENGTH = 10;
+    /**
+     * Type of the SMA investors in a columnar investor store.
+     */
+    public static final byte TYPE = 'S';
+    private static final InvestorStrategy strategy = new SMAStrategy();
 
     /**
      * Creates a new SMA investor with the given name and balance and an empty portfolio.
@@ -37,6 +37,17 @@ public class SMAInvestor extends AInvestor {
         super(name, balance, stocksPortfolio);
     }
 
+    /**
+     * Creates a new SMA investor with the given name, whose state is held in the given slot of the given store.
+     *
+     * @param name  the name of the investor
+     * @param store the store holding the state of the investor
+     * @param slot  the slot of the investor in the store
+     */
+    public SMAInvestor(int name, InvestorStore store, int slot) {
+        super(name, store, slot);
+    }
+
     /**
      * Makes a trade decision based on the given stock exchange simulation, using the SMA data.
      *
@@ -45,38 +56,7 @@ public class SMAInvestor extends AInvestor {
      */
     @Override
     public ATradeRequest makeTradeDecision(StockExchangeSimulation stockExchangeSimulation) {
-        if (stockExchangeSimulation.getRound() <= 10) {
-            return null; // he doesn't have enough data to make a decision
-        }
-
-
-        // filer out stocks that are not in the portfolio
-        // (the ones that the investor has 0 of)
-        Collection<Stock> stocksInPossesion = getStocksPortfolio().entrySet().stream()
-                .filter(entry -> entry.getValue() > 0).map(Map.Entry::getKey).toList();
-        for (Stock stock : stocksInPossesion) {
-            if (stockExchangeSimulation.getLastTradeData().checkIfSMASellSignal(stock)) {
-                int qty = getStocksPortfolio().get(stock);
-                int price = stock.priceChangedByUpTo(-SMA_DIFFERENCE); // to make it easier to sell
-                int lastRoundValid = stockExchangeSimulation.getRound() + SINGAL_LENGTH;
-                return RequestManagement.createValidUntilNthRoundTradeRequest(this, stock, qty, price, SELL, lastRoundValid);
-            }
-        }
-
-        // filter out stocks that the investor cannot afford
-        int balance = getBalance();
-        Collection<Stock> stockThatCanBeAfforded = stockExchangeSimulation.getStockManagement().getStocks().stream()
-                .filter(stock -> stock.getLastPrice() <= balance).toList();
-        for (Stock stock : stockThatCanBeAfforded) {
-            if (stockExchangeSimulation.getLastTradeData().checkIfSMABuySignal(stock)) {
-                int qty = balance / stock.getLastPrice();
-                int price = stock.getLastPrice(); // he wants to buy really fast, so he doesn't haggle
-                int lastRoundValid = stockExchangeSimulation.getRound() + SINGAL_LENGTH;
-                return RequestManagement.createValidUntilNthRoundTradeRequest(this, stock, qty, price, BUY, lastRoundValid);
-            }
-        }
-
-        return null; // no signal received
+        return makeTradeDecision(stockExchangeSimulation, strategy);
     }
 
     @Override
@@ -0,0 +1,106 @@
+package investors;
+
+import requests.OrderBuffer;
+import simulation.LastTradeData;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+
+import java.util.List;
+
+import static requests.ATradeRequest.TradeType.BUY;
+import static requests.ATradeRequest.TradeType.SELL;
+
+/**
+ * Strategy of the SMA investors: they sell the whole position in a stock on an SMA sell signal
+ * and spend all their money on a stock with an SMA buy signal.
+ * The signals are the same for every investor, so they are computed once per batch.
+ * How far below the last price they sell, for how long their requests are valid and how many rounds of data
+ * they wait for come from the {@link simulation.SimulationParameters} of the simulation.
+ */
+public class SMAStrategy implements InvestorStrategy {
+    @Override
+    public char getSymbol() {
+        return (char) SMAInvestor.TYPE;
+    }
+
+    @Override
+    public AInvestor createInvestor(int id, InvestorStore store, int slot) {
+        return new SMAInvestor(id, store, slot);
+    }
+
+    @Override
+    public void decideBatch(StockExchangeSimulation simulation, InvestorStore store, int[] slots, int count, OrderBuffer orders) {
+        SimulationParameters parameters = simulation.getContext().getParameters();
+        if (simulation.getRound() <= parameters.getSmaWarmUpRounds() || count == 0) {
+            return; // they don't have enough data to make a decision
+        }
+        List<Stock> stocks = simulation.getStockManagement().getStocks();
+        int numberOfStocks = stocks.size();
+        LastTradeData lastTradeData = simulation.getLastTradeData();
+        boolean[] sellSignals = new boolean[numberOfStocks];
+        boolean[] buySignals = new boolean[numberOfStocks];
+        boolean anySignal = false;
+        for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+            sellSignals[ordinal] = lastTradeData.checkIfSMASellSignal(stocks.get(ordinal));
+            buySignals[ordinal] = lastTradeData.checkIfSMABuySignal(stocks.get(ordinal));
+            anySignal |= sellSignals[ordinal] || buySignals[ordinal];
+        }
+        if (!anySignal) {
+            return; // no signal received, nobody trades
+        }
+
+        int smaDifference = parameters.getSmaDifference();
+        int lastRoundValid = simulation.getRound() + parameters.getSignalLength();
+        investors:
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+                Stock stock = stocks.get(ordinal);
+                int qty;
+                if (sellSignals[ordinal] && (qty = store.getStockQuantity(slot, stock)) > 0) {
+                    int price = stock.priceChangedByUpTo(-smaDifference); // to make it easier to sell
+                    orders.add(slot, ordinal, qty, price, SELL, lastRoundValid);
+                    continue investors;
+                }
+            }
+
+            long balance = store.getBalance(slot);
+            for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+                int price = stocks.get(ordinal).getLastPrice(); // he wants to buy really fast, so he doesn't haggle
+                if (buySignals[ordinal] && price <= balance) {
+                    int qty = (int) Math.min(balance / price, Integer.MAX_VALUE);
+                    orders.add(slot, ordinal, qty, price, BUY, lastRoundValid);
+                    continue investors;
+                }
+            }
+        }
+    }
+
+    /**
+     * SMA investors buy at the last price.
+     */
+    @Override
+    public int lowestBuyPrice(Stock stock, SimulationParameters parameters) {
+        return stock.getLastPrice();
+    }
+
+    /**
+     * SMA investors only act on a signal after the warm-up, and with constant prices the signals die out
+     * as soon as the remembered trades are all the same, so the first possible signal is found by replaying the SMAs.
+     */
+    @Override
+    public int nextActiveRound(StockExchangeSimulation simulation, InvestorStore store, int[] slots, int count) {
+        int round = simulation.getRound();
+        int firstRound = Math.max(round, simulation.getContext().getParameters().getSmaWarmUpRounds() + 1);
+        LastTradeData lastTradeData = simulation.getLastTradeData();
+        int nextActiveRound = Integer.MAX_VALUE;
+        for (Stock stock : simulation.getStockManagement().getStocks()) {
+            int rounds = lastTradeData.roundsUntilSMASignal(stock, stock.getLastPrice(), firstRound - round);
+            if (rounds != -1) {
+                nextActiveRound = Math.min(nextActiveRound, round + rounds);
+            }
+        }
+        return nextActiveRound;
+    }
+}
@@ -121,6 +121,15 @@ abstract public class ATradeRequest {
         return priceLimit;
     }
 
+    /**
+     * Check if the trade request is a market order, which has no price of its own and trades at the price of the other request.
+     *
+     * @return true if the trade request is a market order, false otherwise
+     */
+    public boolean isMarketOrder() {
+        return false;
+    }
+
     /**
      * Get the investor of the trade request.
      *
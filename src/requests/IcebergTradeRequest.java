@@ -0,0 +1,133 @@
+package requests;
+
+import investors.AInvestor;
+import stocks.Stock;
+import utilities.EventLogging;
+
+/**
+ * Represents an iceberg (reserve) order: a large trade request of which only a slice, at most the peak, is displayed.
+ * Only the displayed slice can be matched, see {@link #getQuantity()}, and the rest stays hidden.
+ * When the slice is filled and there's a hidden reserve, the trade request sheet displays a new slice
+ * and moves the request to the back of its price level, so it waits behind the requests that were displayed before it.
+ * It stays a single trade request with the same id for its whole life. It expires after the given round like
+ * {@link ValidUntilNthRoundTradeRequest}.
+ * <p>
+ * Iceberg orders have no {@link RequestType}, so strategies can't place them through the {@link OrderBuffer}
+ * and they can't be recorded as order flow. They're only added to a trade request sheet directly, as in the tests,
+ * and are kept by checkpoints like any other waiting request.
+ */
+public class IcebergTradeRequest extends ValidUntilNthRoundTradeRequest {
+    private final int peak;
+    private int displayedQuantity;
+
+    /**
+     * Create a new iceberg order with the given investor, stock, total quantity, peak, price limit, trade type, last round and id.
+     *
+     * @param investor   the investor that makes the trade request
+     * @param stock      the stock that is traded
+     * @param quantity   the total quantity of the stock that is traded
+     * @param peak       the largest quantity displayed at once
+     * @param priceLimit the price limit of the stock that is traded
+     * @param tradeType  the type of the trade request
+     * @param lastRound  the round after which the trade request expires
+     * @param id         the id of the trade request
+     * @throws IllegalArgumentException if the peak isn't positive
+     */
+    public IcebergTradeRequest(AInvestor investor, Stock stock, int quantity, int peak, int priceLimit, TradeType tradeType,
+                               int lastRound, int id) {
+        super(investor, stock, quantity, priceLimit, tradeType, lastRound, id);
+        if (peak < 1) {
+            throw new IllegalArgumentException("Invalid peak of iceberg order: " + peak);
+        }
+        this.peak = peak;
+        this.displayedQuantity = Math.min(peak, quantity);
+    }
+
+    /**
+     * Get the displayed quantity of the trade request, the only part that can be matched.
+     *
+     * @return the displayed quantity
+     */
+    @Override
+    public int getQuantity() {
+        return displayedQuantity;
+    }
+
+    /**
+     * Get the total quantity left of the trade request, displayed and hidden.
+     *
+     * @return the total quantity
+     */
+    public int getTotalQuantity() {
+        return super.getQuantity();
+    }
+
+    /**
+     * Get the hidden quantity of the trade request, displayed in later slices.
+     *
+     * @return the hidden quantity
+     */
+    public int getHiddenQuantity() {
+        return super.getQuantity() - displayedQuantity;
+    }
+
+    /**
+     * Get the largest quantity displayed at once.
+     *
+     * @return the peak
+     */
+    public int getPeak() {
+        return peak;
+    }
+
+    /**
+     * Reduce the displayed quantity, and so the total quantity, of the trade request by the given quantity.
+     *
+     * @param quantity the quantity to reduce by
+     * @throws IllegalArgumentException if the quantity is larger than the displayed quantity
+     */
+    @Override
+    public void reduceQuantity(int quantity) {
+        if (quantity > displayedQuantity) {
+            throw new IllegalArgumentException("Cannot reduce quantity by more than the displayed quantity");
+        }
+        super.reduceQuantity(quantity);
+        displayedQuantity -= quantity;
+    }
+
+    /**
+     * Displays a new slice of the hidden quantity, if the displayed one has been filled.
+     * Called by the trade request sheet, which moves the request to the back of its price level.
+     *
+     * @return true if a new slice is displayed, false otherwise
+     */
+    public boolean replenish() {
+        if (displayedQuantity > 0 || getHiddenQuantity() == 0) {
+            return false;
+        }
+        displayedQuantity = Math.min(peak, super.getQuantity());
+        return true;
+    }
+
+    /**
+     * Sets the displayed quantity of a trade request restored from a checkpoint.
+     *
+     * @param displayedQuantity the displayed quantity, at most the peak and the total quantity
+     */
+    void restoreDisplayedQuantity(int displayedQuantity) {
+        this.displayedQuantity = displayedQuantity;
+    }
+
+    /**
+     * Returns the string representation of the iceberg order.
+     *
+     * @return the string representation of the iceberg order
+     */
+    @Override
+    public String toString() {
+        String typeString = isBuyRequest() ? "Iceberg buy" : "Iceberg sell";
+        return typeString + " request for " + EventLogging.Color.blue(getStock().getIdentifier()) + " by "
+                + getInvestor() + " for " + EventLogging.Color.yellow(String.valueOf(displayedQuantity))
+                + " (of " + getTotalQuantity() + ") stocks at " + EventLogging.Color.green(String.valueOf(getPriceLimit()));
+    }
+}
@@ -0,0 +1,54 @@
+package requests;
+
+import investors.AInvestor;
+import stocks.Stock;
+import utilities.EventLogging;
+
+/**
+ * Represents a market order: a trade request without a price limit, filled at the best prices of the other side.
+ * It has the most extreme price limit of its side, so it crosses every waiting request of the other side and goes before
+ * the limit requests of its own side. It sweeps the other side in the round it's made in and whatever isn't filled
+ * expires with the round. It trades at the price of the request it's matched with,
+ * see {@link RequestManagement#chooseOlderPrice(ATradeRequest, ATradeRequest)}.
+ */
+public class MarketTradeRequest extends InstantTradeRequest {
+    /**
+     * Create a new market order with the given investor, stock, quantity, trade type and id.
+     *
+     * @param investor  the investor that makes the trade request
+     * @param stock     the stock that is traded
+     * @param quantity  the quantity of the stock that is traded
+     * @param tradeType the type of the trade request
+     * @param id        the id of the trade request
+     */
+    public MarketTradeRequest(AInvestor investor, Stock stock, int quantity, TradeType tradeType, int id) {
+        super(investor, stock, quantity, marketPriceLimit(tradeType), tradeType, id);
+    }
+
+    /**
+     * Get the price limit of market orders of the given trade type: the highest price for buying, the lowest for selling.
+     *
+     * @param tradeType the type of the trade request
+     * @return the price limit
+     */
+    public static int marketPriceLimit(TradeType tradeType) {
+        return tradeType == TradeType.BUY ? Integer.MAX_VALUE : 0;
+    }
+
+    @Override
+    public boolean isMarketOrder() {
+        return true;
+    }
+
+    /**
+     * Returns the string representation of the market order.
+     *
+     * @return the string representation of the market order
+     */
+    @Override
+    public String toString() {
+        String typeString = isBuyRequest() ? "Market buy" : "Market sell";
+        return typeString + " request for " + EventLogging.Color.blue(getStock().getIdentifier()) + " by "
+                + getInvestor() + " for " + EventLogging.Color.yellow(String.valueOf(getQuantity())) + " stocks";
+    }
+}
@@ -0,0 +1,211 @@
+package requests;
+
+import investors.AInvestor;
+import simulation.SimulationContext;
+import stocks.StockManagement;
+
+import java.util.Arrays;
+
+/**
+ * Buffer of the orders decided by investors in a round, held in parallel primitive arrays.
+ * Strategies write their decisions here in batches, and the simulation turns them into trade requests
+ * in the random order of the investors, so that the ids (and thus the price priority) of the requests
+ * don't depend on which strategy decided first.
+ * Each investor slot can have at most one order in the buffer.
+ */
+public class OrderBuffer {
+    private int[] slots;
+    private RequestType[] types;
+    private int[] stockOrdinals;
+    private int[] quantities;
+    private int[] stopPrices;
+    private int[] priceLimits;
+    private int[] lastRounds;
+    private boolean[] buys;
+    /**
+     * Row of the order of each investor slot, -1 if the investor has no order,
+     * or null if the rows are found by scanning, see {@link #forSingleInvestor()}.
+     */
+    private int[] rowBySlot;
+    private int size;
+
+    /**
+     * Creates a new order buffer for the given number of investor slots.
+     *
+     * @param capacity the expected number of investor slots
+     */
+    public OrderBuffer(int capacity) {
+        this(capacity, true);
+    }
+
+    /**
+     * Creates a new order buffer, with the rows indexed by investor slot or found by scanning.
+     *
+     * @param capacity the expected number of investor slots
+     * @param indexed  whether the rows are indexed by investor slot
+     */
+    private OrderBuffer(int capacity, boolean indexed) {
+        capacity = Math.max(1, capacity);
+        this.slots = new int[capacity];
+        this.types = new RequestType[capacity];
+        this.stockOrdinals = new int[capacity];
+        this.quantities = new int[capacity];
+        this.stopPrices = new int[capacity];
+        this.priceLimits = new int[capacity];
+        this.lastRounds = new int[capacity];
+        this.buys = new boolean[capacity];
+        if (indexed) {
+            this.rowBySlot = new int[capacity];
+            Arrays.fill(rowBySlot, -1);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Creates an order buffer for the decision of a single investor.
+     * Its size doesn't depend on the slot of the investor, since the row of a slot is found by scanning the rows.
+     *
+     * @return the new order buffer
+     */
+    public static OrderBuffer forSingleInvestor() {
+        return new OrderBuffer(1, false);
+    }
+
+    /**
+     * Adds an order valid until the given round.
+     *
+     * @param slot         the slot of the investor
+     * @param stockOrdinal the ordinal of the stock
+     * @param quantity     the quantity
+     * @param priceLimit   the price limit
+     * @param tradeType    the trade type
+     * @param lastRound    the last round the order is valid
+     * @throws IllegalArgumentException if the investor already has an order in the buffer
+     */
+    public void add(int slot, int stockOrdinal, int quantity, int priceLimit, ATradeRequest.TradeType tradeType, int lastRound) {
+        add(slot, RequestType.VALID_UNTIL, stockOrdinal, quantity, 0, priceLimit, tradeType, lastRound);
+    }
+
+    /**
+     * Adds an order of the given type, like a stop order with its stop price.
+     *
+     * @param slot         the slot of the investor
+     * @param type         the type of the order
+     * @param stockOrdinal the ordinal of the stock
+     * @param quantity     the quantity
+     * @param stopPrice    the stop price, only used by types that have one, see {@link RequestType#hasStopPrice()}
+     * @param priceLimit   the price limit
+     * @param tradeType    the trade type
+     * @param lastRound    the last round the order is valid
+     * @throws IllegalArgumentException if the investor already has an order in the buffer
+     */
+    public void add(int slot, RequestType type, int stockOrdinal, int quantity, int stopPrice, int priceLimit,
+                    ATradeRequest.TradeType tradeType, int lastRound) {
+        ensureSlotCapacity(slot + 1);
+        if (rowOf(slot) != -1) {
+            throw new IllegalArgumentException("Investor in slot " + slot + " already has an order in the buffer");
+        }
+        ensureRowCapacity(size + 1);
+        slots[size] = slot;
+        types[size] = type;
+        stockOrdinals[size] = stockOrdinal;
+        quantities[size] = quantity;
+        stopPrices[size] = stopPrice;
+        priceLimits[size] = priceLimit;
+        lastRounds[size] = lastRound;
+        buys[size] = tradeType == ATradeRequest.TradeType.BUY;
+        if (rowBySlot != null) {
+            rowBySlot[slot] = size;
+        }
+        size++;
+    }
+
+    /**
+     * Returns the row of the order of the investor in the given slot.
+     *
+     * @param slot the slot of the investor
+     * @return the row of the order, or -1 if the investor has no order
+     */
+    public int rowOf(int slot) {
+        if (rowBySlot == null) {
+            for (int row = 0; row < size; row++) {
+                if (slots[row] == slot) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+        if (slot >= rowBySlot.length) {
+            return -1;
+        }
+        return rowBySlot[slot];
+    }
+
+    /**
+     * Returns the number of orders in the buffer.
+     *
+     * @return the number of orders
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates the trade request for the order in the given row.
+     *
+     * @param row             the row of the order
+     * @param investor        the investor that decided the order
+     * @param stockManagement the stock management the stock ordinals refer to
+     * @param context         the context of the simulation, giving the id of the request
+     * @return the new trade request
+     */
+    public ATradeRequest toRequest(int row, AInvestor investor, StockManagement stockManagement, SimulationContext context) {
+        ATradeRequest.TradeType tradeType = buys[row] ? ATradeRequest.TradeType.BUY : ATradeRequest.TradeType.SELL;
+        return types[row].create(context, investor, stockManagement.getStock(stockOrdinals[row]),
+                quantities[row], stopPrices[row], priceLimits[row], tradeType, lastRounds[row]);
+    }
+
+    /**
+     * Removes all orders, touching only the rows that were used.
+     */
+    public void clear() {
+        if (rowBySlot != null) {
+            for (int row = 0; row < size; row++) {
+                rowBySlot[slots[row]] = -1;
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Makes sure there's room for the given number of rows.
+     *
+     * @param capacity the required number of rows
+     */
+    private void ensureRowCapacity(int capacity) {
+        if (capacity > slots.length) {
+            int newCapacity = Math.max(capacity, slots.length * 2);
+            slots = Arrays.copyOf(slots, newCapacity);
+            types = Arrays.copyOf(types, newCapacity);
+            stockOrdinals = Arrays.copyOf(stockOrdinals, newCapacity);
+            quantities = Arrays.copyOf(quantities, newCapacity);
+            stopPrices = Arrays.copyOf(stopPrices, newCapacity);
+            priceLimits = Arrays.copyOf(priceLimits, newCapacity);
+            lastRounds = Arrays.copyOf(lastRounds, newCapacity);
+            buys = Arrays.copyOf(buys, newCapacity);
+        }
+    }
+
+    /**
+     * Makes sure the given number of investor slots can be indexed.
+     *
+     * @param capacity the required number of slots
+     */
+    private void ensureSlotCapacity(int capacity) {
+        if (rowBySlot != null && capacity > rowBySlot.length) {
+            int oldLength = rowBySlot.length;
+            rowBySlot = Arrays.copyOf(rowBySlot, Math.max(capacity, oldLength * 2));
+            Arrays.fill(rowBySlot, oldLength, rowBySlot.length, -1);
+        }
+    }
+}
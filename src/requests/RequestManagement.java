@@ -1,15 +1,39 @@
 package requests;
 
 import investors.AInvestor;
+import investors.InvestorManagement;
+import simulation.SimulationContext;
 import stocks.Stock;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RequestManagement {
-    private static int nextID = 0;
+    private static final byte VALID_UNTIL_NTH_ROUND_TAG = 0;
+    private static final byte INSTANT_TAG = 1;
+    private static final byte ALL_OR_NOTHING_TAG = 2;
+    private static final byte INDEFINITE_TAG = 3;
+    private static final byte MARKET_TAG = 4;
+    private static final byte STOP_TAG = 5;
+    private static final byte ICEBERG_TAG = 6;
+    /**
+     * Id counter of the requests created without a simulation context.
+     */
+    private static final AtomicInteger nextID = new AtomicInteger();
 
     /**
      * Compares two trade requests and returns the price limit of the older one.
+     * Market orders have no price of their own, so a trade with one is made at the price limit of the other request,
+     * and a trade between two of them at the last price of the stock.
      */
     public static int chooseOlderPrice(ATradeRequest trade1, ATradeRequest trade2) {
+        if (trade1.isMarketOrder()) {
+            return trade2.isMarketOrder() ? trade1.getStock().getLastPrice() : trade2.getPriceLimit();
+        } else if (trade2.isMarketOrder()) {
+            return trade1.getPriceLimit();
+        }
         if (trade1.getId() < trade2.getId()) {
             return trade1.getPriceLimit();
         } else {
@@ -30,7 +54,24 @@ public class RequestManagement {
      */
     public static ValidUntilNthRoundTradeRequest createValidUntilNthRoundTradeRequest
     (AInvestor investor, Stock stock, int quantity, int priceLimit, ATradeRequest.TradeType tradeType, int lastRoundValid) {
-        return new ValidUntilNthRoundTradeRequest(investor, stock, quantity, priceLimit, tradeType, lastRoundValid, nextID++);
+        return new ValidUntilNthRoundTradeRequest(investor, stock, quantity, priceLimit, tradeType, lastRoundValid, nextID.getAndIncrement());
+    }
+
+    /**
+     * Create a new Valid until n-th round trade request with an id from the given simulation context.
+     *
+     * @param context        the context of the simulation the request is made in
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the quantity of the stock that is traded
+     * @param priceLimit     the price limit of the stock that is traded
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new trade request
+     */
+    public static ValidUntilNthRoundTradeRequest createValidUntilNthRoundTradeRequest
+    (SimulationContext context, AInvestor investor, Stock stock, int quantity, int priceLimit, ATradeRequest.TradeType tradeType, int lastRoundValid) {
+        return new ValidUntilNthRoundTradeRequest(investor, stock, quantity, priceLimit, tradeType, lastRoundValid, context.nextRequestID());
     }
 
     /**
@@ -45,7 +86,7 @@ public class RequestManagement {
      */
     public static AllOrNothingTradeRequest createAllOrNothingTradeRequest
     (AInvestor investor, Stock stock, int quantity, int priceLimit, ATradeRequest.TradeType tradeType) {
-        return new AllOrNothingTradeRequest(investor, stock, quantity, priceLimit, tradeType, nextID++);
+        return new AllOrNothingTradeRequest(investor, stock, quantity, priceLimit, tradeType, nextID.getAndIncrement());
     }
 
     /**
@@ -60,7 +101,7 @@ public class RequestManagement {
      */
     public static InstantTradeRequest createInstantTradeRequest
     (AInvestor investor, Stock stock, int quantity, int priceLimit, ATradeRequest.TradeType tradeType) {
-        return new InstantTradeRequest(investor, stock, quantity, priceLimit, tradeType, nextID++);
+        return new InstantTradeRequest(investor, stock, quantity, priceLimit, tradeType, nextID.getAndIncrement());
     }
 
     /**
@@ -75,6 +116,266 @@ public class RequestManagement {
      */
     public static IndefiniteTradeRequest createIndefiniteTradeRequest
     (AInvestor investor, Stock stock, int quantity, int priceLimit, ATradeRequest.TradeType tradeType) {
-        return new IndefiniteTradeRequest(investor, stock, quantity, priceLimit, tradeType, nextID++);
+        return new IndefiniteTradeRequest(investor, stock, quantity, priceLimit, tradeType, nextID.getAndIncrement());
+    }
+
+    /**
+     * Create a new Market order with the given investor, stock, quantity, trade type.
+     *
+     * @param investor  the investor that makes the trade request
+     * @param stock     the stock that is traded
+     * @param quantity  the quantity of the stock that is traded
+     * @param tradeType the type of the trade request
+     * @return the new market order
+     */
+    public static MarketTradeRequest createMarketTradeRequest
+    (AInvestor investor, Stock stock, int quantity, ATradeRequest.TradeType tradeType) {
+        return new MarketTradeRequest(investor, stock, quantity, tradeType, nextID.getAndIncrement());
+    }
+
+    /**
+     * Create a new Market order with an id from the given simulation context.
+     *
+     * @param context   the context of the simulation the request is made in
+     * @param investor  the investor that makes the trade request
+     * @param stock     the stock that is traded
+     * @param quantity  the quantity of the stock that is traded
+     * @param tradeType the type of the trade request
+     * @return the new market order
+     */
+    public static MarketTradeRequest createMarketTradeRequest
+    (SimulationContext context, AInvestor investor, Stock stock, int quantity, ATradeRequest.TradeType tradeType) {
+        return new MarketTradeRequest(investor, stock, quantity, tradeType, context.nextRequestID());
+    }
+
+    /**
+     * Create a new Stop order, which becomes a market order once triggered, with the given investor, stock, quantity,
+     * stop price, trade type.
+     *
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the quantity of the stock that is traded
+     * @param stopPrice      the price that triggers the trade request
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new stop order
+     */
+    public static StopTradeRequest createStopTradeRequest
+    (AInvestor investor, Stock stock, int quantity, int stopPrice, ATradeRequest.TradeType tradeType, int lastRoundValid) {
+        return new StopTradeRequest(investor, stock, quantity, stopPrice, tradeType, lastRoundValid, nextID.getAndIncrement());
+    }
+
+    /**
+     * Create a new Stop order, which becomes a market order once triggered, with an id from the given simulation context.
+     *
+     * @param context        the context of the simulation the request is made in
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the quantity of the stock that is traded
+     * @param stopPrice      the price that triggers the trade request
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new stop order
+     */
+    public static StopTradeRequest createStopTradeRequest
+    (SimulationContext context, AInvestor investor, Stock stock, int quantity, int stopPrice, ATradeRequest.TradeType tradeType,
+     int lastRoundValid) {
+        return new StopTradeRequest(investor, stock, quantity, stopPrice, tradeType, lastRoundValid, context.nextRequestID());
+    }
+
+    /**
+     * Create a new Stop-limit order, which becomes a limit request once triggered, with the given investor, stock, quantity,
+     * stop price, price limit, trade type.
+     *
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the quantity of the stock that is traded
+     * @param stopPrice      the price that triggers the trade request
+     * @param priceLimit     the price limit of the stock that is traded, once triggered
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new stop-limit order
+     */
+    public static StopTradeRequest createStopLimitTradeRequest
+    (AInvestor investor, Stock stock, int quantity, int stopPrice, int priceLimit, ATradeRequest.TradeType tradeType, int lastRoundValid) {
+        return new StopTradeRequest(investor, stock, quantity, stopPrice, priceLimit, tradeType, lastRoundValid, nextID.getAndIncrement());
+    }
+
+    /**
+     * Create a new Stop-limit order, which becomes a limit request once triggered, with an id from the given simulation context.
+     *
+     * @param context        the context of the simulation the request is made in
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the quantity of the stock that is traded
+     * @param stopPrice      the price that triggers the trade request
+     * @param priceLimit     the price limit of the stock that is traded, once triggered
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new stop-limit order
+     */
+    public static StopTradeRequest createStopLimitTradeRequest
+    (SimulationContext context, AInvestor investor, Stock stock, int quantity, int stopPrice, int priceLimit,
+     ATradeRequest.TradeType tradeType, int lastRoundValid) {
+        return new StopTradeRequest(investor, stock, quantity, stopPrice, priceLimit, tradeType, lastRoundValid, context.nextRequestID());
+    }
+
+    /**
+     * Create a new Iceberg order, which displays at most the peak of its quantity at once, with the given investor, stock,
+     * quantity, peak, price limit, trade type.
+     *
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the total quantity of the stock that is traded
+     * @param peak           the largest quantity displayed at once
+     * @param priceLimit     the price limit of the stock that is traded
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new iceberg order
+     */
+    public static IcebergTradeRequest createIcebergTradeRequest
+    (AInvestor investor, Stock stock, int quantity, int peak, int priceLimit, ATradeRequest.TradeType tradeType, int lastRoundValid) {
+        return new IcebergTradeRequest(investor, stock, quantity, peak, priceLimit, tradeType, lastRoundValid, nextID.getAndIncrement());
+    }
+
+    /**
+     * Create a new Iceberg order, which displays at most the peak of its quantity at once, with an id from the given simulation context.
+     * Iceberg orders have no {@link RequestType}, see {@link IcebergTradeRequest}.
+     *
+     * @param context        the context of the simulation the request is made in
+     * @param investor       the investor that makes the trade request
+     * @param stock          the stock that is traded
+     * @param quantity       the total quantity of the stock that is traded
+     * @param peak           the largest quantity displayed at once
+     * @param priceLimit     the price limit of the stock that is traded
+     * @param tradeType      the type of the trade request
+     * @param lastRoundValid the last round the trade request is valid
+     * @return the new iceberg order
+     */
+    public static IcebergTradeRequest createIcebergTradeRequest
+    (SimulationContext context, AInvestor investor, Stock stock, int quantity, int peak, int priceLimit,
+     ATradeRequest.TradeType tradeType, int lastRoundValid) {
+        return new IcebergTradeRequest(investor, stock, quantity, peak, priceLimit, tradeType, lastRoundValid, context.nextRequestID());
+    }
+
+    /**
+     * Writes the given trade request in the binary checkpoint format.
+     * The stock isn't written, it's implied by the place of the request in the checkpoint.
+     *
+     * @param writer  the writer
+     * @param request the trade request
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the type of the request can't be checkpointed
+     */
+    public static void writeRequest(BinaryChannelWriter writer, ATradeRequest request) throws IOException {
+        // the subclass has to be checked before its superclass
+        if (request.getClass() == InstantTradeRequest.class) {
+            writer.putByte(INSTANT_TAG);
+        } else if (request.getClass() == MarketTradeRequest.class) {
+            writer.putByte(MARKET_TAG);
+        } else if (request.getClass() == StopTradeRequest.class) {
+            writer.putByte(STOP_TAG);
+        } else if (request.getClass() == IcebergTradeRequest.class) {
+            writer.putByte(ICEBERG_TAG);
+        } else if (request.getClass() == ValidUntilNthRoundTradeRequest.class) {
+            writer.putByte(VALID_UNTIL_NTH_ROUND_TAG);
+        } else if (request.getClass() == AllOrNothingTradeRequest.class) {
+            writer.putByte(ALL_OR_NOTHING_TAG);
+        } else if (request.getClass() == IndefiniteTradeRequest.class) {
+            writer.putByte(INDEFINITE_TAG);
+        } else {
+            throw new IllegalArgumentException("Cannot checkpoint trade request of type " + request.getClass().getName());
+        }
+        writer.putInt(request.getId());
+        writer.putInt(request.getInvestor().getId());
+        writer.putBoolean(request.isBuyRequest());
+        writer.putInt(request.getQuantity());
+        writer.putInt(request.getPriceLimit());
+        if (request instanceof ValidUntilNthRoundTradeRequest validUntilRequest) {
+            writer.putInt(validUntilRequest.getLastRound());
+        }
+        if (request instanceof StopTradeRequest stopRequest) {
+            writer.putInt(stopRequest.getStopPrice());
+            writer.putBoolean(stopRequest.isMarketOrder());
+            writer.putBoolean(stopRequest.isActivated());
+        }
+        if (request instanceof IcebergTradeRequest icebergRequest) {
+            writer.putInt(icebergRequest.getTotalQuantity());
+            writer.putInt(icebergRequest.getPeak());
+        }
+    }
+
+    /**
+     * Reads a trade request written by {@link #writeRequest(BinaryChannelWriter, ATradeRequest)}.
+     * The request keeps its id, and the quantity it had left when it was written (displayed and hidden, for iceberg orders).
+     *
+     * @param reader             the reader
+     * @param stock              the stock of the request
+     * @param investorManagement the investor management holding the investor of the request
+     * @return the trade request
+     * @throws IOException if an I/O error occurs or the data is invalid
+     */
+    public static ATradeRequest readRequest(BinaryChannelReader reader, Stock stock, InvestorManagement investorManagement) throws IOException {
+        byte tag = reader.getByte();
+        int id = reader.getInt();
+        int investorId = reader.getInt();
+        ATradeRequest.TradeType tradeType = reader.getBoolean() ? ATradeRequest.TradeType.BUY : ATradeRequest.TradeType.SELL;
+        int quantity = reader.getInt();
+        int priceLimit = reader.getInt();
+        AInvestor investor = investorManagement.getInvestor(investorId);
+        if (investor == null) {
+            throw new IOException("Trade request " + id + " of unknown investor " + investorId);
+        }
+        return switch (tag) {
+            case VALID_UNTIL_NTH_ROUND_TAG ->
+                    new ValidUntilNthRoundTradeRequest(investor, stock, quantity, priceLimit, tradeType, reader.getInt(), id);
+            case INSTANT_TAG -> {
+                reader.getInt(); // instant requests always expire after round -1
+                yield new InstantTradeRequest(investor, stock, quantity, priceLimit, tradeType, id);
+            }
+            case ALL_OR_NOTHING_TAG -> new AllOrNothingTradeRequest(investor, stock, quantity, priceLimit, tradeType, id);
+            case INDEFINITE_TAG -> new IndefiniteTradeRequest(investor, stock, quantity, priceLimit, tradeType, id);
+            case MARKET_TAG -> {
+                reader.getInt(); // market orders are instant
+                yield new MarketTradeRequest(investor, stock, quantity, tradeType, id);
+            }
+            case STOP_TAG -> readStopRequest(reader, investor, stock, quantity, priceLimit, tradeType, id);
+            case ICEBERG_TAG -> {
+                int lastRound = reader.getInt();
+                int totalQuantity = reader.getInt();
+                IcebergTradeRequest request =
+                        new IcebergTradeRequest(investor, stock, totalQuantity, reader.getInt(), priceLimit, tradeType, lastRound, id);
+                request.restoreDisplayedQuantity(quantity);
+                yield request;
+            }
+            default -> throw new IOException("Unknown trade request type: " + tag);
+        };
+    }
+
+    /**
+     * Reads the rest of a stop order written by {@link #writeRequest(BinaryChannelWriter, ATradeRequest)}.
+     *
+     * @param reader     the reader
+     * @param investor   the investor of the request
+     * @param stock      the stock of the request
+     * @param quantity   the quantity left
+     * @param priceLimit the price limit
+     * @param tradeType  the type of the request
+     * @param id         the id of the request
+     * @return the stop order
+     * @throws IOException if an I/O error occurs
+     */
+    private static StopTradeRequest readStopRequest(BinaryChannelReader reader, AInvestor investor, Stock stock, int quantity,
+                                                    int priceLimit, ATradeRequest.TradeType tradeType, int id) throws IOException {
+        int lastRound = reader.getInt();
+        int stopPrice = reader.getInt();
+        boolean market = reader.getBoolean();
+        StopTradeRequest request = market
+                ? new StopTradeRequest(investor, stock, quantity, stopPrice, tradeType, lastRound, id)
+                : new StopTradeRequest(investor, stock, quantity, stopPrice, priceLimit, tradeType, lastRound, id);
+        if (reader.getBoolean()) {
+            request.activate();
+        }
+        return request;
     }
 }
@@ -0,0 +1,139 @@
+package requests;
+
+import investors.AInvestor;
+import simulation.SimulationContext;
+import stocks.Stock;
+
+/**
+ * The kinds of trade requests, for formats that store requests as data, like recorded order flow.
+ * Iceberg orders aren't one of them, see {@link IcebergTradeRequest}.
+ */
+public enum RequestType {
+    /**
+     * {@link ValidUntilNthRoundTradeRequest}, valid until its expiry round.
+     */
+    VALID_UNTIL,
+    /**
+     * {@link InstantTradeRequest}, valid only in the round it's made in.
+     */
+    INSTANT,
+    /**
+     * {@link AllOrNothingTradeRequest}, realised fully within its round or not at all.
+     */
+    ALL_OR_NOTHING,
+    /**
+     * {@link IndefiniteTradeRequest}, which never expires.
+     */
+    INDEFINITE,
+    /**
+     * {@link MarketTradeRequest}, valid only in the round it's made in, whose price limit is ignored.
+     */
+    MARKET,
+    /**
+     * {@link StopTradeRequest} that becomes a market order once triggered, whose price limit is ignored.
+     */
+    STOP,
+    /**
+     * {@link StopTradeRequest} that becomes a limit request once triggered.
+     */
+    STOP_LIMIT;
+
+    private static final RequestType[] values = values();
+
+    /**
+     * Returns the type with the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the type
+     * @throws IllegalArgumentException if there's no such type
+     */
+    public static RequestType ofOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown trade request type: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    /**
+     * Returns the type of the given trade request.
+     *
+     * @param request the trade request
+     * @return the type
+     * @throws IllegalArgumentException if the request isn't of one of the types, like an iceberg order
+     */
+    public static RequestType of(ATradeRequest request) {
+        // the subclass has to be checked before its superclass
+        if (request.getClass() == InstantTradeRequest.class) {
+            return INSTANT;
+        } else if (request.getClass() == MarketTradeRequest.class) {
+            return MARKET;
+        } else if (request.getClass() == ValidUntilNthRoundTradeRequest.class) {
+            return VALID_UNTIL;
+        } else if (request.getClass() == AllOrNothingTradeRequest.class) {
+            return ALL_OR_NOTHING;
+        } else if (request.getClass() == IndefiniteTradeRequest.class) {
+            return INDEFINITE;
+        } else if (request.getClass() == StopTradeRequest.class) {
+            return request.isMarketOrder() ? STOP : STOP_LIMIT;
+        }
+        throw new IllegalArgumentException("Unknown trade request type: " + request.getClass().getName());
+    }
+
+    /**
+     * Check if requests of this type have a stop price.
+     *
+     * @return true for {@link #STOP} and {@link #STOP_LIMIT}, false otherwise
+     */
+    public boolean hasStopPrice() {
+        return this == STOP || this == STOP_LIMIT;
+    }
+
+    /**
+     * Creates a new trade request of this type with an id from the given simulation context.
+     *
+     * @param context    the context of the simulation the request is made in
+     * @param investor   the investor that makes the trade request
+     * @param stock      the stock that is traded
+     * @param quantity   the quantity of the stock that is traded
+     * @param priceLimit the price limit of the stock that is traded, ignored by {@link #MARKET}
+     * @param tradeType  the type of the trade request
+     * @param lastRound  the last round the request is valid, only used by {@link #VALID_UNTIL}
+     * @return the new trade request
+     * @throws IllegalArgumentException if requests of this type have a stop price
+     */
+    public ATradeRequest create(SimulationContext context, AInvestor investor, Stock stock, int quantity, int priceLimit,
+                                ATradeRequest.TradeType tradeType, int lastRound) {
+        if (hasStopPrice()) {
+            throw new IllegalArgumentException("Trade request type " + this + " needs a stop price");
+        }
+        return create(context, investor, stock, quantity, 0, priceLimit, tradeType, lastRound);
+    }
+
+    /**
+     * Creates a new trade request of this type, with a stop price, with an id from the given simulation context.
+     *
+     * @param context    the context of the simulation the request is made in
+     * @param investor   the investor that makes the trade request
+     * @param stock      the stock that is traded
+     * @param quantity   the quantity of the stock that is traded
+     * @param stopPrice  the price that triggers the trade request, only used by {@link #STOP} and {@link #STOP_LIMIT}
+     * @param priceLimit the price limit of the stock that is traded, ignored by {@link #MARKET} and {@link #STOP}
+     * @param tradeType  the type of the trade request
+     * @param lastRound  the last round the request is valid, only used by {@link #VALID_UNTIL}, {@link #STOP}
+     *                   and {@link #STOP_LIMIT}
+     * @return the new trade request
+     */
+    public ATradeRequest create(SimulationContext context, AInvestor investor, Stock stock, int quantity, int stopPrice,
+                                int priceLimit, ATradeRequest.TradeType tradeType, int lastRound) {
+        int id = context.nextRequestID();
+        return switch (this) {
+            case VALID_UNTIL -> new ValidUntilNthRoundTradeRequest(investor, stock, quantity, priceLimit, tradeType, lastRound, id);
+            case INSTANT -> new InstantTradeRequest(investor, stock, quantity, priceLimit, tradeType, id);
+            case ALL_OR_NOTHING -> new AllOrNothingTradeRequest(investor, stock, quantity, priceLimit, tradeType, id);
+            case INDEFINITE -> new IndefiniteTradeRequest(investor, stock, quantity, priceLimit, tradeType, id);
+            case MARKET -> new MarketTradeRequest(investor, stock, quantity, tradeType, id);
+            case STOP -> new StopTradeRequest(investor, stock, quantity, stopPrice, tradeType, lastRound, id);
+            case STOP_LIMIT -> new StopTradeRequest(investor, stock, quantity, stopPrice, priceLimit, tradeType, lastRound, id);
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package requests;
+
+import investors.AInvestor;
+import stocks.Stock;
+import utilities.EventLogging;
+
+/**
+ * Represents a stop order: a trade request that waits in the trigger book of the trade request sheet
+ * until a trade moves the price of its stock to its stop price, and only then becomes an ordinary request.
+ * A buy stop is triggered when the price rises to the stop price or above, a sell stop when it falls to it or below.
+ * A stop-limit order then trades like a limit request with its price limit, a stop (market) order like a market order,
+ * so whatever of it isn't filled in the round it's triggered in expires with the round.
+ * Until it's triggered, it expires after the given round like {@link ValidUntilNthRoundTradeRequest}.
+ */
+public class StopTradeRequest extends ValidUntilNthRoundTradeRequest {
+    private final int stopPrice;
+    private final boolean market;
+    private boolean activated;
+
+    /**
+     * Create a new stop-limit order with the given investor, stock, quantity, stop price, price limit, trade type, last round and id.
+     *
+     * @param investor   the investor that makes the trade request
+     * @param stock      the stock that is traded
+     * @param quantity   the quantity of the stock that is traded
+     * @param stopPrice  the price that triggers the trade request
+     * @param priceLimit the price limit of the stock that is traded, once triggered
+     * @param tradeType  the type of the trade request
+     * @param lastRound  the round after which the trade request expires
+     * @param id         the id of the trade request
+     */
+    public StopTradeRequest(AInvestor investor, Stock stock, int quantity, int stopPrice, int priceLimit, TradeType tradeType,
+                            int lastRound, int id) {
+        this(investor, stock, quantity, stopPrice, priceLimit, false, tradeType, lastRound, id);
+    }
+
+    /**
+     * Create a new stop (market) order with the given investor, stock, quantity, stop price, trade type, last round and id.
+     *
+     * @param investor  the investor that makes the trade request
+     * @param stock     the stock that is traded
+     * @param quantity  the quantity of the stock that is traded
+     * @param stopPrice the price that triggers the trade request
+     * @param tradeType the type of the trade request
+     * @param lastRound the round after which the trade request expires
+     * @param id        the id of the trade request
+     */
+    public StopTradeRequest(AInvestor investor, Stock stock, int quantity, int stopPrice, TradeType tradeType, int lastRound, int id) {
+        this(investor, stock, quantity, stopPrice, MarketTradeRequest.marketPriceLimit(tradeType), true, tradeType, lastRound, id);
+    }
+
+    private StopTradeRequest(AInvestor investor, Stock stock, int quantity, int stopPrice, int priceLimit, boolean market,
+                             TradeType tradeType, int lastRound, int id) {
+        super(investor, stock, quantity, priceLimit, tradeType, lastRound, id);
+        this.stopPrice = stopPrice;
+        this.market = market;
+    }
+
+    /**
+     * Get the price that triggers the trade request.
+     *
+     * @return the stop price
+     */
+    public int getStopPrice() {
+        return stopPrice;
+    }
+
+    /**
+     * Check if the trade request is triggered by the given price of its stock.
+     *
+     * @param price the price of the stock
+     * @return true if the price reached the stop price, false otherwise
+     */
+    public boolean isTriggeredBy(int price) {
+        return isBuyRequest() ? price >= stopPrice : price <= stopPrice;
+    }
+
+    /**
+     * Check if the trade request has been triggered and trades like an ordinary request.
+     *
+     * @return true if the trade request has been triggered, false otherwise
+     */
+    public boolean isActivated() {
+        return activated;
+    }
+
+    /**
+     * Marks the trade request as triggered. Called by the trade request sheet when it moves the request out of the trigger book.
+     */
+    public void activate() {
+        activated = true;
+    }
+
+    /**
+     * Check if the trade request becomes a market order once triggered.
+     *
+     * @return true for a stop order, false for a stop-limit order
+     */
+    @Override
+    public boolean isMarketOrder() {
+        return market;
+    }
+
+    /**
+     * Check if the trade request has expired and should be deleted.
+     * A triggered stop (market) order expires at the end of the round it was triggered in.
+     *
+     * @param currentRound the current round
+     * @return true if the trade request has expired and should be deleted, false otherwise
+     */
+    @Override
+    public boolean expiredAndShouldBeDeleted(int currentRound) {
+        return (market && activated) || super.expiredAndShouldBeDeleted(currentRound);
+    }
+
+    /**
+     * Returns the string representation of the stop order.
+     *
+     * @return the string representation of the stop order
+     */
+    @Override
+    public String toString() {
+        String typeString = isBuyRequest() ? "Stop buy" : "Stop sell";
+        return typeString + " request for " + EventLogging.Color.blue(getStock().getIdentifier()) + " by "
+                + getInvestor() + " for " + EventLogging.Color.yellow(String.valueOf(getQuantity()))
+                + " stocks at stop " + EventLogging.Color.green(String.valueOf(stopPrice))
+                + (market ? "" : " limit " + EventLogging.Color.green(String.valueOf(getPriceLimit())));
+    }
+}
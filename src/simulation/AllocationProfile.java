@@ -0,0 +1,282 @@
+package simulation;
+
+import investors.InvestorStrategies;
+import investors.InvestorStrategy;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Opt-in allocation and garbage collection telemetry of a simulation, see {@link SimulationMetrics#enableAllocationProfiling()}.
+ * The bytes allocated by the simulation thread are sampled with {@link com.sun.management.ThreadMXBean}
+ * around every phase of a round and around the decisions of every strategy, so allocation shows up
+ * per phase, per round and per investor type. The garbage collector MXBeans are sampled once a round.
+ * Sampling costs a little on every phase, which is why it's off unless enabled.
+ * Rounds skipped by fast-forwarding aren't counted, what they allocate goes to the next played round.
+ */
+public class AllocationProfile {
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final List<GarbageCollectorMXBean> garbageCollectors;
+    private final long[] phaseBytes = new long[SimulationMetrics.Phase.values().length];
+    private final long[] strategyBytes;
+    private final long[] strategyDecisions;
+    private long phaseStartBytes;
+    private long roundStartBytes;
+    private long rounds;
+    private long roundBytes;
+    private long maxRoundBytes;
+    private long roundsWithCollections;
+    private long startCollections;
+    private long startCollectionMillis;
+    private long lastCollections;
+
+    /**
+     * Creates a new profile, starting to count from now.
+     *
+     * @throws UnsupportedOperationException if the JVM can't measure the memory allocated by a thread
+     */
+    AllocationProfile() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+                || !bean.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Thread allocation measurement isn't supported by this JVM");
+        }
+        this.threadBean = bean;
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+        int strategies = InvestorStrategies.getStrategies().size();
+        this.strategyBytes = new long[strategies];
+        this.strategyDecisions = new long[strategies];
+        reset();
+    }
+
+    /**
+     * Sets all counters back to zero, for a new run.
+     */
+    void reset() {
+        Arrays.fill(phaseBytes, 0);
+        Arrays.fill(strategyBytes, 0);
+        Arrays.fill(strategyDecisions, 0);
+        rounds = 0;
+        roundBytes = 0;
+        maxRoundBytes = 0;
+        roundsWithCollections = 0;
+        startCollections = collections();
+        startCollectionMillis = collectionMillis();
+        lastCollections = startCollections;
+        phaseStartBytes = allocatedBytes();
+        roundStartBytes = phaseStartBytes;
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread since it started.
+     *
+     * @return the number of bytes
+     */
+    public long allocatedBytes() {
+        return threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Starts counting the bytes of a phase.
+     */
+    void startPhase() {
+        phaseStartBytes = allocatedBytes();
+    }
+
+    /**
+     * Adds the bytes allocated since the start of the phase to its total, and starts the next phase.
+     *
+     * @param phase the phase
+     */
+    void endPhase(SimulationMetrics.Phase phase) {
+        long bytes = allocatedBytes();
+        phaseBytes[phase.ordinal()] += bytes - phaseStartBytes;
+        phaseStartBytes = bytes;
+    }
+
+    /**
+     * Counts a played round, with the bytes allocated since the end of the previous one
+     * and whether the garbage collector ran in between.
+     */
+    void endRound() {
+        long bytes = allocatedBytes();
+        long allocated = bytes - roundStartBytes;
+        roundStartBytes = bytes;
+        rounds++;
+        roundBytes += allocated;
+        maxRoundBytes = Math.max(maxRoundBytes, allocated);
+        long collections = collections();
+        if (collections != lastCollections) {
+            roundsWithCollections++;
+            lastCollections = collections;
+        }
+    }
+
+    /**
+     * Adds the bytes allocated by a strategy deciding for a batch of its investors.
+     *
+     * @param strategy  the index of the strategy, as in {@link InvestorStrategies#getStrategies()}
+     * @param investors the number of investors of the batch
+     * @param bytes     the number of bytes
+     */
+    public void addStrategyBytes(int strategy, int investors, long bytes) {
+        strategyBytes[strategy] += bytes;
+        strategyDecisions[strategy] += investors;
+    }
+
+    /**
+     * Get the total number of garbage collections of all collectors.
+     *
+     * @return the number of collections
+     */
+    private long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : garbageCollectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Get the total time of the garbage collections of all collectors.
+     *
+     * @return the time in milliseconds
+     */
+    private long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : garbageCollectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Get the bytes allocated in the given phase, over all rounds.
+     *
+     * @param phase the phase
+     * @return the number of bytes
+     */
+    public long getPhaseBytes(SimulationMetrics.Phase phase) {
+        return phaseBytes[phase.ordinal()];
+    }
+
+    /**
+     * Get the number of played rounds.
+     *
+     * @return the number of rounds
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Get the bytes allocated in all played rounds.
+     *
+     * @return the number of bytes
+     */
+    public long getRoundBytes() {
+        return roundBytes;
+    }
+
+    /**
+     * Get the most bytes allocated in a single round.
+     *
+     * @return the number of bytes
+     */
+    public long getMaxRoundBytes() {
+        return maxRoundBytes;
+    }
+
+    /**
+     * Get the number of rounds in which the garbage collector ran.
+     *
+     * @return the number of rounds
+     */
+    public long getRoundsWithCollections() {
+        return roundsWithCollections;
+    }
+
+    /**
+     * Get the number of garbage collections since the profile started.
+     *
+     * @return the number of collections
+     */
+    public long getCollections() {
+        return collections() - startCollections;
+    }
+
+    /**
+     * Get the time spent in garbage collections since the profile started.
+     *
+     * @return the time in milliseconds
+     */
+    public long getCollectionMillis() {
+        return collectionMillis() - startCollectionMillis;
+    }
+
+    /**
+     * Get the bytes allocated in the decisions of the investors of the given type.
+     *
+     * @param type the symbol of the strategy of the investors
+     * @return the number of bytes
+     * @throws IllegalArgumentException if there's no such strategy
+     */
+    public long getStrategyBytes(char type) {
+        return strategyBytes[strategyIndex(type)];
+    }
+
+    /**
+     * Get the number of decisions made for investors of the given type, one per investor and round.
+     *
+     * @param type the symbol of the strategy of the investors
+     * @return the number of decisions
+     * @throws IllegalArgumentException if there's no such strategy
+     */
+    public long getStrategyDecisions(char type) {
+        return strategyDecisions[strategyIndex(type)];
+    }
+
+    /**
+     * Get the index of the strategy with the given symbol.
+     *
+     * @param type the symbol of the strategy
+     * @return the index of the strategy
+     * @throws IllegalArgumentException if there's no such strategy
+     */
+    private static int strategyIndex(char type) {
+        int index = InvestorStrategies.indexOf(type);
+        if (index == -1) {
+            throw new IllegalArgumentException("Invalid investor type: " + type);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the totals as a multi-line report, in bytes.
+     *
+     * @return the string representation of the profile
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("allocated=").append(roundBytes).append("B rounds=").append(rounds)
+                .append(" perRound=").append(rounds == 0 ? 0 : roundBytes / rounds).append("B maxRound=").append(maxRoundBytes)
+                .append("B\n");
+        for (SimulationMetrics.Phase phase : SimulationMetrics.Phase.values()) {
+            report.append(phase.name().toLowerCase(Locale.ROOT)).append('=').append(getPhaseBytes(phase)).append("B\n");
+        }
+        List<InvestorStrategy> strategies = InvestorStrategies.getStrategies();
+        for (int strategy = 0; strategy < strategies.size(); strategy++) {
+            long decisions = strategyDecisions[strategy];
+            report.append("investors.").append(strategies.get(strategy).getSymbol()).append('=').append(strategyBytes[strategy])
+                    .append("B perDecision=").append(String.format(Locale.ROOT, "%.1f",
+                            decisions == 0 ? 0.0 : (double) strategyBytes[strategy] / decisions)).append("B\n");
+        }
+        report.append("gcCollections=").append(getCollections()).append(" gcTime=").append(getCollectionMillis())
+                .append("ms roundsWithGc=").append(roundsWithCollections);
+        return report.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package simulation;
+
+import investors.AInvestor;
+import investors.ColumnarInvestorStore;
+import investors.InvestorManagement;
+import investors.InvestorStrategies;
+import investors.InvestorStrategy;
+import requests.ATradeRequest;
+import requests.OrderBuffer;
+import requests.StopTradeRequest;
+import requests.ValidUntilNthRoundTradeRequest;
+import stocks.TradeRequestSheet;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Continuous-time engine driving a {@link StockExchangeSimulation} through a queue of timestamped events,
+ * as an alternative to the round-batched {@link StockExchangeSimulation#run()}.
+ * Every investor has a strategy timer: when it fires, the investor decides alone and its request is matched on arrival
+ * against the waiting requests, so prices form within a round. The next decision comes after an exponentially distributed
+ * number of ticks with the mean given by the decision interval parameter, so a sparse market schedules few events.
+ * Requests that wait in the sheet get an expiry event, and the end of every round updates the price history and SMAs.
+ * A simulation should be driven by one engine only, and not by {@link StockExchangeSimulation#run()} at the same time.
+ */
+public class EventDrivenSimulation {
+    /**
+     * Number of ticks of simulated time in a round.
+     */
+    public static final int TICKS_PER_ROUND = 1000;
+    private final StockExchangeSimulation simulation;
+    private final PriorityQueue<SimulationEvent> events;
+    private final OrderBuffer orderBuffer;
+    private final int[] singleSlot;
+    private long time;
+    private long nextSequence;
+    private long numberOfProcessedEvents;
+    private boolean started;
+
+    /**
+     * Creates a new event-driven engine for the given simulation, starting at its current round.
+     *
+     * @param simulation the simulation
+     */
+    public EventDrivenSimulation(StockExchangeSimulation simulation) {
+        this.simulation = simulation;
+        this.events = new PriorityQueue<>(SimulationEvent.ORDER);
+        this.orderBuffer = new OrderBuffer(simulation.getInvestorManagement().getNumberOfInvestors());
+        this.singleSlot = new int[1];
+        this.time = (long) simulation.getRound() * TICKS_PER_ROUND;
+        this.nextSequence = 0;
+        this.numberOfProcessedEvents = 0;
+        this.started = false;
+    }
+
+    /**
+     * Runs the simulation until its last round.
+     */
+    public void run() {
+        run(simulation.getTotalRounds());
+    }
+
+    /**
+     * Runs the simulation until the given round (or the end of the simulation).
+     * The simulation can be resumed by running it again.
+     *
+     * @param untilRound the round to stop before
+     */
+    public void run(int untilRound) {
+        untilRound = Math.min(untilRound, simulation.getTotalRounds());
+        if (simulation.getRound() >= untilRound) {
+            return;
+        }
+        if (!started) {
+            start();
+        }
+        while (simulation.getRound() < untilRound) {
+            SimulationEvent event = events.poll();
+            time = event.getTime();
+            numberOfProcessedEvents++;
+            switch (event.getKind()) {
+                case SimulationEvent.EXPIRY -> expire(event);
+                case SimulationEvent.ROUND_END -> endRound(event);
+                case SimulationEvent.DECISION -> decide(event);
+                default -> throw new IllegalStateException("Unknown event kind: " + event.getKind());
+            }
+        }
+    }
+
+    /**
+     * Records the prices of the first round, and schedules its end and the first decision of every investor,
+     * spread uniformly over the first decision interval.
+     */
+    private void start() {
+        started = true;
+        simulation.recordPrices();
+        schedule(new SimulationEvent(SimulationEvent.ROUND_END, -1, null), (long) (simulation.getRound() + 1) * TICKS_PER_ROUND);
+        Random random = simulation.getContext().getRandom();
+        int interval = simulation.getContext().getParameters().getDecisionInterval();
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        for (int slot = 0; slot < investorManagement.getNumberOfInvestors(); slot++) {
+            schedule(new SimulationEvent(SimulationEvent.DECISION, slot, null), time + random.nextInt(interval));
+        }
+    }
+
+    /**
+     * Finishes the round and starts the next one, reusing the event for the end of the next round.
+     *
+     * @param event the round end event
+     */
+    private void endRound(SimulationEvent event) {
+        simulation.finishRound();
+        simulation.recordPrices();
+        schedule(event, time + TICKS_PER_ROUND);
+    }
+
+    /**
+     * Removes the expiring request of the event from the sheet, if it's still waiting.
+     *
+     * @param event the expiry event
+     */
+    private void expire(SimulationEvent event) {
+        if (simulation.getTradeRequestSheet().cancelRequest(event.getRequest())) {
+            simulation.getMetrics().countExpiry();
+        }
+    }
+
+    /**
+     * Lets the investor of the event decide, submits its request, and schedules its next decision.
+     *
+     * @param event the decision event
+     */
+    private void decide(SimulationEvent event) {
+        int slot = event.getSlot();
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        ColumnarInvestorStore store = investorManagement.getStore();
+        InvestorStrategy strategy = InvestorStrategies.forSymbol((char) store.getType(slot));
+        singleSlot[0] = slot;
+        strategy.decideBatch(simulation, store, singleSlot, 1, orderBuffer);
+        int row = orderBuffer.rowOf(slot);
+        if (row != -1) {
+            AInvestor investor = investorManagement.getInvestorBySlot(slot);
+            ATradeRequest request = orderBuffer.toRequest(row, investor, simulation.getStockManagement(), simulation.getContext());
+            orderBuffer.clear();
+            simulation.getMetrics().countOrdersSubmitted(1);
+            TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+            if (sheet.submitRequest(request, simulation)) {
+                scheduleExpiry(request);
+            }
+            for (StopTradeRequest stop : sheet.getSubmittedStops()) {
+                if (stop.isMarketOrder()) {
+                    scheduleExpiry(stop); // its expiry after its last round is already scheduled
+                }
+            }
+        }
+        schedule(event, time + nextInterval());
+    }
+
+    /**
+     * Schedules the expiry of a request left waiting in the sheet, at the end of the round it expires after.
+     * Requests that expire in the current round, like triggered stop (market) orders, expire at its end,
+     * and other requests that aren't valid until a given round are checked in the round they arrive in only.
+     *
+     * @param request the waiting request
+     */
+    private void scheduleExpiry(ATradeRequest request) {
+        int round = simulation.getRound();
+        int lastRound;
+        if (request.expiredAndShouldBeDeleted(round)) {
+            lastRound = round;
+        } else if (request instanceof ValidUntilNthRoundTradeRequest validUntilRequest) {
+            lastRound = validUntilRequest.getLastRound();
+        } else {
+            return; // never expires
+        }
+        schedule(new SimulationEvent(SimulationEvent.EXPIRY, -1, request), (long) (lastRound + 1) * TICKS_PER_ROUND);
+    }
+
+    /**
+     * Draws the number of ticks until the next decision of an investor, exponentially distributed, at least 1.
+     *
+     * @return the number of ticks
+     */
+    private long nextInterval() {
+        int meanInterval = simulation.getContext().getParameters().getDecisionInterval();
+        double uniform = simulation.getContext().getRandom().nextDouble();
+        return Math.max(1, Math.round(-Math.log(1 - uniform) * meanInterval));
+    }
+
+    /**
+     * Adds the event to the queue at the given time.
+     *
+     * @param event the event
+     * @param time  the time in ticks
+     */
+    private void schedule(SimulationEvent event, long time) {
+        event.schedule(time, nextSequence++);
+        events.add(event);
+    }
+
+    /**
+     * Get the current simulated time.
+     *
+     * @return the time in ticks
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Get the number of events processed so far.
+     *
+     * @return the number of processed events
+     */
+    public long getNumberOfProcessedEvents() {
+        return numberOfProcessedEvents;
+    }
+
+    /**
+     * Get the number of events waiting in the queue.
+     *
+     * @return the number of scheduled events
+     */
+    public int getNumberOfScheduledEvents() {
+        return events.size();
+    }
+
+    /**
+     * Get the simulation driven by this engine.
+     *
+     * @return the simulation
+     */
+    public StockExchangeSimulation getSimulation() {
+        return simulation;
+    }
+}
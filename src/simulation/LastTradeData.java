@@ -1,7 +1,11 @@
 package simulation;
 
 import stocks.Stock;
+import stocks.StockManagement;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
 
+import java.io.IOException;
 import java.util.*;
 
 public class LastTradeData {
@@ -29,6 +33,21 @@ public class LastTradeData {
         this(10);
     }
 
+    /**
+     * Forgets all trades and SMAs, for a new run.
+     * The trade lists of the given stocks are emptied in place, the other stocks are forgotten entirely.
+     *
+     * @param stocks the stocks of the new run
+     */
+    public void reset(Collection<Stock> stocks) {
+        lastTradeDataMap.keySet().retainAll(stocks);
+        for (List<Integer> trades : lastTradeDataMap.values()) {
+            trades.clear();
+        }
+        lastSMA5Map.clear();
+        lastSMA10Map.clear();
+    }
+
     /**
      * Adds the given trade data to the last trade data of the given stock.
      *
@@ -42,6 +61,21 @@ public class LastTradeData {
         }
     }
 
+    /**
+     * Adds the same price to the last trade data of the given stock the given number of times,
+     * as if it was recorded in that many rounds without trades.
+     * Only the remembered number of prices is actually added.
+     *
+     * @param stock the stock
+     * @param price the price
+     * @param times the number of times
+     */
+    public void addRepeatedTradeData(Stock stock, int price, int times) {
+        for (int i = 0; i < Math.min(times, maxTradesRemembered); i++) {
+            addTradeData(stock, price);
+        }
+    }
+
     /**
      * Returns the simple moving average of the last n trades of the given stock.
      *
@@ -86,6 +120,63 @@ public class LastTradeData {
         return currentSMA5 - currentSMA10 < 0 && lastSMA5 - lastSMA10 > 0;
     }
 
+    /**
+     * Finds the first of the coming rounds in which the given stock has an SMA signal, if its price stays the same.
+     * The SMAs are replayed as the price is recorded at the start and the SMAs are updated at the end of each round,
+     * starting with the current round, whose price isn't recorded yet.
+     * Once all the remembered trades have the same price, there are no more signals, so at most that many rounds are replayed.
+     *
+     * @param stock the stock
+     * @param price the price of the stock
+     * @param from  the number of rounds from the current one before which signals don't count
+     * @return the number of rounds from the current one to the first signal, or -1 if there's none
+     */
+    public int roundsUntilSMASignal(Stock stock, int price, int from) {
+        int[] trades = new int[maxTradesRemembered];
+        int size = 0;
+        for (int trade : lastTradeDataMap.getOrDefault(stock, List.of())) {
+            trades[size++] = trade;
+        }
+        boolean hasLastSMA = lastSMA5Map.containsKey(stock);
+        double lastSMA5 = hasLastSMA ? lastSMA5Map.get(stock) : 0;
+        double lastSMA10 = hasLastSMA ? lastSMA10Map.get(stock) : 0;
+        for (int rounds = 0; rounds <= maxTradesRemembered; rounds++) {
+            if (size == maxTradesRemembered) {
+                System.arraycopy(trades, 1, trades, 0, size - 1);
+                size--;
+            }
+            trades[size++] = price;
+            double currentSMA5 = average(trades, size, 5);
+            double currentSMA10 = average(trades, size, 10);
+            boolean signal = currentSMA5 - currentSMA10 > 0 && lastSMA5 - lastSMA10 < 0
+                    || currentSMA5 - currentSMA10 < 0 && lastSMA5 - lastSMA10 > 0;
+            if (rounds >= from && hasLastSMA && signal) {
+                return rounds;
+            }
+            lastSMA5 = currentSMA5;
+            lastSMA10 = currentSMA10;
+            hasLastSMA = true;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the average of the last n of the given trades, computed like {@link #getSMA(Stock, int)}.
+     *
+     * @param trades the trades, oldest first
+     * @param size   the number of trades
+     * @param n      the number of trades to consider
+     * @return the average
+     */
+    private static double average(int[] trades, int size, int n) {
+        long sum = 0;
+        int count = Math.min(n, size);
+        for (int i = size - count; i < size; i++) {
+            sum += trades[i];
+        }
+        return (double) sum / count;
+    }
+
     /**
      * Updates the SMA data of all stocks.
      */
@@ -117,4 +208,54 @@ public class LastTradeData {
     public int getSMA10(Stock stock) {
         return lastSMA10Map.get(stock).intValue();
     }
+
+    /**
+     * Writes the remembered trades and the last SMAs in the binary checkpoint format.
+     *
+     * @param writer          the writer
+     * @param stockManagement the stock management holding the stocks
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(BinaryChannelWriter writer, StockManagement stockManagement) throws IOException {
+        writer.putInt(maxTradesRemembered);
+        writer.putInt(stockManagement.getNumberOfStocks());
+        for (Stock stock : stockManagement.getStocks()) {
+            List<Integer> trades = lastTradeDataMap.getOrDefault(stock, List.of());
+            writer.putInt(trades.size());
+            for (int price : trades) {
+                writer.putInt(price);
+            }
+            boolean hasSMA = lastSMA5Map.containsKey(stock);
+            writer.putBoolean(hasSMA);
+            if (hasSMA) {
+                writer.putDouble(lastSMA5Map.get(stock));
+                writer.putDouble(lastSMA10Map.get(stock));
+            }
+        }
+    }
+
+    /**
+     * Reads last trade data written by {@link #writeCheckpoint(BinaryChannelWriter, StockManagement)}.
+     *
+     * @param reader          the reader
+     * @param stockManagement the stock management holding the stocks
+     * @return the last trade data
+     * @throws IOException if an I/O error occurs
+     */
+    public static LastTradeData readCheckpoint(BinaryChannelReader reader, StockManagement stockManagement) throws IOException {
+        LastTradeData lastTradeData = new LastTradeData(reader.getInt());
+        int numberOfStocks = reader.getInt();
+        for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+            Stock stock = stockManagement.getStock(ordinal);
+            int numberOfTrades = reader.getInt();
+            for (int i = 0; i < numberOfTrades; i++) {
+                lastTradeData.addTradeData(stock, reader.getInt());
+            }
+            if (reader.getBoolean()) {
+                lastTradeData.lastSMA5Map.put(stock, reader.getDouble());
+                lastTradeData.lastSMA10Map.put(stock, reader.getDouble());
+            }
+        }
+        return lastTradeData;
+    }
 }
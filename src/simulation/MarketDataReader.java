@@ -0,0 +1,198 @@
+package simulation;
+
+import utilities.BinaryChannelReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Loads the columns of a market data file written by {@link MarketDataWriter} back into arrays, for analysis.
+ */
+public class MarketDataReader {
+    /**
+     * The market table: one row per stock and round.
+     *
+     * @param rounds   the rounds
+     * @param stocks   the ordinals of the stocks
+     * @param prices   the last prices of the stocks after the rounds
+     * @param bestBids the best bids after the rounds, -1 if there were no buy requests
+     * @param bestAsks the best asks after the rounds, -1 if there were no sell requests
+     * @param volumes  the number of shares traded in the rounds
+     */
+    public record MarketColumns(int[] rounds, int[] stocks, int[] prices, int[] bestBids, int[] bestAsks, long[] volumes) {
+        /**
+         * Returns the prices of the given stock, in the order of the rounds.
+         *
+         * @param ordinal the ordinal of the stock
+         * @return the prices
+         */
+        public int[] priceSeries(int ordinal) {
+            int[] series = new int[prices.length];
+            int length = 0;
+            for (int row = 0; row < prices.length; row++) {
+                if (stocks[row] == ordinal) {
+                    series[length++] = prices[row];
+                }
+            }
+            return Arrays.copyOf(series, length);
+        }
+    }
+
+    /**
+     * The investor table: one row per sampled investor and sampled round.
+     *
+     * @param rounds    the rounds
+     * @param investors the ids of the investors
+     * @param balances  the balances of the investors after the rounds
+     * @param netWorths the net worths of the investors after the rounds
+     */
+    public record InvestorColumns(int[] rounds, int[] investors, long[] balances, long[] netWorths) {
+    }
+
+    /**
+     * The contents of a market data file.
+     *
+     * @param stockIdentifiers the identifiers of the stocks, by ordinal
+     * @param market           the market table
+     * @param investors        the investor table
+     */
+    public record MarketData(List<String> stockIdentifiers, MarketColumns market, InvestorColumns investors) {
+    }
+
+    /**
+     * Columns of one table, growing as blocks are read.
+     */
+    private static class Table {
+        int[][] intColumns;
+        long[][] longColumns;
+        int rows;
+
+        /**
+         * Creates a new empty table.
+         *
+         * @param intColumns  the number of int columns
+         * @param longColumns the number of long columns
+         */
+        Table(int intColumns, int longColumns) {
+            this.intColumns = new int[intColumns][16];
+            this.longColumns = new long[longColumns][16];
+        }
+
+        /**
+         * Appends the columns of a decompressed block.
+         *
+         * @param block     the decompressed block
+         * @param blockRows the number of rows of the block
+         */
+        void append(ByteBuffer block, int blockRows) {
+            if (rows + blockRows > intColumns[0].length) {
+                int capacity = Math.max(rows + blockRows, 2 * intColumns[0].length);
+                for (int i = 0; i < intColumns.length; i++) {
+                    intColumns[i] = Arrays.copyOf(intColumns[i], capacity);
+                }
+                for (int i = 0; i < longColumns.length; i++) {
+                    longColumns[i] = Arrays.copyOf(longColumns[i], capacity);
+                }
+            }
+            for (int[] column : intColumns) {
+                block.asIntBuffer().get(column, rows, blockRows);
+                block.position(block.position() + blockRows * Integer.BYTES);
+            }
+            for (long[] column : longColumns) {
+                block.asLongBuffer().get(column, rows, blockRows);
+                block.position(block.position() + blockRows * Long.BYTES);
+            }
+            rows += blockRows;
+        }
+
+        /**
+         * Returns a copy of the given int column, trimmed to the number of rows.
+         *
+         * @param index the index of the column
+         * @return the column
+         */
+        int[] intColumn(int index) {
+            return Arrays.copyOf(intColumns[index], rows);
+        }
+
+        /**
+         * Returns a copy of the given long column, trimmed to the number of rows.
+         *
+         * @param index the index of the column
+         * @return the column
+         */
+        long[] longColumn(int index) {
+            return Arrays.copyOf(longColumns[index], rows);
+        }
+    }
+
+    /**
+     * Not instantiable, market data files are read with {@link #read(Path)}.
+     */
+    private MarketDataReader() {
+    }
+
+    /**
+     * Reads a market data file.
+     *
+     * @param path the path of the file
+     * @return the contents of the file
+     * @throws IOException if the file can't be read or isn't a valid market data file
+     */
+    public static MarketData read(Path path) throws IOException {
+        try (BinaryChannelReader reader = new BinaryChannelReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            if (reader.getInt() != MarketDataWriter.MAGIC) {
+                throw new IOException(path + " is not a market data file");
+            }
+            int version = reader.getInt();
+            if (version != MarketDataWriter.VERSION) {
+                throw new IOException("Unsupported market data version: " + version);
+            }
+            reader.getInt(); // the block size, only needed by readers that stream blocks
+            int numberOfStocks = reader.getInt();
+            List<String> stockIdentifiers = new ArrayList<>(numberOfStocks);
+            for (int i = 0; i < numberOfStocks; i++) {
+                stockIdentifiers.add(reader.getString());
+            }
+
+            Table market = new Table(MarketDataWriter.MARKET_INT_COLUMNS, MarketDataWriter.MARKET_LONG_COLUMNS);
+            Table investors = new Table(MarketDataWriter.INVESTOR_INT_COLUMNS, MarketDataWriter.INVESTOR_LONG_COLUMNS);
+            Inflater inflater = new Inflater();
+            try {
+                byte tag;
+                while ((tag = reader.getByte()) != MarketDataWriter.END_TAG) {
+                    Table table = switch (tag) {
+                        case MarketDataWriter.MARKET_TAG -> market;
+                        case MarketDataWriter.INVESTOR_TAG -> investors;
+                        default -> throw new IOException("Unknown block tag: " + tag);
+                    };
+                    int rows = reader.getInt();
+                    byte[] columns = new byte[reader.getInt()];
+                    inflater.reset();
+                    inflater.setInput(reader.getBytes());
+                    if (inflater.inflate(columns) != columns.length || !inflater.finished()) {
+                        throw new IOException("Corrupted market data block");
+                    }
+                    table.append(ByteBuffer.wrap(columns), rows);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted market data block", e);
+            } finally {
+                inflater.end();
+            }
+            return new MarketData(stockIdentifiers,
+                    new MarketColumns(market.intColumn(0), market.intColumn(1), market.intColumn(2), market.intColumn(3),
+                            market.intColumn(4), market.longColumn(0)),
+                    new InvestorColumns(investors.intColumn(0), investors.intColumn(1), investors.longColumn(0),
+                            investors.longColumn(1)));
+        }
+    }
+}
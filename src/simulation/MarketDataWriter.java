@@ -0,0 +1,286 @@
+package simulation;
+
+import investors.AInvestor;
+import investors.InvestorManagement;
+import stocks.Stock;
+import stocks.StockManagement;
+import stocks.TradeRequestSheet;
+import utilities.BinaryChannelWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Streams the per-round market data of a simulation to a file, as it's produced:
+ * the price, traded volume and best bid and ask of every stock after every round,
+ * and the balance and net worth of a sample of the investors every few rounds.
+ * Rows are collected into fixed-size blocks, stored column by column and compressed with {@link Deflater} one block at a time,
+ * so memory use doesn't grow with the length of the run. The file is read back by {@link MarketDataReader}.
+ * <p>
+ * File format: the magic number, the version, the number of rows of a full block and the stock identifiers by ordinal,
+ * followed by blocks, each made of its table tag, the number of rows, the uncompressed size and the compressed columns,
+ * and an end tag.
+ */
+public class MarketDataWriter implements AutoCloseable {
+    /**
+     * Magic number at the start of market data files ("GPWM").
+     */
+    static final int MAGIC = 0x4750574D;
+    static final int VERSION = 1;
+    static final byte END_TAG = 0;
+    /**
+     * Tag of the blocks of the market table: round, stock ordinal, price, best bid and best ask (ints) and volume (long).
+     */
+    static final byte MARKET_TAG = 1;
+    static final int MARKET_INT_COLUMNS = 5;
+    static final int MARKET_LONG_COLUMNS = 1;
+    /**
+     * Tag of the blocks of the investor table: round and investor id (ints), balance and net worth (longs).
+     */
+    static final byte INVESTOR_TAG = 2;
+    static final int INVESTOR_INT_COLUMNS = 2;
+    static final int INVESTOR_LONG_COLUMNS = 2;
+    public static final int DEFAULT_BLOCK_ROWS = 8192;
+
+    private final BinaryChannelWriter writer;
+    private final Deflater deflater;
+    private final ColumnBlock marketBlock;
+    private final ColumnBlock investorBlock;
+    private final int investorInterval;
+    private final int investorStride;
+    /**
+     * Traded volume of each stock at the end of the last recorded round, to get the volume of a round.
+     */
+    private long[] lastVolumes;
+    private byte[] compressed;
+    private boolean closed;
+
+    /**
+     * Rows of one table, collected column by column until the block is full.
+     */
+    private static class ColumnBlock {
+        final int[][] intColumns;
+        final long[][] longColumns;
+        int rows;
+
+        /**
+         * Creates a new empty block.
+         *
+         * @param intColumns  the number of int columns
+         * @param longColumns the number of long columns
+         * @param capacity    the number of rows of a full block
+         */
+        ColumnBlock(int intColumns, int longColumns, int capacity) {
+            this.intColumns = new int[intColumns][capacity];
+            this.longColumns = new long[longColumns][capacity];
+        }
+
+        /**
+         * Check if the block is full.
+         *
+         * @return true if the block is full, false otherwise
+         */
+        boolean isFull() {
+            return rows == intColumns[0].length;
+        }
+    }
+
+    /**
+     * Creates a new market data file for the given simulation, overwriting an existing one.
+     *
+     * @param path             the path of the file
+     * @param stockManagement  the stocks of the simulation
+     * @param investorInterval every how many rounds the investors are sampled, 0 for never
+     * @param investorStride   every which investor (by store slot) is sampled, 1 for all of them
+     * @param blockRows        the number of rows of a block
+     * @throws IOException              if the file can't be created
+     * @throws IllegalArgumentException if the interval is negative or the stride or the block size isn't positive
+     */
+    public MarketDataWriter(Path path, StockManagement stockManagement, int investorInterval, int investorStride, int blockRows)
+            throws IOException {
+        if (investorInterval < 0 || investorStride <= 0 || blockRows <= 0) {
+            throw new IllegalArgumentException("Invalid sampling interval, stride or block size");
+        }
+        this.investorInterval = investorInterval;
+        this.investorStride = investorStride;
+        this.marketBlock = new ColumnBlock(MARKET_INT_COLUMNS, MARKET_LONG_COLUMNS, blockRows);
+        this.investorBlock = new ColumnBlock(INVESTOR_INT_COLUMNS, INVESTOR_LONG_COLUMNS, blockRows);
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.compressed = new byte[0];
+        this.lastVolumes = new long[stockManagement.getNumberOfStocks()];
+        this.writer = new BinaryChannelWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        writer.putInt(MAGIC);
+        writer.putInt(VERSION);
+        writer.putInt(blockRows);
+        writer.putInt(stockManagement.getNumberOfStocks());
+        for (Stock stock : stockManagement.getStocks()) {
+            writer.putString(stock.getIdentifier());
+        }
+    }
+
+    /**
+     * Creates a new market data file for the given simulation with the default block size.
+     * The traded volume recorded for the first round counts from the current state of the simulation.
+     *
+     * @param path             the path of the file
+     * @param simulation       the simulation
+     * @param investorInterval every how many rounds the investors are sampled, 0 for never
+     * @param investorStride   every which investor (by store slot) is sampled, 1 for all of them
+     * @throws IOException if the file can't be created
+     */
+    public MarketDataWriter(Path path, StockExchangeSimulation simulation, int investorInterval, int investorStride)
+            throws IOException {
+        this(path, simulation.getStockManagement(), investorInterval, investorStride, DEFAULT_BLOCK_ROWS);
+        List<Stock> stocks = simulation.getStockManagement().getStocks();
+        for (int ordinal = 0; ordinal < stocks.size(); ordinal++) {
+            lastVolumes[ordinal] = simulation.getTradeRequestSheet().getTradedVolume(stocks.get(ordinal));
+        }
+    }
+
+    /**
+     * Records the state of the market after the current round of the simulation, which has just finished.
+     *
+     * @param simulation the simulation
+     * @throws IOException if a full block can't be written
+     */
+    public void recordRound(StockExchangeSimulation simulation) throws IOException {
+        recordRounds(simulation, 1);
+    }
+
+    /**
+     * Records the state of the market after the given number of rounds ending with the current one,
+     * in which nothing changed, e.g. after they were skipped by fast-forwarding.
+     * The volume traded since the last recorded round is attributed to the first of them.
+     *
+     * @param simulation the simulation
+     * @param rounds     the number of rounds
+     * @throws IOException if a full block can't be written
+     */
+    public void recordRounds(StockExchangeSimulation simulation, int rounds) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Market data writer is closed");
+        }
+        List<Stock> stocks = simulation.getStockManagement().getStocks();
+        TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+        if (lastVolumes.length < stocks.size()) {
+            lastVolumes = Arrays.copyOf(lastVolumes, stocks.size());
+        }
+        int firstRound = simulation.getRound() - rounds + 1;
+        for (int round = firstRound; round <= simulation.getRound(); round++) {
+            for (int ordinal = 0; ordinal < stocks.size(); ordinal++) {
+                Stock stock = stocks.get(ordinal);
+                long volume = sheet.getTradedVolume(stock);
+                int row = nextRow(marketBlock, MARKET_TAG);
+                marketBlock.intColumns[0][row] = round;
+                marketBlock.intColumns[1][row] = ordinal;
+                marketBlock.intColumns[2][row] = stock.getLastPrice();
+                marketBlock.intColumns[3][row] = sheet.getBestBid(stock);
+                marketBlock.intColumns[4][row] = sheet.getBestAsk(stock);
+                marketBlock.longColumns[0][row] = volume - lastVolumes[ordinal];
+                lastVolumes[ordinal] = volume;
+            }
+            if (investorInterval > 0 && round % investorInterval == 0) {
+                recordInvestors(simulation.getInvestorManagement(), round);
+            }
+        }
+    }
+
+    /**
+     * Records the sampled investors.
+     *
+     * @param investorManagement the investor management
+     * @param round              the round
+     * @throws IOException if a full block can't be written
+     */
+    private void recordInvestors(InvestorManagement investorManagement, int round) throws IOException {
+        for (int slot = 0; slot < investorManagement.getNumberOfInvestors(); slot += investorStride) {
+            AInvestor investor = investorManagement.getInvestorBySlot(slot);
+            int row = nextRow(investorBlock, INVESTOR_TAG);
+            investorBlock.intColumns[0][row] = round;
+            investorBlock.intColumns[1][row] = investor.getId();
+            investorBlock.longColumns[0][row] = investorManagement.getStore().getBalance(slot);
+            investorBlock.longColumns[1][row] = investorManagement.getNetWorth(investor);
+        }
+    }
+
+    /**
+     * Returns the index of the next row of the block, writing the block out first if it's full.
+     *
+     * @param block the block
+     * @param tag   the tag of the table of the block
+     * @return the index of the row
+     * @throws IOException if the block can't be written
+     */
+    private int nextRow(ColumnBlock block, byte tag) throws IOException {
+        if (block.isFull()) {
+            writeBlock(block, tag);
+        }
+        return block.rows++;
+    }
+
+    /**
+     * Compresses the rows of the block column by column, writes them and empties the block.
+     *
+     * @param block the block
+     * @param tag   the tag of the table of the block
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBlock(ColumnBlock block, byte tag) throws IOException {
+        if (block.rows == 0) {
+            return;
+        }
+        ByteBuffer columns = ByteBuffer.allocate(block.rows * (Integer.BYTES * block.intColumns.length
+                + Long.BYTES * block.longColumns.length));
+        for (int[] column : block.intColumns) {
+            columns.asIntBuffer().put(column, 0, block.rows);
+            columns.position(columns.position() + block.rows * Integer.BYTES);
+        }
+        for (long[] column : block.longColumns) {
+            columns.asLongBuffer().put(column, 0, block.rows);
+            columns.position(columns.position() + block.rows * Long.BYTES);
+        }
+        deflater.reset();
+        deflater.setInput(columns.array());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, Math.max(4096, 2 * compressed.length));
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        writer.putByte(tag);
+        writer.putInt(block.rows);
+        writer.putInt(columns.capacity());
+        writer.putBytes(Arrays.copyOf(compressed, length));
+        block.rows = 0;
+    }
+
+    /**
+     * Writes out the partly filled blocks and the end tag, and closes the file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBlock(marketBlock, MARKET_TAG);
+            writeBlock(investorBlock, INVESTOR_TAG);
+            writer.putByte(END_TAG);
+        } finally {
+            deflater.end();
+            writer.close();
+        }
+    }
+}
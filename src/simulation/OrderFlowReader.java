@@ -0,0 +1,396 @@
+package simulation;
+
+import requests.ATradeRequest;
+import requests.RequestType;
+import utilities.BinaryChannelReader;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the orders of an order flow file written by {@link OrderFlowWriter}, one at a time,
+ * so that files of any length can be replayed in constant memory.
+ * The format of the file is recognised by its magic number.
+ * The reader is a cursor: {@link #next()} moves it to the next order, whose fields are then read with the getters.
+ */
+public class OrderFlowReader implements AutoCloseable {
+    private static final ATradeRequest.TradeType[] sides = ATradeRequest.TradeType.values();
+    private final BinaryChannelReader binaryReader;
+    private final BufferedReader textReader;
+    private final String[] stockIdentifiers;
+    private final int version;
+    private int lineNumber;
+    private boolean finished;
+
+    private int round;
+    private int investor;
+    private String stock;
+    private ATradeRequest.TradeType side;
+    private RequestType type;
+    private int quantity;
+    private int priceLimit;
+    private int expiry;
+    private int stopPrice;
+
+    /**
+     * Opens the given order flow file.
+     *
+     * @param path the path of the file
+     * @throws IOException if the file can't be opened, or is a binary file of an unsupported version
+     */
+    public OrderFlowReader(Path path) throws IOException {
+        if (isBinary(path)) {
+            this.textReader = null;
+            this.binaryReader = new BinaryChannelReader(FileChannel.open(path, StandardOpenOption.READ));
+            binaryReader.getInt(); // the magic number
+            this.version = binaryReader.getInt();
+            if (version < 1 || version > OrderFlowWriter.VERSION) {
+                binaryReader.close();
+                throw new IOException("Unsupported order flow version: " + version);
+            }
+            this.stockIdentifiers = new String[binaryReader.getInt()];
+            for (int ordinal = 0; ordinal < stockIdentifiers.length; ordinal++) {
+                stockIdentifiers[ordinal] = binaryReader.getString();
+            }
+        } else {
+            this.binaryReader = null;
+            this.stockIdentifiers = null;
+            this.version = OrderFlowWriter.VERSION;
+            this.textReader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        }
+        this.round = -1;
+    }
+
+    /**
+     * Check if the given file starts with the magic number of binary order flow files.
+     *
+     * @param path the path of the file
+     * @return true if the file is a binary order flow file, false otherwise
+     * @throws IOException if the file can't be read
+     */
+    private static boolean isBinary(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            byte[] magic = input.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES && ByteBuffer.wrap(magic).getInt() == OrderFlowWriter.MAGIC;
+        }
+    }
+
+    /**
+     * Moves to the next order of the file.
+     *
+     * @return true if there's a next order, false at the end of the file
+     * @throws IOException if the file can't be read or is malformed, or the orders aren't sorted by round
+     */
+    public boolean next() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int previousRound = round;
+        boolean found = binaryReader != null ? nextBinary() : nextText();
+        if (!found) {
+            finished = true;
+            return false;
+        }
+        if (round < previousRound) {
+            throw new IOException("Orders aren't sorted by round: round " + round + " after round " + previousRound);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next binary row.
+     *
+     * @return true if a row was read, false at the end tag
+     * @throws IOException if the file can't be read or is malformed
+     */
+    private boolean nextBinary() throws IOException {
+        byte tag;
+        try {
+            tag = binaryReader.getByte();
+        } catch (EOFException e) {
+            throw new IOException("Order flow file is truncated", e);
+        }
+        if (tag == OrderFlowWriter.END_TAG) {
+            return false;
+        } else if (tag != OrderFlowWriter.ORDER_TAG) {
+            throw new IOException("Unknown order flow tag: " + tag);
+        }
+        round = binaryReader.getInt();
+        investor = binaryReader.getInt();
+        int ordinal = binaryReader.getInt();
+        if (ordinal < 0 || ordinal >= stockIdentifiers.length) {
+            throw new IOException("Unknown stock ordinal: " + ordinal);
+        }
+        stock = stockIdentifiers[ordinal];
+        int sideOrdinal = binaryReader.getByte();
+        if (sideOrdinal < 0 || sideOrdinal >= sides.length) {
+            throw new IOException("Unknown side: " + sideOrdinal);
+        }
+        side = sides[sideOrdinal];
+        try {
+            type = RequestType.ofOrdinal(binaryReader.getByte());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        quantity = binaryReader.getInt();
+        priceLimit = binaryReader.getInt();
+        expiry = binaryReader.getInt();
+        // version 1 rows don't have a stop price
+        stopPrice = version > 1 ? binaryReader.getInt() : -1;
+        if (type.hasStopPrice() && stopPrice < 0) {
+            throw new IOException("Missing stop price of a " + type + " order");
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next non-empty line, a flat JSON object with the fields of an order.
+     *
+     * @return true if a line was read, false at the end of the file
+     * @throws IOException if the file can't be read or the line is malformed
+     */
+    private boolean nextText() throws IOException {
+        String line;
+        do {
+            line = textReader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return false;
+            }
+            line = line.strip();
+        } while (line.isEmpty());
+        int fields = 0;
+        stopPrice = -1;
+        try {
+            JsonCursor cursor = new JsonCursor(line);
+            cursor.expect('{');
+            while (!cursor.consume('}')) {
+                if (fields > 0) {
+                    cursor.expect(',');
+                }
+                String key = cursor.readString();
+                cursor.expect(':');
+                switch (key) {
+                    case "round" -> round = cursor.readInt();
+                    case "investor" -> investor = cursor.readInt();
+                    case "stock" -> stock = cursor.readString();
+                    case "side" -> side = ATradeRequest.TradeType.valueOf(cursor.readString());
+                    case "type" -> type = RequestType.valueOf(cursor.readString());
+                    case "qty" -> quantity = cursor.readInt();
+                    case "limit" -> priceLimit = cursor.readInt();
+                    case "expiry" -> expiry = cursor.readInt();
+                    case "stop" -> stopPrice = cursor.readInt();
+                    default -> throw new IllegalArgumentException("unknown field " + key);
+                }
+                fields++;
+            }
+            cursor.expectEnd();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid order on line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        int expectedFields = type != null && type.hasStopPrice() ? 9 : 8;
+        if (fields != expectedFields || (stopPrice != -1) != (expectedFields == 9)) {
+            throw new IOException("Invalid order on line " + lineNumber + ": expected " + expectedFields + " fields, got " + fields);
+        }
+        return true;
+    }
+
+    /**
+     * Position in a line of flat JSON, holding only string and integer values.
+     */
+    private static class JsonCursor {
+        private final String line;
+        private int position;
+
+        /**
+         * Creates a new cursor at the start of the given line.
+         *
+         * @param line the line
+         */
+        JsonCursor(String line) {
+            this.line = line;
+        }
+
+        /**
+         * Skips whitespace.
+         */
+        private void skipWhitespace() {
+            while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Consumes the given character if it's next.
+         *
+         * @param c the character
+         * @return true if the character was consumed, false otherwise
+         */
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < line.length() && line.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the given character.
+         *
+         * @param c the character
+         * @throws IllegalArgumentException if the character isn't next
+         */
+        void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("expected '" + c + "' at column " + (position + 1));
+            }
+        }
+
+        /**
+         * Makes sure nothing but whitespace is left.
+         *
+         * @throws IllegalArgumentException if there's anything left
+         */
+        void expectEnd() {
+            skipWhitespace();
+            if (position != line.length()) {
+                throw new IllegalArgumentException("unexpected characters at column " + (position + 1));
+            }
+        }
+
+        /**
+         * Reads a string without escapes.
+         *
+         * @return the string
+         * @throws IllegalArgumentException if there's no string next
+         */
+        String readString() {
+            expect('"');
+            int end = line.indexOf('"', position);
+            if (end == -1 || line.lastIndexOf('\\', end) >= position) {
+                throw new IllegalArgumentException("invalid string at column " + position);
+            }
+            String value = line.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        /**
+         * Reads an integer.
+         *
+         * @return the integer
+         * @throws IllegalArgumentException if there's no integer next
+         */
+        int readInt() {
+            skipWhitespace();
+            int start = position;
+            if (position < line.length() && line.charAt(position) == '-') {
+                position++;
+            }
+            while (position < line.length() && Character.isDigit(line.charAt(position))) {
+                position++;
+            }
+            // NumberFormatException is an IllegalArgumentException
+            return Integer.parseInt(line, start, position, 10);
+        }
+    }
+
+    /**
+     * Get the round of the current order.
+     *
+     * @return the round
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Get the id of the investor of the current order.
+     *
+     * @return the id of the investor
+     */
+    public int getInvestor() {
+        return investor;
+    }
+
+    /**
+     * Get the identifier of the stock of the current order.
+     *
+     * @return the identifier of the stock
+     */
+    public String getStock() {
+        return stock;
+    }
+
+    /**
+     * Get the side of the current order.
+     *
+     * @return the side
+     */
+    public ATradeRequest.TradeType getSide() {
+        return side;
+    }
+
+    /**
+     * Get the request type of the current order.
+     *
+     * @return the request type
+     */
+    public RequestType getType() {
+        return type;
+    }
+
+    /**
+     * Get the quantity of the current order.
+     *
+     * @return the quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Get the price limit of the current order.
+     *
+     * @return the price limit
+     */
+    public int getPriceLimit() {
+        return priceLimit;
+    }
+
+    /**
+     * Get the expiry round of the current order, -1 if it doesn't have one.
+     *
+     * @return the expiry round
+     */
+    public int getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * Get the stop price of the current order, -1 if it doesn't have one.
+     *
+     * @return the stop price
+     */
+    public int getStopPrice() {
+        return stopPrice;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (binaryReader != null) {
+            binaryReader.close();
+        } else {
+            textReader.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package simulation;
+
+import investors.AInvestor;
+import requests.ATradeRequest;
+import stocks.Stock;
+import stocks.StockManagement;
+import stocks.TradeRequestSheet;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Replays recorded order flow into the trade request sheet of a simulation, without the strategies in the loop,
+ * to benchmark and regression-test the matching engine.
+ * Every round, the orders of the round are added to the sheet as fast as it takes them and the trades are realised,
+ * timing each round from the first added order to the end of matching and expiry.
+ * Replaying the order flow recorded from a simulation into a fresh simulation of the same scenario
+ * gives the same trades, because the ids of the requests follow the order in which they're added.
+ */
+public class OrderFlowReplay {
+    /**
+     * The throughput and latency of a replay.
+     *
+     * @param orders     the number of replayed orders
+     * @param fills      the number of fills of the replayed rounds
+     * @param nanos      the time spent adding orders and realising trades, in nanoseconds
+     * @param roundNanos the time spent on each of the replayed rounds, in nanoseconds
+     */
+    public record Report(long orders, long fills, long nanos, long[] roundNanos) {
+        /**
+         * Get the number of orders added per second.
+         *
+         * @return the number of orders per second
+         */
+        public double ordersPerSecond() {
+            return nanos == 0 ? 0 : orders * 1e9 / nanos;
+        }
+
+        /**
+         * Get the number of fills per second.
+         *
+         * @return the number of fills per second
+         */
+        public double fillsPerSecond() {
+            return nanos == 0 ? 0 : fills * 1e9 / nanos;
+        }
+
+        /**
+         * Get the given percentile of the round latencies, by the nearest rank.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency in nanoseconds, 0 if no rounds were replayed
+         * @throws IllegalArgumentException if the percentile is out of range
+         */
+        public long percentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile out of range: " + percentile);
+            }
+            if (roundNanos.length == 0) {
+                return 0;
+            }
+            long[] sorted = roundNanos.clone();
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d orders, %d fills in %d rounds: %.0f orders/s, %.0f fills/s, "
+                            + "round latency p50 %d ns, p90 %d ns, p99 %d ns, max %d ns",
+                    orders, fills, roundNanos.length, ordersPerSecond(), fillsPerSecond(),
+                    percentile(50), percentile(90), percentile(99), percentile(100));
+        }
+    }
+
+    /**
+     * Replays the order flow into the given simulation, from its current round until the end of the simulation.
+     * Orders of later rounds are left unread.
+     *
+     * @param simulation the simulation
+     * @param reader     the reader of the order flow
+     * @return the throughput and latency of the replay
+     * @throws IOException if the order flow can't be read, or refers to rounds already played,
+     *                     investors or stocks the simulation doesn't have
+     */
+    public static Report replay(StockExchangeSimulation simulation, OrderFlowReader reader) throws IOException {
+        SimulationContext context = simulation.getContext();
+        TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+        StockManagement stockManagement = simulation.getStockManagement();
+        long[] roundNanos = new long[Math.max(0, simulation.getTotalRounds() - simulation.getRound())];
+        long fillsBefore = simulation.getMetrics().getFills();
+        long orders = 0;
+        long nanos = 0;
+        boolean pending = reader.next();
+        if (pending && reader.getRound() < simulation.getRound()) {
+            throw new IOException("Order flow starts in round " + reader.getRound()
+                    + ", before the current round " + simulation.getRound());
+        }
+        for (int i = 0; i < roundNanos.length; i++) {
+            int round = simulation.getRound();
+            simulation.recordPrices();
+            long start = System.nanoTime();
+            while (pending && reader.getRound() == round) {
+                sheet.addRequest(toRequest(reader, simulation, stockManagement, context));
+                orders++;
+                pending = reader.next();
+            }
+            sheet.realiseSubmittedTrades(simulation);
+            roundNanos[i] = System.nanoTime() - start;
+            nanos += roundNanos[i];
+            simulation.finishRound();
+        }
+        return new Report(orders, simulation.getMetrics().getFills() - fillsBefore, nanos, roundNanos);
+    }
+
+    /**
+     * Creates the trade request of the current order of the reader.
+     *
+     * @param reader          the reader of the order flow
+     * @param simulation      the simulation
+     * @param stockManagement the stock management of the simulation
+     * @param context         the context of the simulation
+     * @return the trade request
+     * @throws IOException if the investor or the stock doesn't exist
+     */
+    private static ATradeRequest toRequest(OrderFlowReader reader, StockExchangeSimulation simulation,
+                                            StockManagement stockManagement, SimulationContext context)
+            throws IOException {
+        AInvestor investor = simulation.getInvestorManagement().getInvestor(reader.getInvestor());
+        if (investor == null) {
+            throw new IOException("Unknown investor: " + reader.getInvestor());
+        }
+        Stock stock;
+        try {
+            stock = stockManagement.getStock(reader.getStock());
+        } catch (NoSuchElementException e) {
+            throw new IOException("Unknown stock: " + reader.getStock(), e);
+        }
+        return reader.getType().create(context, investor, stock, reader.getQuantity(), reader.getStopPrice(),
+                reader.getPriceLimit(), reader.getSide(), reader.getExpiry());
+    }
+}
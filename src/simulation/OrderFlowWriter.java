@@ -0,0 +1,164 @@
+package simulation;
+
+import requests.ATradeRequest;
+import requests.RequestType;
+import requests.StopTradeRequest;
+import requests.ValidUntilNthRoundTradeRequest;
+import stocks.Stock;
+import stocks.StockManagement;
+import utilities.BinaryChannelWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the trade requests added to the trade request sheet of a simulation, in the order they're added,
+ * so that the order flow can be replayed into the matching engine without the strategies, see {@link OrderFlowReplay}.
+ * Every order is a row of the round, the id of the investor, the stock, the side, the type of the request,
+ * the quantity, the price limit, the expiry round (-1 for requests that don't have one)
+ * and the stop price (-1 for requests that don't have one).
+ * The file is read back by {@link OrderFlowReader}.
+ * <p>
+ * Binary format: the magic number, the version and the stock identifiers by ordinal,
+ * followed by rows, each made of the row tag, the round, the investor id and the stock ordinal (ints),
+ * the side and the request type (byte ordinals) and the quantity, the price limit, the expiry and the stop price (ints),
+ * and an end tag. Version 1 files, without stop prices, can still be read.
+ * JSON lines format: one flat object per row, e.g.
+ * {@code {"round":3,"investor":7,"stock":"APL","side":"BUY","type":"VALID_UNTIL","qty":2,"limit":145,"expiry":5}},
+ * with a {@code "stop"} field only for the requests that have a stop price.
+ */
+public class OrderFlowWriter implements AutoCloseable {
+    /**
+     * Magic number at the start of binary order flow files ("GPWO").
+     */
+    static final int MAGIC = 0x4750574F;
+    static final int VERSION = 2;
+    static final byte END_TAG = 0;
+    static final byte ORDER_TAG = 1;
+
+    /**
+     * Formats of order flow files.
+     */
+    public enum Format {
+        /**
+         * Line-delimited JSON, one order per line.
+         */
+        JSONL,
+        /**
+         * Fixed-size binary rows.
+         */
+        BINARY
+    }
+
+    private final BinaryChannelWriter binaryWriter;
+    private final BufferedWriter textWriter;
+    private final StringBuilder line;
+    private long orders;
+    private boolean closed;
+
+    /**
+     * Creates a new order flow file for a simulation of the given stocks, overwriting an existing one.
+     *
+     * @param path            the path of the file
+     * @param stockManagement the stocks of the simulation
+     * @param format          the format of the file
+     * @throws IOException if the file can't be created
+     */
+    public OrderFlowWriter(Path path, StockManagement stockManagement, Format format) throws IOException {
+        this.line = new StringBuilder();
+        if (format == Format.BINARY) {
+            this.textWriter = null;
+            this.binaryWriter = new BinaryChannelWriter(FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+            binaryWriter.putInt(MAGIC);
+            binaryWriter.putInt(VERSION);
+            binaryWriter.putInt(stockManagement.getNumberOfStocks());
+            for (Stock stock : stockManagement.getStocks()) {
+                binaryWriter.putString(stock.getIdentifier());
+            }
+        } else {
+            this.binaryWriter = null;
+            this.textWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Records a trade request added to the trade request sheet in the given round.
+     *
+     * @param round   the round
+     * @param request the trade request
+     * @throws IOException if the row can't be written
+     * @throws IllegalArgumentException if the request has no {@link RequestType}, like an iceberg order
+     */
+    public void record(int round, ATradeRequest request) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Order flow writer is closed");
+        }
+        RequestType type = RequestType.of(request);
+        ATradeRequest.TradeType side = request.isBuyRequest() ? ATradeRequest.TradeType.BUY : ATradeRequest.TradeType.SELL;
+        int expiry = request instanceof ValidUntilNthRoundTradeRequest validUntil
+                && (type == RequestType.VALID_UNTIL || type.hasStopPrice()) ? validUntil.getLastRound() : -1;
+        int stopPrice = request instanceof StopTradeRequest stop ? stop.getStopPrice() : -1;
+        if (binaryWriter != null) {
+            binaryWriter.putByte(ORDER_TAG);
+            binaryWriter.putInt(round);
+            binaryWriter.putInt(request.getInvestor().getId());
+            binaryWriter.putInt(request.getStock().getOrdinal());
+            binaryWriter.putByte((byte) side.ordinal());
+            binaryWriter.putByte((byte) type.ordinal());
+            binaryWriter.putInt(request.getQuantity());
+            binaryWriter.putInt(request.getPriceLimit());
+            binaryWriter.putInt(expiry);
+            binaryWriter.putInt(stopPrice);
+        } else {
+            line.setLength(0);
+            line.append("{\"round\":").append(round)
+                    .append(",\"investor\":").append(request.getInvestor().getId())
+                    .append(",\"stock\":\"").append(request.getStock().getIdentifier())
+                    .append("\",\"side\":\"").append(side)
+                    .append("\",\"type\":\"").append(type)
+                    .append("\",\"qty\":").append(request.getQuantity())
+                    .append(",\"limit\":").append(request.getPriceLimit())
+                    .append(",\"expiry\":").append(expiry);
+            if (type.hasStopPrice()) {
+                line.append(",\"stop\":").append(stopPrice);
+            }
+            line.append("}\n");
+            textWriter.append(line);
+        }
+        orders++;
+    }
+
+    /**
+     * Get the number of recorded orders.
+     *
+     * @return the number of recorded orders
+     */
+    public long getNumberOfOrders() {
+        return orders;
+    }
+
+    /**
+     * Writes the end of the file and closes it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (binaryWriter != null) {
+            binaryWriter.putByte(END_TAG);
+            binaryWriter.close();
+        } else {
+            textWriter.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package simulation;
+
+import utilities.EventLogging;
+
+import java.util.Random;
+
+/**
+ * State that used to be shared by all simulations in the process: the random number generator,
+ * the trade request id counter and the logging configuration, along with the parameters of the simulation.
+ * Every simulation carries its own context, so simulations running on different threads don't affect each other.
+ * A context is meant to be used by one thread at a time, so none of it is synchronized.
+ */
+public class SimulationContext {
+    private final Random random;
+    private SimulationParameters parameters;
+    private int nextRequestID;
+    private boolean loggingEnabled;
+
+    /**
+     * Creates a new context with the given random number generator and the default parameters.
+     * Logging starts enabled or disabled as set in {@link EventLogging}.
+     *
+     * @param random the random number generator
+     */
+    public SimulationContext(Random random) {
+        this(random, new SimulationParameters());
+    }
+
+    /**
+     * Creates a new context with the given random number generator and parameters.
+     * Logging starts enabled or disabled as set in {@link EventLogging}.
+     *
+     * @param random     the random number generator
+     * @param parameters the parameters of the simulation
+     */
+    public SimulationContext(Random random, SimulationParameters parameters) {
+        this.random = random;
+        this.parameters = parameters;
+        this.nextRequestID = 0;
+        this.loggingEnabled = EventLogging.isLoggingEnabled();
+    }
+
+    /**
+     * Creates a new context with a random number generator with the given seed.
+     *
+     * @param seed the seed of the random number generator
+     */
+    public SimulationContext(long seed) {
+        this(new Random(seed));
+    }
+
+    /**
+     * Get the random number generator of the simulation.
+     *
+     * @return the random number generator
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Reseeds the random number generator, restarts the request ids and replaces the parameters, for a new run.
+     * The random number generator object is kept, as it's shared with the investor management.
+     *
+     * @param seed       the new seed
+     * @param parameters the new parameters
+     */
+    void reset(long seed, SimulationParameters parameters) {
+        random.setSeed(seed);
+        nextRequestID = 0;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Get the parameters of the simulation.
+     *
+     * @return the parameters
+     */
+    public SimulationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns a new trade request id, greater than all the ids returned before.
+     *
+     * @return the new trade request id
+     */
+    public int nextRequestID() {
+        return nextRequestID++;
+    }
+
+    /**
+     * Get the id the next created trade request will get.
+     *
+     * @return the next trade request id
+     */
+    public int getNextRequestID() {
+        return nextRequestID;
+    }
+
+    /**
+     * Set the id the next created trade request will get.
+     *
+     * @param nextRequestID the next trade request id
+     */
+    public void setNextRequestID(int nextRequestID) {
+        this.nextRequestID = nextRequestID;
+    }
+
+    /**
+     * Returns whether logging is enabled.
+     * Callers building expensive messages should check it first.
+     *
+     * @return true if logging is enabled, false otherwise
+     */
+    public boolean isLoggingEnabled() {
+        return loggingEnabled;
+    }
+
+    /**
+     * Sets whether logging is enabled.
+     *
+     * @param loggingEnabled whether logging is enabled
+     */
+    public void setLoggingEnabled(boolean loggingEnabled) {
+        this.loggingEnabled = loggingEnabled;
+    }
+
+    /**
+     * Logs the given message, if logging is enabled.
+     *
+     * @param message the message to log
+     */
+    public void log(String message) {
+        if (loggingEnabled) {
+            System.out.println(message);
+        }
+    }
+}
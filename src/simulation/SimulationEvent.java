@@ -0,0 +1,96 @@
+package simulation;
+
+import requests.ATradeRequest;
+
+import java.util.Comparator;
+
+/**
+ * An event of an event-driven simulation: a strategy timer of an investor, the expiry of a waiting request,
+ * or the end of a round.
+ * Events are ordered by their time, events at the same time by their kind, and the rest by the order they were scheduled in.
+ */
+class SimulationEvent {
+    /**
+     * Expiries come first, so that requests expiring after a round don't survive into the next one.
+     */
+    static final int EXPIRY = 0;
+    static final int ROUND_END = 1;
+    static final int DECISION = 2;
+
+    static final Comparator<SimulationEvent> ORDER = Comparator.<SimulationEvent>comparingLong(event -> event.time)
+            .thenComparingInt(event -> event.kind)
+            .thenComparingLong(event -> event.sequence);
+
+    private final int kind;
+    /**
+     * Slot of the deciding investor, for decision events.
+     */
+    private final int slot;
+    /**
+     * The expiring request, for expiry events.
+     */
+    private final ATradeRequest request;
+    private long time;
+    private long sequence;
+
+    /**
+     * Creates a new event of the given kind.
+     *
+     * @param kind    the kind of the event
+     * @param slot    the slot of the deciding investor, or -1
+     * @param request the expiring request, or null
+     */
+    SimulationEvent(int kind, int slot, ATradeRequest request) {
+        this.kind = kind;
+        this.slot = slot;
+        this.request = request;
+    }
+
+    /**
+     * Sets the time of the event and its position among the events of the same time and kind.
+     * Events are rescheduled this way instead of being allocated again.
+     *
+     * @param time     the time in ticks
+     * @param sequence the sequence number
+     */
+    void schedule(long time, long sequence) {
+        this.time = time;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Get the kind of the event.
+     *
+     * @return the kind of the event
+     */
+    int getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the slot of the deciding investor.
+     *
+     * @return the slot, or -1 if it's not a decision event
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Get the expiring request.
+     *
+     * @return the request, or null if it's not an expiry event
+     */
+    ATradeRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Get the time of the event.
+     *
+     * @return the time in ticks
+     */
+    long getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,354 @@
+package simulation;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-round phase timing and order flow counters of a simulation.
+ * Every phase of a round is timed with {@link System#nanoTime()} and the times are summed up,
+ * and the trade request sheet counts what the matching does, so the metrics are cheap enough to be always on.
+ * Each phase and each finished round is also emitted as a flight recorder event ({@link SimulationPhaseEvent},
+ * {@link SimulationRoundEvent}), which only costs anything while a recording has them enabled.
+ * The metrics can be registered as an MXBean to be watched over JMX while the simulation runs;
+ * they're updated without synchronization, so a JMX client may see values that are a little stale.
+ * Allocation and garbage collection telemetry can be enabled on top, see {@link AllocationProfile}.
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean {
+    /**
+     * The timed phases of a round.
+     */
+    public enum Phase {
+        PRICE_UPDATE, DECISIONS, ADD_REQUESTS, MATCHING, EXPIRY, SMA_UPDATE
+    }
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long rounds;
+    private long skippedRounds;
+    private long ordersSubmitted;
+    private long pairsExamined;
+    private long fills;
+    private long cancelsForFunds;
+    private long expiries;
+    private int bookDepth;
+    /**
+     * Values of the counters at the end of the last round, for the per-round events.
+     */
+    private long lastOrdersSubmitted;
+    private long lastPairsExamined;
+    private long lastFills;
+    private long lastCancelsForFunds;
+    private long lastExpiries;
+    private ObjectName objectName;
+    /**
+     * Allocation telemetry, or null unless enabled.
+     */
+    private AllocationProfile allocationProfile;
+
+    /**
+     * Creates new metrics with all counters at zero.
+     */
+    public SimulationMetrics() {
+    }
+
+    /**
+     * Sets all counters and times back to zero, for a new run.
+     * The metrics stay registered over JMX.
+     */
+    public void reset() {
+        Arrays.fill(phaseNanos, 0);
+        rounds = 0;
+        skippedRounds = 0;
+        ordersSubmitted = 0;
+        pairsExamined = 0;
+        fills = 0;
+        cancelsForFunds = 0;
+        expiries = 0;
+        bookDepth = 0;
+        lastOrdersSubmitted = 0;
+        lastPairsExamined = 0;
+        lastFills = 0;
+        lastCancelsForFunds = 0;
+        lastExpiries = 0;
+        if (allocationProfile != null) {
+            allocationProfile.reset();
+        }
+    }
+
+    /**
+     * Starts sampling the bytes allocated in every phase, round and strategy, and the garbage collections,
+     * if it's not on already. It stays on for the following runs.
+     *
+     * @return the allocation profile
+     * @throws UnsupportedOperationException if the JVM can't measure the memory allocated by a thread
+     */
+    public AllocationProfile enableAllocationProfiling() {
+        if (allocationProfile == null) {
+            allocationProfile = new AllocationProfile();
+        }
+        return allocationProfile;
+    }
+
+    /**
+     * Get the allocation profile.
+     *
+     * @return the allocation profile, or null if allocation profiling isn't enabled
+     */
+    public AllocationProfile getAllocationProfile() {
+        return allocationProfile;
+    }
+
+    /**
+     * Returns the start time of a phase.
+     *
+     * @return the current value of {@link System#nanoTime()}
+     */
+    public long startPhase() {
+        if (allocationProfile != null) {
+            allocationProfile.startPhase();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the time since the start of the phase to its total, and emits its flight recorder event.
+     * The returned time can be used as the start of the next phase.
+     *
+     * @param phase the phase
+     * @param round the round
+     * @param start the start time of the phase, from {@link #startPhase()}
+     * @return the end time of the phase
+     */
+    public long endPhase(Phase phase, int round, long start) {
+        long end = System.nanoTime();
+        phaseNanos[phase.ordinal()] += end - start;
+        if (allocationProfile != null) {
+            allocationProfile.endPhase(phase);
+        }
+        SimulationPhaseEvent event = new SimulationPhaseEvent();
+        if (event.isEnabled()) {
+            event.round = round;
+            event.phase = phase.name();
+            event.phaseDuration = end - start;
+            event.commit();
+        }
+        return end;
+    }
+
+    /**
+     * Counts a finished round, and emits its flight recorder event with the counters of the round.
+     *
+     * @param round     the round
+     * @param bookDepth the number of requests waiting in the sheet
+     */
+    public void endRound(int round, int bookDepth) {
+        rounds++;
+        this.bookDepth = bookDepth;
+        if (allocationProfile != null) {
+            allocationProfile.endRound();
+        }
+        SimulationRoundEvent event = new SimulationRoundEvent();
+        if (event.isEnabled()) {
+            event.round = round;
+            event.ordersSubmitted = ordersSubmitted - lastOrdersSubmitted;
+            event.pairsExamined = pairsExamined - lastPairsExamined;
+            event.fills = fills - lastFills;
+            event.cancelsForFunds = cancelsForFunds - lastCancelsForFunds;
+            event.expiries = expiries - lastExpiries;
+            event.bookDepth = bookDepth;
+            event.commit();
+        }
+        lastOrdersSubmitted = ordersSubmitted;
+        lastPairsExamined = pairsExamined;
+        lastFills = fills;
+        lastCancelsForFunds = cancelsForFunds;
+        lastExpiries = expiries;
+    }
+
+    /**
+     * Counts rounds skipped by fast-forwarding, which emit no events.
+     * Requests expired in them are reported with the next finished round.
+     *
+     * @param skipped   the number of skipped rounds
+     * @param bookDepth the number of requests waiting in the sheet
+     */
+    public void skipRounds(int skipped, int bookDepth) {
+        rounds += skipped;
+        skippedRounds += skipped;
+        this.bookDepth = bookDepth;
+    }
+
+    /**
+     * Counts submitted trade requests.
+     *
+     * @param orders the number of requests
+     */
+    public void countOrdersSubmitted(int orders) {
+        ordersSubmitted += orders;
+    }
+
+    /**
+     * Counts a pair of buy and sell requests examined by the matching.
+     */
+    public void countPairExamined() {
+        pairsExamined++;
+    }
+
+    /**
+     * Counts a realised trade.
+     */
+    public void countFill() {
+        fills++;
+    }
+
+    /**
+     * Counts a trade cancelled because an investor couldn't afford it.
+     */
+    public void countCancelForFunds() {
+        cancelsForFunds++;
+    }
+
+    /**
+     * Counts a request removed because it expired.
+     */
+    public void countExpiry() {
+        expiries++;
+    }
+
+    /**
+     * Get the total time spent in the given phase.
+     *
+     * @param phase the phase
+     * @return the time in nanoseconds
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    @Override
+    public long getRounds() {
+        return rounds;
+    }
+
+    @Override
+    public long getSkippedRounds() {
+        return skippedRounds;
+    }
+
+    @Override
+    public long getPriceUpdateNanos() {
+        return getPhaseNanos(Phase.PRICE_UPDATE);
+    }
+
+    @Override
+    public long getDecisionNanos() {
+        return getPhaseNanos(Phase.DECISIONS);
+    }
+
+    @Override
+    public long getAddRequestNanos() {
+        return getPhaseNanos(Phase.ADD_REQUESTS);
+    }
+
+    @Override
+    public long getMatchingNanos() {
+        return getPhaseNanos(Phase.MATCHING);
+    }
+
+    @Override
+    public long getExpiryNanos() {
+        return getPhaseNanos(Phase.EXPIRY);
+    }
+
+    @Override
+    public long getSmaUpdateNanos() {
+        return getPhaseNanos(Phase.SMA_UPDATE);
+    }
+
+    @Override
+    public long getOrdersSubmitted() {
+        return ordersSubmitted;
+    }
+
+    @Override
+    public long getPairsExamined() {
+        return pairsExamined;
+    }
+
+    @Override
+    public long getFills() {
+        return fills;
+    }
+
+    @Override
+    public long getCancelsForFunds() {
+        return cancelsForFunds;
+    }
+
+    @Override
+    public long getExpiries() {
+        return expiries;
+    }
+
+    @Override
+    public int getBookDepth() {
+        return bookDepth;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, under the domain "gpwsim".
+     *
+     * @param name the name of the simulation, unique among the registered ones
+     * @return the object name the metrics are registered under
+     * @throws JMException           if the name is invalid or already taken
+     * @throws IllegalStateException if the metrics are already registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        if (objectName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + objectName);
+        }
+        ObjectName newName = new ObjectName("gpwsim:type=SimulationMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+        objectName = newName;
+        return objectName;
+    }
+
+    /**
+     * Unregisters the metrics from the platform MBean server, if they're registered.
+     *
+     * @throws JMException if the metrics can't be unregistered
+     */
+    public void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /**
+     * Returns the totals as a multi-line report, with the times in milliseconds,
+     * followed by the allocation profile if it's enabled.
+     *
+     * @return the string representation of the metrics
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("rounds=").append(rounds).append(" skipped=").append(skippedRounds).append('\n');
+        for (Phase phase : Phase.values()) {
+            report.append(phase.name().toLowerCase(Locale.ROOT)).append('=')
+                    .append(String.format(Locale.ROOT, "%.3f", getPhaseNanos(phase) / 1e6)).append("ms\n");
+        }
+        report.append("orders=").append(ordersSubmitted).append(" pairs=").append(pairsExamined).append(" fills=").append(fills)
+                .append(" cancelsForFunds=").append(cancelsForFunds).append(" expiries=").append(expiries)
+                .append(" bookDepth=").append(bookDepth);
+        if (allocationProfile != null) {
+            report.append('\n').append(allocationProfile);
+        }
+        return report.toString();
+    }
+}
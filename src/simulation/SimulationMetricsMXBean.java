@@ -0,0 +1,105 @@
+package simulation;
+
+/**
+ * Management interface of {@link SimulationMetrics}, for watching a running simulation over JMX.
+ * Times are cumulative over all rounds, in nanoseconds.
+ */
+public interface SimulationMetricsMXBean {
+    /**
+     * Get the number of finished rounds, including the skipped ones.
+     *
+     * @return the number of rounds
+     */
+    long getRounds();
+
+    /**
+     * Get the number of rounds skipped by fast-forwarding.
+     *
+     * @return the number of skipped rounds
+     */
+    long getSkippedRounds();
+
+    /**
+     * Get the time spent recording the prices of the rounds.
+     *
+     * @return the time in nanoseconds
+     */
+    long getPriceUpdateNanos();
+
+    /**
+     * Get the time spent in the trade decisions of the investors.
+     *
+     * @return the time in nanoseconds
+     */
+    long getDecisionNanos();
+
+    /**
+     * Get the time spent turning orders into trade requests and adding them to the sheet.
+     *
+     * @return the time in nanoseconds
+     */
+    long getAddRequestNanos();
+
+    /**
+     * Get the time spent matching requests.
+     *
+     * @return the time in nanoseconds
+     */
+    long getMatchingNanos();
+
+    /**
+     * Get the time spent removing expired requests.
+     *
+     * @return the time in nanoseconds
+     */
+    long getExpiryNanos();
+
+    /**
+     * Get the time spent updating the SMAs.
+     *
+     * @return the time in nanoseconds
+     */
+    long getSmaUpdateNanos();
+
+    /**
+     * Get the number of trade requests submitted.
+     *
+     * @return the number of submitted orders
+     */
+    long getOrdersSubmitted();
+
+    /**
+     * Get the number of pairs of buy and sell requests examined by the matching.
+     *
+     * @return the number of examined pairs
+     */
+    long getPairsExamined();
+
+    /**
+     * Get the number of realised trades.
+     *
+     * @return the number of fills
+     */
+    long getFills();
+
+    /**
+     * Get the number of trades cancelled because an investor couldn't afford them.
+     *
+     * @return the number of cancels
+     */
+    long getCancelsForFunds();
+
+    /**
+     * Get the number of requests removed because they expired.
+     *
+     * @return the number of expiries
+     */
+    long getExpiries();
+
+    /**
+     * Get the number of requests waiting in the sheet at the end of the last round.
+     *
+     * @return the book depth
+     */
+    int getBookDepth();
+}
@@ -0,0 +1,371 @@
+package simulation;
+
+import investors.InvestorCohort;
+import investors.InvestorStrategies;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Tunable parameters of a simulation: the parameters of the built-in strategies,
+ * and overrides of the initial cash and investor mix of the scenario.
+ * Parameters can be set by name, so that parameter sweeps can be described as data.
+ */
+public class SimulationParameters {
+    public static final String SMA_DIFFERENCE = "smaDifference";
+    public static final String SIGNAL_LENGTH = "signalLength";
+    public static final String SMA_WARM_UP_ROUNDS = "smaWarmUpRounds";
+    public static final String MAX_TRADE_VALIDITY = "maxTradeValidity";
+    public static final String MAX_PRICE_CHANGE = "maxPriceChange";
+    public static final String INITIAL_CASH = "initialCash";
+    public static final String DECISION_INTERVAL = "decisionInterval";
+    public static final String FAST_FORWARD = "fastForward";
+    /**
+     * Prefix of the names of the investor counts, followed by the symbol of the strategy, e.g. "investors.R".
+     */
+    public static final String INVESTORS_PREFIX = "investors.";
+
+    /**
+     * How much below the last price SMA investors sell on a sell signal.
+     */
+    private int smaDifference = 5;
+    /**
+     * For how many rounds the requests made on an SMA signal are valid.
+     */
+    private int signalLength = 10;
+    /**
+     * Number of rounds of data SMA investors wait for before acting on signals.
+     */
+    private int smaWarmUpRounds = 10;
+    /**
+     * Maximal number of rounds the requests of random investors are valid.
+     */
+    private int maxTradeValidity = 10;
+    /**
+     * Maximal difference between the price limit of a random investor's request and the last price.
+     */
+    private int maxPriceChange = 5;
+    /**
+     * Initial cash of every investor, or -1 to use the one from the scenario.
+     */
+    private int initialCash = -1;
+    /**
+     * Mean number of ticks between two decisions of an investor in an event-driven simulation.
+     */
+    private int decisionInterval = EventDrivenSimulation.TICKS_PER_ROUND;
+    /**
+     * Whether the simulation skips the rounds in which no investor can act and no requests can be matched (1) or not (0).
+     */
+    private boolean fastForward = true;
+    /**
+     * Number of investors of each strategy overriding the counts from the scenario, by the symbol of the strategy.
+     */
+    private final Map<Character, Integer> investorCounts = new LinkedHashMap<>();
+
+    /**
+     * Creates new parameters with the default values, which don't change the scenario.
+     */
+    public SimulationParameters() {
+    }
+
+    /**
+     * Creates a copy of the given parameters.
+     *
+     * @param parameters the parameters to copy
+     */
+    public SimulationParameters(SimulationParameters parameters) {
+        this.smaDifference = parameters.smaDifference;
+        this.signalLength = parameters.signalLength;
+        this.smaWarmUpRounds = parameters.smaWarmUpRounds;
+        this.maxTradeValidity = parameters.maxTradeValidity;
+        this.maxPriceChange = parameters.maxPriceChange;
+        this.initialCash = parameters.initialCash;
+        this.decisionInterval = parameters.decisionInterval;
+        this.fastForward = parameters.fastForward;
+        this.investorCounts.putAll(parameters.investorCounts);
+    }
+
+    /**
+     * Sets the parameter with the given name.
+     *
+     * @param name  the name of the parameter, one of the constants of this class
+     * @param value the value of the parameter
+     * @return these parameters
+     * @throws IllegalArgumentException if there's no such parameter or the value is invalid for it
+     */
+    public SimulationParameters set(String name, int value) {
+        switch (name) {
+            case SMA_DIFFERENCE -> smaDifference = requireAtLeast(name, value, 0);
+            case SIGNAL_LENGTH -> signalLength = requireAtLeast(name, value, 0);
+            case SMA_WARM_UP_ROUNDS -> smaWarmUpRounds = requireAtLeast(name, value, 0);
+            case MAX_TRADE_VALIDITY -> maxTradeValidity = requireAtLeast(name, value, 1);
+            case MAX_PRICE_CHANGE -> maxPriceChange = requireAtLeast(name, value, 0);
+            case INITIAL_CASH -> initialCash = requireAtLeast(name, value, 0);
+            case DECISION_INTERVAL -> decisionInterval = requireAtLeast(name, value, 1);
+            case FAST_FORWARD -> fastForward = requireBetween(name, value, 0, 1) == 1;
+            default -> {
+                if (!name.startsWith(INVESTORS_PREFIX) || name.length() != INVESTORS_PREFIX.length() + 1
+                        || InvestorStrategies.forSymbol(name.charAt(INVESTORS_PREFIX.length())) == null) {
+                    throw new IllegalArgumentException("Unknown simulation parameter: " + name);
+                }
+                investorCounts.put(name.charAt(INVESTORS_PREFIX.length()), requireAtLeast(name, value, 0));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets the parameter with the given name.
+     *
+     * @param name the name of the parameter, one of the constants of this class
+     * @return the value of the parameter, -1 for a scenario value that isn't overridden
+     * @throws IllegalArgumentException if there's no such parameter
+     */
+    public int get(String name) {
+        return switch (name) {
+            case SMA_DIFFERENCE -> smaDifference;
+            case SIGNAL_LENGTH -> signalLength;
+            case SMA_WARM_UP_ROUNDS -> smaWarmUpRounds;
+            case MAX_TRADE_VALIDITY -> maxTradeValidity;
+            case MAX_PRICE_CHANGE -> maxPriceChange;
+            case INITIAL_CASH -> initialCash;
+            case DECISION_INTERVAL -> decisionInterval;
+            case FAST_FORWARD -> fastForward ? 1 : 0;
+            default -> {
+                if (!name.startsWith(INVESTORS_PREFIX) || name.length() != INVESTORS_PREFIX.length() + 1) {
+                    throw new IllegalArgumentException("Unknown simulation parameter: " + name);
+                }
+                yield investorCounts.getOrDefault(name.charAt(INVESTORS_PREFIX.length()), -1);
+            }
+        };
+    }
+
+    /**
+     * Checks that the value of the parameter is at least the given minimum.
+     *
+     * @param name    the name of the parameter
+     * @param value   the value
+     * @param minimum the minimum
+     * @return the value
+     * @throws IllegalArgumentException if the value is smaller than the minimum
+     */
+    private static int requireAtLeast(String name, int value, int minimum) {
+        if (value < minimum) {
+            throw new IllegalArgumentException("Simulation parameter " + name + " must be at least " + minimum + ", got " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Checks that the value of the parameter is between the given bounds.
+     *
+     * @param name    the name of the parameter
+     * @param value   the value
+     * @param minimum the minimum
+     * @param maximum the maximum
+     * @return the value
+     * @throws IllegalArgumentException if the value is out of the bounds
+     */
+    private static int requireBetween(String name, int value, int minimum, int maximum) {
+        if (value > maximum) {
+            throw new IllegalArgumentException("Simulation parameter " + name + " must be at most " + maximum + ", got " + value);
+        }
+        return requireAtLeast(name, value, minimum);
+    }
+
+    /**
+     * Get how much below the last price SMA investors sell on a sell signal.
+     *
+     * @return the SMA difference
+     */
+    public int getSmaDifference() {
+        return smaDifference;
+    }
+
+    /**
+     * Get for how many rounds the requests made on an SMA signal are valid.
+     *
+     * @return the signal length
+     */
+    public int getSignalLength() {
+        return signalLength;
+    }
+
+    /**
+     * Get the number of rounds SMA investors wait for before acting on signals.
+     *
+     * @return the number of warm-up rounds
+     */
+    public int getSmaWarmUpRounds() {
+        return smaWarmUpRounds;
+    }
+
+    /**
+     * Get the maximal number of rounds the requests of random investors are valid.
+     *
+     * @return the maximal trade validity
+     */
+    public int getMaxTradeValidity() {
+        return maxTradeValidity;
+    }
+
+    /**
+     * Get the maximal difference between the price limit of a random investor's request and the last price.
+     *
+     * @return the maximal price change
+     */
+    public int getMaxPriceChange() {
+        return maxPriceChange;
+    }
+
+    /**
+     * Get the mean number of ticks between two decisions of an investor in an event-driven simulation.
+     *
+     * @return the decision interval
+     */
+    public int getDecisionInterval() {
+        return decisionInterval;
+    }
+
+    /**
+     * Check if the simulation skips the rounds in which no investor can act and no requests can be matched.
+     * Skipped rounds don't shuffle the investors, so the random numbers drawn after them differ from a run without skipping.
+     *
+     * @return true if fast-forwarding is enabled, false otherwise
+     */
+    public boolean isFastForwardEnabled() {
+        return fastForward;
+    }
+
+    /**
+     * Returns the initial cash of every investor.
+     *
+     * @param scenarioCash the initial cash from the scenario
+     * @return the initial cash
+     */
+    public int getInitialCash(int scenarioCash) {
+        return initialCash == -1 ? scenarioCash : initialCash;
+    }
+
+    /**
+     * Returns the number of investors of each strategy: the counts from the scenario with the overridden ones replaced.
+     *
+     * @param scenarioCounts the counts from the scenario, by the symbol of the strategy
+     * @return the investor counts
+     */
+    public Map<Character, Integer> getInvestorCounts(Map<Character, Integer> scenarioCounts) {
+        if (investorCounts.isEmpty()) {
+            return scenarioCounts;
+        }
+        Map<Character, Integer> counts = new LinkedHashMap<>(scenarioCounts);
+        counts.putAll(investorCounts);
+        return counts;
+    }
+
+    /**
+     * Check if the parameters override the initial cash or the investor mix of the scenario.
+     *
+     * @return true if the scenario is overridden, false otherwise
+     */
+    public boolean overridesScenario() {
+        return initialCash != -1 || !investorCounts.isEmpty();
+    }
+
+    /**
+     * Returns the cohorts of investors: the cohorts from the scenario with the overrides applied.
+     * The overridden cash replaces the cash of every cohort. The cohorts of a strategy with an overridden count
+     * are merged into its first cohort, which gets that count; strategies missing from the scenario
+     * are added at the end with the cash and portfolio of the first cohort.
+     *
+     * @param scenarioCohorts the cohorts from the scenario
+     * @return the cohorts
+     */
+    public List<InvestorCohort> getCohorts(List<InvestorCohort> scenarioCohorts) {
+        if (!overridesScenario()) {
+            return scenarioCohorts;
+        }
+        List<InvestorCohort> cohorts = new ArrayList<>();
+        Set<Character> overridden = new HashSet<>();
+        for (InvestorCohort cohort : scenarioCohorts) {
+            Integer count = investorCounts.get(cohort.type());
+            if (count == null) {
+                cohorts.add(new InvestorCohort(cohort.type(), cohort.count(), getInitialCash(cohort.cash()), cohort.portfolio()));
+            } else if (overridden.add(cohort.type())) {
+                cohorts.add(new InvestorCohort(cohort.type(), count, getInitialCash(cohort.cash()), cohort.portfolio()));
+            }
+        }
+        InvestorCohort first = scenarioCohorts.isEmpty() ? new InvestorCohort(' ', 0, 0, Map.of()) : scenarioCohorts.get(0);
+        for (Map.Entry<Character, Integer> entry : investorCounts.entrySet()) {
+            if (!overridden.contains(entry.getKey())) {
+                cohorts.add(new InvestorCohort(entry.getKey(), entry.getValue(), getInitialCash(first.cash()), first.portfolio()));
+            }
+        }
+        return cohorts;
+    }
+
+    /**
+     * Writes the parameters in the binary checkpoint format.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(BinaryChannelWriter writer) throws IOException {
+        writer.putInt(smaDifference);
+        writer.putInt(signalLength);
+        writer.putInt(smaWarmUpRounds);
+        writer.putInt(maxTradeValidity);
+        writer.putInt(maxPriceChange);
+        writer.putInt(initialCash);
+        writer.putInt(decisionInterval);
+        writer.putBoolean(fastForward);
+        writer.putInt(investorCounts.size());
+        for (Map.Entry<Character, Integer> entry : investorCounts.entrySet()) {
+            writer.putInt(entry.getKey());
+            writer.putInt(entry.getValue());
+        }
+    }
+
+    /**
+     * Reads parameters written by {@link #writeCheckpoint(BinaryChannelWriter)}.
+     *
+     * @param reader the reader
+     * @return the parameters
+     * @throws IOException if an I/O error occurs
+     */
+    public static SimulationParameters readCheckpoint(BinaryChannelReader reader) throws IOException {
+        SimulationParameters parameters = new SimulationParameters();
+        parameters.smaDifference = reader.getInt();
+        parameters.signalLength = reader.getInt();
+        parameters.smaWarmUpRounds = reader.getInt();
+        parameters.maxTradeValidity = reader.getInt();
+        parameters.maxPriceChange = reader.getInt();
+        parameters.initialCash = reader.getInt();
+        parameters.decisionInterval = reader.getInt();
+        parameters.fastForward = reader.getBoolean();
+        int numberOfCounts = reader.getInt();
+        for (int i = 0; i < numberOfCounts; i++) {
+            parameters.investorCounts.put((char) reader.getInt(), reader.getInt());
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns the parameters as name=value pairs.
+     *
+     * @return the string representation of the parameters
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (String name : List.of(SMA_DIFFERENCE, SIGNAL_LENGTH, SMA_WARM_UP_ROUNDS, MAX_TRADE_VALIDITY, MAX_PRICE_CHANGE, INITIAL_CASH,
+                DECISION_INTERVAL, FAST_FORWARD)) {
+            joiner.add(name + "=" + get(name));
+        }
+        for (Map.Entry<Character, Integer> entry : investorCounts.entrySet()) {
+            joiner.add(INVESTORS_PREFIX + entry.getKey() + "=" + entry.getValue());
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one phase of a round of a simulation.
+ * It's only committed while a recording has it enabled, so it costs next to nothing otherwise.
+ */
+@Name("gpwsim.SimulationPhase")
+@Label("Simulation Phase")
+@Category({"GPWSim", "Simulation"})
+@Description("Time spent in one phase of a round of a stock exchange simulation")
+@StackTrace(false)
+class SimulationPhaseEvent extends Event {
+    @Label("Round")
+    int round;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long phaseDuration;
+}
@@ -0,0 +1,40 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event with the counters of a finished round of a simulation.
+ * It's only committed while a recording has it enabled, so it costs next to nothing otherwise.
+ */
+@Name("gpwsim.SimulationRound")
+@Label("Simulation Round")
+@Category({"GPWSim", "Simulation"})
+@Description("Order flow and matching counters of a finished round of a stock exchange simulation")
+@StackTrace(false)
+class SimulationRoundEvent extends Event {
+    @Label("Round")
+    int round;
+
+    @Label("Orders Submitted")
+    long ordersSubmitted;
+
+    @Label("Pairs Examined")
+    long pairsExamined;
+
+    @Label("Fills")
+    long fills;
+
+    @Label("Cancels For Funds")
+    long cancelsForFunds;
+
+    @Label("Expiries")
+    long expiries;
+
+    @Label("Book Depth")
+    int bookDepth;
+}
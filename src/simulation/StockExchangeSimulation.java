@@ -1,21 +1,71 @@
 package simulation;
 
 import investors.AInvestor;
+import investors.ColumnarInvestorStore;
 import investors.InvestorManagement;
+import investors.InvestorStrategies;
+import investors.InvestorStrategy;
 import requests.ATradeRequest;
+import requests.OrderBuffer;
 import stocks.Stock;
 import stocks.StockManagement;
 import stocks.TradeRequestSheet;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
 import utilities.Parser;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 public class StockExchangeSimulation {
+    /**
+     * Magic number at the start of checkpoint files ("GPWC").
+     */
+    private static final int CHECKPOINT_MAGIC = 0x47505743;
+    private static final int CHECKPOINT_VERSION = 8;
+    /**
+     * Magic number at the start of compiled scenario files ("GPWI").
+     */
+    private static final int COMPILED_SCENARIO_MAGIC = 0x47505749;
+    private static final int COMPILED_SCENARIO_VERSION = 2;
     private final int totalRounds;
+    private final SimulationContext context;
     private final StockManagement stockManagement;
     private final InvestorManagement investorManagement;
     private final LastTradeData lastTradeData;
+    private final TradeRequestSheet tradeRequestSheet;
+    private final SimulationMetrics metrics;
+    /**
+     * Where the market data of every finished round is streamed to, or null.
+     */
+    private MarketDataWriter marketDataWriter;
+    /**
+     * Where the trade requests added in every round are recorded, or null.
+     */
+    private OrderFlowWriter orderFlowWriter;
+    /**
+     * Orders decided in the current round, before they're turned into trade requests.
+     */
+    private final OrderBuffer orderBuffer;
+    /**
+     * Slots of the investors of each strategy, indexed like {@link InvestorStrategies#getStrategies()}.
+     */
+    private final int[][] batches;
+    private final int[] batchSizes;
     private int round;
+    /**
+     * Whether any investor made an order in the last round, fast-forwarding is only tried after a round without orders.
+     */
+    private boolean ordersInLastRound;
 
     /**
      * Creates a new stock exchange simulation with the given number of rounds.
@@ -24,10 +74,17 @@ public class StockExchangeSimulation {
      */
     public StockExchangeSimulation(int totalRounds) {
         this.totalRounds = totalRounds;
+        this.context = new SimulationContext(new Random());
         this.round = 0;
         this.stockManagement = new StockManagement();
         this.lastTradeData = new LastTradeData();
-        this.investorManagement = new InvestorManagement(stockManagement);
+        this.tradeRequestSheet = new TradeRequestSheet();
+        this.investorManagement = new InvestorManagement(stockManagement, context.getRandom());
+        this.orderBuffer = new OrderBuffer(investorManagement.getNumberOfInvestors());
+        this.batches = new int[InvestorStrategies.getStrategies().size()][0];
+        this.batchSizes = new int[batches.length];
+        this.ordersInLastRound = true;
+        this.metrics = new SimulationMetrics();
     }
 
     /**
@@ -37,44 +94,341 @@ public class StockExchangeSimulation {
      * @param parser      the parser
      */
     public StockExchangeSimulation(int totalRounds, Parser parser) {
+        this(totalRounds, parser, new SimulationContext(new Random()));
+    }
+
+    /**
+     * Creates a new stock exchange simulation with the given number of rounds, parser and seed.
+     *
+     * @param totalRounds the total number of rounds
+     * @param parser      the parser
+     * @param seed        the seed of the random number generator
+     */
+    public StockExchangeSimulation(int totalRounds, Parser parser, long seed) {
+        this(totalRounds, parser, new SimulationContext(seed));
+    }
+
+    /**
+     * Creates a new stock exchange simulation with the given number of rounds, parser and context.
+     * The parameters of the context can override the investor mix and the initial cash of the scenario.
+     *
+     * @param totalRounds the total number of rounds
+     * @param parser      the parser
+     * @param context     the context of the simulation, used only by this simulation
+     */
+    public StockExchangeSimulation(int totalRounds, Parser parser, SimulationContext context) {
         this.totalRounds = totalRounds;
+        this.context = context;
         this.round = 0;
         this.stockManagement = new StockManagement(parser);
         this.lastTradeData = new LastTradeData();
-        this.investorManagement = new InvestorManagement(stockManagement, parser);
+        this.tradeRequestSheet = new TradeRequestSheet();
+        SimulationParameters parameters = context.getParameters();
+        this.investorManagement = new InvestorManagement(stockManagement, parameters.getCohorts(parser.getCohorts()),
+                context.getRandom());
+        this.orderBuffer = new OrderBuffer(investorManagement.getNumberOfInvestors());
+        this.batches = new int[InvestorStrategies.getStrategies().size()][0];
+        this.batchSizes = new int[batches.length];
+        this.ordersInLastRound = true;
+        this.metrics = new SimulationMetrics();
+    }
+
+    /**
+     * Creates a stock exchange simulation from restored state.
+     *
+     * @param totalRounds        the total number of rounds
+     * @param context            the context of the simulation
+     * @param round              the current round
+     * @param stockManagement    the stock management
+     * @param investorManagement the investor management
+     * @param lastTradeData      the last trade data
+     * @param tradeRequestSheet  the trade request sheet
+     */
+    private StockExchangeSimulation(int totalRounds, SimulationContext context, int round, StockManagement stockManagement,
+                                    InvestorManagement investorManagement, LastTradeData lastTradeData, TradeRequestSheet tradeRequestSheet) {
+        this.totalRounds = totalRounds;
+        this.context = context;
+        this.round = round;
+        this.stockManagement = stockManagement;
+        this.lastTradeData = lastTradeData;
+        this.tradeRequestSheet = tradeRequestSheet;
+        this.investorManagement = investorManagement;
+        this.orderBuffer = new OrderBuffer(investorManagement.getNumberOfInvestors());
+        this.batches = new int[InvestorStrategies.getStrategies().size()][0];
+        this.batchSizes = new int[batches.length];
+        this.ordersInLastRound = true;
+        this.metrics = new SimulationMetrics();
+    }
+
+    /**
+     * Reinitializes the simulation in place for a new run of the given scenario with the given seed,
+     * keeping the parameters and the number of rounds.
+     *
+     * @param parser the parser of the scenario
+     * @param seed   the seed of the random number generator
+     */
+    public void reset(Parser parser, long seed) {
+        reset(parser, seed, context.getParameters());
+    }
+
+    /**
+     * Reinitializes the simulation in place for a new run of the given scenario with the given seed and parameters.
+     * The stocks, investors, request lists and buffers of the previous run are reused where possible,
+     * and the run continues exactly like a new simulation with the same scenario, seed and parameters would.
+     *
+     * @param parser     the parser of the scenario
+     * @param seed       the seed of the random number generator
+     * @param parameters the parameters of the new run
+     */
+    public void reset(Parser parser, long seed, SimulationParameters parameters) {
+        context.reset(seed, parameters);
+        stockManagement.reset(parser.getStockPrices());
+        lastTradeData.reset(stockManagement.getStocks());
+        tradeRequestSheet.reset(stockManagement.getStocks());
+        investorManagement.reset(parameters.getCohorts(parser.getCohorts()));
+        orderBuffer.clear();
+        round = 0;
+        ordersInLastRound = true;
+        metrics.reset();
     }
 
     /**
      * Runs the stock exchange simulation.
      */
     public void run() {
-        TradeRequestSheet tradeRequestSheet = new TradeRequestSheet();
+        run(totalRounds);
+    }
 
-        while (round < totalRounds) {
-            // We update the last trade data
-            for (Stock stock : stockManagement.getStocks()) {
-                // we treat the last trade data of a round as the price of the stock at the end of the round
-                lastTradeData.addTradeData(stock, stock.getLastPrice());
+    /**
+     * Runs the stock exchange simulation until the given round (or the end of the simulation).
+     * The simulation can be resumed by running it again.
+     * Unless disabled by the parameters, quiescent stretches of rounds are skipped, see {@link #fastForward(int)}.
+     *
+     * @param untilRound the round to stop before
+     */
+    public void run(int untilRound) {
+        untilRound = Math.min(untilRound, totalRounds);
+        while (round < untilRound) {
+            if (fastForward(untilRound)) {
+                continue;
             }
+            long phaseStart = metrics.startPhase();
+            // We update the last trade data
+            recordPrices();
+            phaseStart = metrics.endPhase(SimulationMetrics.Phase.PRICE_UPDATE, round, phaseStart);
+            // We skip the investors that can't trade anymore
+            investorManagement.updateEligibility(context.getParameters());
             // We randomly shuffle the investors to avoid any bias
-            Collection<AInvestor> investorsInRandomOrder = investorManagement.getInvestorsInRandomOrder();
-            for (AInvestor investor : investorsInRandomOrder) {
-                // We ask each investor to make a trade decision
-                ATradeRequest possibleTradeRequest = investor.makeTradeDecision(this);
-                if (possibleTradeRequest != null) {
+            int[] investorsInRandomOrder = investorManagement.shuffleInvestorOrder();
+            // We ask each strategy to make the trade decisions of its investors
+            decideInBatches(investorsInRandomOrder);
+            phaseStart = metrics.endPhase(SimulationMetrics.Phase.DECISIONS, round, phaseStart);
+            int numberOfInvestors = investorManagement.getNumberOfEligibleInvestors();
+            for (int i = 0; i < numberOfInvestors; i++) {
+                int slot = investorsInRandomOrder[i];
+                int row = orderBuffer.rowOf(slot);
+                if (row != -1) {
                     // If the investor wants to make a trade, we add the request to the trade request sheet
-                    tradeRequestSheet.addRequest(possibleTradeRequest);
+                    // (in the random order, so that the ids of requests don't depend on the strategy)
+                    AInvestor investor = investorManagement.getInvestorBySlot(slot);
+                    ATradeRequest request = orderBuffer.toRequest(row, investor, stockManagement, context);
+                    recordOrder(request);
+                    tradeRequestSheet.addRequest(request);
                 }
             }
-            // If everyone has made their decisions, we realise the trades
+            metrics.countOrdersSubmitted(orderBuffer.size());
+            metrics.endPhase(SimulationMetrics.Phase.ADD_REQUESTS, round, phaseStart);
+            ordersInLastRound = orderBuffer.size() > 0;
+            orderBuffer.clear();
+            // If everyone has made their decisions, we realise the trades (timed by the sheet, matching and expiry apart)
             tradeRequestSheet.realiseSubmittedTrades(this);
 
             // and we update the SMA data
-            lastTradeData.updateSMA();
-            round++;
+            finishRound();
         }
     }
 
+    /**
+     * Skips the rounds before the first one in which an investor may act, if no requests can be matched until then.
+     * Without trades the prices stay the same, so the price history and the SMAs of the skipped rounds are updated at once,
+     * and the requests that expired in them are removed as they would be at the end of the last skipped round.
+     * The eligible investors are still shuffled once for every skipped round, so the random number generator
+     * is used exactly like in the rounds that are run, and a seeded run doesn't depend on fast-forwarding.
+     * Quiescence is only checked after a round without orders, so busy markets don't pay for it.
+     *
+     * @param untilRound the round to stop before
+     * @return true if any rounds were skipped, false otherwise
+     */
+    private boolean fastForward(int untilRound) {
+        if (ordersInLastRound || !context.getParameters().isFastForwardEnabled()
+                || !tradeRequestSheet.isQuiescent(context.isLoggingEnabled())) {
+            return false;
+        }
+        investorManagement.updateEligibility(context.getParameters());
+        fillBatches(investorManagement.getInvestorOrder());
+        List<InvestorStrategy> strategies = InvestorStrategies.getStrategies();
+        ColumnarInvestorStore store = investorManagement.getStore();
+        int nextActiveRound = untilRound;
+        for (int strategy = 0; strategy < strategies.size() && nextActiveRound > round; strategy++) {
+            if (batchSizes[strategy] > 0) {
+                int strategyRound = strategies.get(strategy).nextActiveRound(this, store, batches[strategy], batchSizes[strategy]);
+                nextActiveRound = Math.min(nextActiveRound, strategyRound);
+            }
+        }
+        if (nextActiveRound <= round) {
+            return false;
+        }
+        for (Stock stock : stockManagement.getStocks()) {
+            lastTradeData.addRepeatedTradeData(stock, stock.getLastPrice(), nextActiveRound - round);
+        }
+        lastTradeData.updateSMA();
+        int skipped = nextActiveRound - round;
+        for (int i = 0; i < skipped; i++) {
+            // a shuffle of one investor or none makes no draws, so the thin markets skipped the most stay cheap
+            investorManagement.shuffleInvestorOrder();
+        }
+        round = nextActiveRound - 1;
+        // nothing can be matched, so this only removes the requests expired by the last skipped round
+        tradeRequestSheet.realiseSubmittedTrades(this);
+        recordMarketData(skipped);
+        metrics.skipRounds(skipped, tradeRequestSheet.getNumberOfWaitingRequests());
+        round = nextActiveRound;
+        return true;
+    }
+
+    /**
+     * Adds the current prices of all stocks to the last trade data, at the start of a round.
+     */
+    void recordPrices() {
+        for (Stock stock : stockManagement.getStocks()) {
+            // we treat the last trade data of a round as the price of the stock at the end of the round
+            lastTradeData.addTradeData(stock, stock.getLastPrice());
+        }
+    }
+
+    /**
+     * Updates the SMA data, counts the finished round in the metrics and moves on to the next round.
+     */
+    void finishRound() {
+        long phaseStart = metrics.startPhase();
+        lastTradeData.updateSMA();
+        metrics.endPhase(SimulationMetrics.Phase.SMA_UPDATE, round, phaseStart);
+        metrics.endRound(round, tradeRequestSheet.getNumberOfWaitingRequests());
+        recordMarketData(1);
+        round++;
+    }
+
+    /**
+     * Streams the market data of the given number of rounds ending with the current one, if a writer is set.
+     *
+     * @param rounds the number of rounds
+     * @throws UncheckedIOException if the market data can't be written
+     */
+    private void recordMarketData(int rounds) {
+        if (marketDataWriter != null) {
+            try {
+                marketDataWriter.recordRounds(this, rounds);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Market data can't be written", e);
+            }
+        }
+    }
+
+    /**
+     * Records a trade request added in the current round, if an order flow writer is set.
+     *
+     * @param request the trade request
+     * @throws UncheckedIOException if the order can't be written
+     */
+    private void recordOrder(ATradeRequest request) {
+        if (orderFlowWriter != null) {
+            try {
+                orderFlowWriter.record(round, request);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Order flow can't be written", e);
+            }
+        }
+    }
+
+    /**
+     * Sets where the trade requests added in every round are recorded, for {@link OrderFlowReplay}.
+     * The writer isn't closed by the simulation.
+     *
+     * @param orderFlowWriter the writer, or null to stop recording
+     */
+    public void setOrderFlowWriter(OrderFlowWriter orderFlowWriter) {
+        this.orderFlowWriter = orderFlowWriter;
+    }
+
+    /**
+     * Sets where the market data of every finished round is streamed to.
+     * The writer isn't closed by the simulation.
+     *
+     * @param marketDataWriter the writer, or null to stop recording
+     */
+    public void setMarketDataWriter(MarketDataWriter marketDataWriter) {
+        this.marketDataWriter = marketDataWriter;
+    }
+
+    /**
+     * Splits the eligible investors into batches by their strategy, keeping the given order,
+     * and asks each strategy to decide for its batch.
+     *
+     * @param investorsInRandomOrder the slots of the investors, eligible ones first in random order
+     */
+    private void decideInBatches(int[] investorsInRandomOrder) {
+        List<InvestorStrategy> strategies = InvestorStrategies.getStrategies();
+        ColumnarInvestorStore store = investorManagement.getStore();
+        fillBatches(investorsInRandomOrder);
+        for (int strategy = 0; strategy < strategies.size(); strategy++) {
+            if (batchSizes[strategy] > 0) {
+                AllocationProfile profile = metrics.getAllocationProfile();
+                long allocatedBefore = profile != null ? profile.allocatedBytes() : 0;
+                strategies.get(strategy).decideBatch(this, store, batches[strategy], batchSizes[strategy], orderBuffer);
+                if (profile != null) {
+                    profile.addStrategyBytes(strategy, batchSizes[strategy], profile.allocatedBytes() - allocatedBefore);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the eligible investors into batches by their strategy, keeping the given order.
+     *
+     * @param investorOrder the slots of the investors, eligible ones first
+     */
+    private void fillBatches(int[] investorOrder) {
+        ColumnarInvestorStore store = investorManagement.getStore();
+        int numberOfInvestors = investorManagement.getNumberOfEligibleInvestors();
+        Arrays.fill(batchSizes, 0);
+        for (int i = 0; i < numberOfInvestors; i++) {
+            int slot = investorOrder[i];
+            int strategy = InvestorStrategies.indexOf((char) store.getType(slot));
+            if (batches[strategy].length == batchSizes[strategy]) {
+                batches[strategy] = Arrays.copyOf(batches[strategy], Math.max(16, 2 * batchSizes[strategy]));
+            }
+            batches[strategy][batchSizes[strategy]++] = slot;
+        }
+    }
+
+    /**
+     * Get the context of the simulation: its random number generator, request ids and logging configuration.
+     *
+     * @return the context
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Get the phase timing and order flow metrics of the simulation.
+     *
+     * @return the metrics
+     */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Get the investor management.
      *
@@ -111,6 +465,15 @@ public class StockExchangeSimulation {
         return round;
     }
 
+    /**
+     * Get the trade request sheet with the requests waiting to be realised.
+     *
+     * @return the trade request sheet
+     */
+    public TradeRequestSheet getTradeRequestSheet() {
+        return tradeRequestSheet;
+    }
+
     /**
      * Get the last trade data.
      *
@@ -119,4 +482,157 @@ public class StockExchangeSimulation {
     public LastTradeData getLastTradeData() {
         return lastTradeData;
     }
+
+    /**
+     * Writes the whole state of the simulation to a binary checkpoint file, between two rounds.
+     * The simulation restored from it with {@link #restoreCheckpoint(Path)} continues exactly like this one would.
+     *
+     * @param path the path of the checkpoint file
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(Path path) throws IOException {
+        try (BinaryChannelWriter writer = new BinaryChannelWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            writer.putInt(CHECKPOINT_MAGIC);
+            writer.putInt(CHECKPOINT_VERSION);
+            writer.putInt(totalRounds);
+            writer.putInt(round);
+            writer.putBoolean(ordersInLastRound);
+            writer.putInt(context.getNextRequestID());
+            context.getParameters().writeCheckpoint(writer);
+            stockManagement.writeCheckpoint(writer);
+            investorManagement.writeCheckpoint(writer);
+            lastTradeData.writeCheckpoint(writer, stockManagement);
+            tradeRequestSheet.writeCheckpoint(writer);
+        }
+    }
+
+    /**
+     * Restores a simulation from a checkpoint file written by {@link #writeCheckpoint(Path)}.
+     * The simulation can be resumed with {@link #run()}.
+     *
+     * @param path the path of the checkpoint file
+     * @return the restored simulation
+     * @throws IOException if an I/O error occurs or the file isn't a valid checkpoint
+     */
+    public static StockExchangeSimulation restoreCheckpoint(Path path) throws IOException {
+        try (BinaryChannelReader reader = new BinaryChannelReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            if (reader.getInt() != CHECKPOINT_MAGIC) {
+                throw new IOException(path + " is not a checkpoint file");
+            }
+            int version = reader.getInt();
+            if (version != CHECKPOINT_VERSION) {
+                throw new IOException("Unsupported checkpoint version: " + version);
+            }
+            int totalRounds = reader.getInt();
+            int round = reader.getInt();
+            boolean ordersInLastRound = reader.getBoolean();
+            int nextRequestID = reader.getInt();
+            SimulationParameters parameters;
+            StockManagement stockManagement;
+            InvestorManagement investorManagement;
+            LastTradeData lastTradeData;
+            TradeRequestSheet tradeRequestSheet;
+            try {
+                parameters = SimulationParameters.readCheckpoint(reader);
+                stockManagement = StockManagement.readCheckpoint(reader);
+                investorManagement = InvestorManagement.readCheckpoint(reader, stockManagement);
+                lastTradeData = LastTradeData.readCheckpoint(reader, stockManagement);
+                tradeRequestSheet = TradeRequestSheet.readCheckpoint(reader, stockManagement, investorManagement);
+            } catch (IOException e) {
+                throw new IOException(path + " is a corrupt checkpoint: " + e.getMessage(), e);
+            }
+            // the random number generator is restored with the investors, the context shares it
+            SimulationContext context = new SimulationContext(investorManagement.getRandom(), parameters);
+            context.setNextRequestID(nextRequestID);
+            StockExchangeSimulation simulation = new StockExchangeSimulation(totalRounds, context, round, stockManagement,
+                    investorManagement, lastTradeData, tradeRequestSheet);
+            simulation.ordersInLastRound = ordersInLastRound;
+            return simulation;
+        }
+    }
+
+    /**
+     * Compiles a scenario into a file holding the fully initialized start state of its simulations,
+     * in a fixed-width layout that {@link #loadCompiledScenario(Path, int, SimulationContext)} memory-maps,
+     * so that runs of a big scenario don't have to parse it and build the investors one by one.
+     *
+     * @param parser the parser of the scenario
+     * @param path   the path of the compiled file
+     * @throws IOException if an I/O error occurs
+     */
+    public static void compileScenario(Parser parser, Path path) throws IOException {
+        StockExchangeSimulation simulation = new StockExchangeSimulation(0, parser, new SimulationContext(0));
+        StockManagement stockManagement = simulation.stockManagement;
+        InvestorManagement investorManagement = simulation.investorManagement;
+        long size = 2L * Integer.BYTES + stockManagement.getSnapshotSize() + investorManagement.getSnapshotSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Scenario is too large to be compiled into a single mapped file");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(COMPILED_SCENARIO_MAGIC);
+            buffer.putInt(COMPILED_SCENARIO_VERSION);
+            stockManagement.writeSnapshot(buffer);
+            investorManagement.writeSnapshot(buffer);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Check if the given file is a scenario compiled by {@link #compileScenario(Parser, Path)}.
+     *
+     * @param path the path of the file
+     * @return true if the file is a compiled scenario, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean isCompiledScenario(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) != -1) {
+                // keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == COMPILED_SCENARIO_MAGIC;
+        }
+    }
+
+    /**
+     * Creates a new simulation of a scenario compiled by {@link #compileScenario(Parser, Path)}, by memory-mapping it
+     * and copying its columns in bulk. The simulation runs exactly like a new simulation of the scenario with the same context.
+     *
+     * @param path        the path of the compiled file
+     * @param totalRounds the total number of rounds
+     * @param context     the context of the simulation, used only by this simulation
+     * @return the simulation
+     * @throws IOException              if an I/O error occurs or the file isn't a compiled scenario
+     * @throws IllegalArgumentException if the parameters of the context override the investors or the cash of the scenario
+     */
+    public static StockExchangeSimulation loadCompiledScenario(Path path, int totalRounds, SimulationContext context)
+            throws IOException {
+        if (context.getParameters().overridesScenario()) {
+            throw new IllegalArgumentException("Parameters can't override the investors of a compiled scenario");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to be a compiled scenario");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != COMPILED_SCENARIO_MAGIC) {
+                throw new IOException(path + " is not a compiled scenario");
+            }
+            int version = buffer.getInt();
+            if (version != COMPILED_SCENARIO_VERSION) {
+                throw new IOException("Unsupported compiled scenario version: " + version);
+            }
+            try {
+                StockManagement stockManagement = StockManagement.readSnapshot(buffer);
+                InvestorManagement investorManagement = InvestorManagement.readSnapshot(buffer, stockManagement, context.getRandom());
+                return new StockExchangeSimulation(totalRounds, context, 0, stockManagement, investorManagement,
+                        new LastTradeData(), new TradeRequestSheet());
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException(path + " is a truncated compiled scenario", e);
+            }
+        }
+    }
 }
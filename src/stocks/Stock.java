@@ -2,6 +2,10 @@ package stocks;
 
 public class Stock {
     private final String identifier;
+    /**
+     * Position of the stock in its stock management, or -1 if the stock was created directly.
+     */
+    private final int ordinal;
     private int lastPrice;
     private int lastTradeRound;
 
@@ -13,7 +17,21 @@ public class Stock {
      * @param lastPrice  the last price of the stock
      */
     public Stock(String identifier, int lastPrice, int lastTradeRound) {
+        this(identifier, lastPrice, lastTradeRound, -1);
+    }
+
+    /**
+     * Creates a new stock with the given identifier, last price, last trade round and ordinal.
+     * Shouldn't be used directly, use stock management instead.
+     *
+     * @param identifier     the identifier of the stock
+     * @param lastPrice      the last price of the stock
+     * @param lastTradeRound the last trade round of the stock
+     * @param ordinal        the position of the stock in its stock management
+     */
+    public Stock(String identifier, int lastPrice, int lastTradeRound, int ordinal) {
         this.identifier = identifier;
+        this.ordinal = ordinal;
         this.lastPrice = lastPrice;
         // set appropriate value for lastTradeRound at the beginning
         this.lastTradeRound = 0; // or -1?
@@ -39,6 +57,16 @@ public class Stock {
         return identifier;
     }
 
+    /**
+     * Get the position of the stock in its stock management.
+     * Ordinals are dense, so they can be used as indices into per-stock arrays.
+     *
+     * @return the ordinal of the stock, or -1 if it doesn't belong to a stock management
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     /**
      * Get the last price of the stock.
      *
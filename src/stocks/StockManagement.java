@@ -1,20 +1,34 @@
 package stocks;
 
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
 import utilities.Parser;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.NoSuchElementException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 public class StockManagement {
+    /**
+     * Width of a stock identifier in the snapshot format, identifiers have at most 5 letters.
+     */
+    private static final int SNAPSHOT_IDENTIFIER_BYTES = 8;
+    private static final int SNAPSHOT_STOCK_BYTES = SNAPSHOT_IDENTIFIER_BYTES + Integer.BYTES;
     private final Map<String, Stock> stockIdentifiers;
+    /**
+     * Stocks indexed by their ordinal.
+     */
+    private final List<Stock> stocks;
+    private final List<Stock> unmodifiableStocks;
 
     /**
      * Creates a new stock management.
      */
     public StockManagement() {
         this.stockIdentifiers = new HashMap<>();
+        this.stocks = new ArrayList<>();
+        this.unmodifiableStocks = Collections.unmodifiableList(stocks);
     }
 
     /**
@@ -23,7 +37,7 @@ public class StockManagement {
      * @param identifierPriceMap the identifier-price map
      */
     public StockManagement(Map<String, Integer> identifierPriceMap) {
-        this.stockIdentifiers = new HashMap<>();
+        this();
         createStocksFromIdentifierPriceMap(identifierPriceMap);
     }
 
@@ -49,8 +63,9 @@ public class StockManagement {
         if (stockIdentifiers.containsKey(identifier)) {
             throw new IllegalArgumentException("Stock with identifier " + identifier + " already exists");
         }
-        Stock stock = new Stock(identifier, lastPrice, lastTradeRound);
+        Stock stock = new Stock(identifier, lastPrice, lastTradeRound, stocks.size());
         stockIdentifiers.put(identifier, stock);
+        stocks.add(stock);
         return stock;
     }
 
@@ -69,12 +84,61 @@ public class StockManagement {
     }
 
     /**
-     * Returns all stocks.
+     * Returns the stock with the given ordinal.
+     *
+     * @param ordinal the ordinal of the stock
+     * @return the stock with the given ordinal
+     * @throws IndexOutOfBoundsException if a stock with the given ordinal does not exist
+     */
+    public Stock getStock(int ordinal) {
+        return stocks.get(ordinal);
+    }
+
+    /**
+     * Returns the number of stocks.
+     *
+     * @return the number of stocks
+     */
+    public int getNumberOfStocks() {
+        return stocks.size();
+    }
+
+    /**
+     * Returns all stocks, ordered by their ordinal.
      *
      * @return collection of all stocks
      */
-    public Collection<Stock> getStocks() {
-        return stockIdentifiers.values();
+    public List<Stock> getStocks() {
+        return unmodifiableStocks;
+    }
+
+    /**
+     * Resets the stocks to the given identifier-price map, for a new run.
+     * If the map has the same identifiers in the same order as the current stocks, the stock objects are kept
+     * and only their prices and last trade rounds are reset, otherwise all stocks are created anew.
+     *
+     * @param identifierPriceMap the identifier-price map
+     */
+    public void reset(Map<String, Integer> identifierPriceMap) {
+        boolean sameStocks = identifierPriceMap.size() == stocks.size();
+        if (sameStocks) {
+            int ordinal = 0;
+            for (String identifier : identifierPriceMap.keySet()) {
+                if (!stocks.get(ordinal++).getIdentifier().equals(identifier)) {
+                    sameStocks = false;
+                    break;
+                }
+            }
+        }
+        if (sameStocks) {
+            for (Map.Entry<String, Integer> entry : identifierPriceMap.entrySet()) {
+                stockIdentifiers.get(entry.getKey()).updateLastTransactionInformation(entry.getValue(), 0);
+            }
+            return;
+        }
+        stockIdentifiers.clear();
+        stocks.clear();
+        createStocksFromIdentifierPriceMap(identifierPriceMap);
     }
 
     /**
@@ -100,5 +164,85 @@ public class StockManagement {
         stock.updateLastTransactionInformation(price, tradeRound);
     }
 
+    /**
+     * Writes the stocks in the binary checkpoint format, in the order of their ordinals.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(BinaryChannelWriter writer) throws IOException {
+        writer.putInt(stocks.size());
+        for (Stock stock : stocks) {
+            writer.putString(stock.getIdentifier());
+            writer.putInt(stock.getLastPrice());
+            writer.putInt(stock.getLastTradeRound());
+        }
+    }
 
+    /**
+     * Reads a stock management written by {@link #writeCheckpoint(BinaryChannelWriter)}.
+     * The stocks get the same ordinals they had.
+     *
+     * @param reader the reader
+     * @return the stock management
+     * @throws IOException if an I/O error occurs
+     */
+    public static StockManagement readCheckpoint(BinaryChannelReader reader) throws IOException {
+        StockManagement stockManagement = new StockManagement();
+        int numberOfStocks = reader.getInt();
+        for (int i = 0; i < numberOfStocks; i++) {
+            stockManagement.createStock(reader.getString(), reader.getInt(), reader.getInt());
+        }
+        return stockManagement;
+    }
+
+    /**
+     * Get the size of the stocks in the snapshot format.
+     *
+     * @return the size in bytes
+     */
+    public int getSnapshotSize() {
+        return Integer.BYTES + stocks.size() * SNAPSHOT_STOCK_BYTES;
+    }
+
+    /**
+     * Writes the stocks in the fixed-width snapshot format, in the order of their ordinals:
+     * the number of stocks, then the identifier (padded with zeros) and the last price of each stock.
+     *
+     * @param buffer the buffer to write to, at its position
+     */
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(stocks.size());
+        for (Stock stock : stocks) {
+            byte[] identifier = stock.getIdentifier().getBytes(StandardCharsets.US_ASCII);
+            if (identifier.length > SNAPSHOT_IDENTIFIER_BYTES) {
+                throw new IllegalStateException("Stock identifier too long for a snapshot: " + stock.getIdentifier());
+            }
+            buffer.put(identifier);
+            buffer.put(new byte[SNAPSHOT_IDENTIFIER_BYTES - identifier.length]);
+            buffer.putInt(stock.getLastPrice());
+        }
+    }
+
+    /**
+     * Reads a stock management written by {@link #writeSnapshot(ByteBuffer)}.
+     * The stocks get the same ordinals they had.
+     *
+     * @param buffer the buffer to read from, at its position
+     * @return the stock management
+     */
+    public static StockManagement readSnapshot(ByteBuffer buffer) {
+        StockManagement stockManagement = new StockManagement();
+        int numberOfStocks = buffer.getInt();
+        byte[] identifier = new byte[SNAPSHOT_IDENTIFIER_BYTES];
+        for (int i = 0; i < numberOfStocks; i++) {
+            buffer.get(identifier);
+            int length = 0;
+            while (length < identifier.length && identifier[length] != 0) {
+                length++;
+            }
+            stockManagement.createStock(new String(identifier, 0, length, StandardCharsets.US_ASCII), buffer.getInt(), 0);
+        }
+        return stockManagement;
+    }
 }
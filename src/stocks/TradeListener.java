@@ -0,0 +1,19 @@
+package stocks;
+
+import requests.ATradeRequest;
+
+/**
+ * Listener notified by a trade request sheet about every realised trade, in the order the trades are realised.
+ */
+public interface TradeListener {
+    /**
+     * Called after a trade is realised, before the quantities of the requests are reduced.
+     *
+     * @param round       the round of the trade
+     * @param buyRequest  the buy request
+     * @param sellRequest the sell request
+     * @param quantity    the number of shares traded
+     * @param price       the price of a share
+     */
+    void onTrade(int round, ATradeRequest buyRequest, ATradeRequest sellRequest, int quantity, int price);
+}
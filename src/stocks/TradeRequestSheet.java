@@ -1,13 +1,24 @@
 package stocks;
 
+import investors.InvestorManagement;
 import requests.ATradeRequest;
+import requests.IcebergTradeRequest;
 import requests.RequestManagement;
+import requests.StopTradeRequest;
+import simulation.SimulationMetrics;
 import simulation.StockExchangeSimulation;
-import utilities.EventLogging;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
 import utilities.SortedList;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,28 +35,127 @@ public class TradeRequestSheet {
      */
     static final Comparator<ATradeRequest> sellComparator = (a, b) -> Integer.compare(a.getPriceLimit(), b.getPriceLimit());
 
+    /**
+     * Buy requests of each stock, in the order the stocks first got a request,
+     * so that the trades of a round are realised in the same order in every run.
+     */
     private final Map<Stock, SortedList<ATradeRequest>> buyRequestsMap;
     private final Map<Stock, SortedList<ATradeRequest>> sellRequestsMap;
+    /**
+     * Emptied lists of the previous run, reused when their stock gets a request again.
+     */
+    private final Map<Stock, SortedList<ATradeRequest>> spareBuyLists;
+    private final Map<Stock, SortedList<ATradeRequest>> spareSellLists;
+    private long numberOfTrades;
+    /**
+     * Total number of shares traded.
+     */
+    private long tradedVolume;
+    /**
+     * Number of shares traded of each stock, indexed by the ordinal of the stock.
+     */
+    private long[] tradedVolumeByStock;
+    private TradeListener tradeListener;
+    /**
+     * Stop orders waiting to be triggered by the price of their stock.
+     */
+    private TriggerBook triggerBook;
+    /**
+     * Stops triggered by the trades being realised, to be added to the sheet once the matching in progress is done.
+     */
+    private final List<StopTradeRequest> activatedStops;
+    /**
+     * Stops triggered and submitted by the last call to {@link #submitRequest}, in the order they were submitted.
+     */
+    private final List<StopTradeRequest> submittedStops;
+    /**
+     * Whether an iceberg order displayed a new slice and moved to the back of its price level
+     * since the matching in progress started, which makes the order it's matched in out of date.
+     */
+    private boolean icebergReplenished;
 
     /**
      * Creates a new trade request sheet.
      */
     public TradeRequestSheet() {
-        buyRequestsMap = new HashMap<>();
-        sellRequestsMap = new HashMap<>();
+        buyRequestsMap = new LinkedHashMap<>();
+        sellRequestsMap = new LinkedHashMap<>();
+        spareBuyLists = new HashMap<>();
+        spareSellLists = new HashMap<>();
+        tradedVolumeByStock = new long[0];
+        triggerBook = new TriggerBook();
+        activatedStops = new ArrayList<>();
+        submittedStops = new ArrayList<>();
+    }
+
+    /**
+     * Removes all requests and zeroes the trade counters, for a new run.
+     * The lists of requests of the given stocks are kept for reuse, but the stocks are forgotten,
+     * so that they are iterated in the order they get requests in the new run.
+     *
+     * @param stocks the stocks of the new run
+     */
+    public void reset(Collection<Stock> stocks) {
+        for (Map.Entry<Stock, SortedList<ATradeRequest>> entry : buyRequestsMap.entrySet()) {
+            entry.getValue().getList().clear();
+            spareBuyLists.put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Stock, SortedList<ATradeRequest>> entry : sellRequestsMap.entrySet()) {
+            entry.getValue().getList().clear();
+            spareSellLists.put(entry.getKey(), entry.getValue());
+        }
+        buyRequestsMap.clear();
+        sellRequestsMap.clear();
+        spareBuyLists.keySet().retainAll(stocks);
+        spareSellLists.keySet().retainAll(stocks);
+        triggerBook.clear();
+        activatedStops.clear();
+        submittedStops.clear();
+        numberOfTrades = 0;
+        tradedVolume = 0;
+        Arrays.fill(tradedVolumeByStock, 0);
     }
 
     /**
      * Adds a trade request to the trade request sheet.
+     * A stop order not triggered by the last price of its stock goes to the trigger book instead.
      *
      * @param request the trade request to add
      */
     public void addRequest(ATradeRequest request) {
+        addToLists(request);
+    }
+
+    /**
+     * Adds a trade request to the list of its side, or a stop order not triggered yet to the trigger book.
+     *
+     * @param request the trade request to add
+     * @return true if the request was added to the list of its side, false if it waits in the trigger book
+     */
+    private boolean addToLists(ATradeRequest request) {
+        if (request instanceof StopTradeRequest stop && !stop.isActivated()) {
+            if (!stop.isTriggeredBy(stop.getStock().getLastPrice())) {
+                triggerBook.add(stop);
+                return false;
+            }
+            stop.activate();
+        }
         if (request.isBuyRequest()) {
             addBuyRequest(request);
         } else {
             addSellRequest(request);
         }
+        return true;
+    }
+
+    /**
+     * Adds the stops triggered since the last call to the sheet, in the order they were triggered.
+     */
+    private void addActivatedStops() {
+        for (StopTradeRequest stop : activatedStops) {
+            addToLists(stop);
+        }
+        activatedStops.clear();
     }
 
     /**
@@ -54,9 +164,7 @@ public class TradeRequestSheet {
      * @param request the buy request to add
      */
     private void addBuyRequest(ATradeRequest request) {
-        // make sure there are lists for the stock
-        buyRequestsMap.putIfAbsent(request.getStock(), new SortedList<>(buyComparator));
-        sellRequestsMap.putIfAbsent(request.getStock(), new SortedList<>(sellComparator));
+        ensureLists(request.getStock());
         // add the request to the list of buy requests for the stock
         buyRequestsMap.get(request.getStock()).add(request);
     }
@@ -67,21 +175,62 @@ public class TradeRequestSheet {
      * @param request the sell request to add
      */
     private void addSellRequest(ATradeRequest request) {
-        // make sure there are lists for the stock
-        buyRequestsMap.putIfAbsent(request.getStock(), new SortedList<>(buyComparator));
-        sellRequestsMap.putIfAbsent(request.getStock(), new SortedList<>(sellComparator));
+        ensureLists(request.getStock());
         // add the request to the list of sell requests for the stock
         sellRequestsMap.get(request.getStock()).add(request);
     }
 
+    /**
+     * Makes sure there are lists of buy and sell requests for the stock, reusing spare ones if there are any.
+     *
+     * @param stock the stock
+     */
+    private void ensureLists(Stock stock) {
+        if (buyRequestsMap.containsKey(stock)) {
+            return;
+        }
+        SortedList<ATradeRequest> buyRequests = spareBuyLists.remove(stock);
+        SortedList<ATradeRequest> sellRequests = spareSellLists.remove(stock);
+        buyRequestsMap.put(stock, buyRequests != null ? buyRequests : new SortedList<>(buyComparator));
+        sellRequestsMap.put(stock, sellRequests != null ? sellRequests : new SortedList<>(sellComparator));
+    }
+
     /**
      * Realises submitted trades.
      *
      * @param simulation the simulation
      */
     public void realiseSubmittedTrades(StockExchangeSimulation simulation) {
+        SimulationMetrics metrics = simulation.getMetrics();
+        long phaseStart = metrics.startPhase();
         checkForTrades(simulation);
+        phaseStart = metrics.endPhase(SimulationMetrics.Phase.MATCHING, simulation.getRound(), phaseStart);
         removeExpiredRequests(simulation);
+        metrics.endPhase(SimulationMetrics.Phase.EXPIRY, simulation.getRound(), phaseStart);
+    }
+
+    /**
+     * Checks whether realising the submitted trades would only remove expired requests,
+     * in this round and in the following ones if no requests are added:
+     * no stock has a buy request with a price limit at least as high as the one of a sell request.
+     * Every checked pair of requests is logged, so with logging enabled no stock may have requests on both sides.
+     *
+     * @param loggingEnabled whether logging is enabled
+     * @return true if no trades can be realised, false otherwise
+     */
+    public boolean isQuiescent(boolean loggingEnabled) {
+        for (Stock stock : buyRequestsMap.keySet()) {
+            List<ATradeRequest> buyRequests = buyRequestsMap.get(stock).getList();
+            List<ATradeRequest> sellRequests = sellRequestsMap.get(stock).getList();
+            if (buyRequests.isEmpty() || sellRequests.isEmpty()) {
+                continue;
+            }
+            // the lists are sorted by price limit, best first
+            if (loggingEnabled || buyRequests.get(0).getPriceLimit() >= sellRequests.get(0).getPriceLimit()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -97,18 +246,40 @@ public class TradeRequestSheet {
 
     /**
      * Checks for trades for a specific stock.
+     * The stops triggered by the trades are added once all requests have been checked, and then the requests are checked again.
+     * They're also checked again right after an iceberg order displays a new slice, in their new order.
      *
      * @param stock      the stock
      * @param simulation the simulation
      */
     private void checkForTradesForStock(Stock stock, StockExchangeSimulation simulation) {
+        icebergReplenished = false;
+        matchRequestsOfStock(stock, simulation);
+        while (!activatedStops.isEmpty() || icebergReplenished) {
+            icebergReplenished = false;
+            addActivatedStops();
+            matchRequestsOfStock(stock, simulation);
+        }
+    }
+
+    /**
+     * Checks every buy request of a stock against its sell requests, once, or until an iceberg order displays a new slice.
+     *
+     * @param stock      the stock
+     * @param simulation the simulation
+     */
+    private void matchRequestsOfStock(Stock stock, StockExchangeSimulation simulation) {
         SortedList<ATradeRequest> buyRequests = buyRequestsMap.get(stock);
         SortedList<ATradeRequest> sellRequests = sellRequestsMap.get(stock);
 
         outer:
         for (ATradeRequest buyRequest : new SortedList<>(buyRequests)) {
             for (ATradeRequest sellRequest : new SortedList<>(sellRequests)) {
-                EventLogging.log("Checking trade between " + buyRequest + " and " + sellRequest);
+                simulation.getMetrics().countPairExamined();
+                if (simulation.getContext().isLoggingEnabled()) {
+                    // building the message is expensive, so we only do it if it will be printed
+                    simulation.getContext().log("Checking trade between " + buyRequest + " and " + sellRequest);
+                }
                 if (buyRequest.getPriceLimit() >= sellRequest.getPriceLimit()) {
                     // we check if the trade type logic allows this to be conducted
                     List<ATradeRequest> sellRequestSubList = null;
@@ -123,6 +294,9 @@ public class TradeRequestSheet {
                         continue;
                     }
                     boolean buyRequestFullfilled = realiseTrade(buyRequest, sellRequest, simulation);
+                    if (icebergReplenished) {
+                        return; // the requests are checked again in their new order
+                    }
                     if (buyRequestFullfilled) {
                         // If the buy request has been completely fulfilled, move on to the next buy request
                         continue;
@@ -137,9 +311,124 @@ public class TradeRequestSheet {
         }
     }
 
+    /**
+     * Adds a trade request and matches it right away against the waiting requests of the other side,
+     * best price first, for simulations where requests arrive one by one.
+     * Whatever isn't matched waits in the sheet. The stops triggered by the trades are then submitted the same way,
+     * in the order they were triggered, and are listed by {@link #getSubmittedStops()} until the next call.
+     *
+     * @param request    the trade request
+     * @param simulation the simulation
+     * @return true if the request was left waiting in the sheet, false if it was fulfilled or cancelled
+     */
+    public boolean submitRequest(ATradeRequest request, StockExchangeSimulation simulation) {
+        submittedStops.clear();
+        boolean waiting = matchRequest(request, simulation);
+        while (!activatedStops.isEmpty()) {
+            List<StopTradeRequest> stops = new ArrayList<>(activatedStops);
+            activatedStops.clear();
+            for (StopTradeRequest stop : stops) {
+                if (matchRequest(stop, simulation)) {
+                    submittedStops.add(stop);
+                }
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Get the stops triggered by the trades of the last submitted request and left waiting in the sheet when submitted after it.
+     * Trades with the stops submitted later may still have fulfilled them.
+     *
+     * @return the stops, in the order they were submitted
+     */
+    public List<StopTradeRequest> getSubmittedStops() {
+        return Collections.unmodifiableList(submittedStops);
+    }
+
+    /**
+     * Adds a trade request and matches it right away against the waiting requests of the other side.
+     *
+     * @param request    the trade request
+     * @param simulation the simulation
+     * @return true if the request was left waiting in the sheet, false if it was fulfilled or cancelled
+     */
+    private boolean matchRequest(ATradeRequest request, StockExchangeSimulation simulation) {
+        if (!addToLists(request)) {
+            return true; // waits in the trigger book
+        }
+        Stock stock = request.getStock();
+        boolean buy = request.isBuyRequest();
+        SortedList<ATradeRequest> ownRequests = (buy ? buyRequestsMap : sellRequestsMap).get(stock);
+        List<ATradeRequest> own = ownRequests.getList();
+        List<ATradeRequest> opposite = (buy ? sellRequestsMap : buyRequestsMap).get(stock).getList();
+        // only trades of the request change the requests of its side, so its index only changes when it's replenished
+        int ownIndex = ownRequests.indexOf(request);
+        int index = 0;
+        while (index < opposite.size()) {
+            ATradeRequest waiting = opposite.get(index);
+            ATradeRequest buyRequest = buy ? request : waiting;
+            ATradeRequest sellRequest = buy ? waiting : request;
+            simulation.getMetrics().countPairExamined();
+            if (buyRequest.getPriceLimit() < sellRequest.getPriceLimit()) {
+                break; // the other side is sorted, so nothing further crosses either
+            }
+            if (!request.considerTrade(opposite.subList(index, opposite.size()))
+                    || !waiting.considerTrade(own.subList(ownIndex, own.size()))) {
+                index++;
+                continue;
+            }
+            int waitingBefore = opposite.size();
+            long tradesBefore = numberOfTrades;
+            if (realiseTrade(buyRequest, sellRequest, request, simulation)) {
+                return false; // fulfilled or cancelled
+            }
+            if (request instanceof IcebergTradeRequest) {
+                ownIndex = ownRequests.indexOf(request); // it may have displayed a new slice behind its price level
+            }
+            if (numberOfTrades == tradesBefore && opposite.size() == waitingBefore) {
+                index++; // the waiting request survived, so the trade didn't happen
+            }
+            // if the trade happened and the waiting request survived, it was an iceberg order that moved back,
+            // and the next request is at the same index
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the given request is waiting in the sheet.
+     *
+     * @param request the trade request
+     * @return true if the request is waiting, false otherwise
+     */
+    public boolean isWaiting(ATradeRequest request) {
+        if (request instanceof StopTradeRequest stop && !stop.isActivated()) {
+            return triggerBook.contains(stop);
+        }
+        Map<Stock, SortedList<ATradeRequest>> requestsMap = request.isBuyRequest() ? buyRequestsMap : sellRequestsMap;
+        SortedList<ATradeRequest> requests = requestsMap.get(request.getStock());
+        return requests != null && requests.indexOf(request) != -1;
+    }
+
+    /**
+     * Removes the given request from the sheet, if it's still waiting.
+     *
+     * @param request the trade request
+     * @return true if the request was waiting, false otherwise
+     */
+    public boolean cancelRequest(ATradeRequest request) {
+        if (request instanceof StopTradeRequest stop && !stop.isActivated()) {
+            return triggerBook.cancel(stop);
+        }
+        Map<Stock, SortedList<ATradeRequest>> requestsMap = request.isBuyRequest() ? buyRequestsMap : sellRequestsMap;
+        SortedList<ATradeRequest> requests = requestsMap.get(request.getStock());
+        return requests != null && requests.getList().remove(request);
+    }
+
     /**
      * Realises a trade between a buy request and a sell request.
      * If the buy request is completely fulfilled, it is removed from the list of buy requests.
+     * The stops triggered by the new price of the stock are collected, to be added when the matching in progress is done.
      *
      * @param buyRequest  the buy request
      * @param sellRequest the sell request
@@ -147,6 +436,21 @@ public class TradeRequestSheet {
      * @return true if the buy request has been completely fulfilled or cancelled, false otherwise
      */
     private boolean realiseTrade(ATradeRequest buyRequest, ATradeRequest sellRequest, StockExchangeSimulation simulation) {
+        return realiseTrade(buyRequest, sellRequest, buyRequest, simulation);
+    }
+
+    /**
+     * Realises a trade between a buy request and a sell request, like {@link #realiseTrade(ATradeRequest, ATradeRequest, StockExchangeSimulation)},
+     * telling whether the given one of them is done.
+     *
+     * @param buyRequest  the buy request
+     * @param sellRequest the sell request
+     * @param watched     the buy or the sell request
+     * @param simulation  the simulation
+     * @return true if the watched request has been completely fulfilled or cancelled, false otherwise
+     */
+    private boolean realiseTrade(ATradeRequest buyRequest, ATradeRequest sellRequest, ATradeRequest watched,
+                                 StockExchangeSimulation simulation) {
         int round = simulation.getRound();
         // Implement the trade logic here
         // Assume that this will delete from the list of requests
@@ -157,37 +461,93 @@ public class TradeRequestSheet {
             if (sellRequest.getInvestor().canSellStock(sellRequest.getStock(), quantity, olderPrice)) {
                 buyRequest.getInvestor().buyStock(buyRequest.getStock(), quantity, olderPrice);
                 sellRequest.getInvestor().sellStock(sellRequest.getStock(), quantity, olderPrice);
-                reduceQuantityOrRemove(buyRequest, quantity);
-                reduceQuantityOrRemove(sellRequest, quantity);
+                if (tradeListener != null) {
+                    tradeListener.onTrade(round, buyRequest, sellRequest, quantity, olderPrice);
+                }
+                boolean buyRequestRemoved = reduceQuantityOrRemove(buyRequest, quantity);
+                boolean sellRequestRemoved = reduceQuantityOrRemove(sellRequest, quantity);
                 buyRequest.getStock().updateLastTransactionInformation(olderPrice, buyRequest.getStock().getLastTradeRound());
-                EventLogging.log("Trade realised");
-                return !buyRequestsMap.get(buyRequest.getStock()).getList().contains(buyRequest);
+                triggerBook.activate(buyRequest.getStock(), olderPrice, activatedStops);
+                numberOfTrades++;
+                tradedVolume += quantity;
+                addTradedVolume(buyRequest.getStock(), quantity);
+                simulation.getMetrics().countFill();
+                simulation.getContext().log("Trade realised");
+                return watched == buyRequest ? buyRequestRemoved : sellRequestRemoved;
             }
         }
 
         // we don't consider realizing trade possibly even more partially
         // if one of the investors can afford only part of the trade
-        EventLogging.log("Trade cancelled");
-        removeRequestIfCancelledDueToInsufficientFunds(sellRequest);
-        return removeRequestIfCancelledDueToInsufficientFunds(buyRequest);
+        simulation.getMetrics().countCancelForFunds();
+        simulation.getContext().log("Trade cancelled");
+        boolean sellRequestCancelled = removeRequestIfCancelledDueToInsufficientFunds(sellRequest);
+        boolean buyRequestCancelled = removeRequestIfCancelledDueToInsufficientFunds(buyRequest);
+        return watched == buyRequest ? buyRequestCancelled : sellRequestCancelled;
+    }
+
+    /**
+     * Set the listener notified about every realised trade.
+     *
+     * @param tradeListener the listener, or null for none
+     */
+    public void setTradeListener(TradeListener tradeListener) {
+        this.tradeListener = tradeListener;
+    }
+
+    /**
+     * Adds the given number of traded shares to the volume of the stock.
+     *
+     * @param stock    the stock
+     * @param quantity the number of shares
+     */
+    private void addTradedVolume(Stock stock, int quantity) {
+        int ordinal = stock.getOrdinal();
+        if (ordinal >= tradedVolumeByStock.length) {
+            tradedVolumeByStock = Arrays.copyOf(tradedVolumeByStock, ordinal + 1);
+        }
+        tradedVolumeByStock[ordinal] += quantity;
     }
 
     /**
      * Reduces the quantity of a trade request.
-     * If the quantity is reduced to 0, the request is removed from the list of requests.
+     * If the quantity is reduced to 0, the request is removed from the list of requests,
+     * unless it's an iceberg order with a hidden reserve, which displays a new slice at the back of its price level instead.
      *
      * @param request  the trade request
      * @param quantity the quantity to reduce by
+     * @return true if the request was removed, false otherwise
      */
-    private void reduceQuantityOrRemove(ATradeRequest request, int quantity) {
+    private boolean reduceQuantityOrRemove(ATradeRequest request, int quantity) {
         if (request.getQuantity() < quantity) {
             throw new IllegalArgumentException("Cannot reduce quantity by more than the current quantity");
         }
         if (request.getQuantity() == quantity) {
-            removeRequest(request);
+            if (request instanceof IcebergTradeRequest iceberg && iceberg.getHiddenQuantity() > 0) {
+                replenish(iceberg, quantity);
+            } else {
+                removeRequest(request);
+                return true;
+            }
         } else {
             request.reduceQuantity(quantity);
         }
+        return false;
+    }
+
+    /**
+     * Fills the displayed slice of an iceberg order, displays a new one and moves the order behind the other requests of its price level,
+     * in place, so only the requests of the price level are shifted.
+     *
+     * @param iceberg  the iceberg order
+     * @param quantity the quantity of the displayed slice
+     */
+    private void replenish(IcebergTradeRequest iceberg, int quantity) {
+        iceberg.reduceQuantity(quantity);
+        iceberg.replenish();
+        Map<Stock, SortedList<ATradeRequest>> requestsMap = iceberg.isBuyRequest() ? buyRequestsMap : sellRequestsMap;
+        requestsMap.get(iceberg.getStock()).moveBehindEqual(iceberg);
+        icebergReplenished = true;
     }
 
     /**
@@ -210,13 +570,15 @@ public class TradeRequestSheet {
      * @return true if the request was removed, false otherwise
      */
     private boolean removeRequestIfCancelledDueToInsufficientFunds(ATradeRequest request) {
+        // market orders have no price limit to check the funds against, so they're checked against the last price
+        int price = request.isMarketOrder() ? request.getStock().getLastPrice() : request.getPriceLimit();
         if (request.isBuyRequest()) {
-            if (!request.getInvestor().canBuyStock(request.getStock(), request.getQuantity(), request.getPriceLimit())) {
+            if (!request.getInvestor().canBuyStock(request.getStock(), request.getQuantity(), price)) {
                 buyRequestsMap.get(request.getStock()).remove(request);
                 return true;
             }
         } else {
-            if (!request.getInvestor().canSellStock(request.getStock(), request.getQuantity(), request.getPriceLimit())) {
+            if (!request.getInvestor().canSellStock(request.getStock(), request.getQuantity(), price)) {
                 sellRequestsMap.get(request.getStock()).remove(request);
                 return true;
             }
@@ -237,6 +599,10 @@ public class TradeRequestSheet {
         for (Stock stock : buyRequestsMap.keySet()) {
             removeExpiredRequestsForStock(stock, simulation);
         }
+        int expiredStops = triggerBook.removeExpired(simulation.getRound());
+        for (int i = 0; i < expiredStops; i++) {
+            simulation.getMetrics().countExpiry();
+        }
     }
 
     /**
@@ -253,16 +619,72 @@ public class TradeRequestSheet {
         for (ATradeRequest buyRequest : buyRequests) {
             if (buyRequest.expiredAndShouldBeDeleted(currentRound)) {
                 buyRequests.remove(buyRequest);
+                simulation.getMetrics().countExpiry();
             }
         }
 
         for (ATradeRequest sellRequest : sellRequests) {
             if (sellRequest.expiredAndShouldBeDeleted(currentRound)) {
                 sellRequests.remove(sellRequest);
+                simulation.getMetrics().countExpiry();
             }
         }
     }
 
+    /**
+     * Get the number of shares of the given stock traded so far.
+     *
+     * @param stock the stock
+     * @return the traded volume of the stock
+     */
+    public long getTradedVolume(Stock stock) {
+        return stock.getOrdinal() < tradedVolumeByStock.length ? tradedVolumeByStock[stock.getOrdinal()] : 0;
+    }
+
+    /**
+     * Get the best (highest) price limit of the buy requests of the given stock.
+     *
+     * @param stock the stock
+     * @return the best bid, or -1 if there are no buy requests
+     */
+    public int getBestBid(Stock stock) {
+        SortedList<ATradeRequest> buyRequests = buyRequestsMap.get(stock);
+        return buyRequests == null || buyRequests.getList().isEmpty() ? -1 : buyRequests.get(0).getPriceLimit();
+    }
+
+    /**
+     * Get the best (lowest) price limit of the sell requests of the given stock.
+     *
+     * @param stock the stock
+     * @return the best ask, or -1 if there are no sell requests
+     */
+    public int getBestAsk(Stock stock) {
+        SortedList<ATradeRequest> sellRequests = sellRequestsMap.get(stock);
+        return sellRequests == null || sellRequests.getList().isEmpty() ? -1 : sellRequests.get(0).getPriceLimit();
+    }
+
+    /**
+     * Get the number of requests waiting in the sheet, on both sides of all stocks, including the stops waiting to be triggered.
+     *
+     * @return the number of waiting requests
+     */
+    public int getNumberOfWaitingRequests() {
+        int numberOfRequests = triggerBook.size();
+        for (Stock stock : buyRequestsMap.keySet()) {
+            numberOfRequests += buyRequestsMap.get(stock).getList().size() + sellRequestsMap.get(stock).getList().size();
+        }
+        return numberOfRequests;
+    }
+
+    /**
+     * Get the stop orders waiting to be triggered.
+     *
+     * @return the trigger book
+     */
+    public TriggerBook getTriggerBook() {
+        return triggerBook;
+    }
+
     /**
      * Get the map of buy requests.
      *
@@ -281,4 +703,107 @@ public class TradeRequestSheet {
         return sellRequestsMap;
     }
 
+    /**
+     * Get the number of trades realised so far.
+     *
+     * @return the number of trades
+     */
+    public long getNumberOfTrades() {
+        return numberOfTrades;
+    }
+
+    /**
+     * Get the total number of shares traded so far.
+     *
+     * @return the traded volume
+     */
+    public long getTradedVolume() {
+        return tradedVolume;
+    }
+
+    /**
+     * Writes the trade counters, the waiting requests and the trigger book in the binary checkpoint format,
+     * keeping the order of the stocks and of the requests.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(BinaryChannelWriter writer) throws IOException {
+        writer.putLong(numberOfTrades);
+        writer.putLong(tradedVolume);
+        writer.putInt(tradedVolumeByStock.length);
+        for (long volume : tradedVolumeByStock) {
+            writer.putLong(volume);
+        }
+        writer.putInt(buyRequestsMap.size());
+        for (Map.Entry<Stock, SortedList<ATradeRequest>> entry : buyRequestsMap.entrySet()) {
+            writer.putInt(entry.getKey().getOrdinal());
+            writeRequests(writer, entry.getValue());
+            writeRequests(writer, sellRequestsMap.get(entry.getKey()));
+        }
+        triggerBook.writeCheckpoint(writer);
+    }
+
+    /**
+     * Writes the given requests, preceded by their number.
+     *
+     * @param writer   the writer
+     * @param requests the requests
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeRequests(BinaryChannelWriter writer, SortedList<ATradeRequest> requests) throws IOException {
+        writer.putInt(requests.getList().size());
+        for (ATradeRequest request : requests) {
+            RequestManagement.writeRequest(writer, request);
+        }
+    }
+
+    /**
+     * Reads a trade request sheet written by {@link #writeCheckpoint(BinaryChannelWriter)}.
+     *
+     * @param reader             the reader
+     * @param stockManagement    the stock management holding the stocks of the requests
+     * @param investorManagement the investor management holding the investors of the requests
+     * @return the trade request sheet
+     * @throws IOException if an I/O error occurs or the data is invalid
+     */
+    public static TradeRequestSheet readCheckpoint(BinaryChannelReader reader, StockManagement stockManagement,
+                                                   InvestorManagement investorManagement) throws IOException {
+        TradeRequestSheet sheet = new TradeRequestSheet();
+        sheet.numberOfTrades = reader.getLong();
+        sheet.tradedVolume = reader.getLong();
+        sheet.tradedVolumeByStock = new long[reader.getInt()];
+        for (int ordinal = 0; ordinal < sheet.tradedVolumeByStock.length; ordinal++) {
+            sheet.tradedVolumeByStock[ordinal] = reader.getLong();
+        }
+        int numberOfStocks = reader.getInt();
+        for (int i = 0; i < numberOfStocks; i++) {
+            Stock stock = stockManagement.getStock(reader.getInt());
+            sheet.buyRequestsMap.put(stock, readRequests(reader, stock, investorManagement, buyComparator));
+            sheet.sellRequestsMap.put(stock, readRequests(reader, stock, investorManagement, sellComparator));
+        }
+        sheet.triggerBook = TriggerBook.readCheckpoint(reader, stockManagement, investorManagement);
+        return sheet;
+    }
+
+    /**
+     * Reads requests written by {@link #writeRequests(BinaryChannelWriter, SortedList)}.
+     * Requests with equal price limits keep their order, because they're added in the order they were written.
+     *
+     * @param reader             the reader
+     * @param stock              the stock of the requests
+     * @param investorManagement the investor management holding the investors of the requests
+     * @param comparator         the comparator of the list
+     * @return the sorted list of requests
+     * @throws IOException if an I/O error occurs or the data is invalid
+     */
+    private static SortedList<ATradeRequest> readRequests(BinaryChannelReader reader, Stock stock, InvestorManagement investorManagement,
+                                                          Comparator<ATradeRequest> comparator) throws IOException {
+        SortedList<ATradeRequest> requests = new SortedList<>(comparator);
+        int numberOfRequests = reader.getInt();
+        for (int i = 0; i < numberOfRequests; i++) {
+            requests.add(RequestManagement.readRequest(reader, stock, investorManagement));
+        }
+        return requests;
+    }
 }
@@ -0,0 +1,255 @@
+package stocks;
+
+import investors.InvestorManagement;
+import requests.ATradeRequest;
+import requests.RequestManagement;
+import requests.StopTradeRequest;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Stop orders waiting to be triggered, apart from the requests that can be matched.
+ * The stops of each stock are sorted by stop price, and the stops with the same stop price keep the order they were added in.
+ * A waiting buy stop always has a stop price above the last price of its stock and a sell stop one below it,
+ * so when the price moves only the stops between the old and the new price are triggered,
+ * and they're found by a range lookup instead of checking every waiting stop.
+ */
+public class TriggerBook {
+    /**
+     * Buy stops of each stock by stop price, triggered by prices at or above it.
+     */
+    private final Map<Stock, NavigableMap<Integer, List<StopTradeRequest>>> buyStopsMap;
+    /**
+     * Sell stops of each stock by stop price, triggered by prices at or below it.
+     */
+    private final Map<Stock, NavigableMap<Integer, List<StopTradeRequest>>> sellStopsMap;
+    private int numberOfStops;
+
+    /**
+     * Creates a new, empty trigger book.
+     */
+    public TriggerBook() {
+        buyStopsMap = new LinkedHashMap<>();
+        sellStopsMap = new LinkedHashMap<>();
+    }
+
+    /**
+     * Removes all stops, for a new run.
+     */
+    public void clear() {
+        buyStopsMap.clear();
+        sellStopsMap.clear();
+        numberOfStops = 0;
+    }
+
+    /**
+     * Adds a stop order that isn't triggered by the last price of its stock.
+     *
+     * @param request the stop order
+     */
+    public void add(StopTradeRequest request) {
+        Map<Stock, NavigableMap<Integer, List<StopTradeRequest>>> stopsMap = request.isBuyRequest() ? buyStopsMap : sellStopsMap;
+        stopsMap.computeIfAbsent(request.getStock(), stock -> new TreeMap<>())
+                .computeIfAbsent(request.getStopPrice(), stopPrice -> new ArrayList<>())
+                .add(request);
+        numberOfStops++;
+    }
+
+    /**
+     * Removes the stops of the given stock triggered by its new price and activates them, in the order the price crossed them:
+     * nearest stop price first, and the stops with the same stop price in the order they were added.
+     *
+     * @param stock     the stock
+     * @param price     the new price of the stock
+     * @param activated the list the activated stops are added to
+     * @return the number of activated stops
+     */
+    public int activate(Stock stock, int price, List<StopTradeRequest> activated) {
+        if (numberOfStops == 0) {
+            return 0;
+        }
+        int count = 0;
+        NavigableMap<Integer, List<StopTradeRequest>> buyStops = buyStopsMap.get(stock);
+        if (buyStops != null) {
+            count += activate(buyStops.headMap(price, true), activated);
+        }
+        NavigableMap<Integer, List<StopTradeRequest>> sellStops = sellStopsMap.get(stock);
+        if (sellStops != null) {
+            count += activate(sellStops.tailMap(price, true).descendingMap(), activated);
+        }
+        numberOfStops -= count;
+        return count;
+    }
+
+    /**
+     * Activates and removes all stops of the given range of stop prices.
+     *
+     * @param triggered the stops by stop price, in the order they're activated in
+     * @param activated the list the activated stops are added to
+     * @return the number of activated stops
+     */
+    private static int activate(NavigableMap<Integer, List<StopTradeRequest>> triggered, List<StopTradeRequest> activated) {
+        int count = 0;
+        for (List<StopTradeRequest> stops : triggered.values()) {
+            for (StopTradeRequest stop : stops) {
+                stop.activate();
+                activated.add(stop);
+            }
+            count += stops.size();
+        }
+        triggered.clear();
+        return count;
+    }
+
+    /**
+     * Checks if the given stop order is waiting to be triggered.
+     *
+     * @param request the stop order
+     * @return true if the stop is waiting, false otherwise
+     */
+    public boolean contains(StopTradeRequest request) {
+        List<StopTradeRequest> stops = stopsWithPrice(request);
+        return stops != null && stops.contains(request);
+    }
+
+    /**
+     * Removes the given stop order, if it's still waiting to be triggered.
+     *
+     * @param request the stop order
+     * @return true if the stop was waiting, false otherwise
+     */
+    public boolean cancel(StopTradeRequest request) {
+        List<StopTradeRequest> stops = stopsWithPrice(request);
+        if (stops == null || !stops.remove(request)) {
+            return false;
+        }
+        if (stops.isEmpty()) {
+            (request.isBuyRequest() ? buyStopsMap : sellStopsMap).get(request.getStock()).remove(request.getStopPrice());
+        }
+        numberOfStops--;
+        return true;
+    }
+
+    /**
+     * Get the stops of the same stock, side and stop price as the given stop order.
+     *
+     * @param request the stop order
+     * @return the stops, or null if there are none
+     */
+    private List<StopTradeRequest> stopsWithPrice(StopTradeRequest request) {
+        NavigableMap<Integer, List<StopTradeRequest>> stops = (request.isBuyRequest() ? buyStopsMap : sellStopsMap).get(request.getStock());
+        return stops == null ? null : stops.get(request.getStopPrice());
+    }
+
+    /**
+     * Removes the stops that expired in the given round.
+     *
+     * @param currentRound the current round
+     * @return the number of removed stops
+     */
+    public int removeExpired(int currentRound) {
+        if (numberOfStops == 0) {
+            return 0;
+        }
+        int count = removeExpired(buyStopsMap, currentRound) + removeExpired(sellStopsMap, currentRound);
+        numberOfStops -= count;
+        return count;
+    }
+
+    /**
+     * Removes the stops of one side that expired in the given round.
+     *
+     * @param stopsMap     the stops of one side
+     * @param currentRound the current round
+     * @return the number of removed stops
+     */
+    private static int removeExpired(Map<Stock, NavigableMap<Integer, List<StopTradeRequest>>> stopsMap, int currentRound) {
+        int count = 0;
+        for (NavigableMap<Integer, List<StopTradeRequest>> stops : stopsMap.values()) {
+            Iterator<List<StopTradeRequest>> iterator = stops.values().iterator();
+            while (iterator.hasNext()) {
+                List<StopTradeRequest> sameStopPrice = iterator.next();
+                int before = sameStopPrice.size();
+                sameStopPrice.removeIf(stop -> stop.expiredAndShouldBeDeleted(currentRound));
+                count += before - sameStopPrice.size();
+                if (sameStopPrice.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of stops waiting to be triggered.
+     *
+     * @return the number of stops
+     */
+    public int size() {
+        return numberOfStops;
+    }
+
+    /**
+     * Writes the waiting stops in the binary checkpoint format, keeping their order.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCheckpoint(BinaryChannelWriter writer) throws IOException {
+        writer.putInt(numberOfStops);
+        writeStops(writer, buyStopsMap);
+        writeStops(writer, sellStopsMap);
+    }
+
+    /**
+     * Writes the stops of one side, each preceded by the ordinal of its stock.
+     *
+     * @param writer   the writer
+     * @param stopsMap the stops of one side
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeStops(BinaryChannelWriter writer, Map<Stock, NavigableMap<Integer, List<StopTradeRequest>>> stopsMap)
+            throws IOException {
+        for (Map.Entry<Stock, NavigableMap<Integer, List<StopTradeRequest>>> entry : stopsMap.entrySet()) {
+            for (List<StopTradeRequest> stops : entry.getValue().values()) {
+                for (StopTradeRequest stop : stops) {
+                    writer.putInt(entry.getKey().getOrdinal());
+                    RequestManagement.writeRequest(writer, stop);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a trigger book written by {@link #writeCheckpoint(BinaryChannelWriter)}.
+     *
+     * @param reader             the reader
+     * @param stockManagement    the stock management holding the stocks of the stops
+     * @param investorManagement the investor management holding the investors of the stops
+     * @return the trigger book
+     * @throws IOException if an I/O error occurs or the data is invalid
+     */
+    public static TriggerBook readCheckpoint(BinaryChannelReader reader, StockManagement stockManagement,
+                                             InvestorManagement investorManagement) throws IOException {
+        TriggerBook triggerBook = new TriggerBook();
+        int numberOfStops = reader.getInt();
+        for (int i = 0; i < numberOfStops; i++) {
+            Stock stock = stockManagement.getStock(reader.getInt());
+            ATradeRequest request = RequestManagement.readRequest(reader, stock, investorManagement);
+            if (!(request instanceof StopTradeRequest stop) || stop.isActivated()) {
+                throw new IOException("Trade request " + request.getId() + " isn't a waiting stop order");
+            }
+            triggerBook.add(stop);
+        }
+        return triggerBook;
+    }
+}
@@ -0,0 +1,60 @@
+package tests.simulationTests;
+
+import app.BatchRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tests.unitTests.TestPaths;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTest {
+
+    @Test
+    public void testBatchSummaries(@TempDir Path directory) throws IOException, InterruptedException {
+        Path missing = directory.resolve("missing.txt");
+        List<BatchRunner.Job> jobs = BatchRunner.combine(List.of(TestPaths.MOODLE_TEST_PATH, TestPaths.BIG_TEST_PATH, missing),
+                List.of(1L, 2L), List.of(20));
+        assertEquals(6, jobs.size());
+
+        List<BatchRunner.Summary> summaries = new BatchRunner(3).run(jobs);
+        assertEquals(jobs.size(), summaries.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            BatchRunner.Summary summary = summaries.get(i);
+            assertEquals(jobs.get(i), summary.job());
+            if (summary.job().scenario().equals(missing)) {
+                assertNotNull(summary.error());
+            } else {
+                assertNull(summary.error());
+                assertTrue(summary.numberOfInvestors() > 0);
+                long[] quantiles = summary.netWorthQuantiles();
+                for (int j = 1; j < quantiles.length; j++) {
+                    assertTrue(quantiles[j - 1] <= quantiles[j]);
+                }
+            }
+        }
+
+        Path csv = directory.resolve("summary.csv");
+        BatchRunner.writeCsv(summaries, csv);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(jobs.size() + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("scenario,seed,rounds"));
+    }
+
+    @Test
+    public void testConcurrentRunsAreIsolated() throws InterruptedException {
+        // the same seeded scenario, many times at once: every run must end up where a lone run does
+        List<BatchRunner.Job> jobs = BatchRunner.combine(List.of(TestPaths.BIG_TEST_PATH), List.of(5L, 5L, 5L, 5L, 5L, 5L, 5L, 5L), List.of(100));
+        BatchRunner.Summary alone = new BatchRunner(1).run(jobs.subList(0, 1)).get(0);
+        for (BatchRunner.Summary summary : new BatchRunner(4).run(jobs)) {
+            assertEquals(alone.finalPrices(), summary.finalPrices());
+            assertEquals(alone.numberOfTrades(), summary.numberOfTrades());
+            assertEquals(alone.tradedVolume(), summary.tradedVolume());
+            assertArrayEquals(alone.netWorthQuantiles(), summary.netWorthQuantiles());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tests.simulationTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.StockExchangeSimulation;
+import tests.unitTests.SimulationStates;
+import tests.unitTests.TestPaths;
+import utilities.EventLogging;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CheckpointTest {
+    private static final int TOTAL_ROUNDS = 80;
+    private static final int CHECKPOINT_ROUND = 37;
+    private static final long SEED = 2024;
+
+    @Test
+    public void testRestoredRunMatchesUninterruptedRun(@TempDir Path directory) throws IOException {
+        boolean loggingEnabled = EventLogging.isLoggingEnabled();
+        EventLogging.setLoggingEnabled(false);
+        Parser parser = new Parser(TestPaths.BIG_TEST_PATH);
+
+        StockExchangeSimulation uninterrupted = new StockExchangeSimulation(TOTAL_ROUNDS, parser, SEED);
+        uninterrupted.run();
+
+        StockExchangeSimulation interrupted = new StockExchangeSimulation(TOTAL_ROUNDS, parser, SEED);
+        interrupted.run(CHECKPOINT_ROUND);
+        Path checkpoint = directory.resolve("simulation.ckpt");
+        interrupted.writeCheckpoint(checkpoint);
+        StockExchangeSimulation restored = StockExchangeSimulation.restoreCheckpoint(checkpoint);
+        assertEquals(SimulationStates.describe(interrupted), SimulationStates.describe(restored));
+        restored.run();
+
+        assertEquals(SimulationStates.describe(uninterrupted), SimulationStates.describe(restored));
+        EventLogging.setLoggingEnabled(loggingEnabled);
+    }
+}
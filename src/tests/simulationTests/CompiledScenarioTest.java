@@ -0,0 +1,67 @@
+package tests.simulationTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.SimulationContext;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import tests.unitTests.SimulationStates;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledScenarioTest {
+    private static final int ROUNDS = 60;
+
+    /**
+     * Creates a context with the given seed and logging disabled.
+     */
+    private static SimulationContext quietContext(long seed) {
+        SimulationContext context = new SimulationContext(seed);
+        context.setLoggingEnabled(false);
+        return context;
+    }
+
+    @Test
+    public void testCompiledRunsMatchParsedRuns(@TempDir Path directory) throws IOException {
+        for (Path scenario : new Path[]{TestPaths.BIG_TEST_PATH, TestPaths.MOODLE_TEST_PATH}) {
+            Parser parser = new Parser(scenario);
+            Path compiled = directory.resolve(scenario.getFileName() + ".gpwi");
+            StockExchangeSimulation.compileScenario(parser, compiled);
+            assertTrue(StockExchangeSimulation.isCompiledScenario(compiled));
+            assertFalse(StockExchangeSimulation.isCompiledScenario(scenario));
+
+            for (long seed = 1; seed <= 3; seed++) {
+                StockExchangeSimulation parsed = new StockExchangeSimulation(ROUNDS, parser, quietContext(seed));
+                StockExchangeSimulation loaded = StockExchangeSimulation.loadCompiledScenario(compiled, ROUNDS, quietContext(seed));
+                assertEquals(SimulationStates.describe(parsed), SimulationStates.describe(loaded));
+                parsed.run();
+                loaded.run();
+                assertEquals(SimulationStates.describe(parsed), SimulationStates.describe(loaded));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidUsesAreRejected(@TempDir Path directory) throws IOException {
+        Path compiled = directory.resolve("moodle.gpwi");
+        StockExchangeSimulation.compileScenario(new Parser(TestPaths.MOODLE_TEST_PATH), compiled);
+
+        SimulationContext overriding = new SimulationContext(new Random(1), new SimulationParameters().set("investors.R", 2));
+        assertThrows(IllegalArgumentException.class, () -> StockExchangeSimulation.loadCompiledScenario(compiled, ROUNDS, overriding));
+
+        Path truncated = directory.resolve("truncated.gpwi");
+        byte[] bytes = Files.readAllBytes(compiled);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> StockExchangeSimulation.loadCompiledScenario(truncated, ROUNDS, quietContext(1)));
+        assertThrows(IOException.class, () -> StockExchangeSimulation.loadCompiledScenario(TestPaths.MOODLE_TEST_PATH, ROUNDS,
+                quietContext(1)));
+    }
+}
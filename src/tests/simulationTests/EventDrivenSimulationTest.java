@@ -0,0 +1,129 @@
+package tests.simulationTests;
+
+import investors.AInvestor;
+import org.junit.jupiter.api.Test;
+import requests.ATradeRequest;
+import requests.RequestManagement;
+import requests.StopTradeRequest;
+import simulation.EventDrivenSimulation;
+import simulation.SimulationContext;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import stocks.TradeRequestSheet;
+import tests.unitTests.SimulationStates;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+import utilities.SortedList;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventDrivenSimulationTest {
+
+    /**
+     * Creates a simulation of the given scenario with logging disabled.
+     */
+    private static StockExchangeSimulation createSimulation(Parser parser, int rounds, long seed, SimulationParameters parameters) {
+        SimulationContext context = new SimulationContext(new Random(seed), parameters);
+        context.setLoggingEnabled(false);
+        return new StockExchangeSimulation(rounds, parser, context);
+    }
+
+    @Test
+    public void testInvariantsHold() throws IOException {
+        Parser parser = new Parser(TestPaths.BIG_TEST_PATH);
+        StockExchangeSimulation simulation = createSimulation(parser, 100, 11, new SimulationParameters());
+        long totalCash = 0;
+        for (AInvestor investor : simulation.getInvestorManagement().getInvestors()) {
+            totalCash += investor.getBalance();
+        }
+        EventDrivenSimulation engine = new EventDrivenSimulation(simulation);
+        engine.run(40);
+        assertEquals(40, simulation.getRound());
+        engine.run();
+        assertEquals(100, simulation.getRound());
+        assertTrue(simulation.getTradeRequestSheet().getNumberOfTrades() > 0);
+
+        // money and stocks are only moved between investors
+        long cash = 0;
+        for (AInvestor investor : simulation.getInvestorManagement().getInvestors()) {
+            cash += investor.getBalance();
+        }
+        assertEquals(totalCash, cash);
+        for (Stock stock : simulation.getStockManagement().getStocks()) {
+            long quantity = 0;
+            for (AInvestor investor : simulation.getInvestorManagement().getInvestors()) {
+                quantity += investor.getStockQuantity(stock);
+            }
+            int initialQuantity = parser.getInitialPortfolio().getOrDefault(stock.getIdentifier(), 0);
+            assertEquals((long) initialQuantity * simulation.getInvestorManagement().getNumberOfInvestors(), quantity);
+        }
+
+        // matching on arrival leaves no crossing book behind, except for all or nothing requests
+        TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+        for (Map.Entry<Stock, SortedList<ATradeRequest>> entry : sheet.getBuyRequestsMap().entrySet()) {
+            SortedList<ATradeRequest> buys = entry.getValue();
+            SortedList<ATradeRequest> sells = sheet.getSellRequestsMap().get(entry.getKey());
+            if (!buys.getList().isEmpty() && !sells.getList().isEmpty()) {
+                assertTrue(buys.get(0).getPriceLimit() < sells.get(0).getPriceLimit());
+            }
+            // expired requests are gone
+            for (ATradeRequest request : buys) {
+                assertFalse(request.expiredAndShouldBeDeleted(simulation.getRound() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testSparseMarketSchedulesFewEvents() throws IOException {
+        Parser parser = new Parser(TestPaths.BIG_TEST_PATH);
+        int investors = parser.getNumberOfInvestors();
+        // every investor decides about once every 50 rounds
+        SimulationParameters sparse = new SimulationParameters().set(SimulationParameters.DECISION_INTERVAL, 50 * EventDrivenSimulation.TICKS_PER_ROUND);
+        EventDrivenSimulation engine = new EventDrivenSimulation(createSimulation(parser, 500, 3, sparse));
+        engine.run();
+        // round ends, expiries and about 10 decisions per investor
+        assertTrue(engine.getNumberOfProcessedEvents() < 500 + 40L * investors);
+    }
+
+    @Test
+    public void testSameSeedSameOutcome() throws IOException {
+        Parser parser = new Parser(TestPaths.BIG_TEST_PATH);
+        StockExchangeSimulation first = createSimulation(parser, 60, 5, new SimulationParameters());
+        StockExchangeSimulation second = createSimulation(parser, 60, 5, new SimulationParameters());
+        new EventDrivenSimulation(first).run();
+        new EventDrivenSimulation(second).run();
+        assertEquals(SimulationStates.describe(first), SimulationStates.describe(second));
+    }
+
+    /**
+     * Tests whether a stop (market) order triggered by a trade of another request expires with the round it was triggered in,
+     * like in the round-batched engine, and doesn't wait until its last round.
+     */
+    @Test
+    public void testTriggeredStopExpiresWithTheRound() throws IOException {
+        Parser parser = new Parser(TestPaths.BIG_TEST_PATH);
+        StockExchangeSimulation simulation = createSimulation(parser, 200, 7, new SimulationParameters());
+        AInvestor buyer = simulation.getInvestorManagement().createRandomChoiceInvestor(1_000_000_000);
+        Stock stock = simulation.getStockManagement().getStocks().iterator().next();
+        // far more than is ever offered, so the order is only partly filled
+        StopTradeRequest stop = RequestManagement.createStopTradeRequest(simulation.getContext(), buyer, stock, 1_000_000,
+                stock.getLastPrice() + 1, ATradeRequest.TradeType.BUY, 1000);
+        TradeRequestSheet sheet = simulation.getTradeRequestSheet();
+        sheet.addRequest(stop);
+        assertFalse(stop.isActivated());
+
+        EventDrivenSimulation engine = new EventDrivenSimulation(simulation);
+        while (!stop.isActivated() && simulation.getRound() < simulation.getTotalRounds()) {
+            engine.run(simulation.getRound() + 1);
+        }
+        assertTrue(stop.isActivated());
+        assertTrue(stop.getQuantity() > 0);
+        // the round it was triggered in has just ended
+        assertFalse(sheet.isWaiting(stop));
+    }
+}
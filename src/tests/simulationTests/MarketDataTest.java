@@ -0,0 +1,93 @@
+package tests.simulationTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.MarketDataReader;
+import simulation.MarketDataWriter;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MarketDataTest {
+    private static final int ROUNDS = 100;
+
+    /**
+     * Runs the scenario for the given number of rounds, streaming its market data to the given file
+     * in small blocks, with every other investor sampled every 10 rounds.
+     */
+    private static StockExchangeSimulation runRecorded(Path scenario, int rounds, Path file) throws IOException {
+        SimulationContext context = new SimulationContext(3);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(rounds, new Parser(scenario), context);
+        try (MarketDataWriter writer = new MarketDataWriter(file, simulation.getStockManagement(), 10, 2, 7)) {
+            simulation.setMarketDataWriter(writer);
+            simulation.run();
+        }
+        return simulation;
+    }
+
+    @Test
+    public void testColumnsMatchTheSimulation(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("market.gpwm");
+        StockExchangeSimulation simulation = runRecorded(TestPaths.MOODLE_TEST_PATH, ROUNDS, file);
+        MarketDataReader.MarketData data = MarketDataReader.read(file);
+        List<Stock> stocks = simulation.getStockManagement().getStocks();
+
+        assertEquals(stocks.stream().map(Stock::getIdentifier).toList(), data.stockIdentifiers());
+        MarketDataReader.MarketColumns market = data.market();
+        assertEquals(ROUNDS * stocks.size(), market.rounds().length);
+        assertEquals(ROUNDS - 1, market.rounds()[market.rounds().length - 1]);
+        assertEquals(simulation.getTradeRequestSheet().getTradedVolume(), Arrays.stream(market.volumes()).sum());
+        for (Stock stock : stocks) {
+            int[] prices = market.priceSeries(stock.getOrdinal());
+            assertEquals(ROUNDS, prices.length);
+            assertEquals(stock.getLastPrice(), prices[ROUNDS - 1]);
+        }
+
+        int sampledInvestors = (simulation.getInvestorManagement().getNumberOfInvestors() + 1) / 2;
+        MarketDataReader.InvestorColumns investors = data.investors();
+        assertEquals(ROUNDS / 10 * sampledInvestors, investors.rounds().length);
+        assertEquals(90, investors.rounds()[investors.rounds().length - 1]);
+    }
+
+    @Test
+    public void testSkippedRoundsAreRecorded(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("market.gpwm");
+        runRecorded(TestPaths.SINGLE_SMA_PATH, 1000, file);
+        MarketDataReader.MarketColumns market = MarketDataReader.read(file).market();
+
+        int[] expectedRounds = new int[1000];
+        Arrays.setAll(expectedRounds, round -> round);
+        assertArrayEquals(expectedRounds, market.rounds());
+        assertEquals(1000, Arrays.stream(market.prices()).filter(price -> price == 100).count());
+        assertEquals(0, Arrays.stream(market.volumes()).sum());
+    }
+
+    @Test
+    public void testBalancesAboveIntRangeAreRecorded(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("market.gpwm");
+        SimulationContext context = new SimulationContext(3);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(20, new Parser(TestPaths.SINGLE_SMA_PATH), context);
+        simulation.getInvestorManagement().getStore().addToBalance(0, 3_000_000_000L);
+        long balance = simulation.getInvestorManagement().getStore().getBalance(0);
+        try (MarketDataWriter writer = new MarketDataWriter(file, simulation.getStockManagement(), 10, 1, 7)) {
+            simulation.setMarketDataWriter(writer);
+            simulation.run();
+        }
+        long[] balances = MarketDataReader.read(file).investors().balances();
+        assertEquals(2, balances.length);
+        assertEquals(balance, balances[0]);
+        assertEquals(balance, balances[1]);
+    }
+}
@@ -0,0 +1,132 @@
+package tests.simulationTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import requests.ATradeRequest;
+import requests.RequestType;
+import requests.StopTradeRequest;
+import simulation.OrderFlowReader;
+import simulation.OrderFlowReplay;
+import simulation.OrderFlowWriter;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import tests.unitTests.SimulationStates;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderFlowReplayTest {
+    private static final int ROUNDS = 80;
+    private static final long SEED = 17;
+
+    /**
+     * Creates a context with the given seed and logging disabled.
+     */
+    private static SimulationContext quietContext(long seed) {
+        SimulationContext context = new SimulationContext(seed);
+        context.setLoggingEnabled(false);
+        return context;
+    }
+
+    @Test
+    public void testReplayReproducesTheRecordedRun(@TempDir Path directory) throws IOException {
+        Parser parser = new Parser(TestPaths.BIG_TEST_PATH);
+        for (OrderFlowWriter.Format format : OrderFlowWriter.Format.values()) {
+            Path orderFlow = directory.resolve("flow." + format.name().toLowerCase());
+            StockExchangeSimulation recorded = new StockExchangeSimulation(ROUNDS, parser, quietContext(SEED));
+            long orders;
+            try (OrderFlowWriter writer = new OrderFlowWriter(orderFlow, recorded.getStockManagement(), format)) {
+                recorded.setOrderFlowWriter(writer);
+                recorded.run();
+                orders = writer.getNumberOfOrders();
+            }
+            assertTrue(orders > 0);
+
+            // a different seed, the strategies aren't asked anything
+            StockExchangeSimulation replayed = new StockExchangeSimulation(ROUNDS, parser, quietContext(SEED + 1));
+            OrderFlowReplay.Report report;
+            try (OrderFlowReader reader = new OrderFlowReader(orderFlow)) {
+                report = OrderFlowReplay.replay(replayed, reader);
+            }
+            assertEquals(SimulationStates.describe(recorded), SimulationStates.describe(replayed), format.name());
+            assertEquals(orders, report.orders());
+            assertEquals(recorded.getMetrics().getFills(), report.fills());
+            assertEquals(ROUNDS, report.roundNanos().length);
+            assertTrue(report.percentile(50) <= report.percentile(99));
+            assertTrue(report.percentile(99) <= report.percentile(100));
+        }
+    }
+
+    @Test
+    public void testMalformedOrderFlowIsRejected(@TempDir Path directory) throws IOException {
+        Parser parser = new Parser(TestPaths.MOODLE_TEST_PATH);
+        String valid = "{\"round\":1,\"investor\":0,\"stock\":\"APL\",\"side\":\"BUY\",\"type\":\"INSTANT\","
+                + "\"qty\":1,\"limit\":100,\"expiry\":-1}\n";
+        String[] invalid = {
+                valid.replace("\"qty\":1,", ""),
+                valid.replace("BUY", "HOLD"),
+                valid.replace("\"investor\":0", "\"investor\":1000"),
+                valid.replace("APL", "NOPE"),
+                valid + valid.replace("\"round\":1", "\"round\":0"),
+                valid.replace("}", ""),
+        };
+        for (int i = 0; i < invalid.length; i++) {
+            Path orderFlow = directory.resolve("invalid" + i + ".jsonl");
+            Files.writeString(orderFlow, invalid[i]);
+            StockExchangeSimulation simulation = new StockExchangeSimulation(5, parser, quietContext(SEED));
+            try (OrderFlowReader reader = new OrderFlowReader(orderFlow)) {
+                assertThrows(IOException.class, () -> OrderFlowReplay.replay(simulation, reader), invalid[i]);
+            }
+        }
+
+        Path orderFlow = directory.resolve("valid.jsonl");
+        Files.writeString(orderFlow, valid);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(5, parser, quietContext(SEED));
+        try (OrderFlowReader reader = new OrderFlowReader(orderFlow)) {
+            assertEquals(1, OrderFlowReplay.replay(simulation, reader).orders());
+        }
+    }
+
+    @Test
+    public void testStopOrdersKeepTheirStopPrice(@TempDir Path directory) throws IOException {
+        Parser parser = new Parser(TestPaths.MOODLE_TEST_PATH);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(5, parser, quietContext(SEED));
+        SimulationContext context = simulation.getContext();
+        Stock stock = simulation.getStockManagement().getStock("APL");
+        List<ATradeRequest> requests = List.of(
+                RequestType.STOP.create(context, simulation.getInvestorManagement().getInvestor(0), stock, 2, 150, 0,
+                        ATradeRequest.TradeType.BUY, 7),
+                RequestType.STOP_LIMIT.create(context, simulation.getInvestorManagement().getInvestor(1), stock, 3, 140, 130,
+                        ATradeRequest.TradeType.SELL, 9));
+        assertThrows(IllegalArgumentException.class, () -> RequestType.STOP.create(context,
+                simulation.getInvestorManagement().getInvestor(0), stock, 1, 150, ATradeRequest.TradeType.BUY, 7));
+        for (OrderFlowWriter.Format format : OrderFlowWriter.Format.values()) {
+            Path orderFlow = directory.resolve("stops." + format.name().toLowerCase());
+            try (OrderFlowWriter writer = new OrderFlowWriter(orderFlow, simulation.getStockManagement(), format)) {
+                for (ATradeRequest request : requests) {
+                    writer.record(1, request);
+                }
+            }
+            try (OrderFlowReader reader = new OrderFlowReader(orderFlow)) {
+                for (ATradeRequest request : requests) {
+                    StopTradeRequest stop = (StopTradeRequest) request;
+                    assertTrue(reader.next(), format.name());
+                    assertEquals(RequestType.of(request), reader.getType());
+                    assertEquals(stop.getStopPrice(), reader.getStopPrice());
+                    assertEquals(stop.getLastRound(), reader.getExpiry());
+                    assertEquals(stop.getQuantity(), reader.getQuantity());
+                }
+                assertFalse(reader.next());
+            }
+        }
+        assertEquals(RequestType.STOP, RequestType.of(requests.get(0)));
+        assertEquals(RequestType.STOP_LIMIT, RequestType.of(requests.get(1)));
+    }
+}
@@ -0,0 +1,52 @@
+package tests.simulationTests;
+
+import app.ParameterSweep;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.SimulationParameters;
+import tests.unitTests.TestPaths;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParameterSweepTest {
+
+    @Test
+    public void testGridAndSamples() {
+        Map<String, int[]> values = new LinkedHashMap<>();
+        values.put(SimulationParameters.SMA_DIFFERENCE, new int[]{1, 5, 9});
+        values.put(SimulationParameters.MAX_TRADE_VALIDITY, new int[]{2, 10});
+        List<SimulationParameters> grid = ParameterSweep.grid(new SimulationParameters(), values);
+        assertEquals(6, grid.size());
+        assertEquals(1, grid.get(0).getSmaDifference());
+        assertEquals(2, grid.get(0).getMaxTradeValidity());
+        assertEquals(9, grid.get(5).getSmaDifference());
+        assertEquals(10, grid.get(5).getMaxTradeValidity());
+
+        Map<String, int[]> ranges = Map.of(SimulationParameters.SIGNAL_LENGTH, new int[]{3, 6});
+        List<SimulationParameters> samples = ParameterSweep.sample(new SimulationParameters(), ranges, 50, 1);
+        assertEquals(50, samples.size());
+        for (SimulationParameters sample : samples) {
+            assertTrue(sample.getSignalLength() >= 3 && sample.getSignalLength() <= 6);
+        }
+    }
+
+    @Test
+    public void testRunStreamsEveryRun(@TempDir Path directory) throws IOException, InterruptedException {
+        Map<String, int[]> values = Map.of(SimulationParameters.MAX_PRICE_CHANGE, new int[]{0, 3, 8});
+        List<SimulationParameters> configurations = ParameterSweep.grid(new SimulationParameters(), values);
+        Path output = directory.resolve("sweep.csv");
+        int runs = new ParameterSweep(TestPaths.BIG_TEST_PATH, 30, 3).run(configurations, List.of(1L, 2L), output);
+        assertEquals(6, runs);
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(runs + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("run,smaDifference"));
+    }
+}
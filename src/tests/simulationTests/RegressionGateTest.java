@@ -0,0 +1,240 @@
+package tests.simulationTests;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import requests.ATradeRequest;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.TradeListener;
+import tests.unitTests.SimulationStates;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+import utilities.ScenarioGenerator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression gate for changes of the engine: runs a fixed set of seeded scenarios and fails
+ * if the fills or the final state differ from the golden file, or if the throughput falls below the stored baseline
+ * by more than the tolerance.
+ * The golden check always runs. The throughput check depends on the machine and its load, so it only runs
+ * with -Dgpwsim.regression.perf=true, on the machine the baseline was measured on.
+ * The files are kept apart from the test files, which other tests run as scenarios.
+ * After an intended change of behavior, or on a new machine, the files are rewritten by running the gate
+ * with -Dgpwsim.regression.update=true. The tolerance of the baseline can be overridden with -Dgpwsim.regression.tolerance.
+ */
+public class RegressionGateTest {
+    private static final Path REGRESSION_FILES_PATH = Path.of("src", "tests", "regressionFiles");
+    private static final Path GOLDEN_PATH = REGRESSION_FILES_PATH.resolve("golden.properties");
+    private static final Path BASELINE_PATH = REGRESSION_FILES_PATH.resolve("baseline.properties");
+    private static final String UPDATE_PROPERTY = "gpwsim.regression.update";
+    private static final String TOLERANCE_PROPERTY = "gpwsim.regression.tolerance";
+    private static final String PERF_PROPERTY = "gpwsim.regression.perf";
+    private static final double DEFAULT_TOLERANCE = 0.5;
+    private static final int WARM_UP_RUNS = 2;
+    private static final int MEASURED_RUNS = 3;
+
+    private static final boolean update = Boolean.getBoolean(UPDATE_PROPERTY);
+    private static Properties golden;
+    private static Properties baseline;
+
+    /**
+     * A seeded scenario of the gate.
+     *
+     * @param name   the name of the scenario, the key of its entries in the files
+     * @param parser the parser of the scenario
+     * @param seed   the seed of the runs
+     * @param rounds the number of rounds of the runs
+     */
+    record Scenario(String name, Parser parser, long seed, int rounds) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Provide the scenarios of the gate.
+     *
+     * @return a stream of scenarios
+     * @throws IOException if an I/O error occurs
+     */
+    static Stream<Scenario> provideScenarios() throws IOException {
+        return Stream.of(
+                new Scenario("moodle", new Parser(TestPaths.MOODLE_TEST_PATH), 1, 2000),
+                new Scenario("manyInvestors", new Parser(TestPaths.BIG_TEST_PATH), 2, 500),
+                new Scenario("generated", new ScenarioGenerator().investors('R', 300).investors('S', 30).stocks(10)
+                        .groups(4).seed(3).generate(), 3, 100));
+    }
+
+    @BeforeAll
+    public static void loadFiles() throws IOException {
+        golden = load(GOLDEN_PATH);
+        baseline = load(BASELINE_PATH);
+    }
+
+    @AfterAll
+    public static void storeFiles() throws IOException {
+        if (update) {
+            Files.createDirectories(REGRESSION_FILES_PATH);
+            store(golden, GOLDEN_PATH, "Fingerprints of the fills and final states of the regression scenarios");
+            store(baseline, BASELINE_PATH, "Throughput of the regression scenarios; fails below (1 - tolerance) of these");
+        }
+    }
+
+    /**
+     * Loads the given properties file, empty if it doesn't exist.
+     */
+    private static Properties load(Path path) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Stores the given properties file.
+     */
+    private static void store(Properties properties, Path path, String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    /**
+     * Hashes the realised trades of a run in order, then the final state.
+     */
+    static class Fingerprint implements TradeListener {
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(8 * Integer.BYTES);
+        private long fills;
+
+        Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void onTrade(int round, ATradeRequest buyRequest, ATradeRequest sellRequest, int quantity, int price) {
+            buffer.clear();
+            buffer.putInt(round).putInt(buyRequest.getId()).putInt(sellRequest.getId())
+                    .putInt(buyRequest.getInvestor().getId()).putInt(sellRequest.getInvestor().getId())
+                    .putInt(buyRequest.getStock().getOrdinal()).putInt(quantity).putInt(price);
+            digest.update(buffer.array(), 0, buffer.position());
+            fills++;
+        }
+
+        /**
+         * Adds the final state of the simulation and returns the hash.
+         */
+        String finish(StockExchangeSimulation simulation) {
+            digest.update(SimulationStates.describe(simulation).getBytes());
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Runs the scenario and returns its fingerprint.
+     *
+     * @param scenario   the scenario
+     * @param simulation a simulation of the scenario, not run yet
+     * @return the fingerprint
+     */
+    private static String run(Scenario scenario, StockExchangeSimulation simulation) {
+        Fingerprint fingerprint = new Fingerprint();
+        simulation.getTradeRequestSheet().setTradeListener(fingerprint);
+        simulation.run();
+        assertEquals(simulation.getMetrics().getFills(), fingerprint.fills, scenario.name());
+        return fingerprint.finish(simulation);
+    }
+
+    /**
+     * Creates a simulation of the scenario with logging disabled.
+     */
+    private static StockExchangeSimulation newSimulation(Scenario scenario) {
+        SimulationContext context = new SimulationContext(scenario.seed());
+        context.setLoggingEnabled(false);
+        return new StockExchangeSimulation(scenario.rounds(), scenario.parser(), context);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideScenarios")
+    public void testResultsMatchGoldenFile(Scenario scenario) {
+        StockExchangeSimulation simulation = newSimulation(scenario);
+        String fingerprint = run(scenario, simulation);
+        String key = scenario.name() + ".fingerprint";
+        if (update) {
+            golden.setProperty(key, fingerprint);
+            golden.setProperty(scenario.name() + ".fills", Long.toString(simulation.getMetrics().getFills()));
+            return;
+        }
+        assertNotNull(golden.getProperty(key), "No golden fingerprint for " + scenario.name() + ", run with -D" + UPDATE_PROPERTY + "=true");
+        assertEquals(golden.getProperty(scenario.name() + ".fills"), Long.toString(simulation.getMetrics().getFills()),
+                "Behavior drift in " + scenario.name() + ": number of fills");
+        assertEquals(golden.getProperty(key), fingerprint, "Behavior drift in " + scenario.name() + ": fills or final state");
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideScenarios")
+    public void testThroughputWithinBaseline(Scenario scenario) {
+        Assumptions.assumeTrue(update || Boolean.getBoolean(PERF_PROPERTY),
+                "Throughput is only checked with -D" + PERF_PROPERTY + "=true");
+        String fingerprint = null;
+        long bestNanos = Long.MAX_VALUE;
+        long orders = 0;
+        for (int i = 0; i < WARM_UP_RUNS + MEASURED_RUNS; i++) {
+            StockExchangeSimulation simulation = newSimulation(scenario);
+            long start = System.nanoTime();
+            String runFingerprint = run(scenario, simulation);
+            long nanos = System.nanoTime() - start;
+            // the runs are deterministic, or the throughput means nothing
+            assertEquals(fingerprint == null ? runFingerprint : fingerprint, runFingerprint, scenario.name());
+            fingerprint = runFingerprint;
+            orders = simulation.getMetrics().getOrdersSubmitted();
+            if (i >= WARM_UP_RUNS) {
+                bestNanos = Math.min(bestNanos, nanos);
+            }
+        }
+        double roundsPerSecond = scenario.rounds() * 1e9 / bestNanos;
+        double ordersPerSecond = orders * 1e9 / bestNanos;
+        String roundsKey = scenario.name() + ".roundsPerSecond";
+        String ordersKey = scenario.name() + ".ordersPerSecond";
+        if (update) {
+            baseline.setProperty(roundsKey, String.format(Locale.ROOT, "%.0f", roundsPerSecond));
+            baseline.setProperty(ordersKey, String.format(Locale.ROOT, "%.0f", ordersPerSecond));
+            baseline.putIfAbsent("tolerance", Double.toString(DEFAULT_TOLERANCE));
+            return;
+        }
+        Assumptions.assumeTrue(baseline.containsKey(roundsKey), "No throughput baseline for " + scenario.name());
+        double tolerance = Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY,
+                baseline.getProperty("tolerance", Double.toString(DEFAULT_TOLERANCE))));
+        double expectedRounds = Double.parseDouble(baseline.getProperty(roundsKey));
+        double expectedOrders = Double.parseDouble(baseline.getProperty(ordersKey, "0"));
+        assertTrue(roundsPerSecond >= expectedRounds * (1 - tolerance), String.format(Locale.ROOT,
+                "Slowdown in %s: %.0f rounds/s, baseline %.0f", scenario.name(), roundsPerSecond, expectedRounds));
+        assertTrue(ordersPerSecond >= expectedOrders * (1 - tolerance), String.format(Locale.ROOT,
+                "Slowdown in %s: %.0f orders/s, baseline %.0f", scenario.name(), ordersPerSecond, expectedOrders));
+    }
+}
@@ -0,0 +1,71 @@
+package tests.simulationTests;
+
+import app.ReportWriter;
+import investors.AInvestor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReportWriterTest {
+
+    /**
+     * Runs the big scenario for a few rounds, with logging disabled.
+     */
+    private static StockExchangeSimulation finishedSimulation() throws IOException {
+        SimulationContext context = new SimulationContext(5);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(30, new Parser(TestPaths.BIG_TEST_PATH), context);
+        simulation.run();
+        return simulation;
+    }
+
+    @Test
+    public void testCsvReport(@TempDir Path directory) throws IOException {
+        StockExchangeSimulation simulation = finishedSimulation();
+        Path report = directory.resolve("report.csv");
+        new ReportWriter(ReportWriter.Format.CSV).write(simulation, report);
+
+        List<String> lines = Files.readAllLines(report);
+        int numberOfStocks = simulation.getStockManagement().getNumberOfStocks();
+        assertEquals(simulation.getInvestorManagement().getNumberOfInvestors() + 2, lines.size());
+        assertEquals(5 + numberOfStocks, lines.get(0).split(",").length);
+        assertTrue(lines.get(1).startsWith("prices,"));
+        AInvestor first = simulation.getInvestorManagement().getInvestorBySlot(0);
+        String[] row = lines.get(2).split(",");
+        assertEquals(String.valueOf(first.getId()), row[1]);
+        assertEquals(String.valueOf(first.getBalance()), row[3]);
+        assertEquals(String.valueOf(simulation.getInvestorManagement().getNetWorth(first)), row[4]);
+    }
+
+    @Test
+    public void testShardsMakeTheWholeReport(@TempDir Path directory) throws IOException, InterruptedException {
+        StockExchangeSimulation simulation = finishedSimulation();
+        for (ReportWriter.Format format : ReportWriter.Format.values()) {
+            ReportWriter writer = new ReportWriter(format);
+            Path whole = directory.resolve("whole." + format);
+            writer.write(simulation, whole);
+            List<Path> shards = writer.writeShards(simulation, directory.resolve("sharded." + format), 4);
+            assertEquals(4, shards.size());
+
+            StringBuilder concatenated = new StringBuilder();
+            for (Path shard : shards) {
+                concatenated.append(Files.readString(shard));
+            }
+            assertEquals(Files.readString(whole), concatenated.toString());
+            assertEquals(format == ReportWriter.Format.COLORED, concatenated.indexOf("\u001B[") != -1);
+        }
+        assertFalse(Files.readString(directory.resolve("whole.JSONL")).lines().anyMatch(line -> !line.startsWith("{")));
+    }
+}
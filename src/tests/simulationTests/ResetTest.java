@@ -0,0 +1,53 @@
+package tests.simulationTests;
+
+import org.junit.jupiter.api.Test;
+import simulation.SimulationContext;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import tests.unitTests.SimulationStates;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResetTest {
+    private static final int ROUNDS = 60;
+
+    /**
+     * Runs a new simulation of the given scenario, seed and parameters, with logging disabled.
+     */
+    private static StockExchangeSimulation freshRun(Parser parser, long seed, SimulationParameters parameters) {
+        SimulationContext context = new SimulationContext(new Random(seed), parameters);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(ROUNDS, parser, context);
+        simulation.run();
+        return simulation;
+    }
+
+    @Test
+    public void testResetRunMatchesFreshRun() throws IOException {
+        Parser big = new Parser(TestPaths.BIG_TEST_PATH);
+        Parser moodle = new Parser(TestPaths.MOODLE_TEST_PATH);
+        SimulationParameters tuned = new SimulationParameters().set(SimulationParameters.MAX_TRADE_VALIDITY, 3).set("investors.S", 4);
+
+        StockExchangeSimulation reused = freshRun(big, 1, new SimulationParameters());
+
+        // the same scenario again, with another seed and other parameters
+        reused.reset(big, 2, tuned);
+        reused.run();
+        assertEquals(SimulationStates.describe(freshRun(big, 2, tuned)), SimulationStates.describe(reused));
+
+        // another scenario, with other stocks and fewer investors
+        reused.reset(moodle, 3, new SimulationParameters());
+        reused.run();
+        assertEquals(SimulationStates.describe(freshRun(moodle, 3, new SimulationParameters())), SimulationStates.describe(reused));
+
+        // and back
+        reused.reset(big, 2, tuned);
+        reused.run();
+        assertEquals(SimulationStates.describe(freshRun(big, 2, tuned)), SimulationStates.describe(reused));
+    }
+}
@@ -68,11 +68,11 @@ public class SimpleInvariantTest {
      */
     private void checkConstantMoney(StockExchangeSimulation simulation, Parser parser) {
         // Sum the balances across all investors
-        int totalMoneyAfterSimulation = simulation.getInvestorManagement().getInvestors().stream()
-                .mapToInt(AInvestor::getBalance).sum();
+        long totalMoneyAfterSimulation = simulation.getInvestorManagement().getInvestors().stream()
+                .mapToLong(AInvestor::getBalance).sum();
         // Sum initial balances
         int numberOfInvestors = parser.getNumberOfInvestors();
-        int totalMoneyBeforeSimulation = parser.getInitialCash() * numberOfInvestors;
+        long totalMoneyBeforeSimulation = (long) parser.getInitialCash() * numberOfInvestors;
         assertEquals(totalMoneyBeforeSimulation, totalMoneyAfterSimulation);
     }
 
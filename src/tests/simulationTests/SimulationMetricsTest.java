@@ -0,0 +1,118 @@
+package tests.simulationTests;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.AllocationProfile;
+import simulation.SimulationContext;
+import simulation.SimulationMetrics;
+import simulation.StockExchangeSimulation;
+import tests.unitTests.TestPaths;
+import utilities.Parser;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationMetricsTest {
+    private static final int ROUNDS = 50;
+
+    /**
+     * Creates a simulation of the moodle scenario, with logging disabled.
+     */
+    private static StockExchangeSimulation newSimulation() throws IOException {
+        SimulationContext context = new SimulationContext(7);
+        context.setLoggingEnabled(false);
+        return new StockExchangeSimulation(ROUNDS, new Parser(TestPaths.MOODLE_TEST_PATH), context);
+    }
+
+    @Test
+    public void testCountersMatchTheSheet() throws IOException {
+        StockExchangeSimulation simulation = newSimulation();
+        simulation.run();
+        SimulationMetrics metrics = simulation.getMetrics();
+
+        assertEquals(ROUNDS, metrics.getRounds());
+        assertEquals(simulation.getTradeRequestSheet().getNumberOfTrades(), metrics.getFills());
+        assertEquals(simulation.getTradeRequestSheet().getNumberOfWaitingRequests(), metrics.getBookDepth());
+        assertTrue(metrics.getOrdersSubmitted() > 0);
+        assertTrue(metrics.getPairsExamined() >= metrics.getFills() + metrics.getCancelsForFunds());
+        assertTrue(metrics.getOrdersSubmitted() >= metrics.getExpiries() + metrics.getBookDepth());
+        assertTrue(metrics.getDecisionNanos() > 0);
+
+        simulation.reset(new Parser(TestPaths.MOODLE_TEST_PATH), 7);
+        assertEquals(0, simulation.getMetrics().getRounds());
+        assertEquals(0, simulation.getMetrics().getFills());
+    }
+
+    @Test
+    public void testMetricsOverJMX() throws IOException, JMException {
+        StockExchangeSimulation simulation = newSimulation();
+        ObjectName name = simulation.getMetrics().registerMBean("metrics test");
+        try {
+            simulation.run();
+            Object fills = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Fills");
+            assertEquals(simulation.getMetrics().getFills(), fills);
+            assertThrows(IllegalStateException.class, () -> simulation.getMetrics().registerMBean("metrics test"));
+        } finally {
+            simulation.getMetrics().unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testFlightRecorderEvents(@TempDir Path directory) throws IOException {
+        StockExchangeSimulation simulation = newSimulation();
+        Path dump = directory.resolve("simulation.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("gpwsim.SimulationRound");
+            recording.enable("gpwsim.SimulationPhase");
+            recording.start();
+            simulation.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        List<RecordedEvent> rounds = events.stream().filter(event -> event.getEventType().getName().equals("gpwsim.SimulationRound")).toList();
+        assertEquals(ROUNDS, rounds.size());
+        assertEquals(simulation.getMetrics().getFills(), rounds.stream().mapToLong(event -> event.getLong("fills")).sum());
+        assertEquals(ROUNDS * SimulationMetrics.Phase.values().length,
+                events.stream().filter(event -> event.getEventType().getName().equals("gpwsim.SimulationPhase")).count());
+    }
+
+    @Test
+    public void testAllocationProfile() throws IOException {
+        StockExchangeSimulation simulation = newSimulation();
+        assertNull(simulation.getMetrics().getAllocationProfile());
+        AllocationProfile profile = simulation.getMetrics().enableAllocationProfiling();
+        assertSame(profile, simulation.getMetrics().enableAllocationProfiling());
+        simulation.run();
+
+        assertEquals(ROUNDS, profile.getRounds());
+        assertTrue(profile.getRoundBytes() > 0);
+        assertTrue(profile.getMaxRoundBytes() * ROUNDS >= profile.getRoundBytes());
+        long phaseBytes = 0;
+        for (SimulationMetrics.Phase phase : SimulationMetrics.Phase.values()) {
+            phaseBytes += profile.getPhaseBytes(phase);
+        }
+        // the phases cover almost all of a round
+        assertTrue(phaseBytes <= profile.getRoundBytes() && phaseBytes > 0);
+        assertTrue(profile.getStrategyBytes('R') + profile.getStrategyBytes('S') <= profile.getPhaseBytes(SimulationMetrics.Phase.DECISIONS));
+        // the moodle scenario has 4 random and 2 SMA investors deciding every round while they can trade
+        assertTrue(profile.getStrategyDecisions('R') > 0 && profile.getStrategyDecisions('R') <= 4 * ROUNDS);
+        assertTrue(profile.getStrategyDecisions('S') <= 2 * ROUNDS);
+        assertThrows(IllegalArgumentException.class, () -> profile.getStrategyBytes('X'));
+        assertTrue(simulation.getMetrics().toString().contains("investors.R="));
+
+        simulation.reset(new Parser(TestPaths.MOODLE_TEST_PATH), 7);
+        assertEquals(0, profile.getRounds());
+        assertEquals(0, profile.getRoundBytes());
+    }
+}
@@ -1,13 +1,27 @@
 package tests.simulationTests;
 
+import investors.AInvestor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import requests.ATradeRequest;
+import requests.RequestType;
+import simulation.SimulationContext;
+import simulation.SimulationParameters;
 import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import tests.unitTests.SimulationStates;
 import utilities.Parser;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SingleSMATest {
@@ -36,9 +50,112 @@ public class SingleSMATest {
         checkStocksUnchanged(simulation, parser);
     }
 
+    @Test
+    public void testMillionRoundsAreFastForwarded() {
+        // the investor never gets a signal, so the whole run is one quiescent stretch
+        StockExchangeSimulation simulation = new StockExchangeSimulation(1_000_000, parser, new SimulationContext(1));
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> simulation.run());
+        assertEquals(1_000_000, simulation.getRound());
+        assertEquals(100, simulation.getLastTradeData().getSMA5(simulation.getStockManagement().getStock("APL")));
+        assertEquals(100, simulation.getLastTradeData().getSMA10(simulation.getStockManagement().getStock("APL")));
+        checkMoneyUnchanged(simulation, parser);
+        checkStocksUnchanged(simulation, parser);
+    }
+
+    @Test
+    public void testFastForwardMatchesRoundByRound() {
+        SimulationParameters roundByRound = new SimulationParameters().set(SimulationParameters.FAST_FORWARD, 0);
+        for (int rounds : new int[]{1, 5, 11, 12, 30}) {
+            StockExchangeSimulation fastForwarded = new StockExchangeSimulation(rounds, parser, new SimulationContext(1));
+            fastForwarded.run();
+            StockExchangeSimulation simulation = new StockExchangeSimulation(rounds, parser,
+                    new SimulationContext(new Random(1), roundByRound));
+            simulation.run();
+            assertEquals(SimulationStates.describe(simulation), SimulationStates.describe(fastForwarded));
+            assertEquals(simulation.getLastTradeData().getSMA(simulation.getStockManagement().getStock("APL"), 10),
+                    fastForwarded.getLastTradeData().getSMA(fastForwarded.getStockManagement().getStock("APL"), 10));
+        }
+    }
+
+    @Test
+    public void testFastForwardMatchesRoundByRoundWithTradesAfterASkip(@TempDir Path directory) throws IOException {
+        // a seller without cash and a buyer without stocks, so only one of them acts on a signal and the order doesn't matter
+        Path scenario = directory.resolve("sellerAndBuyer.txt");
+        Files.writeString(scenario, "stock APL:100\ncohort S 0 APL:50\ncohort S 10000\n");
+        Parser parser = new Parser(scenario.toString());
+        SimulationParameters roundByRound = new SimulationParameters().set(SimulationParameters.FAST_FORWARD, 0);
+        StockExchangeSimulation fastForwarded = runWithPriceSpike(parser, new SimulationParameters());
+        StockExchangeSimulation simulation = runWithPriceSpike(parser, roundByRound);
+        assertEquals(SimulationStates.describe(simulation), SimulationStates.describe(fastForwarded));
+        assertEquals(simulation.getMetrics().getFills(), fastForwarded.getMetrics().getFills());
+        assertTrue(fastForwarded.getMetrics().getSkippedRounds() > 0);
+        // the seller sold everything on the sell signal, rounds after the spike
+        assertEquals(0, fastForwarded.getInvestorManagement().getInvestor(0).getStockQuantity(
+                fastForwarded.getStockManagement().getStock("APL")));
+    }
+
+    @Test
+    public void testFastForwardMatchesRoundByRoundWithManyEligibleInvestors(@TempDir Path directory) throws IOException {
+        // the sellers all act on the same signal, and the bid only takes the stocks of the first of them in the random order,
+        // so the shuffles of the skipped rounds have to be the same as when the rounds are run
+        Path scenario = directory.resolve("sellersAndBuyer.txt");
+        Files.writeString(scenario, "stock APL:100\ncohort S*5 0 APL:50\ncohort S 10000\n");
+        Parser parser = new Parser(scenario.toString());
+        SimulationParameters roundByRound = new SimulationParameters().set(SimulationParameters.FAST_FORWARD, 0);
+        for (long seed = 0; seed < 5; seed++) {
+            StockExchangeSimulation fastForwarded = runWithPriceSpike(parser, new SimulationParameters(), seed);
+            StockExchangeSimulation simulation = runWithPriceSpike(parser, roundByRound, seed);
+            assertEquals(SimulationStates.describe(simulation), SimulationStates.describe(fastForwarded), "seed " + seed);
+            assertTrue(fastForwarded.getMetrics().getSkippedRounds() > 0);
+            assertEquals(simulation.getContext().getRandom().nextLong(), fastForwarded.getContext().getRandom().nextLong());
+        }
+    }
+
+    /**
+     * Runs 40 rounds in which the first seller and the buyer, the last investor, trade at 130 and then at 120 after the warm-up,
+     * and the buyer waits with a bid below the market.
+     * The SMA sell signal comes eight rounds later, which are skipped when fast-forwarding.
+     */
+    private static StockExchangeSimulation runWithPriceSpike(Parser parser, SimulationParameters parameters) {
+        return runWithPriceSpike(parser, parameters, 1);
+    }
+
+    /**
+     * Runs the price spike scenario with the given seed.
+     */
+    private static StockExchangeSimulation runWithPriceSpike(Parser parser, SimulationParameters parameters, long seed) {
+        SimulationContext context = new SimulationContext(new Random(seed), parameters);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(40, parser, context);
+        Stock apl = simulation.getStockManagement().getStock("APL");
+        AInvestor seller = simulation.getInvestorManagement().getInvestor(0);
+        AInvestor buyer = simulation.getInvestorManagement().getInvestor(simulation.getInvestorManagement().getNumberOfInvestors() - 1);
+        simulation.run(10);
+        addTrade(simulation, buyer, seller, apl, 130);
+        simulation.run(11);
+        addTrade(simulation, seller, buyer, apl, 120);
+        simulation.run(12);
+        simulation.getTradeRequestSheet().addRequest(RequestType.INDEFINITE.create(context, buyer, apl, 50, 116,
+                ATradeRequest.TradeType.BUY, 0));
+        simulation.run();
+        return simulation;
+    }
+
+    /**
+     * Adds matching requests for a single stock, realised in the next round.
+     */
+    private static void addTrade(StockExchangeSimulation simulation, AInvestor buyer, AInvestor seller, Stock stock, int price) {
+        SimulationContext context = simulation.getContext();
+        int round = simulation.getRound();
+        simulation.getTradeRequestSheet().addRequest(RequestType.VALID_UNTIL.create(context, buyer, stock, 1, price,
+                ATradeRequest.TradeType.BUY, round));
+        simulation.getTradeRequestSheet().addRequest(RequestType.VALID_UNTIL.create(context, seller, stock, 1, price,
+                ATradeRequest.TradeType.SELL, round));
+    }
+
     private void checkMoneyUnchanged(StockExchangeSimulation simulation, Parser parser) {
         // Check if he has the same amount of money as the initial cash
-        int balanceAfterSimulation = simulation.getInvestorManagement().getInvestors().stream()
+        long balanceAfterSimulation = simulation.getInvestorManagement().getInvestors().stream()
                 .toList().get(0).getBalance();
         int totalMoneyBeforeSimulation = parser.getInitialCash();
         assertEquals(totalMoneyBeforeSimulation, balanceAfterSimulation);
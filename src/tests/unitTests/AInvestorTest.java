@@ -7,6 +7,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import stocks.Stock;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AInvestorTest {
@@ -66,4 +68,18 @@ public class AInvestorTest {
         investor.buyStock(stock, 5, 100);
         assertThrows(InsufficientBalanceException.class, () -> investor.sellStock(stock, 7, 100));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void buyAndSellStock_withBalanceAboveIntRange_keepsExactBalance() {
+        AInvestor rich = new RandomChoiceInvestor(1, Integer.MAX_VALUE, Map.of(stock, 1000));
+        rich.sellStock(stock, 1000, 1_000_000);
+        long balance = Integer.MAX_VALUE + 1_000_000_000L;
+        assertEquals(balance, rich.getBalance());
+
+        // the cost of the trade doesn't fit in an int either
+        assertTrue(rich.canBuyStock(stock, 2, 1_500_000_000));
+        rich.buyStock(stock, 2, 1_500_000_000);
+        assertEquals(balance - 3_000_000_000L, rich.getBalance());
+        assertEquals(2, rich.getStockQuantity(stock));
+    }
+}
@@ -0,0 +1,73 @@
+package tests.unitTests;
+
+import investors.ColumnarInvestorStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stocks.Stock;
+import stocks.StockManagement;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarInvestorStoreTest {
+    private StockManagement stockManagement;
+    private ColumnarInvestorStore store;
+    private Stock apl;
+    private Stock msft;
+
+    @BeforeEach
+    public void setUp() {
+        stockManagement = new StockManagement();
+        apl = stockManagement.createStock("APL", 145, 0);
+        msft = stockManagement.createStock("MSFT", 300, 0);
+        store = new ColumnarInvestorStore(stockManagement);
+    }
+
+    @Test
+    public void testAllocationGrowsTheStore() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, store.allocate((byte) 'R', i));
+            store.addStockQuantity(i, msft, i);
+        }
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, store.getBalance(i));
+            assertEquals(i, store.getStockQuantity(i, msft));
+            assertEquals(0, store.getStockQuantity(i, apl));
+            assertEquals('R', store.getType(i));
+        }
+    }
+
+    @Test
+    public void testStockCreatedAfterInvestors() {
+        int slot = store.allocate((byte) 'S', 1000);
+        store.addStockQuantity(slot, apl, 5);
+        int otherSlot = store.allocate((byte) 'S', 1000);
+        store.addStockQuantity(otherSlot, msft, 7);
+        // the positions matrix has to be laid out again for the new stock
+        Stock googl = stockManagement.createStock("GOOGL", 2700, 0);
+        store.addStockQuantity(otherSlot, googl, 3);
+        assertEquals(5, store.getStockQuantity(slot, apl));
+        assertEquals(0, store.getStockQuantity(slot, googl));
+        assertEquals(7, store.getStockQuantity(otherSlot, msft));
+        assertEquals(3, store.getStockQuantity(otherSlot, googl));
+        assertEquals(Map.of(msft, 7, googl, 3), store.getStocksPortfolio(otherSlot));
+    }
+
+    @Test
+    public void testStockOutsideStockManagementIsRejected() {
+        int slot = store.allocate((byte) 'R', 1000);
+        Stock stock = new Stock("AAPL", 150, 1);
+        assertThrows(IllegalArgumentException.class, () -> store.addStockQuantity(slot, stock, 1));
+    }
+
+    @Test
+    public void testPositionsBeyondTheLimitAreRejected() {
+        store.allocate((byte) 'R', 1000);
+        // two stocks, so the positions of this many investors don't fit in an array
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> store.ensureCapacity(Integer.MAX_VALUE / 2 + 1));
+        assertTrue(exception.getMessage().contains(String.valueOf(Integer.MAX_VALUE)));
+        assertEquals(1000, store.getBalance(0));
+    }
+}
@@ -0,0 +1,121 @@
+package tests.unitTests;
+
+import investors.AInvestor;
+import investors.InvestorCohort;
+import investors.InvestorManagement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import utilities.CompactScenario;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactScenarioTest {
+
+    @Test
+    public void testParseCohortsAndMetadata(@TempDir Path directory) throws IOException {
+        Path scenario = directory.resolve("compact.txt");
+        Files.writeString(scenario, """
+                # a compact scenario
+                stock APL:145 name=Apple sector=tech
+                stock MSFT:300
+                cohort R*3 S*2 1000 APL:5
+                cohort R 50 MSFT:1
+                """);
+        Parser parser = new Parser(scenario);
+
+        assertEquals(List.of("APL", "MSFT"), List.copyOf(parser.getStockPrices().keySet()));
+        assertEquals(Map.of("name", "Apple", "sector", "tech"), parser.getStockMetadata("APL"));
+        assertEquals(Map.of(), parser.getStockMetadata("MSFT"));
+        assertEquals(List.of(new InvestorCohort('R', 3, 1000, Map.of("APL", 5)), new InvestorCohort('S', 2, 1000, Map.of("APL", 5)),
+                new InvestorCohort('R', 1, 50, Map.of("MSFT", 1))), parser.getCohorts());
+        assertEquals(4, parser.getNumberOfRandomInvestors());
+        assertEquals(2, parser.getNumberOfSMAInvestors());
+        assertEquals(1000, parser.getInitialCash());
+
+        StockExchangeSimulation simulation = new StockExchangeSimulation(0, parser, new SimulationContext(1));
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        assertEquals(6, investorManagement.getNumberOfInvestors());
+        AInvestor last = investorManagement.getInvestor(5);
+        assertEquals(50, last.getBalance());
+        assertEquals(1, last.getStockQuantity(simulation.getStockManagement().getStock("MSFT")));
+        assertEquals(0, last.getStockQuantity(simulation.getStockManagement().getStock("APL")));
+    }
+
+    @Test
+    public void testTextAndBinaryRunLikeTheOriginal(@TempDir Path directory) throws IOException {
+        Parser original = new Parser(TestPaths.BIG_TEST_PATH);
+        Path text = directory.resolve("big.txt");
+        Path binary = directory.resolve("big.gpws");
+        CompactScenario.writeText(original, text);
+        CompactScenario.writeBinary(original, binary);
+        assertTrue(Files.size(binary) < Files.size(TestPaths.BIG_TEST_PATH));
+
+        List<Long> expected = finalBalances(original);
+        for (Path path : List.of(text, binary)) {
+            Parser parser = new Parser(path);
+            assertEquals(original.getStockPrices(), parser.getStockPrices());
+            assertEquals(original.getCohorts(), parser.getCohorts());
+            assertEquals(expected, finalBalances(parser));
+        }
+    }
+
+    /**
+     * Runs the scenario for a few rounds with a fixed seed and returns the balances of the investors.
+     */
+    private static List<Long> finalBalances(Parser parser) {
+        SimulationContext context = new SimulationContext(11);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(50, parser, context);
+        simulation.run();
+        return simulation.getInvestorManagement().getInvestors().stream().map(AInvestor::getBalance).toList();
+    }
+
+    @Test
+    public void testHugePopulationIsBuiltInBulk(@TempDir Path directory) throws IOException {
+        Path scenario = directory.resolve("huge.gpws");
+        Files.writeString(directory.resolve("huge.txt"), "stock A:10\nstock B:20\ncohort R*500000 S*20000 100 A:2 B:0\n");
+        CompactScenario.writeBinary(new Parser(directory.resolve("huge.txt")), scenario);
+        assertTrue(Files.size(scenario) < 200);
+
+        Parser parser = new Parser(scenario);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(0, parser, new SimulationContext(1));
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        assertEquals(520000, investorManagement.getNumberOfInvestors());
+        Stock a = simulation.getStockManagement().getStock("A");
+        AInvestor investor = investorManagement.getInvestor(519999);
+        assertEquals(100, investor.getBalance());
+        assertEquals(2, investor.getStockQuantity(a));
+        assertEquals(1, investorManagement.getStore().getNumberOfHeldStocks(investor.getSlot()));
+        assertEquals(120, investorManagement.getNetWorth(investor));
+    }
+
+    @Test
+    public void testInvalidFilesAreRejected(@TempDir Path directory) throws IOException {
+        String[] invalid = {
+                "stock A:1\ncohort X*2 0\n",
+                "stock A:1\ncohort R*2\n",
+                "stock A:1\ncohort 5 A:1\n",
+                "stock A:1\ncohort R*2 0 B:1\n",
+                "stock A:1\ncohort R*2 -1\n",
+                "stock A:1 name\ncohort R 0\n",
+                "stock a:1\ncohort R 0\n",
+                "stock A:1\nportfolio 0\n",
+                "stock A:1\n",
+        };
+        for (int i = 0; i < invalid.length; i++) {
+            Path scenario = directory.resolve("invalid" + i + ".txt");
+            Files.writeString(scenario, invalid[i]);
+            assertThrows(IllegalArgumentException.class, () -> new Parser(scenario), invalid[i]);
+        }
+    }
+}
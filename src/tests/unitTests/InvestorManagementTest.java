@@ -1,17 +1,27 @@
 package tests.unitTests;
 
+import investors.AInvestor;
 import investors.InvestorManagement;
 import investors.RandomChoiceInvestor;
 import investors.SMAInvestor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import simulation.SimulationParameters;
+import stocks.Stock;
 import stocks.StockManagement;
+import utilities.BinaryChannelReader;
+import utilities.BinaryChannelWriter;
 import utilities.Parser;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Map;
+import java.util.Random;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class InvestorManagementTest {
     private Parser parser;
@@ -42,4 +52,164 @@ public class InvestorManagementTest {
         assertTrue(investorManagement.getInvestors().stream().allMatch(investor -> investor.getStockQuantity(stockManagement.getStock("GOOGL")) == 3));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInvestorLookupAndShuffle() {
+        StockManagement stockManagement = new StockManagement(parser);
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement, parser, new Random(42));
+        // investors are indexed by their id
+        for (int id = 0; id < parser.getNumberOfInvestors(); id++) {
+            assertEquals(id, investorManagement.getInvestor(id).getId());
+        }
+        assertNull(investorManagement.getInvestor(parser.getNumberOfInvestors()));
+        assertNull(investorManagement.getInvestor(-1));
+        // the shuffled order is always a permutation of the ids
+        for (int repeat = 0; repeat < 10; repeat++) {
+            int[] order = investorManagement.shuffleInvestorOrder();
+            boolean[] seen = new boolean[investorManagement.getNumberOfInvestors()];
+            for (int i = 0; i < investorManagement.getNumberOfInvestors(); i++) {
+                assertFalse(seen[order[i]]);
+                seen[order[i]] = true;
+            }
+        }
+    }
+
+    @Test
+    public void testEligibility() {
+        StockManagement stockManagement = new StockManagement(parser);
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement);
+        Stock apl = stockManagement.getStock("APL"); // the cheapest stock, at 145
+        AInvestor poor = investorManagement.createRandomChoiceInvestor(100);
+        AInvestor holder = investorManagement.createSMAInvestor(0, Map.of(apl, 1));
+        AInvestor rich = investorManagement.createRandomChoiceInvestor(1000);
+        investorManagement.updateEligibility();
+        assertEquals(2, investorManagement.getNumberOfEligibleInvestors());
+        assertFalse(investorManagement.isEligible(poor.getSlot()));
+        assertTrue(investorManagement.isEligible(holder.getSlot()));
+        assertTrue(investorManagement.isEligible(rich.getSlot()));
+
+        // settlement: the holder sells his only stock to the rich investor, below the cheapest price
+        holder.sellStock(apl, 1, 100);
+        rich.buyStock(apl, 1, 100);
+        investorManagement.updateEligibility();
+        assertFalse(investorManagement.isEligible(holder.getSlot()));
+        assertTrue(investorManagement.isEligible(rich.getSlot()));
+
+        // the cheapest stock gets cheaper, so investors with cash only can afford it again
+        apl.updateLastTransactionInformation(90, 0);
+        investorManagement.updateEligibility();
+        assertTrue(investorManagement.isEligible(poor.getSlot()));
+        assertTrue(investorManagement.isEligible(holder.getSlot()));
+        assertEquals(3, investorManagement.getNumberOfEligibleInvestors());
+    }
+
+    @Test
+    public void testEligibilityWithBalanceJustUnderTheLastPrice() {
+        StockManagement stockManagement = new StockManagement(parser);
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement);
+        // the cheapest stock is at 145, and random investors can bid up to 5 below it by default
+        AInvestor investor = investorManagement.createRandomChoiceInvestor(142);
+        investorManagement.updateEligibility(new SimulationParameters());
+        assertTrue(investorManagement.isEligible(investor.getSlot()));
+
+        // without price changes every bid is at the last price, which the investor can't afford
+        investorManagement.updateEligibility(new SimulationParameters().set(SimulationParameters.MAX_PRICE_CHANGE, 0));
+        assertFalse(investorManagement.isEligible(investor.getSlot()));
+        assertEquals(0, investorManagement.getNumberOfEligibleInvestors());
+    }
+
+    @Test
+    public void testEligibilityWhenTheLowestBidRises() {
+        StockManagement stockManagement = new StockManagement(parser);
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement);
+        Stock apl = stockManagement.getStock("APL"); // the cheapest stock, at 145
+        AInvestor rich = investorManagement.createRandomChoiceInvestor(1000);
+        AInvestor poor = investorManagement.createRandomChoiceInvestor(150);
+        AInvestor holder = investorManagement.createSMAInvestor(0, Map.of(apl, 1));
+        investorManagement.updateEligibility();
+        assertEquals(3, investorManagement.getNumberOfEligibleInvestors());
+
+        // the lowest bid rises to 150, which the poor investor can still afford
+        apl.updateLastTransactionInformation(155, 0);
+        investorManagement.updateEligibility();
+        assertTrue(investorManagement.isEligible(poor.getSlot()));
+
+        // and then above his balance
+        apl.updateLastTransactionInformation(160, 1);
+        investorManagement.updateEligibility();
+        assertFalse(investorManagement.isEligible(poor.getSlot()));
+        assertTrue(investorManagement.isEligible(rich.getSlot()));
+
+        // settlement: the holder is left with cash only, which he's checked against with the cached lowest bid
+        holder.sellStock(apl, 1, 100);
+        rich.buyStock(apl, 1, 100);
+        investorManagement.updateEligibility();
+        assertFalse(investorManagement.isEligible(holder.getSlot()));
+        assertEquals(1, investorManagement.getNumberOfEligibleInvestors());
+    }
+
+    @Test
+    public void testCheckpointKeepsPendingEligibilityChanges() throws IOException {
+        StockManagement stockManagement = new StockManagement(parser);
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement, new Random(42));
+        Stock apl = stockManagement.getStock("APL");
+        AInvestor holder = investorManagement.createSMAInvestor(0, Map.of(apl, 1));
+        AInvestor rich = investorManagement.createRandomChoiceInvestor(1000);
+        investorManagement.updateEligibility();
+        // settlement after the last update: the holder has nothing left
+        holder.sellStock(apl, 1, 100);
+        rich.buyStock(apl, 1, 100);
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        try (BinaryChannelWriter writer = new BinaryChannelWriter(Channels.newChannel(checkpoint))) {
+            investorManagement.writeCheckpoint(writer);
+        }
+        // writing doesn't apply the pending changes
+        assertTrue(investorManagement.isEligible(holder.getSlot()));
+        InvestorManagement restored;
+        try (BinaryChannelReader reader = new BinaryChannelReader(Channels.newChannel(new ByteArrayInputStream(checkpoint.toByteArray())))) {
+            restored = InvestorManagement.readCheckpoint(reader, stockManagement);
+        }
+        assertTrue(restored.isEligible(holder.getSlot()));
+        assertEquals(2, restored.getStore().getNumberOfChangedSlots());
+
+        // the next update applies them like it would have without the checkpoint
+        investorManagement.updateEligibility();
+        restored.updateEligibility();
+        assertFalse(restored.isEligible(holder.getSlot()));
+        assertTrue(restored.isEligible(rich.getSlot()));
+        for (int i = 0; i < investorManagement.getNumberOfInvestors(); i++) {
+            assertEquals(investorManagement.getInvestorOrder()[i], restored.getInvestorOrder()[i]);
+        }
+    }
+
+    @Test
+    public void testCorruptOrderIsRejected() throws IOException {
+        StockManagement stockManagement = new StockManagement(parser);
+        InvestorManagement investorManagement = new InvestorManagement(stockManagement, new Random(42));
+        investorManagement.createRandomChoiceInvestor(1000);
+        investorManagement.createRandomChoiceInvestor(2000);
+        investorManagement.getStore().clearChangedSlots();
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        try (BinaryChannelWriter writer = new BinaryChannelWriter(Channels.newChannel(checkpoint))) {
+            investorManagement.writeCheckpoint(writer);
+        }
+        byte[] bytes = checkpoint.toByteArray();
+        // the order is followed by the number of changed slots, the eligibility and the maximal ineligible balance
+        int orderOffset = bytes.length - Long.BYTES - 3 * Integer.BYTES - 2 * Integer.BYTES;
+        for (int[] order : new int[][]{{1, 1}, {0, 2}, {-1, 0}}) {
+            ByteBuffer.wrap(bytes).putInt(orderOffset, order[0]).putInt(orderOffset + Integer.BYTES, order[1]);
+            try (BinaryChannelReader reader = new BinaryChannelReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+                assertThrows(IOException.class, () -> InvestorManagement.readCheckpoint(reader, stockManagement));
+            }
+        }
+
+        ByteBuffer snapshot = ByteBuffer.allocate((int) investorManagement.getSnapshotSize());
+        investorManagement.writeSnapshot(snapshot);
+        // the order follows the header, the types and the ids
+        int snapshotOrderOffset = 5 * Integer.BYTES + Long.BYTES + 2 + 2 * Integer.BYTES;
+        snapshot.putInt(snapshotOrderOffset, 0).putInt(snapshotOrderOffset + Integer.BYTES, 0);
+        assertThrows(IllegalArgumentException.class, () -> InvestorManagement.readSnapshot(snapshot.rewind(), stockManagement, new Random(1)));
+    }
+}
@@ -0,0 +1,59 @@
+package tests.unitTests;
+
+import investors.InvestorStrategies;
+import investors.InvestorStrategy;
+import investors.RandomChoiceInvestor;
+import investors.RandomChoiceStrategy;
+import investors.SMAStrategy;
+import org.junit.jupiter.api.Test;
+import requests.ATradeRequest;
+import requests.OrderBuffer;
+import simulation.StockExchangeSimulation;
+import utilities.Parser;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvestorStrategiesTest {
+
+    @Test
+    public void testBuiltInStrategiesAreRegistered() {
+        assertInstanceOf(RandomChoiceStrategy.class, InvestorStrategies.forSymbol('R'));
+        assertInstanceOf(SMAStrategy.class, InvestorStrategies.forSymbol('S'));
+        assertNull(InvestorStrategies.forSymbol('X'));
+        assertEquals(-1, InvestorStrategies.indexOf('X'));
+    }
+
+    @Test
+    public void testBatchDecisionsAreBuffered() throws IOException {
+        Parser parser = new Parser(TestPaths.MOODLE_TEST_PATH);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(10, parser, 42);
+        InvestorStrategy strategy = InvestorStrategies.forSymbol((char) RandomChoiceInvestor.TYPE);
+        // the first 4 investors are the random ones
+        int[] slots = {0, 1, 2, 3};
+        OrderBuffer orders = new OrderBuffer(slots.length);
+        strategy.decideBatch(simulation, simulation.getInvestorManagement().getStore(), slots, slots.length, orders);
+        // everyone has money and stocks, so everyone has made a decision
+        assertEquals(slots.length, orders.size());
+        for (int slot : slots) {
+            assertNotEquals(-1, orders.rowOf(slot));
+        }
+        orders.clear();
+        assertEquals(0, orders.size());
+        assertEquals(-1, orders.rowOf(0));
+    }
+
+    @Test
+    public void testSingleInvestorBufferFindsItsRowByScanning() {
+        OrderBuffer orders = OrderBuffer.forSingleInvestor();
+        int slot = 1_000_000;
+        assertEquals(-1, orders.rowOf(slot));
+        orders.add(slot, 0, 1, 100, ATradeRequest.TradeType.BUY, 5);
+        assertEquals(0, orders.rowOf(slot));
+        assertEquals(-1, orders.rowOf(0));
+        assertThrows(IllegalArgumentException.class, () -> orders.add(slot, 0, 1, 100, ATradeRequest.TradeType.SELL, 5));
+        orders.clear();
+        assertEquals(-1, orders.rowOf(slot));
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import simulation.LastTradeData;
 import stocks.Stock;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -35,4 +37,32 @@ public class LastTradeDataTest {
         assertTrue(lastTradeData.checkIfSMABuySignal(stock));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testRoundsUntilSMASignalMatchesReplay() {
+        Random random = new Random(42);
+        for (int history = 0; history < 200; history++) {
+            LastTradeData predicted = new LastTradeData(10);
+            int length = random.nextInt(15);
+            for (int i = 0; i < length; i++) {
+                predicted.addTradeData(stock, 95 + random.nextInt(10));
+                predicted.updateSMA();
+            }
+            int price = 95 + random.nextInt(10);
+            int from = random.nextInt(3);
+            int rounds = predicted.roundsUntilSMASignal(stock, price, from);
+
+            // replay the rounds with the same price, as the simulation would
+            int expected = -1;
+            for (int round = 0; round < 20 && expected == -1; round++) {
+                predicted.addTradeData(stock, price);
+                boolean signal = round + length > 0
+                        && (predicted.checkIfSMABuySignal(stock) || predicted.checkIfSMASellSignal(stock));
+                if (round >= from && signal) {
+                    expected = round;
+                }
+                predicted.updateSMA();
+            }
+            assertEquals(expected, rounds);
+        }
+    }
+}
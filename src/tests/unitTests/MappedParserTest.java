@@ -0,0 +1,79 @@
+package tests.unitTests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stocks.StockManagement;
+import utilities.MappedParser;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MappedParserTest {
+
+    @Test
+    public void testMatchesParserOnEveryScenario() throws IOException {
+        List<Path> scenarios;
+        try (Stream<Path> files = Files.list(TestPaths.GENERIC_TESTS_PATH)) {
+            scenarios = files.filter(Files::isRegularFile).toList();
+        }
+        for (Path scenario : scenarios) {
+            Parser expected = new Parser(scenario);
+            MappedParser parser = new MappedParser(scenario);
+            assertEquals(expected.getInvestorCounts(), parser.getInvestorCounts(), scenario.toString());
+            assertEquals(expected.getStockPrices(), parser.getStockPrices(), scenario.toString());
+            assertEquals(expected.getInitialPortfolio(), parser.getInitialPortfolio(), scenario.toString());
+            assertEquals(expected.getInitialCash(), parser.getInitialCash(), scenario.toString());
+        }
+    }
+
+    @Test
+    public void testStocksAreInternedInFileOrder(@TempDir Path directory) throws IOException {
+        Path scenario = directory.resolve("scenario.txt");
+        Files.writeString(scenario, "# comment\r\nR S R R \r\nZZ:10 A:20 ABCDE:30 A:25\r\n# another\n5 ABCDE:3 ZZ:1\n700 A:4 ZZ:2\n");
+        MappedParser parser = new MappedParser(scenario);
+
+        assertEquals(3, parser.getNumberOfRandomInvestors());
+        assertEquals(1, parser.getNumberOfSMAInvestors());
+        assertEquals(List.of("ZZ", "A", "ABCDE"), parser.getStockIdentifiers());
+        assertEquals(List.of("ZZ", "A", "ABCDE"), List.copyOf(parser.getStockPrices().keySet()));
+        assertEquals(25, parser.getStockPrices().get("A"));
+        assertEquals(700, parser.getInitialCash());
+        assertArrayEquals(new int[]{2, 4, 0}, parser.getInitialQuantities());
+
+        StockManagement stockManagement = parser.createStockManagement();
+        assertEquals(3, stockManagement.getNumberOfStocks());
+        assertEquals("ABCDE", stockManagement.getStock(2).getIdentifier());
+        assertEquals(30, stockManagement.getStock("ABCDE").getLastPrice());
+    }
+
+    @Test
+    public void testInvalidFilesAreRejected(@TempDir Path directory) throws IOException {
+        String[] invalid = {
+                "R X\nA:1\n0\n",
+                "R\nA:1 abc:2\n0\n",
+                "R\nABCDEF:1\n0\n",
+                "R\nA:0\n0\n",
+                "R\nA:1:2\n0\n",
+                "R\nA:1\n0 B:1\n",
+                "R\nA:1\n0 A:-1\n",
+                "R\nA:1\n-5\n",
+                "R\nA:1\n",
+        };
+        for (int i = 0; i < invalid.length; i++) {
+            Path scenario = directory.resolve("invalid" + i + ".txt");
+            Files.writeString(scenario, invalid[i]);
+            assertThrows(IllegalArgumentException.class, () -> new MappedParser(scenario), invalid[i]);
+        }
+        Path overflow = directory.resolve("overflow.txt");
+        Files.writeString(overflow, "R\nA:1\n2147483648\n");
+        assertThrows(NumberFormatException.class, () -> new MappedParser(overflow));
+    }
+}
@@ -0,0 +1,76 @@
+package tests.unitTests;
+
+import investors.AInvestor;
+import investors.InvestorManagement;
+import org.junit.jupiter.api.Test;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+import utilities.EventLogging;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetWorthIndexTest {
+
+    /**
+     * Net worth computed from scratch, from the portfolio and the last prices.
+     */
+    private static long recomputeNetWorth(AInvestor investor) {
+        long netWorth = investor.getBalance();
+        for (Map.Entry<Stock, Integer> entry : investor.getStocksPortfolio().entrySet()) {
+            netWorth += (long) entry.getKey().getLastPrice() * entry.getValue();
+        }
+        return netWorth;
+    }
+
+    @Test
+    public void testIndexMatchesRecomputation() throws IOException {
+        boolean loggingEnabled = EventLogging.isLoggingEnabled();
+        EventLogging.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(50, new Parser(TestPaths.BIG_TEST_PATH), 7);
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        for (int i = 0; i < 5; i++) {
+            // querying in between rounds, so revaluations are incremental
+            simulation.run(simulation.getRound() + 10);
+            for (AInvestor investor : investorManagement.getInvestors()) {
+                assertEquals(recomputeNetWorth(investor), investorManagement.getNetWorth(investor));
+            }
+        }
+        EventLogging.setLoggingEnabled(loggingEnabled);
+    }
+
+    @Test
+    public void testLeaderboard() throws IOException {
+        StockExchangeSimulation simulation = new StockExchangeSimulation(0, new Parser(TestPaths.MOODLE_TEST_PATH));
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        AInvestor richest = investorManagement.createSMAInvestor(1_000_000);
+        AInvestor secondRichest = investorManagement.createSMAInvestor(500_000);
+
+        List<AInvestor> leaderboard = investorManagement.getNetWorthLeaderboard(3);
+        assertEquals(3, leaderboard.size());
+        assertEquals(richest, leaderboard.get(0));
+        assertEquals(secondRichest, leaderboard.get(1));
+        assertTrue(investorManagement.getNetWorth(leaderboard.get(1)) >= investorManagement.getNetWorth(leaderboard.get(2)));
+        assertEquals(investorManagement.getNumberOfInvestors(), investorManagement.getNetWorthLeaderboard(100).size());
+    }
+
+    @Test
+    public void testReadingDoesNotRevalue() throws IOException {
+        StockExchangeSimulation simulation = new StockExchangeSimulation(0, new Parser(TestPaths.MOODLE_TEST_PATH));
+        InvestorManagement investorManagement = simulation.getInvestorManagement();
+        Stock apl = simulation.getStockManagement().getStock("APL");
+        AInvestor holder = investorManagement.createSMAInvestor(0, Map.of(apl, 2));
+        investorManagement.revalueNetWorths();
+        assertEquals(2 * 145, investorManagement.getNetWorth(holder.getSlot()));
+
+        apl.updateLastTransactionInformation(150, 0);
+        assertEquals(2 * 145, investorManagement.getNetWorth(holder.getSlot()));
+        investorManagement.revalueNetWorths();
+        assertEquals(2 * 150, investorManagement.getNetWorth(holder.getSlot()));
+    }
+}
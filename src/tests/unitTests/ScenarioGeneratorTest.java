@@ -0,0 +1,107 @@
+package tests.unitTests;
+
+import investors.InvestorCohort;
+import investors.InvestorManagement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.SimulationContext;
+import simulation.StockExchangeSimulation;
+import stocks.StockManagement;
+import utilities.Parser;
+import utilities.ScenarioGenerator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioGeneratorTest {
+
+    @Test
+    public void testIdentifiers() {
+        assertEquals("A", ScenarioGenerator.identifier(0));
+        assertEquals("Z", ScenarioGenerator.identifier(25));
+        assertEquals("AA", ScenarioGenerator.identifier(26));
+        assertEquals("ZZ", ScenarioGenerator.identifier(26 + 26 * 26 - 1));
+        assertEquals("ZZZZZ", ScenarioGenerator.identifier(ScenarioGenerator.MAX_STOCKS - 1));
+        assertThrows(IllegalArgumentException.class, () -> ScenarioGenerator.identifier(ScenarioGenerator.MAX_STOCKS));
+    }
+
+    @Test
+    public void testGeneratedScenarioFollowsTheParameters() {
+        ScenarioGenerator generator = new ScenarioGenerator().investors('R', 1001).investors('S', 10).stocks(40)
+                .prices(5, 50, ScenarioGenerator.Distribution.LOG_UNIFORM).cash(100, 200, ScenarioGenerator.Distribution.UNIFORM)
+                .sparsity(0.75).maxQuantity(3).groups(4).seed(7);
+        Parser parser = generator.generate();
+
+        assertEquals(1001, parser.getNumberOfRandomInvestors());
+        assertEquals(10, parser.getNumberOfSMAInvestors());
+        assertEquals(40, parser.getStockPrices().size());
+        assertTrue(parser.getStockPrices().values().stream().allMatch(price -> price >= 5 && price <= 50));
+        List<InvestorCohort> cohorts = parser.getCohorts();
+        assertEquals(8, cohorts.size());
+        assertEquals(List.of(251, 250, 250, 250, 3, 3, 2, 2), cohorts.stream().map(InvestorCohort::count).toList());
+        int holdings = 0;
+        for (InvestorCohort cohort : cohorts) {
+            assertTrue(cohort.cash() >= 100 && cohort.cash() <= 200);
+            assertTrue(cohort.portfolio().values().stream().allMatch(quantity -> quantity >= 1 && quantity <= 3));
+            holdings += cohort.portfolio().size();
+        }
+        // about a quarter of the stocks are held by each group
+        assertTrue(holdings > 8 * 40 / 8 && holdings < 8 * 40 / 2, "holdings " + holdings);
+
+        assertEquals(cohorts, generator.generate().getCohorts());
+        assertNotEquals(cohorts, generator.seed(8).generate().getCohorts());
+    }
+
+    @Test
+    public void testFilesAndDirectCreationMatch(@TempDir Path directory) throws IOException {
+        for (int groups : new int[]{1, 3}) {
+            ScenarioGenerator generator = new ScenarioGenerator().investors('R', 200).investors('S', 20).stocks(30)
+                    .groups(groups).seed(groups);
+            Path file = directory.resolve("generated" + groups + ".txt");
+            generator.write(file);
+            Parser generated = generator.generate();
+            Parser read = new Parser(file);
+            assertEquals(generated.getStockPrices(), read.getStockPrices());
+            assertEquals(generated.getCohorts(), read.getCohorts());
+
+            StockManagement stockManagement = generator.createStockManagement();
+            InvestorManagement investorManagement = generator.createInvestorManagement(stockManagement, new Random(1));
+            assertEquals(30, stockManagement.getNumberOfStocks());
+            assertEquals(220, investorManagement.getNumberOfInvestors());
+        }
+
+        // the generated scenario runs like the file it was written to
+        ScenarioGenerator generator = new ScenarioGenerator().investors('R', 300).investors('S', 30).groups(5).seed(3);
+        Path file = directory.resolve("run.txt");
+        generator.write(file);
+        assertEquals(run(new Parser(file)), run(generator.generate()));
+    }
+
+    /**
+     * Runs the scenario for a few rounds with a fixed seed and returns the balances of the investors.
+     */
+    private static List<Long> run(Parser parser) {
+        SimulationContext context = new SimulationContext(5);
+        context.setLoggingEnabled(false);
+        StockExchangeSimulation simulation = new StockExchangeSimulation(50, parser, context);
+        simulation.run();
+        return simulation.getInvestorManagement().getInvestors().stream().map(investor -> investor.getBalance()).toList();
+    }
+
+    @Test
+    public void testInvalidParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().investors('X', 1));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().investors('R', -1));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().stocks(0));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().prices(0, 10, ScenarioGenerator.Distribution.UNIFORM));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().cash(10, 5, ScenarioGenerator.Distribution.UNIFORM));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().sparsity(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().maxQuantity(0));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator().groups(0));
+        assertThrows(IllegalStateException.class, () -> new ScenarioGenerator().generate());
+    }
+}
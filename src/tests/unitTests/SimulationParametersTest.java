@@ -0,0 +1,54 @@
+package tests.unitTests;
+
+import org.junit.jupiter.api.Test;
+import simulation.SimulationContext;
+import simulation.SimulationParameters;
+import simulation.StockExchangeSimulation;
+import utilities.Parser;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationParametersTest {
+
+    @Test
+    public void testSetAndGetByName() {
+        SimulationParameters parameters = new SimulationParameters()
+                .set(SimulationParameters.SMA_DIFFERENCE, 7)
+                .set(SimulationParameters.MAX_TRADE_VALIDITY, 3)
+                .set("investors.R", 2);
+        assertEquals(7, parameters.getSmaDifference());
+        assertEquals(3, parameters.get(SimulationParameters.MAX_TRADE_VALIDITY));
+        assertEquals(2, parameters.get("investors.R"));
+        assertEquals(-1, parameters.get("investors.S"));
+        assertEquals(-1, parameters.get(SimulationParameters.INITIAL_CASH));
+
+        assertThrows(IllegalArgumentException.class, () -> parameters.set("noSuchParameter", 1));
+        assertThrows(IllegalArgumentException.class, () -> parameters.set("investors.X", 1));
+        assertThrows(IllegalArgumentException.class, () -> parameters.set(SimulationParameters.MAX_TRADE_VALIDITY, 0));
+        assertThrows(IllegalArgumentException.class, () -> parameters.set(SimulationParameters.FAST_FORWARD, 2));
+        assertTrue(parameters.isFastForwardEnabled());
+        assertFalse(new SimulationParameters(parameters).set(SimulationParameters.FAST_FORWARD, 0).isFastForwardEnabled());
+
+        SimulationParameters copy = new SimulationParameters(parameters).set(SimulationParameters.SMA_DIFFERENCE, 1);
+        assertEquals(7, parameters.getSmaDifference());
+        assertEquals(1, copy.getSmaDifference());
+        assertEquals(2, copy.get("investors.R"));
+    }
+
+    @Test
+    public void testScenarioOverrides() throws IOException {
+        Parser parser = new Parser(TestPaths.MOODLE_TEST_PATH);
+        SimulationParameters parameters = new SimulationParameters()
+                .set("investors.R", 1)
+                .set(SimulationParameters.INITIAL_CASH, 1234);
+        assertEquals(Map.of('R', 1, 'S', parser.getNumberOfSMAInvestors()), parameters.getInvestorCounts(parser.getInvestorCounts()));
+
+        StockExchangeSimulation simulation = new StockExchangeSimulation(0, parser, new SimulationContext(new Random(1), parameters));
+        assertEquals(1 + parser.getNumberOfSMAInvestors(), simulation.getInvestorManagement().getNumberOfInvestors());
+        simulation.getInvestorManagement().getInvestors().forEach(investor -> assertEquals(1234, investor.getBalance()));
+    }
+}
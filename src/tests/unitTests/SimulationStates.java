@@ -0,0 +1,28 @@
+package tests.unitTests;
+
+import investors.AInvestor;
+import simulation.StockExchangeSimulation;
+import stocks.Stock;
+
+public class SimulationStates {
+    /**
+     * Describes the observable state of the simulation: the prices, the investors and the waiting requests.
+     */
+    public static String describe(StockExchangeSimulation simulation) {
+        StringBuilder description = new StringBuilder("round ").append(simulation.getRound()).append('\n');
+        for (Stock stock : simulation.getStockManagement().getStocks()) {
+            description.append(stock.getIdentifier()).append(' ').append(stock.getLastPrice())
+                    .append(' ').append(simulation.getTradeRequestSheet().getBuyRequestsMap().containsKey(stock)
+                            ? simulation.getTradeRequestSheet().getBuyRequestsMap().get(stock).getList().size() : 0)
+                    .append('\n');
+        }
+        for (AInvestor investor : simulation.getInvestorManagement().getInvestors()) {
+            description.append(investor.getId()).append(' ').append(investor.getBalance());
+            for (Stock stock : simulation.getStockManagement().getStocks()) {
+                description.append(' ').append(investor.getStockQuantity(stock));
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SortedListTest {
@@ -85,4 +86,36 @@ public class SortedListTest {
         assertEquals(4, removedOrder.get(3));
         assertEquals(5, removedOrder.get(4));
     }
+
+    @Test
+    public void testMovingBehindEqual() {
+        // Sorted by last digit
+        SortedList<Integer> sortedList = new SortedList<>((a, b) -> Integer.compare(a % 10, b % 10));
+        sortedList.add(15);
+        sortedList.add(13);
+        sortedList.add(23);
+        sortedList.add(33);
+        sortedList.add(11);
+
+        assertTrue(sortedList.moveBehindEqual(13));
+        assertEquals(List.of(11, 23, 33, 13, 15), sortedList.getList());
+        assertTrue(sortedList.moveBehindEqual(15)); // nothing equal to it
+        assertEquals(List.of(11, 23, 33, 13, 15), sortedList.getList());
+        assertFalse(sortedList.moveBehindEqual(17));
+    }
+
+    @Test
+    public void testIndexOfSearchesEqualElements() {
+        // Sorted by last digit
+        SortedList<Integer> sortedList = new SortedList<>((a, b) -> Integer.compare(a % 10, b % 10));
+        for (int element : new int[]{15, 13, 14, 11, 23, 33, 12}) {
+            sortedList.add(element);
+        }
+        for (int i = 0; i < sortedList.getList().size(); i++) {
+            assertEquals(i, sortedList.indexOf(sortedList.get(i)));
+        }
+        assertEquals(-1, sortedList.indexOf(43));
+        assertEquals(-1, sortedList.indexOf(16));
+        assertEquals(-1, new SortedList<Integer>(Integer::compareTo).indexOf(1));
+    }
 }
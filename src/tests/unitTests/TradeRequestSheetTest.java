@@ -5,7 +5,11 @@ import investors.InvestorManagement;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import requests.ATradeRequest;
+import requests.IcebergTradeRequest;
+import requests.OrderBuffer;
 import requests.RequestManagement;
+import requests.RequestType;
+import requests.StopTradeRequest;
 import simulation.StockExchangeSimulation;
 import stocks.Stock;
 import stocks.StockManagement;
@@ -154,5 +158,162 @@ public class TradeRequestSheetTest {
         assertEquals(0, tradeRequestSheet.getBuyRequestsMap().get(aplStock).getList().size());
     }
 
+    /**
+     * Tests whether a market order sweeps the sell requests at their own prices, best first,
+     * and whether what's left of it expires with the round.
+     */
+    @Test
+    public void testMarketOrderSweepsTheBook() {
+        int initialBalance = parser.getInitialCash();
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 2, 150, ATradeRequest.TradeType.SELL));
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 2, 140, ATradeRequest.TradeType.SELL));
+        tradeRequestSheet.addRequest(RequestManagement.createMarketTradeRequest(investor1, aplStock, 3, ATradeRequest.TradeType.BUY));
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+
+        assertEquals(initialBalance - 2 * 140 - 150, investor1.getBalance());
+        assertEquals(150, aplStock.getLastPrice());
+        assertEquals(0, tradeRequestSheet.getBuyRequestsMap().get(aplStock).getList().size());
+        assertEquals(1, tradeRequestSheet.getSellRequestsMap().get(aplStock).get(0).getQuantity());
 
+        // only one share is left, the rest of the order expires
+        tradeRequestSheet.addRequest(RequestManagement.createMarketTradeRequest(investor1, aplStock, 5, ATradeRequest.TradeType.BUY));
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+        assertEquals(5 + 4, investor1.getStockQuantity(aplStock));
+        assertEquals(0, tradeRequestSheet.getBuyRequestsMap().get(aplStock).getList().size());
+        assertEquals(0, tradeRequestSheet.getSellRequestsMap().get(aplStock).getList().size());
+    }
+
+    /**
+     * Tests whether a submitted request is matched on arrival, and whether it's reported as waiting only if something is left of it.
+     */
+    @Test
+    public void testSubmittedRequestIsMatchedOnArrival() {
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 2, 150, ATradeRequest.TradeType.SELL));
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 2, 140, ATradeRequest.TradeType.SELL));
+        ATradeRequest expensiveSell = RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 1, 160, ATradeRequest.TradeType.SELL);
+        assertTrue(tradeRequestSheet.submitRequest(expensiveSell, simulation));
+
+        ATradeRequest filledBuy = RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 3, 150, ATradeRequest.TradeType.BUY);
+        assertFalse(tradeRequestSheet.submitRequest(filledBuy, simulation));
+        assertFalse(tradeRequestSheet.isWaiting(filledBuy));
+
+        // takes the last share at 150 and waits with the rest
+        ATradeRequest partlyFilledBuy = RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 5, 155, ATradeRequest.TradeType.BUY);
+        assertTrue(tradeRequestSheet.submitRequest(partlyFilledBuy, simulation));
+        assertTrue(tradeRequestSheet.isWaiting(partlyFilledBuy));
+        assertEquals(4, partlyFilledBuy.getQuantity());
+
+        ATradeRequest filledSell = RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 1, 155, ATradeRequest.TradeType.SELL);
+        assertFalse(tradeRequestSheet.submitRequest(filledSell, simulation));
+        assertEquals(3, partlyFilledBuy.getQuantity());
+        assertTrue(tradeRequestSheet.isWaiting(expensiveSell));
+        assertEquals(5 + 5, investor1.getStockQuantity(aplStock));
+    }
+
+    /**
+     * Tests whether stop orders wait in the trigger book until a trade moves the price to their stop price,
+     * and whether a stop triggered by a trade is matched in the same round.
+     */
+    @Test
+    public void testStopOrdersAreTriggeredByThePrice() {
+        StopTradeRequest stopBuy = RequestManagement.createStopTradeRequest(investor1, aplStock, 1, 150, ATradeRequest.TradeType.BUY, 100);
+        StopTradeRequest stopSell =
+                RequestManagement.createStopLimitTradeRequest(investor1, aplStock, 1, 140, 130, ATradeRequest.TradeType.SELL, 100);
+        tradeRequestSheet.addRequest(stopBuy);
+        tradeRequestSheet.addRequest(stopSell);
+        assertEquals(2, tradeRequestSheet.getTriggerBook().size());
+        assertEquals(2, tradeRequestSheet.getNumberOfWaitingRequests());
+        assertTrue(tradeRequestSheet.isWaiting(stopBuy));
+
+        // a trade between the stop prices triggers nothing
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 1, 148, ATradeRequest.TradeType.BUY));
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 1, 148, ATradeRequest.TradeType.SELL));
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+        assertEquals(148, aplStock.getLastPrice());
+        assertEquals(2, tradeRequestSheet.getTriggerBook().size());
+
+        // a trade at the stop price triggers the buy stop, which takes the rest of the sell request
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor2, aplStock, 2, 150, ATradeRequest.TradeType.SELL));
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 1, 150, ATradeRequest.TradeType.BUY));
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+        assertTrue(stopBuy.isActivated());
+        assertFalse(stopSell.isActivated());
+        assertEquals(1, tradeRequestSheet.getTriggerBook().size());
+        assertEquals(0, tradeRequestSheet.getSellRequestsMap().get(aplStock).getList().size());
+        assertEquals(0, tradeRequestSheet.getBuyRequestsMap().get(aplStock).getList().size());
+        assertEquals(5 - 1 + 2, investor1.getStockQuantity(aplStock));
+
+        // a stop already crossed by the last price is triggered right away
+        StopTradeRequest crossed = RequestManagement.createStopTradeRequest(investor2, aplStock, 1, 155, ATradeRequest.TradeType.SELL, 100);
+        tradeRequestSheet.addRequest(crossed);
+        assertTrue(crossed.isActivated());
+        assertEquals(1, tradeRequestSheet.getSellRequestsMap().get(aplStock).getList().size());
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+        assertEquals(0, tradeRequestSheet.getSellRequestsMap().get(aplStock).getList().size());
+
+        assertTrue(tradeRequestSheet.cancelRequest(stopSell));
+        assertFalse(tradeRequestSheet.isWaiting(stopSell));
+        assertEquals(0, tradeRequestSheet.getTriggerBook().size());
+    }
+
+    /**
+     * Tests whether a strategy can place a stop order through the order buffer, with an id from the simulation context.
+     */
+    @Test
+    public void testStopOrderFromTheOrderBuffer() {
+        OrderBuffer orders = new OrderBuffer(2);
+        orders.add(investor1.getSlot(), RequestType.STOP_LIMIT, aplStock.getOrdinal(), 1, 140, 130, ATradeRequest.TradeType.SELL, 100);
+        int nextID = simulation.getContext().nextRequestID();
+        ATradeRequest request = orders.toRequest(orders.rowOf(investor1.getSlot()), investor1, stockManagement, simulation.getContext());
+        StopTradeRequest stop = assertInstanceOf(StopTradeRequest.class, request);
+        assertEquals(nextID + 1, stop.getId());
+        assertEquals(140, stop.getStopPrice());
+        assertEquals(130, stop.getPriceLimit());
+        assertFalse(stop.isMarketOrder());
+        tradeRequestSheet.addRequest(stop);
+        assertTrue(tradeRequestSheet.getTriggerBook().contains(stop));
+    }
+
+    /**
+     * Tests whether only the displayed slice of an iceberg order is matched,
+     * and whether a new slice waits behind the requests displayed before it.
+     */
+    @Test
+    public void testIcebergOrderReplenishesAtTheBackOfItsPriceLevel() {
+        IcebergTradeRequest iceberg =
+                RequestManagement.createIcebergTradeRequest(investor2, aplStock, 5, 2, 140, ATradeRequest.TradeType.SELL, 100);
+        ATradeRequest sellRequest = RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 2, 140, ATradeRequest.TradeType.SELL);
+        tradeRequestSheet.addRequest(iceberg);
+        tradeRequestSheet.addRequest(sellRequest);
+        assertEquals(2, iceberg.getQuantity());
+        assertEquals(3, iceberg.getHiddenQuantity());
+
+        // the first slice is filled, the rest of the buy request goes to the request that is now first
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 3, 150, ATradeRequest.TradeType.BUY));
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+        assertEquals(List.of(sellRequest, iceberg), tradeRequestSheet.getSellRequestsMap().get(aplStock).getList());
+        assertEquals(1, sellRequest.getQuantity());
+        assertEquals(2, iceberg.getQuantity());
+        assertEquals(3, iceberg.getTotalQuantity());
+        assertEquals(2, tradeRequestSheet.getNumberOfWaitingRequests());
+
+        tradeRequestSheet.addRequest(RequestManagement.createIndefiniteTradeRequest(investor1, aplStock, 4, 150, ATradeRequest.TradeType.BUY));
+        tradeRequestSheet.realiseSubmittedTrades(simulation);
+        assertEquals(0, tradeRequestSheet.getSellRequestsMap().get(aplStock).getList().size());
+        assertEquals(0, tradeRequestSheet.getBuyRequestsMap().get(aplStock).getList().size());
+        assertEquals(0, investor2.getStockQuantity(aplStock));
+        assertEquals(140, aplStock.getLastPrice());
+    }
+
+    /**
+     * Tests whether an iceberg order gets its id from the simulation context, and has no request type.
+     */
+    @Test
+    public void testIcebergOrderFromTheContext() {
+        int nextID = simulation.getContext().nextRequestID();
+        IcebergTradeRequest iceberg = RequestManagement.createIcebergTradeRequest(simulation.getContext(), investor2, aplStock, 5, 2, 140,
+                ATradeRequest.TradeType.SELL, 100);
+        assertEquals(nextID + 1, iceberg.getId());
+        assertThrows(IllegalArgumentException.class, () -> RequestType.of(iceberg));
+    }
 }
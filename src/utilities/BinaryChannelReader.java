@@ -0,0 +1,117 @@
+package utilities;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads primitive values written by a {@link BinaryChannelWriter} from a channel, through a fixed-size buffer.
+ */
+public class BinaryChannelReader implements AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a new reader from the given channel with a default buffer size.
+     *
+     * @param channel the channel
+     */
+    public BinaryChannelReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new reader from the given channel with the given buffer size.
+     *
+     * @param channel    the channel
+     * @param bufferSize the size of the buffer in bytes, at least 8
+     */
+    public BinaryChannelReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(8, bufferSize));
+        this.buffer.flip(); // nothing read yet
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of bytes, reading from the channel if needed.
+     *
+     * @param bytes the number of bytes
+     * @throws IOException if an I/O error occurs, or the channel ends too early
+     */
+    private void ensureAvailable(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException("Unexpected end of data");
+            }
+        }
+        buffer.flip();
+    }
+
+    public byte getByte() throws IOException {
+        ensureAvailable(Byte.BYTES);
+        return buffer.get();
+    }
+
+    public boolean getBoolean() throws IOException {
+        return getByte() != 0;
+    }
+
+    public int getInt() throws IOException {
+        ensureAvailable(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        ensureAvailable(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    public double getDouble() throws IOException {
+        ensureAvailable(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads bytes written by {@link BinaryChannelWriter#putBytes(byte[])}.
+     *
+     * @return the bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public byte[] getBytes() throws IOException {
+        int length = getInt();
+        if (length < 0) {
+            throw new IOException("Invalid length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            ensureAvailable(1);
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a string written by {@link BinaryChannelWriter#putString(String)}.
+     *
+     * @return the string
+     * @throws IOException if an I/O error occurs
+     */
+    public String getString() throws IOException {
+        return new String(getBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
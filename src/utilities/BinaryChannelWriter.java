@@ -0,0 +1,126 @@
+package utilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes primitive values to a channel through a fixed-size buffer, flushing it whenever it fills up.
+ * Values are written in big-endian byte order.
+ */
+public class BinaryChannelWriter implements AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a new writer to the given channel with a default buffer size.
+     *
+     * @param channel the channel
+     */
+    public BinaryChannelWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new writer to the given channel with the given buffer size.
+     *
+     * @param channel    the channel
+     * @param bufferSize the size of the buffer in bytes, at least 8
+     */
+    public BinaryChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(8, bufferSize));
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes, flushing it if needed.
+     *
+     * @param bytes the number of bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    public void putByte(byte value) throws IOException {
+        ensureRemaining(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    public void putBoolean(boolean value) throws IOException {
+        putByte((byte) (value ? 1 : 0));
+    }
+
+    public void putInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void putLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void putDouble(double value) throws IOException {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes the given bytes, preceded by their number.
+     *
+     * @param bytes the bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public void putBytes(byte[] bytes) throws IOException {
+        putInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes the given string in UTF-8, preceded by the number of bytes.
+     *
+     * @param value the string
+     * @throws IOException if an I/O error occurs
+     */
+    public void putString(String value) throws IOException {
+        putBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the buffer and closes the channel.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
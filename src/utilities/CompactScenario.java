@@ -0,0 +1,329 @@
+package utilities;
+
+import investors.InvestorCohort;
+import investors.InvestorStrategies;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the compact scenario format, for scenarios with huge populations,
+ * in which investors are described by cohorts with run-length counts, each with its own cash and portfolio,
+ * and stocks can carry metadata. The text format is made of keyword lines, with "#" comment lines as usual:
+ * <pre>
+ * stock APL:145 name=Apple sector=tech
+ * stock MSFT:300
+ * cohort R*500000 S*20000 100000 APL:5 MSFT:15
+ * cohort R 0 APL:100
+ * </pre>
+ * A stock line has the identifier and price of a stock and any key=value pairs of metadata.
+ * A cohort line has one or more strategy symbols, each with an optional count (1 by default),
+ * followed by the initial cash and portfolio shared by all of them.
+ * <p>
+ * The binary format holds the same data: the magic number, the version, the stocks (identifier, price and metadata)
+ * and the cohorts (symbol, count, cash and the stock ordinal and quantity of each holding).
+ * {@link Parser} recognises both formats by their first line or bytes.
+ */
+public class CompactScenario {
+    /**
+     * Magic number at the start of binary scenario files ("GPWS").
+     */
+    static final int MAGIC = 0x47505753;
+    static final int VERSION = 1;
+    private static final String STOCK_KEYWORD = "stock";
+    private static final String COHORT_KEYWORD = "cohort";
+
+    private CompactScenario() {
+    }
+
+    /**
+     * Check if the given file is in the compact text or binary format, rather than the original one.
+     *
+     * @param path the path of the file
+     * @return true if the file is in the compact format, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    static boolean isCompact(Path path) throws IOException {
+        return isBinary(path) || firstKeyword(path) != null;
+    }
+
+    /**
+     * Check if the given file starts with the magic number of the binary format.
+     *
+     * @param path the path of the file
+     * @return true if the file is in the binary format, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    private static boolean isBinary(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] magic = in.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES
+                    && ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8 | magic[3] & 0xFF) == MAGIC;
+        }
+    }
+
+    /**
+     * Returns the keyword of the first line that isn't a comment, if it's a keyword of the compact format.
+     *
+     * @param path the path of the file
+     * @return the keyword, or null if the first line isn't a line of the compact format
+     * @throws IOException if an I/O error occurs
+     */
+    private static String firstKeyword(Path path) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.startsWith("#")) {
+                    String keyword = line.split(" ", 2)[0];
+                    return keyword.equals(STOCK_KEYWORD) || keyword.equals(COHORT_KEYWORD) ? keyword : null;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads a scenario in the compact text or binary format. The data isn't validated beyond its syntax.
+     *
+     * @param path      the path of the file
+     * @param fileError the suffix of error messages
+     * @return the parser of the scenario
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the file format is invalid
+     */
+    static Parser read(Path path, String fileError) throws IOException {
+        return isBinary(path) ? readBinary(path, fileError) : readText(path, fileError);
+    }
+
+    /**
+     * Reads a scenario in the compact text format.
+     *
+     * @param path      the path of the file
+     * @param fileError the suffix of error messages
+     * @return the parser of the scenario
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the file format is invalid
+     */
+    private static Parser readText(Path path, String fileError) throws IOException {
+        Map<String, Integer> stockPrices = new LinkedHashMap<>();
+        Map<String, Map<String, String>> stockMetadata = new LinkedHashMap<>();
+        List<InvestorCohort> cohorts = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                // Ignore comment lines
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split(" ");
+                if (tokens[0].equals(STOCK_KEYWORD)) {
+                    if (tokens.length < 2) {
+                        throw new IllegalArgumentException("Invalid stock price format" + fileError);
+                    }
+                    String[] stockInfo = splitPair(tokens[1], ':', "Invalid stock price format" + fileError);
+                    stockPrices.put(stockInfo[0], Integer.parseInt(stockInfo[1]));
+                    Map<String, String> metadata = new LinkedHashMap<>();
+                    for (int i = 2; i < tokens.length; i++) {
+                        String[] entry = splitPair(tokens[i], '=', "Invalid stock metadata format" + fileError);
+                        metadata.put(entry[0], entry[1]);
+                    }
+                    stockMetadata.put(stockInfo[0], metadata);
+                } else if (tokens[0].equals(COHORT_KEYWORD)) {
+                    parseCohorts(tokens, cohorts, fileError);
+                } else {
+                    throw new IllegalArgumentException("Unknown scenario line: " + tokens[0] + fileError);
+                }
+            }
+        }
+        return new Parser(cohorts, stockPrices, stockMetadata);
+    }
+
+    /**
+     * Parses a cohort line into one cohort for each of its strategy symbols, all sharing the cash and portfolio.
+     *
+     * @param tokens    the tokens of the line, starting with the keyword
+     * @param cohorts   the list the cohorts are added to
+     * @param fileError the suffix of error messages
+     * @throws IllegalArgumentException if the line format is invalid
+     */
+    private static void parseCohorts(String[] tokens, List<InvestorCohort> cohorts, String fileError) {
+        int i = 1;
+        List<Character> types = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        // every investor token starts with a symbol, which is never a digit, unlike the cash
+        while (i < tokens.length && !tokens[i].isEmpty() && !Character.isDigit(tokens[i].charAt(0))
+                && tokens[i].charAt(0) != '-') {
+            String token = tokens[i++];
+            if ((token.length() != 1 && token.charAt(1) != '*') || InvestorStrategies.forSymbol(token.charAt(0)) == null) {
+                throw new IllegalArgumentException("Invalid investor type: " + token + fileError);
+            }
+            types.add(token.charAt(0));
+            counts.add(token.length() == 1 ? 1 : Integer.parseInt(token.substring(2)));
+        }
+        if (types.isEmpty() || i == tokens.length) {
+            throw new IllegalArgumentException("Invalid cohort format" + fileError);
+        }
+        int cash = Integer.parseInt(tokens[i++]);
+        Map<String, Integer> portfolio = new HashMap<>();
+        for (; i < tokens.length; i++) {
+            String[] stockInfo = splitPair(tokens[i], ':', "Invalid stock quantity format" + fileError);
+            portfolio.put(stockInfo[0], Integer.parseInt(stockInfo[1]));
+        }
+        for (int j = 0; j < types.size(); j++) {
+            cohorts.add(new InvestorCohort(types.get(j), counts.get(j), cash, portfolio));
+        }
+    }
+
+    /**
+     * Splits a token into the two parts around the separator.
+     *
+     * @param token     the token
+     * @param separator the separator
+     * @param message   the error message if the token isn't a pair
+     * @return the two parts
+     * @throws IllegalArgumentException if the token doesn't have exactly one separator
+     */
+    private static String[] splitPair(String token, char separator, String message) {
+        String[] pair = token.split(String.valueOf(separator));
+        if (pair.length != 2) {
+            throw new IllegalArgumentException(message);
+        }
+        return pair;
+    }
+
+    /**
+     * Reads a scenario in the compact binary format.
+     *
+     * @param path      the path of the file
+     * @param fileError the suffix of error messages
+     * @return the parser of the scenario
+     * @throws IOException              if an I/O error occurs or the file isn't a binary scenario of a known version
+     * @throws IllegalArgumentException if a stock ordinal is invalid
+     */
+    private static Parser readBinary(Path path, String fileError) throws IOException {
+        try (BinaryChannelReader reader = new BinaryChannelReader(FileChannel.open(path, StandardOpenOption.READ))) {
+            if (reader.getInt() != MAGIC) {
+                throw new IOException("Not a binary scenario" + fileError);
+            }
+            int version = reader.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary scenario version " + version + fileError);
+            }
+            int numberOfStocks = reader.getInt();
+            String[] identifiers = new String[numberOfStocks];
+            Map<String, Integer> stockPrices = new LinkedHashMap<>();
+            Map<String, Map<String, String>> stockMetadata = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < numberOfStocks; ordinal++) {
+                identifiers[ordinal] = reader.getString();
+                stockPrices.put(identifiers[ordinal], reader.getInt());
+                Map<String, String> metadata = new LinkedHashMap<>();
+                int entries = reader.getInt();
+                for (int i = 0; i < entries; i++) {
+                    metadata.put(reader.getString(), reader.getString());
+                }
+                stockMetadata.put(identifiers[ordinal], metadata);
+            }
+            int numberOfCohorts = reader.getInt();
+            List<InvestorCohort> cohorts = new ArrayList<>(numberOfCohorts);
+            for (int i = 0; i < numberOfCohorts; i++) {
+                char type = (char) reader.getByte();
+                int count = reader.getInt();
+                int cash = reader.getInt();
+                int holdings = reader.getInt();
+                Map<String, Integer> portfolio = new HashMap<>();
+                for (int j = 0; j < holdings; j++) {
+                    int ordinal = reader.getInt();
+                    if (ordinal < 0 || ordinal >= numberOfStocks) {
+                        throw new IllegalArgumentException("Invalid stock identifier in initial portfolio" + fileError);
+                    }
+                    portfolio.put(identifiers[ordinal], reader.getInt());
+                }
+                // consecutive cohorts with equal portfolios share the map, like the cohorts of a text line
+                if (!cohorts.isEmpty() && cohorts.get(i - 1).portfolio().equals(portfolio)) {
+                    portfolio = cohorts.get(i - 1).portfolio();
+                }
+                cohorts.add(new InvestorCohort(type, count, cash, portfolio));
+            }
+            return new Parser(cohorts, stockPrices, stockMetadata);
+        }
+    }
+
+    /**
+     * Writes the scenario of the given parser in the compact text format.
+     *
+     * @param parser the parser of the scenario
+     * @param path   the path of the file, overwritten if it exists
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeText(Parser parser, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (Map.Entry<String, Integer> stock : parser.getStockPrices().entrySet()) {
+                StringBuilder line = new StringBuilder(STOCK_KEYWORD).append(' ').append(stock.getKey()).append(':').append(stock.getValue());
+                for (Map.Entry<String, String> entry : parser.getStockMetadata(stock.getKey()).entrySet()) {
+                    line.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+            for (InvestorCohort cohort : parser.getCohorts()) {
+                StringBuilder line = new StringBuilder(COHORT_KEYWORD).append(' ').append(cohort.type()).append('*')
+                        .append(cohort.count()).append(' ').append(cohort.cash());
+                for (Map.Entry<String, Integer> entry : cohort.portfolio().entrySet()) {
+                    line.append(' ').append(entry.getKey()).append(':').append(entry.getValue());
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes the scenario of the given parser in the compact binary format.
+     *
+     * @param parser the parser of the scenario
+     * @param path   the path of the file, overwritten if it exists
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeBinary(Parser parser, Path path) throws IOException {
+        try (BinaryChannelWriter writer = new BinaryChannelWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putInt(parser.getStockPrices().size());
+            Map<String, Integer> ordinals = new HashMap<>();
+            for (Map.Entry<String, Integer> stock : parser.getStockPrices().entrySet()) {
+                ordinals.put(stock.getKey(), ordinals.size());
+                writer.putString(stock.getKey());
+                writer.putInt(stock.getValue());
+                Map<String, String> metadata = parser.getStockMetadata(stock.getKey());
+                writer.putInt(metadata.size());
+                for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                    writer.putString(entry.getKey());
+                    writer.putString(entry.getValue());
+                }
+            }
+            writer.putInt(parser.getCohorts().size());
+            for (InvestorCohort cohort : parser.getCohorts()) {
+                writer.putByte((byte) cohort.type());
+                writer.putInt(cohort.count());
+                writer.putInt(cohort.cash());
+                writer.putInt(cohort.portfolio().size());
+                for (Map.Entry<String, Integer> entry : cohort.portfolio().entrySet()) {
+                    writer.putInt(ordinals.get(entry.getKey()));
+                    writer.putInt(entry.getValue());
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package utilities;
 
+/**
+ * Process-wide logging configuration, used outside of simulations and as the default for new simulations.
+ * A running simulation logs through its {@link simulation.SimulationContext}.
+ */
 public class EventLogging {
-    public static boolean loggingEnabled = true;
+    public static volatile boolean loggingEnabled = true;
 
     /**
      * Returns whether logging is enabled.
@@ -0,0 +1,468 @@
+package utilities;
+
+import investors.InvestorStrategies;
+import stocks.StockManagement;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of scenario files that memory-maps the file and tokenizes its bytes in place, for very large scenarios.
+ * It accepts the same files as {@link Parser}, but investor types are counted straight from the bytes,
+ * and stock identifiers, which are at most 5 capital letters, are packed into ints and interned into ordinals
+ * (in the order of the stock prices line) without creating a string per token, only one per stock.
+ * The maps of the {@link Parser} interface are built once at the end, in ordinal order,
+ * so the stock management created from either of them gives the stocks the same ordinals.
+ */
+public class MappedParser extends Parser {
+    private final List<String> stockIdentifiers;
+    private final int[] stockPrices;
+    private final int[] initialQuantities;
+
+    /**
+     * Creates a new parser of the given file.
+     *
+     * @param filePath the file path
+     * @throws IOException              if an I/O error occurs or the file is larger than 2 GB
+     * @throws IllegalArgumentException if the file format is invalid
+     */
+    public MappedParser(Path filePath) throws IOException, IllegalArgumentException {
+        this(new Tokenizer(filePath).parse());
+    }
+
+    /**
+     * Creates a parser of the scenario read by the tokenizer.
+     *
+     * @param tokenizer the tokenizer that read the file
+     */
+    private MappedParser(Tokenizer tokenizer) {
+        super(tokenizer.investorCountsMap(), tokenizer.stockPricesMap(), tokenizer.initialPortfolioMap(), tokenizer.initialCash);
+        this.stockIdentifiers = List.copyOf(tokenizer.identifiers);
+        this.stockPrices = Arrays.copyOf(tokenizer.prices, tokenizer.identifiers.size());
+        this.initialQuantities = Arrays.copyOf(tokenizer.quantities, tokenizer.identifiers.size());
+    }
+
+    /**
+     * Creates a new stock management with the stocks of the scenario, straight from the interned ordinals.
+     *
+     * @return the stock management
+     */
+    public StockManagement createStockManagement() {
+        StockManagement stockManagement = new StockManagement();
+        for (int ordinal = 0; ordinal < stockIdentifiers.size(); ordinal++) {
+            stockManagement.createStock(stockIdentifiers.get(ordinal), stockPrices[ordinal], 0);
+        }
+        return stockManagement;
+    }
+
+    /**
+     * Get the identifiers of the stocks.
+     *
+     * @return the identifiers, by ordinal
+     */
+    public List<String> getStockIdentifiers() {
+        return stockIdentifiers;
+    }
+
+    /**
+     * Get the initial quantities of the stocks held by every investor.
+     *
+     * @return the quantities, by ordinal
+     */
+    public int[] getInitialQuantities() {
+        return initialQuantities.clone();
+    }
+
+    /**
+     * Reads a scenario file from a memory-mapped buffer, line by line and token by token.
+     */
+    private static class Tokenizer {
+        /**
+         * Maximal length of a stock identifier.
+         */
+        private static final int MAX_IDENTIFIER_LENGTH = 5;
+        private final String fileError;
+        private final MappedByteBuffer buffer;
+        private final int size;
+        /**
+         * Open addressing table of the packed identifiers, mapping to ordinal + 1 (0 is an empty entry).
+         */
+        private int[] keys = new int[64];
+        private int[] ordinals = new int[64];
+        private final List<String> identifiers = new ArrayList<>();
+        private int[] prices = new int[16];
+        private int[] quantities = new int[16];
+        private boolean[] inPortfolio = new boolean[16];
+        /**
+         * Number of investors of each type, indexed by the symbol.
+         */
+        private final int[] investorCounts = new int[128];
+        /**
+         * Symbols of the investor types in the order of first appearance.
+         */
+        private final StringBuilder investorTypes = new StringBuilder();
+        private final boolean[] validSymbols = new boolean[128];
+        private int initialCash;
+        private int linesParsed;
+
+        /**
+         * Maps the given file.
+         *
+         * @param filePath the file path
+         * @throws IOException if an I/O error occurs or the file is larger than 2 GB
+         */
+        Tokenizer(Path filePath) throws IOException {
+            this.fileError = " in file" + filePath;
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Scenario file is too large to be mapped" + fileError);
+                }
+                this.size = (int) channel.size();
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            for (char symbol = 0; symbol < validSymbols.length; symbol++) {
+                validSymbols[symbol] = InvestorStrategies.forSymbol(symbol) != null;
+            }
+        }
+
+        /**
+         * Parses the whole file.
+         *
+         * @return this tokenizer
+         * @throws IllegalArgumentException if the file format is invalid
+         */
+        Tokenizer parse() {
+            int position = 0;
+            while (position < size) {
+                int end = position;
+                while (end < size && buffer.get(end) != '\n') {
+                    end++;
+                }
+                int lineEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+                // Trailing separators don't make empty tokens, like in String.split
+                while (lineEnd > position + 1 && buffer.get(lineEnd - 1) == ' ') {
+                    lineEnd--;
+                }
+                // Ignore comment lines
+                if (lineEnd == position || buffer.get(position) != '#') {
+                    switch (linesParsed++) {
+                        case 0 -> parseInvestorTypes(position, lineEnd);
+                        case 1 -> parseStockPrices(position, lineEnd);
+                        default -> parseInitialPortfolio(position, lineEnd);
+                    }
+                }
+                position = end + 1;
+            }
+            if (linesParsed < 3) {
+                throw new IllegalArgumentException("Missing " + (linesParsed == 0 ? "investor types" : linesParsed == 1
+                        ? "stock prices" : "initial portfolio") + fileError);
+            }
+            return this;
+        }
+
+        /**
+         * Counts the investor types of the line, every type being a single symbol.
+         *
+         * @param from the start of the line
+         * @param to   the end of the line
+         */
+        private void parseInvestorTypes(int from, int to) {
+            for (int start = from; start <= to; start = tokenEnd(start, to) + 1) {
+                int end = tokenEnd(start, to);
+                int symbol = end - start == 1 ? buffer.get(start) & 0xFF : -1;
+                if (symbol == -1 || symbol >= validSymbols.length || !validSymbols[symbol]) {
+                    throw new IllegalArgumentException("Invalid investor type: " + text(start, end) + fileError);
+                }
+                if (investorCounts[symbol]++ == 0) {
+                    investorTypes.append((char) symbol);
+                }
+            }
+        }
+
+        /**
+         * Interns the stocks of the line and reads their prices.
+         *
+         * @param from the start of the line
+         * @param to   the end of the line
+         */
+        private void parseStockPrices(int from, int to) {
+            for (int start = from; start <= to; start = tokenEnd(start, to) + 1) {
+                int end = tokenEnd(start, to);
+                int colon = colon(start, end, "Invalid stock price format");
+                int key = packIdentifier(start, colon);
+                if (key == -1) {
+                    throw new IllegalArgumentException("Invalid stock identifier" + fileError);
+                }
+                int price = parseInt(colon + 1, end);
+                if (price <= 0) {
+                    throw new IllegalArgumentException("Invalid stock identifier in stock prices" + fileError);
+                }
+                prices[intern(key, start, colon)] = price;
+            }
+        }
+
+        /**
+         * Reads the initial cash and stock quantities of the line, replacing the ones of an earlier portfolio line.
+         *
+         * @param from the start of the line
+         * @param to   the end of the line
+         */
+        private void parseInitialPortfolio(int from, int to) {
+            Arrays.fill(quantities, 0);
+            Arrays.fill(inPortfolio, false);
+            int cashEnd = tokenEnd(from, to);
+            initialCash = parseInt(from, cashEnd);
+            if (initialCash < 0) {
+                throw new IllegalArgumentException("Invalid initial cash" + fileError);
+            }
+            for (int start = cashEnd + 1; start <= to; start = tokenEnd(start, to) + 1) {
+                int end = tokenEnd(start, to);
+                int colon = colon(start, end, "Invalid stock quantity format");
+                int ordinal = lookup(packIdentifier(start, colon));
+                if (ordinal == -1) {
+                    throw new IllegalArgumentException("Invalid stock identifier in initial portfolio" + fileError);
+                }
+                int quantity = parseInt(colon + 1, end);
+                if (quantity < 0) {
+                    throw new IllegalArgumentException("Invalid stock quantity in initial portfolio" + fileError);
+                }
+                quantities[ordinal] = quantity;
+                inPortfolio[ordinal] = true;
+            }
+        }
+
+        /**
+         * Finds the end of the token starting at the given position: the next space or the end of the line.
+         *
+         * @param start the start of the token
+         * @param to    the end of the line
+         * @return the position after the last byte of the token
+         */
+        private int tokenEnd(int start, int to) {
+            int end = start;
+            while (end < to && buffer.get(end) != ' ') {
+                end++;
+            }
+            return end;
+        }
+
+        /**
+         * Finds the only colon of an identifier:number token.
+         *
+         * @param start   the start of the token
+         * @param end     the end of the token
+         * @param message the error message if there isn't exactly one colon, or the number is missing
+         * @return the position of the colon
+         */
+        private int colon(int start, int end, String message) {
+            int colon = -1;
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == ':') {
+                    if (colon != -1) {
+                        throw new IllegalArgumentException(message + fileError);
+                    }
+                    colon = i;
+                }
+            }
+            if (colon == -1 || colon == end - 1) {
+                throw new IllegalArgumentException(message + fileError);
+            }
+            return colon;
+        }
+
+        /**
+         * Packs a stock identifier of 1 to 5 capital letters into an int, as a number in base 27 with digits 1 to 26.
+         *
+         * @param start the start of the identifier
+         * @param end   the end of the identifier
+         * @return the packed identifier, or -1 if it isn't a valid identifier
+         */
+        private int packIdentifier(int start, int end) {
+            if (end - start < 1 || end - start > MAX_IDENTIFIER_LENGTH) {
+                return -1;
+            }
+            int key = 0;
+            for (int i = start; i < end; i++) {
+                byte letter = buffer.get(i);
+                if (letter < 'A' || letter > 'Z') {
+                    return -1;
+                }
+                key = key * 27 + letter - 'A' + 1;
+            }
+            return key;
+        }
+
+        /**
+         * Returns the ordinal of the packed identifier, adding it as a new stock if it isn't known yet.
+         *
+         * @param key   the packed identifier
+         * @param start the start of the identifier
+         * @param end   the end of the identifier
+         * @return the ordinal of the stock
+         */
+        private int intern(int key, int start, int end) {
+            int index = find(key);
+            if (keys[index] == key + 1) {
+                return ordinals[index];
+            }
+            int ordinal = identifiers.size();
+            identifiers.add(text(start, end));
+            keys[index] = key + 1;
+            ordinals[index] = ordinal;
+            if (ordinal == prices.length) {
+                prices = Arrays.copyOf(prices, 2 * ordinal);
+                quantities = Arrays.copyOf(quantities, 2 * ordinal);
+                inPortfolio = Arrays.copyOf(inPortfolio, 2 * ordinal);
+            }
+            if (2 * identifiers.size() > keys.length) {
+                rehash();
+            }
+            return ordinal;
+        }
+
+        /**
+         * Returns the ordinal of the packed identifier.
+         *
+         * @param key the packed identifier, or -1
+         * @return the ordinal of the stock, or -1 if there's no such stock
+         */
+        private int lookup(int key) {
+            if (key == -1) {
+                return -1;
+            }
+            int index = find(key);
+            return keys[index] == key + 1 ? ordinals[index] : -1;
+        }
+
+        /**
+         * Finds the entry of the packed identifier in the table, or the empty entry where it belongs.
+         *
+         * @param key the packed identifier
+         * @return the index of the entry
+         */
+        private int find(int key) {
+            int mask = keys.length - 1;
+            int index = (key * 0x9E3779B9) >>> 16 & mask;
+            while (keys[index] != 0 && keys[index] != key + 1) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        /**
+         * Doubles the table of identifiers.
+         */
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldOrdinals = ordinals;
+            keys = new int[2 * oldKeys.length];
+            ordinals = new int[2 * oldKeys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int index = find(oldKeys[i] - 1);
+                    keys[index] = oldKeys[i];
+                    ordinals[index] = oldOrdinals[i];
+                }
+            }
+        }
+
+        /**
+         * Parses a decimal int with an optional sign, like {@link Integer#parseInt(String)}.
+         *
+         * @param start the start of the number
+         * @param end   the end of the number
+         * @return the number
+         * @throws NumberFormatException if it isn't a valid int
+         */
+        private int parseInt(int start, int end) {
+            int i = start;
+            boolean negative = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                throw new NumberFormatException("For input string: \"" + text(start, end) + "\"" + fileError);
+            }
+            long value = 0;
+            for (; i < end; i++) {
+                byte digit = buffer.get(i);
+                if (digit < '0' || digit > '9') {
+                    throw new NumberFormatException("For input string: \"" + text(start, end) + "\"" + fileError);
+                }
+                value = value * 10 + digit - '0';
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new NumberFormatException("For input string: \"" + text(start, end) + "\"" + fileError);
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("For input string: \"" + text(start, end) + "\"" + fileError);
+            }
+            return (int) value;
+        }
+
+        /**
+         * Decodes the bytes in the given range, for identifiers and error messages.
+         *
+         * @param start the start of the range
+         * @param end   the end of the range
+         * @return the text
+         */
+        private String text(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the investor counts in the order of first appearance.
+         *
+         * @return the investor counts
+         */
+        Map<Character, Integer> investorCountsMap() {
+            Map<Character, Integer> counts = new LinkedHashMap<>();
+            for (int i = 0; i < investorTypes.length(); i++) {
+                counts.put(investorTypes.charAt(i), investorCounts[investorTypes.charAt(i)]);
+            }
+            return counts;
+        }
+
+        /**
+         * Returns the stock prices in ordinal order.
+         *
+         * @return the stock prices
+         */
+        Map<String, Integer> stockPricesMap() {
+            Map<String, Integer> stockPrices = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < identifiers.size(); ordinal++) {
+                stockPrices.put(identifiers.get(ordinal), prices[ordinal]);
+            }
+            return stockPrices;
+        }
+
+        /**
+         * Returns the initial portfolio in ordinal order.
+         *
+         * @return the initial portfolio
+         */
+        Map<String, Integer> initialPortfolioMap() {
+            Map<String, Integer> initialPortfolio = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < identifiers.size(); ordinal++) {
+                if (inPortfolio[ordinal]) {
+                    initialPortfolio.put(identifiers.get(ordinal), quantities[ordinal]);
+                }
+            }
+            return initialPortfolio;
+        }
+    }
+}
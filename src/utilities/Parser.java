@@ -1,18 +1,72 @@
 package utilities;
 
+import investors.InvestorCohort;
+import investors.InvestorStrategies;
+import investors.RandomChoiceInvestor;
+import investors.SMAInvestor;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class Parser {
     Map<String, Integer> stockPrices;
     Map<String, Integer> initialPortfolio;
-    private int numberOfRandomInvestors;
-    private int numberOfSMAInvestors;
+    /**
+     * Number of investors of each type, by the symbol of their strategy, in the order of first appearance.
+     */
+    private final Map<Character, Integer> investorCounts = new LinkedHashMap<>();
     private int initialCash;
+    /**
+     * Cohorts of investors, one for each type in the original format, where all investors start the same.
+     */
+    private List<InvestorCohort> cohorts;
+    /**
+     * Key-value metadata of the stocks, by their identifiers, only given in the compact format.
+     */
+    private Map<String, Map<String, String>> stockMetadata = Map.of();
+
+    /**
+     * Creates a parser of an already parsed and validated scenario, for parsers that read files in other ways.
+     *
+     * @param investorCounts   the number of investors of each type, in the order of first appearance
+     * @param stockPrices      the stock prices
+     * @param initialPortfolio the initial portfolio
+     * @param initialCash      the initial cash
+     */
+    Parser(Map<Character, Integer> investorCounts, Map<String, Integer> stockPrices, Map<String, Integer> initialPortfolio,
+           int initialCash) {
+        this.investorCounts.putAll(investorCounts);
+        this.stockPrices = stockPrices;
+        this.initialPortfolio = initialPortfolio;
+        this.initialCash = initialCash;
+        this.cohorts = InvestorCohort.of(investorCounts, initialCash, initialPortfolio);
+    }
+
+    /**
+     * Creates a parser of a scenario in the compact format, whose investors come in cohorts.
+     * The initial cash and portfolio are those of the first cohort.
+     *
+     * @param cohorts       the cohorts of investors
+     * @param stockPrices   the stock prices
+     * @param stockMetadata the metadata of the stocks, by their identifiers
+     */
+    Parser(List<InvestorCohort> cohorts, Map<String, Integer> stockPrices, Map<String, Map<String, String>> stockMetadata) {
+        for (InvestorCohort cohort : cohorts) {
+            investorCounts.merge(cohort.type(), cohort.count(), Integer::sum);
+        }
+        this.cohorts = cohorts;
+        this.stockPrices = stockPrices;
+        this.stockMetadata = stockMetadata;
+        this.initialPortfolio = cohorts.isEmpty() ? Map.of() : cohorts.get(0).portfolio();
+        this.initialCash = cohorts.isEmpty() ? 0 : cohorts.get(0).cash();
+    }
 
     /**
      * Creates a new parser with the given file path.
@@ -27,6 +81,7 @@ public class Parser {
 
     /**
      * Creates a new parser with the given String of a file path.
+     * Files in the compact text or binary format (see {@link CompactScenario}) are recognised and read as well.
      *
      * @param filePath the file path as a String
      * @throws IOException              if an I/O error occurs
@@ -34,6 +89,17 @@ public class Parser {
      */
     public Parser(String filePath) throws IOException, IllegalArgumentException {
         String fileError = " in file" + filePath;
+        if (CompactScenario.isCompact(Path.of(filePath))) {
+            Parser compact = CompactScenario.read(Path.of(filePath), fileError);
+            investorCounts.putAll(compact.investorCounts);
+            cohorts = compact.cohorts;
+            stockPrices = compact.stockPrices;
+            stockMetadata = compact.stockMetadata;
+            initialPortfolio = compact.initialPortfolio;
+            initialCash = compact.initialCash;
+            validateInputs(fileError);
+            return;
+        }
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             String line;
             boolean investorTypesParsed = false;
@@ -47,14 +113,10 @@ public class Parser {
 
                 // Parse investor types
                 if (!investorTypesParsed) {
-                    numberOfRandomInvestors = 0;
-                    numberOfSMAInvestors = 0;
                     String[] types = line.split(" ");
                     for (String type : types) {
-                        if (type.equals("R")) {
-                            numberOfRandomInvestors++;
-                        } else if (type.equals("S")) {
-                            numberOfSMAInvestors++;
+                        if (type.length() == 1 && InvestorStrategies.forSymbol(type.charAt(0)) != null) {
+                            investorCounts.merge(type.charAt(0), 1, Integer::sum);
                         } else {
                             throw new IllegalArgumentException("Invalid investor type: " + type + fileError);
                         }
@@ -88,6 +150,7 @@ public class Parser {
             }
         }
 
+        cohorts = InvestorCohort.of(investorCounts, initialCash, initialPortfolio);
         validateInputs(fileError);
     }
 
@@ -98,20 +161,22 @@ public class Parser {
      * @throws IllegalArgumentException if the inputs are invalid
      */
     private void validateInputs(String fileError) throws IllegalArgumentException {
-        // checking if every stock in initial portfolio is in stock prices
-        if (!stockPrices.keySet().containsAll(initialPortfolio.keySet()))
+        if (stockPrices == null || initialPortfolio == null || cohorts.isEmpty())
+            throw new IllegalArgumentException("Missing stock prices or investors" + fileError);
+        // checking if every stock in initial portfolios is in stock prices
+        if (!cohorts.stream().allMatch(cohort -> stockPrices.keySet().containsAll(cohort.portfolio().keySet())))
             throw new IllegalArgumentException("Invalid stock identifier in initial portfolio" + fileError);
         // checking if all stock prices are positive
         if (!stockPrices.values().stream().allMatch(price -> price > 0))
             throw new IllegalArgumentException("Invalid stock identifier in stock prices" + fileError);
         // checking if all stock quantities are non negative
-        if (!initialPortfolio.values().stream().allMatch(quantity -> quantity >= 0))
+        if (!cohorts.stream().allMatch(cohort -> cohort.portfolio().values().stream().allMatch(quantity -> quantity >= 0)))
             throw new IllegalArgumentException("Invalid stock quantity in initial portfolio" + fileError);
         // checking if the number of investors is positive
-        if (numberOfRandomInvestors < 0 || numberOfSMAInvestors < 0)
+        if (cohorts.stream().anyMatch(cohort -> cohort.count() < 0))
             throw new IllegalArgumentException("Invalid number of investors" + fileError);
         // checking if the initial cash is positive
-        if (initialCash < 0)
+        if (cohorts.stream().anyMatch(cohort -> cohort.cash() < 0))
             throw new IllegalArgumentException("Invalid initial cash" + fileError);
         // checking if all identifiers have correct format
         if (!stockPrices.keySet().stream().allMatch(s -> s.matches("^[A-Z]{1,5}$")))
@@ -124,7 +189,7 @@ public class Parser {
      * @return the number of random investors
      */
     public int getNumberOfRandomInvestors() {
-        return numberOfRandomInvestors;
+        return investorCounts.getOrDefault((char) RandomChoiceInvestor.TYPE, 0);
     }
 
     /**
@@ -133,7 +198,16 @@ public class Parser {
      * @return the number of SMA investors
      */
     public int getNumberOfSMAInvestors() {
-        return numberOfSMAInvestors;
+        return investorCounts.getOrDefault((char) SMAInvestor.TYPE, 0);
+    }
+
+    /**
+     * Returns the number of investors of each type, by the symbol of their strategy.
+     *
+     * @return the numbers of investors of each type, in the order of first appearance in the file
+     */
+    public Map<Character, Integer> getInvestorCounts() {
+        return Collections.unmodifiableMap(investorCounts);
     }
 
     /**
@@ -142,7 +216,7 @@ public class Parser {
      * @return the total number of investors
      */
     public int getNumberOfInvestors() {
-        return numberOfRandomInvestors + numberOfSMAInvestors;
+        return investorCounts.values().stream().mapToInt(Integer::intValue).sum();
     }
 
     /**
@@ -155,7 +229,7 @@ public class Parser {
     }
 
     /**
-     * Returns the initial portfolio.
+     * Returns the initial portfolio, of the first cohort in the compact format.
      *
      * @return the initial portfolio
      */
@@ -164,7 +238,26 @@ public class Parser {
     }
 
     /**
-     * Returns the initial cash.
+     * Returns the cohorts of investors, in the order the investors are created.
+     *
+     * @return the cohorts
+     */
+    public List<InvestorCohort> getCohorts() {
+        return cohorts;
+    }
+
+    /**
+     * Returns the metadata of the given stock.
+     *
+     * @param identifier the identifier of the stock
+     * @return the key-value metadata of the stock, empty if there's none
+     */
+    public Map<String, String> getStockMetadata(String identifier) {
+        return stockMetadata.getOrDefault(identifier, Map.of());
+    }
+
+    /**
+     * Returns the initial cash, of the first cohort in the compact format.
      *
      * @return the initial cash
      */
@@ -3,8 +3,27 @@ package utilities;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 public class RandomChoiceMachine {
+    private final Random random;
+
+    /**
+     * Creates a new random choice machine with an unseeded random number generator.
+     */
+    public RandomChoiceMachine() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a new random choice machine drawing from the given random number generator.
+     *
+     * @param random the random number generator
+     */
+    public RandomChoiceMachine(Random random) {
+        this.random = random;
+    }
+
     /**
      * Returns a random element from the given collection.
      *
@@ -14,7 +33,28 @@ public class RandomChoiceMachine {
      */
     public <T> T getRandomElement(Collection<T> collection) {
         List<T> list = new ArrayList<>(collection);
-        return list.get((int) (Math.random() * list.size()));
+        return list.get(getRandomIndex(list.size()));
+    }
+
+    /**
+     * Returns a random index into a collection of the given size.
+     *
+     * @param size the size of the collection, must be positive
+     * @return a random index from [0, size)
+     */
+    public int getRandomIndex(int size) {
+        return random.nextInt(size);
+    }
+
+    /**
+     * Returns a random integer from the given range.
+     *
+     * @param from the lower bound (inclusive)
+     * @param to   the upper bound (inclusive)
+     * @return a random integer from [from, to]
+     */
+    public int getRandomInt(int from, int to) {
+        return from + random.nextInt(to - from + 1);
     }
 
     /**
@@ -23,6 +63,6 @@ public class RandomChoiceMachine {
      * @return a random boolean
      */
     public boolean getRandomBoolean() {
-        return Math.random() < 0.5;
+        return random.nextBoolean();
     }
 }
@@ -0,0 +1,334 @@
+package utilities;
+
+import investors.InvestorCohort;
+import investors.InvestorManagement;
+import investors.InvestorStrategies;
+import stocks.StockManagement;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic scenarios of any size from a few parameters, for load tests and benchmarks.
+ * The stocks are named A, B, ..., Z, AA, AB, ... and get random prices. The investors of every strategy are split
+ * across the given number of groups, each with its own random cash and a random portfolio holding each stock
+ * with the probability given by the sparsity, so that the scenario stays small however many investors it has.
+ * The same parameters and seed always give the same scenario.
+ * <p>
+ * The scenario can be written to a file in the format read by {@link Parser}, or handed to a simulation directly:
+ * <pre>
+ * Parser parser = new ScenarioGenerator().investors('R', 1_000_000).investors('S', 10_000).stocks(50).generate();
+ * StockExchangeSimulation simulation = new StockExchangeSimulation(1000, parser);
+ * </pre>
+ */
+public class ScenarioGenerator {
+    /**
+     * The largest number of stocks, the number of identifiers of at most 5 letters.
+     */
+    public static final int MAX_STOCKS = 26 + 26 * 26 + 26 * 26 * 26 + 26 * 26 * 26 * 26 + 26 * 26 * 26 * 26 * 26;
+
+    /**
+     * How values are drawn from their range.
+     */
+    public enum Distribution {
+        /**
+         * Every value of the range is equally likely.
+         */
+        UNIFORM,
+        /**
+         * The logarithm of the value is uniform, so small values are much more common than large ones,
+         * like the prices of real stocks.
+         */
+        LOG_UNIFORM
+    }
+
+    private final Map<Character, Integer> investorCounts = new LinkedHashMap<>();
+    private int stocks = 10;
+    private int minPrice = 10;
+    private int maxPrice = 1000;
+    private Distribution priceDistribution = Distribution.LOG_UNIFORM;
+    private int minCash = 1000;
+    private int maxCash = 100000;
+    private Distribution cashDistribution = Distribution.UNIFORM;
+    private double sparsity = 0.5;
+    private int maxQuantity = 100;
+    private int groups = 1;
+    private long seed = 0;
+
+    /**
+     * Sets the number of investors of the given strategy.
+     *
+     * @param type  the symbol of the strategy
+     * @param count the number of investors
+     * @return this generator
+     * @throws IllegalArgumentException if there's no such strategy or the count is negative
+     */
+    public ScenarioGenerator investors(char type, int count) {
+        if (InvestorStrategies.forSymbol(type) == null) {
+            throw new IllegalArgumentException("Invalid investor type: " + type);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid number of investors: " + count);
+        }
+        investorCounts.put(type, count);
+        return this;
+    }
+
+    /**
+     * Sets the number of stocks.
+     *
+     * @param stocks the number of stocks
+     * @return this generator
+     * @throws IllegalArgumentException if the number isn't between 1 and {@value #MAX_STOCKS}
+     */
+    public ScenarioGenerator stocks(int stocks) {
+        if (stocks < 1 || stocks > MAX_STOCKS) {
+            throw new IllegalArgumentException("Invalid number of stocks: " + stocks);
+        }
+        this.stocks = stocks;
+        return this;
+    }
+
+    /**
+     * Sets the range and distribution of the initial prices of the stocks.
+     *
+     * @param min          the lowest price, positive
+     * @param max          the highest price
+     * @param distribution the distribution of the prices
+     * @return this generator
+     * @throws IllegalArgumentException if the range is empty or not positive
+     */
+    public ScenarioGenerator prices(int min, int max, Distribution distribution) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Invalid price range: " + min + ".." + max);
+        }
+        this.minPrice = min;
+        this.maxPrice = max;
+        this.priceDistribution = distribution;
+        return this;
+    }
+
+    /**
+     * Sets the range and distribution of the initial cash of the groups of investors.
+     *
+     * @param min          the lowest cash, not negative
+     * @param max          the highest cash
+     * @param distribution the distribution of the cash
+     * @return this generator
+     * @throws IllegalArgumentException if the range is empty or negative
+     */
+    public ScenarioGenerator cash(int min, int max, Distribution distribution) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid cash range: " + min + ".." + max);
+        }
+        this.minCash = min;
+        this.maxCash = max;
+        this.cashDistribution = distribution;
+        return this;
+    }
+
+    /**
+     * Sets the sparsity of the portfolios: the probability that a group of investors doesn't hold a stock.
+     *
+     * @param sparsity the sparsity, between 0 (every stock is held) and 1 (no stock is held)
+     * @return this generator
+     * @throws IllegalArgumentException if the sparsity is out of range
+     */
+    public ScenarioGenerator sparsity(double sparsity) {
+        if (!(sparsity >= 0 && sparsity <= 1)) {
+            throw new IllegalArgumentException("Invalid sparsity: " + sparsity);
+        }
+        this.sparsity = sparsity;
+        return this;
+    }
+
+    /**
+     * Sets the largest quantity of a stock held by a group of investors; held quantities are uniform from 1 to it.
+     *
+     * @param maxQuantity the largest quantity
+     * @return this generator
+     * @throws IllegalArgumentException if the quantity isn't positive
+     */
+    public ScenarioGenerator maxQuantity(int maxQuantity) {
+        if (maxQuantity < 1) {
+            throw new IllegalArgumentException("Invalid quantity: " + maxQuantity);
+        }
+        this.maxQuantity = maxQuantity;
+        return this;
+    }
+
+    /**
+     * Sets across how many groups with their own cash and portfolio the investors of every strategy are split.
+     * With a single group, every investor starts the same and the scenario can be written in the original file format.
+     *
+     * @param groups the number of groups
+     * @return this generator
+     * @throws IllegalArgumentException if the number isn't positive
+     */
+    public ScenarioGenerator groups(int groups) {
+        if (groups < 1) {
+            throw new IllegalArgumentException("Invalid number of groups: " + groups);
+        }
+        this.groups = groups;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random values.
+     *
+     * @param seed the seed
+     * @return this generator
+     */
+    public ScenarioGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Returns the identifier of the stock with the given number, in bijective base 26: A, B, ..., Z, AA, AB, ...
+     *
+     * @param number the number of the stock, from 0
+     * @return the identifier
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public static String identifier(int number) {
+        if (number < 0 || number >= MAX_STOCKS) {
+            throw new IllegalArgumentException("Invalid stock number: " + number);
+        }
+        StringBuilder identifier = new StringBuilder();
+        for (int rest = number + 1; rest > 0; rest = (rest - 1) / 26) {
+            identifier.append((char) ('A' + (rest - 1) % 26));
+        }
+        return identifier.reverse().toString();
+    }
+
+    /**
+     * Generates the scenario.
+     *
+     * @return a parser of the scenario, as if it was read from a file
+     * @throws IllegalStateException if no investors were set
+     */
+    public Parser generate() {
+        if (investorCounts.isEmpty()) {
+            throw new IllegalStateException("No investors to generate");
+        }
+        Random random = new Random(seed);
+        Map<String, Integer> stockPrices = new LinkedHashMap<>();
+        for (int number = 0; number < stocks; number++) {
+            stockPrices.put(identifier(number), draw(random, minPrice, maxPrice, priceDistribution));
+        }
+        int[] groupCash = new int[groups];
+        List<Map<String, Integer>> groupPortfolios = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            groupCash[group] = draw(random, minCash, maxCash, cashDistribution);
+            Map<String, Integer> portfolio = new LinkedHashMap<>();
+            for (String identifier : stockPrices.keySet()) {
+                if (random.nextDouble() >= sparsity) {
+                    portfolio.put(identifier, 1 + random.nextInt(maxQuantity));
+                }
+            }
+            groupPortfolios.add(portfolio);
+        }
+        List<InvestorCohort> cohorts = new ArrayList<>();
+        for (Map.Entry<Character, Integer> entry : investorCounts.entrySet()) {
+            int count = entry.getValue();
+            for (int group = 0; group < groups; group++) {
+                // the first groups get the remainder, one investor each
+                int groupCount = count / groups + (group < count % groups ? 1 : 0);
+                if (groupCount > 0) {
+                    cohorts.add(new InvestorCohort(entry.getKey(), groupCount, groupCash[group], groupPortfolios.get(group)));
+                }
+            }
+        }
+        return new Parser(cohorts, stockPrices, Map.of());
+    }
+
+    /**
+     * Draws a value from the given range.
+     *
+     * @param random       the random number generator
+     * @param min          the lowest value
+     * @param max          the highest value
+     * @param distribution the distribution
+     * @return the value
+     */
+    private static int draw(Random random, int min, int max, Distribution distribution) {
+        if (distribution == Distribution.LOG_UNIFORM && min > 0) {
+            double logMin = Math.log(min);
+            double value = Math.exp(logMin + random.nextDouble() * (Math.log(max + 1.0) - logMin));
+            return (int) Math.min(max, Math.floor(value));
+        }
+        return min + (int) (random.nextDouble() * ((long) max - min + 1));
+    }
+
+    /**
+     * Generates the stocks of the scenario straight into a new stock management.
+     *
+     * @return the stock management
+     */
+    public StockManagement createStockManagement() {
+        return new StockManagement(generate());
+    }
+
+    /**
+     * Generates the investors of the scenario straight into a new investor management, in bulk, one cohort at a time.
+     *
+     * @param stockManagement the stock management of the scenario's stocks
+     * @param random          the random number generator of the investors
+     * @return the investor management
+     */
+    public InvestorManagement createInvestorManagement(StockManagement stockManagement, Random random) {
+        return new InvestorManagement(stockManagement, generate().getCohorts(), random);
+    }
+
+    /**
+     * Generates the scenario and writes it to a file read by {@link Parser}: in the original format if the investors
+     * of every strategy form a single group, in the compact text format of {@link CompactScenario} otherwise.
+     * The investors are streamed to the file, so even the original format takes little memory.
+     *
+     * @param path the path of the file, overwritten if it exists
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Path path) throws IOException {
+        Parser parser = generate();
+        if (groups > 1) {
+            CompactScenario.writeText(parser, path);
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# generated: " + parser.getNumberOfInvestors() + " investors, " + stocks + " stocks, seed " + seed);
+            writer.newLine();
+            boolean first = true;
+            for (InvestorCohort cohort : parser.getCohorts()) {
+                for (int i = 0; i < cohort.count(); i++) {
+                    if (!first) {
+                        writer.write(' ');
+                    }
+                    writer.write(cohort.type());
+                    first = false;
+                }
+            }
+            writer.newLine();
+            StringBuilder line = new StringBuilder();
+            for (Map.Entry<String, Integer> stock : parser.getStockPrices().entrySet()) {
+                line.append(line.isEmpty() ? "" : " ").append(stock.getKey()).append(':').append(stock.getValue());
+            }
+            writer.write(line.toString());
+            writer.newLine();
+            line.setLength(0);
+            line.append(parser.getInitialCash());
+            for (Map.Entry<String, Integer> holding : parser.getInitialPortfolio().entrySet()) {
+                line.append(' ').append(holding.getKey()).append(':').append(holding.getValue());
+            }
+            writer.write(line.toString());
+            writer.newLine();
+        }
+    }
+}
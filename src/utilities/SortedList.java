@@ -1,6 +1,7 @@
 package utilities;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -74,6 +75,52 @@ public class SortedList<T> implements Iterable<T> {
         list.remove(element);
     }
 
+    /**
+     * Moves the first occurrence of the specified element behind the elements that compare as equal to it,
+     * as if it was removed and added again, but only shifting the equal elements.
+     *
+     * @param element element to be moved, if present
+     * @return true if the element was present, false otherwise
+     */
+    public boolean moveBehindEqual(T element) {
+        int index = indexOf(element);
+        if (index == -1) {
+            return false;
+        }
+        int end = index + 1;
+        while (end < list.size() && comparator.compare(list.get(end), element) == 0) {
+            end++;
+        }
+        Collections.rotate(list.subList(index, end), -1);
+        return true;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element in this list, or -1 if it isn't present.
+     * Only the elements that compare as equal to it are searched, found by binary search.
+     *
+     * @param element element to search for
+     * @return the index of the element, or -1 if it isn't present
+     */
+    public int indexOf(T element) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(list.get(middle), element) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int index = low; index < list.size() && comparator.compare(list.get(index), element) == 0; index++) {
+            if (element.equals(list.get(index))) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns the element at the specified position in this list.
      *